@@ -58,6 +58,7 @@ public class AllShortestPathsProc {
                 .withDirection(Direction.OUTGOING)
                 .withConcurrency(configuration.getConcurrency())
                 .withAllocationTracker(tracker)
+                .withName(configuration.getGraphName(null))
                 .load(configuration.getGraphImpl());
 
         final MSBFSASPAlgorithm<?> algo;
@@ -52,6 +52,7 @@ public class BetweennessCentralityProc {
                 .withOptionalRelationshipType(relationship)
                 .withoutNodeProperties()
                 .withDirection(Direction.OUTGOING)
+                .withName(configuration.getGraphName(null))
                 .load(configuration.getGraphImpl());
 
         final BetweennessCentralitySuccessorBrandes algo = new BetweennessCentralitySuccessorBrandes(graph,
@@ -85,6 +86,7 @@ public class BetweennessCentralityProc {
                 .withOptionalRelationshipType(relationship)
                 .withoutNodeProperties()
                 .withDirection(configuration.getDirection(DEFAULT_DIRECTION))
+                .withName(configuration.getGraphName(null))
                 .load(configuration.getGraphImpl());
 
         int concurrency = configuration.getConcurrency();
@@ -129,6 +131,7 @@ public class BetweennessCentralityProc {
                     .withOptionalRelationshipType(relationship)
                     .withoutNodeProperties()
                     .withDirection(Direction.OUTGOING)
+                    .withName(configuration.getGraphName(null))
                     .load(configuration.getGraphImpl());
         }
 
@@ -205,6 +208,7 @@ public class BetweennessCentralityProc {
                     .withOptionalRelationshipType(relationship)
                     .withoutNodeProperties()
                     .withDirection(configuration.getDirection(Direction.OUTGOING))
+                    .withName(configuration.getGraphName(null))
                     .load(configuration.getGraphImpl());
         }
 
@@ -259,6 +263,7 @@ public class BetweennessCentralityProc {
                     .withOptionalRelationshipType(relationship)
                     .withoutNodeProperties()
                     .withDirection(configuration.getDirection(Direction.OUTGOING))
+                    .withName(configuration.getGraphName(null))
                     .load(configuration.getGraphImpl());
         }
 
@@ -57,6 +57,7 @@ public class ClosenessCentralityProc {
                 .withConcurrency(configuration.getConcurrency())
                 .withDirection(Direction.OUTGOING)
                 .withAllocationTracker(tracker)
+                .withName(configuration.getGraphName(null))
                 .load(configuration.getGraphImpl());
 
         final MSBFSCCAlgorithm<?> algo = newAlgo(tracker, graph, configuration.getConcurrency());
@@ -115,6 +116,7 @@ public class ClosenessCentralityProc {
                     .withConcurrency(concurrency)
                     .withDirection(Direction.OUTGOING)
                     .withAllocationTracker(tracker)
+                    .withName(configuration.getGraphName(null))
                     .load(configuration.getGraphImpl());
         }
 
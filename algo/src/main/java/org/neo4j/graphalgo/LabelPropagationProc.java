@@ -1,5 +1,7 @@
 package org.neo4j.graphalgo;
 
+import org.neo4j.graphalgo.api.Graph;
+import org.neo4j.graphalgo.api.HugeGraph;
 import org.neo4j.graphalgo.core.GraphLoader;
 import org.neo4j.graphalgo.core.ProcedureConfiguration;
 import org.neo4j.graphalgo.core.heavyweight.HeavyGraph;
@@ -73,7 +75,7 @@ public final class LabelPropagationProc {
                 .partitionProperty(partitionProperty)
                 .weightProperty(weightProperty);
 
-        HeavyGraph graph = load(
+        Graph graph = load(
                 configuration.getNodeLabelOrQuery(),
                 configuration.getRelationshipOrQuery(),
                 direction,
@@ -81,6 +83,7 @@ public final class LabelPropagationProc {
                 weightProperty,
                 batchSize,
                 concurrency,
+                configuration,
                 stats);
 
         int[] labels = compute(direction, iterations, batchSize, concurrency, graph, stats);
@@ -91,7 +94,7 @@ public final class LabelPropagationProc {
         return Stream.of(stats.build());
     }
 
-    private HeavyGraph load(
+    private Graph load(
             String label,
             String relationshipType,
             Direction direction,
@@ -99,10 +102,12 @@ public final class LabelPropagationProc {
             String weightKey,
             int batchSize,
             int concurrency,
+            ProcedureConfiguration configuration,
             LabelPropagationStats.Builder stats) {
 
+        final Graph graph;
         try (ProgressTimer timer = stats.timeLoad()) {
-            return (HeavyGraph) new GraphLoader(dbAPI, Pools.DEFAULT)
+            graph = new GraphLoader(dbAPI, Pools.DEFAULT)
                     .withLog(log)
                     .withOptionalLabel(label)
                     .withOptionalRelationshipType(relationshipType)
@@ -112,8 +117,13 @@ public final class LabelPropagationProc {
                     .withDirection(direction)
                     .withBatchSize(batchSize)
                     .withConcurrency(concurrency)
-                    .load(HeavyGraphFactory.class);
+                    .withName(configuration.getGraphName(null))
+                    .load(configuration.getGraphImpl(HeavyGraphFactory.class));
         }
+        if (!(graph instanceof HeavyGraph || graph instanceof HugeGraph)) {
+            throw new IllegalArgumentException("Label propagation requires a graph of type 'heavy' or 'huge'");
+        }
+        return graph;
     }
 
     private int[] compute(
@@ -121,12 +131,14 @@ public final class LabelPropagationProc {
             int iterations,
             int batchSize,
             int concurrency,
-            HeavyGraph graph,
+            Graph graph,
             LabelPropagationStats.Builder stats) {
         try (ProgressTimer timer = stats.timeEval()) {
             ExecutorService pool = batchSize > 0 ? Pools.DEFAULT : null;
             batchSize = Math.max(1, batchSize);
-            final LabelPropagation labelPropagation = new LabelPropagation(graph, batchSize, concurrency, pool);
+            final LabelPropagation labelPropagation = graph instanceof HugeGraph
+                    ? new LabelPropagation((HugeGraph) graph, batchSize, concurrency, pool)
+                    : new LabelPropagation((HeavyGraph) graph, batchSize, concurrency, pool);
             labelPropagation
                     .withProgressLogger(ProgressLogger.wrap(
                             log,
@@ -148,7 +160,7 @@ public final class LabelPropagationProc {
     private void write(
             int concurrency,
             String partitionKey,
-            HeavyGraph graph,
+            Graph graph,
             int[] labels,
             LabelPropagationStats.Builder stats) {
         stats.write(true);
@@ -0,0 +1,391 @@
+package org.neo4j.graphalgo;
+
+import org.neo4j.graphalgo.api.Graph;
+import org.neo4j.graphalgo.api.GraphFactory;
+import org.neo4j.graphalgo.api.HugeGraph;
+import org.neo4j.graphalgo.core.GraphLoader;
+import org.neo4j.graphalgo.core.ProcedureConfiguration;
+import org.neo4j.graphalgo.core.ProcedureConstants;
+import org.neo4j.graphalgo.core.huge.HugeGraphImpl;
+import org.neo4j.graphalgo.core.huge.HugeGraphSnapshot;
+import org.neo4j.graphalgo.core.huge.NodeOrdering;
+import org.neo4j.graphalgo.core.huge.RelationshipAggregation;
+import org.neo4j.graphalgo.core.loading.GraphCatalog;
+import org.neo4j.graphalgo.core.loading.GraphDelta;
+import org.neo4j.graphalgo.core.loading.LoadGraphFactory;
+import org.neo4j.graphalgo.core.utils.Pools;
+import org.neo4j.graphalgo.core.utils.ProgressTimer;
+import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
+import org.neo4j.graphdb.Direction;
+import org.neo4j.kernel.configuration.Config;
+import org.neo4j.kernel.internal.GraphDatabaseAPI;
+import org.neo4j.logging.Log;
+import org.neo4j.procedure.Context;
+import org.neo4j.procedure.Description;
+import org.neo4j.procedure.Name;
+import org.neo4j.procedure.Procedure;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Procedures to manage the named graphs of the {@link GraphCatalog}.
+ * A loaded graph can be used by all algorithms by passing its name
+ * as the graph param, e.g. {@code {graph:'myGraph'}}. An algorithm that asks for
+ * a direction or weights that the named graph has not been loaded with fails.
+ */
+public final class LoadGraphProc {
+
+    public static final String CONFIG_NODE_WEIGHT = "nodeWeight";
+    public static final String CONFIG_NODE_PROPERTY = "nodeProperty";
+    public static final String CONFIG_MAX_MEMORY = "maxMemory";
+    public static final String CONFIG_OFF_HEAP = "offHeap";
+    public static final String CONFIG_NODE_ORDERING = "nodeOrdering";
+    public static final String CONFIG_UNDIRECTED = "undirected";
+    public static final String CONFIG_RELATIONSHIP_AGGREGATION = "aggregation";
+    public static final String CONFIG_INCREMENTAL = "incremental";
+
+    /**
+     * Database setting of the directory that holds the snapshot files,
+     * defaults to {@code graph-snapshots} inside of the store directory.
+     */
+    public static final String SETTING_SNAPSHOT_DIRECTORY = "algo.graph.snapshot_directory";
+    public static final String DEFAULT_SNAPSHOT_DIRECTORY = "graph-snapshots";
+
+    @Context
+    public GraphDatabaseAPI api;
+
+    @Context
+    public Log log;
+
+    @Procedure("algo.graph.load")
+    @Description("CALL algo.graph.load(name:String, label:String, relationship:String, " +
+            "{graph:'heavy', direction:'BOTH', weightProperty:'weight', defaultValue:1.0, " +
+            "nodeWeight:null, nodeProperty:null, concurrency:4, maxMemory:null, offHeap:false, nodeOrdering:'none', undirected:false, aggregation:'none', incremental:false}) " +
+            "YIELD name, graph, nodes, loadMillis, memoryBytes, evicted, averageIdGapBefore, averageIdGapAfter - " +
+            "loads a graph and keeps it in memory under the given name, " +
+            "a huge graph can relabel its nodes by 'degree' or 'bfs' order to improve the locality " +
+            "and store its relationships only once per node as undirected, " +
+            "parallel relationships can be merged by 'sum', 'min', 'max' or 'count' of their weights, " +
+            "an incremental heavy or huge graph follows the transactions that are committed during and after the load")
+    public Stream<LoadGraphStats> load(
+            @Name(value = "name") String name,
+            @Name(value = "label", defaultValue = "") String label,
+            @Name(value = "relationship", defaultValue = "") String relationship,
+            @Name(value = "config", defaultValue = "{}") Map<String, Object> config) {
+
+        final ProcedureConfiguration configuration = ProcedureConfiguration.create(config)
+                .overrideNodeLabelOrQuery(label)
+                .overrideRelationshipTypeOrQuery(relationship);
+
+        if (GraphCatalog.exists(name)) {
+            throw new IllegalArgumentException("A graph with the name '" + name + "' is already loaded");
+        }
+        final Class<? extends GraphFactory> graphImpl = configuration.getGraphImpl();
+        if (graphImpl == LoadGraphFactory.class) {
+            throw new IllegalArgumentException("Cannot load a graph from the named graph '" +
+                    configuration.getGraphName(null) + "'");
+        }
+        final String type = configuration.getGraphName(ProcedureConstants.DEFAULT_GRAPH_IMPL);
+        final long budget = configuration.getNumber(CONFIG_MAX_MEMORY, GraphCatalog.defaultBudget()).longValue();
+        final Direction direction = configuration.getDirection(Direction.BOTH);
+        final boolean undirected = configuration.get(CONFIG_UNDIRECTED, false);
+        final boolean incremental = configuration.get(CONFIG_INCREMENTAL, false);
+
+        // taken before the load, so that a transaction committed while loading makes a snapshot stale
+        final long transactionId = HugeGraphSnapshot.lastCommittedTransactionId(api);
+        final AllocationTracker tracker = AllocationTracker.create();
+        final GraphFactory factory;
+        final Graph graph;
+        final long loadMillis;
+        try (ProgressTimer timer = ProgressTimer.start()) {
+            factory = new GraphLoader(api, Pools.DEFAULT)
+                    .withLog(log)
+                    .withAllocationTracker(tracker)
+                    .withOptionalLabel(configuration.getNodeLabelOrQuery())
+                    .withOptionalRelationshipType(configuration.getRelationshipOrQuery())
+                    .withOptionalRelationshipWeightsFromProperty(
+                            configuration.getProperty(),
+                            configuration.getPropertyDefaultValue(1.0))
+                    .withOptionalNodeWeightsFromProperty(
+                            configuration.getString(CONFIG_NODE_WEIGHT, null),
+                            1.0)
+                    .withOptionalNodeProperty(
+                            configuration.getString(CONFIG_NODE_PROPERTY, null),
+                            0.0)
+                    .withDirection(direction)
+                    .withConcurrency(configuration.getConcurrency())
+                    .withBatchSize(configuration.getBatchSize())
+                    .withOffHeap(configuration.get(CONFIG_OFF_HEAP, false))
+                    .withNodeOrdering(NodeOrdering.parse(configuration.getString(CONFIG_NODE_ORDERING, null)))
+                    .asUndirected(undirected)
+                    .withRelationshipAggregation(RelationshipAggregation.parse(
+                            configuration.getString(CONFIG_RELATIONSHIP_AGGREGATION, null)))
+                    .build(graphImpl);
+            graph = incremental
+                    ? factory.buildIncremental(GraphDelta.DEFAULT_COMPACTION_THRESHOLD)
+                    : factory.build();
+            timer.stop();
+            loadMillis = timer.getDuration();
+        }
+
+        final long bytes = Math.max(tracker.tracked(), estimatedMinimum(factory));
+        final List<String> evicted = GraphCatalog.put(
+                name,
+                graph,
+                type,
+                bytes,
+                budget,
+                transactionId,
+                relationshipCount(graph, direction),
+                undirected && graph instanceof HugeGraph ? Direction.BOTH : direction,
+                configuration.getProperty());
+        if (!evicted.isEmpty()) {
+            log.info("Evicted graphs " + evicted + " to load graph '" + name + "'");
+        }
+        final NodeOrdering.Locality locality = graph instanceof HugeGraphImpl
+                ? ((HugeGraphImpl) graph).locality()
+                : null;
+        return Stream.of(new LoadGraphStats(
+                name,
+                type,
+                graph.nodeCount(),
+                loadMillis,
+                bytes,
+                evicted,
+                locality));
+    }
+
+    @Procedure("algo.graph.save")
+    @Description("CALL algo.graph.save(name:String, file:String) YIELD name, graph, nodes, memoryBytes, removed - " +
+            "writes the named huge graph into a snapshot file, which can be restored with algo.graph.restore, " +
+            "the file is relative to the directory of the '" + SETTING_SNAPSHOT_DIRECTORY + "' setting")
+    public Stream<GraphInfo> save(
+            @Name(value = "name") String name,
+            @Name(value = "file") String file) {
+        final GraphCatalog.Entry entry = GraphCatalog.entry(name);
+        if (entry == null) {
+            throw new IllegalArgumentException("There is no graph with the name '" + name + "'");
+        }
+        if (!(entry.graph instanceof HugeGraph)) {
+            throw new IllegalArgumentException("Only graphs of type 'huge' can be saved");
+        }
+        if (!(entry.graph instanceof HugeGraphImpl)) {
+            throw new IllegalArgumentException("An incremental graph changes with every transaction and cannot be saved");
+        }
+        final File snapshot = snapshotFile(file);
+        try {
+            Files.createDirectories(snapshot.toPath().getParent());
+            // the graph reflects the store as of its load, any later transaction makes the snapshot stale
+            HugeGraphSnapshot.write((HugeGraph) entry.graph, snapshot, entry.transactionId, entry.weightProperty);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return Stream.of(new GraphInfo(entry, false));
+    }
+
+    @Procedure("algo.graph.restore")
+    @Description("CALL algo.graph.restore(name:String, file:String, {maxMemory:null}) " +
+            "YIELD name, graph, nodes, loadMillis, memoryBytes, evicted - " +
+            "restores a graph from a snapshot file and keeps it in memory under the given name, " +
+            "fails if the database has been changed since the snapshot was written, " +
+            "the file is relative to the directory of the '" + SETTING_SNAPSHOT_DIRECTORY + "' setting")
+    public Stream<LoadGraphStats> restore(
+            @Name(value = "name") String name,
+            @Name(value = "file") String file,
+            @Name(value = "config", defaultValue = "{}") Map<String, Object> config) {
+        final ProcedureConfiguration configuration = ProcedureConfiguration.create(config);
+        if (GraphCatalog.exists(name)) {
+            throw new IllegalArgumentException("A graph with the name '" + name + "' is already loaded");
+        }
+        final long budget = configuration.getNumber(CONFIG_MAX_MEMORY, GraphCatalog.defaultBudget()).longValue();
+        final File snapshot = snapshotFile(file);
+
+        // reading fails unless the snapshot was written at exactly this transaction
+        final long transactionId = HugeGraphSnapshot.lastCommittedTransactionId(api);
+        final AllocationTracker tracker = AllocationTracker.create();
+        final HugeGraphSnapshot.Header header;
+        final HugeGraphImpl graph;
+        final long loadMillis;
+        try (ProgressTimer timer = ProgressTimer.start()) {
+            header = HugeGraphSnapshot.header(snapshot);
+            graph = (HugeGraphImpl) HugeGraphSnapshot.read(api, snapshot, tracker);
+            timer.stop();
+            loadMillis = timer.getDuration();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        final List<String> evicted = GraphCatalog.put(
+                name,
+                graph,
+                "huge",
+                tracker.tracked(),
+                budget,
+                transactionId,
+                graph.relationshipCount(),
+                graph.loadedDirection(),
+                header.weightProperty);
+        if (!evicted.isEmpty()) {
+            log.info("Evicted graphs " + evicted + " to restore graph '" + name + "'");
+        }
+        return Stream.of(new LoadGraphStats(
+                name,
+                "huge",
+                graph.nodeCount(),
+                loadMillis,
+                tracker.tracked(),
+                evicted,
+                null));
+    }
+
+    /**
+     * Not every graph type records all of its memory in the tracker,
+     * so the budget is charged at least the estimated minimum.
+     */
+    private static long estimatedMinimum(GraphFactory factory) {
+        try {
+            return factory.memoryEstimation().min;
+        } catch (UnsupportedOperationException e) {
+            return 0L;
+        }
+    }
+
+    /**
+     * Sums the degrees of a single loaded direction, so that every relationship is counted once.
+     */
+    private static long relationshipCount(Graph graph, Direction direction) {
+        if (graph instanceof HugeGraphImpl) {
+            return ((HugeGraphImpl) graph).relationshipCount();
+        }
+        final Direction counted = direction == Direction.INCOMING ? Direction.INCOMING : Direction.OUTGOING;
+        final long[] count = {0L};
+        if (graph instanceof HugeGraph) {
+            final HugeGraph huge = (HugeGraph) graph;
+            huge.forEachNode((long node) -> {
+                count[0] += huge.degree(node, counted);
+                return true;
+            });
+        } else {
+            graph.forEachNode((int node) -> {
+                count[0] += graph.degree(node, counted);
+                return true;
+            });
+        }
+        return count[0];
+    }
+
+    /**
+     * Resolves the file name of a snapshot against the snapshot directory.
+     *
+     * @throws IllegalArgumentException if the name is absolute or leaves the snapshot directory
+     */
+    private File snapshotFile(String file) {
+        if (file == null || file.isEmpty()) {
+            throw new IllegalArgumentException("The snapshot file must not be empty");
+        }
+        final Path name = Paths.get(file);
+        if (name.isAbsolute()) {
+            throw new IllegalArgumentException("The snapshot file '" + file +
+                    "' must be relative to the snapshot directory");
+        }
+        for (Path part : name) {
+            if ("..".equals(part.toString())) {
+                throw new IllegalArgumentException("The snapshot file '" + file +
+                        "' must not leave the snapshot directory");
+            }
+        }
+        final Path directory = snapshotDirectory().toAbsolutePath().normalize();
+        final Path resolved = directory.resolve(name).normalize();
+        if (!resolved.startsWith(directory) || resolved.equals(directory)) {
+            throw new IllegalArgumentException("The snapshot file '" + file +
+                    "' must not leave the snapshot directory");
+        }
+        return resolved.toFile();
+    }
+
+    private Path snapshotDirectory() {
+        return api.getDependencyResolver()
+                .resolveDependency(Config.class)
+                .getRaw(SETTING_SNAPSHOT_DIRECTORY)
+                .map(Paths::get)
+                .orElseGet(() -> Paths.get(api.getStoreDir(), DEFAULT_SNAPSHOT_DIRECTORY));
+    }
+
+    @Procedure("algo.graph.remove")
+    @Description("CALL algo.graph.remove(name:String) YIELD name, graph, nodes, memoryBytes, removed - " +
+            "removes the named graph from memory")
+    public Stream<GraphInfo> remove(@Name(value = "name") String name) {
+        final GraphCatalog.Entry entry = GraphCatalog.remove(name);
+        if (entry == null) {
+            return Stream.of(new GraphInfo(name, null, 0L, 0L, false));
+        }
+        return Stream.of(new GraphInfo(entry, true));
+    }
+
+    @Procedure("algo.graph.list")
+    @Description("CALL algo.graph.list() YIELD name, graph, nodes, memoryBytes - " +
+            "lists all named graphs, from the least to the most recently used one")
+    public Stream<GraphInfo> list() {
+        return GraphCatalog.list()
+                .stream()
+                .map(entry -> new GraphInfo(entry, false));
+    }
+
+    public static class LoadGraphStats {
+        public final String name;
+        public final String graph;
+        public final long nodes;
+        public final long loadMillis;
+        public final long memoryBytes;
+        public final List<String> evicted;
+        // average distance of the node ids of all relationships, 0 if the nodes have not been reordered
+        public final double averageIdGapBefore;
+        public final double averageIdGapAfter;
+
+        public LoadGraphStats(
+                String name,
+                String graph,
+                long nodes,
+                long loadMillis,
+                long memoryBytes,
+                List<String> evicted,
+                NodeOrdering.Locality locality) {
+            this.name = name;
+            this.graph = graph;
+            this.nodes = nodes;
+            this.loadMillis = loadMillis;
+            this.memoryBytes = memoryBytes;
+            this.evicted = evicted;
+            this.averageIdGapBefore = locality != null ? locality.averageIdGapBefore : 0.0;
+            this.averageIdGapAfter = locality != null ? locality.averageIdGapAfter : 0.0;
+        }
+    }
+
+    public static class GraphInfo {
+        public final String name;
+        public final String graph;
+        public final long nodes;
+        public final long memoryBytes;
+        public final boolean removed;
+
+        public GraphInfo(GraphCatalog.Entry entry, boolean removed) {
+            this(entry.name, entry.type, entry.graph.nodeCount(), entry.bytes, removed);
+        }
+
+        public GraphInfo(String name, String graph, long nodes, long memoryBytes, boolean removed) {
+            this.name = name;
+            this.graph = graph;
+            this.nodes = nodes;
+            this.memoryBytes = memoryBytes;
+            this.removed = removed;
+        }
+    }
+}
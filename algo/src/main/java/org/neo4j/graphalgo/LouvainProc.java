@@ -128,14 +128,19 @@ public class LouvainProc {
     }
 
     private HeavyGraph load(ProcedureConfiguration config) {
-        return (HeavyGraph) new GraphLoader(api, Pools.DEFAULT)
+        final Graph graph = new GraphLoader(api, Pools.DEFAULT)
                 .withOptionalLabel(config.getNodeLabelOrQuery())
                 .withOptionalRelationshipType(config.getRelationshipOrQuery())
                 .withOptionalRelationshipWeightsFromProperty(
                         config.getProperty(),
                         config.getPropertyDefaultValue(1.0))
                 .withDirection(Direction.BOTH)
-                .load(HeavyGraphFactory.class);
+                .withName(config.getGraphName(null))
+                .load(config.getGraphImpl(HeavyGraphFactory.class));
+        if (!(graph instanceof HeavyGraph)) {
+            throw new IllegalArgumentException("Louvain requires a graph of type 'heavy'");
+        }
+        return (HeavyGraph) graph;
     }
 
     private void write(Graph graph, int[] communities, ProcedureConfiguration configuration) {
@@ -98,6 +98,7 @@ public class MSColoringProc {
                         config.getProperty(),
                         config.getPropertyDefaultValue(1.0))
                 .withDirection(Direction.OUTGOING)
+                .withName(config.getGraphName(null))
                 .load(config.getGraphImpl());
     }
 
@@ -0,0 +1,233 @@
+package org.neo4j.graphalgo;
+
+import org.neo4j.graphalgo.api.GraphFactory;
+import org.neo4j.graphalgo.core.GraphDimensions;
+import org.neo4j.graphalgo.core.GraphLoader;
+import org.neo4j.graphalgo.core.ProcedureConfiguration;
+import org.neo4j.graphalgo.core.ProcedureConstants;
+import org.neo4j.graphalgo.core.heavyweight.HeavyGraphFactory;
+import org.neo4j.graphalgo.core.loading.GraphCatalog;
+import org.neo4j.graphalgo.core.utils.Pools;
+import org.neo4j.graphalgo.core.utils.paged.MemoryRange;
+import org.neo4j.graphalgo.impl.GraphUnionFind;
+import org.neo4j.graphalgo.impl.LabelPropagation;
+import org.neo4j.graphalgo.impl.PageRankAlgorithm;
+import org.neo4j.graphdb.Direction;
+import org.neo4j.kernel.internal.GraphDatabaseAPI;
+import org.neo4j.logging.Log;
+import org.neo4j.procedure.Context;
+import org.neo4j.procedure.Description;
+import org.neo4j.procedure.Name;
+import org.neo4j.procedure.Procedure;
+
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Estimates the memory of loading a graph and running an algorithm on it,
+ * without loading anything. The estimation is based on the {@link GraphDimensions}
+ * of the store and the estimations of the graph implementation and the algorithm.
+ */
+public final class MemRecProc {
+
+    @Context
+    public GraphDatabaseAPI api;
+
+    @Context
+    public Log log;
+
+    @Procedure("algo.memrec")
+    @Description("CALL algo.memrec(algorithm:String, label:String, relationship:String, " +
+            "{graph:'heavy', direction:'OUTGOING', weightProperty:null, concurrency:4}) " +
+            "YIELD algorithm, graph, nodes, relationships, loadMinBytes, loadMaxBytes, " +
+            "computeMinBytes, computeMaxBytes, minBytes, maxBytes, requiredMemory, availableBytes, message - " +
+            "estimates the memory to load the graph and to run one of 'pageRank', 'unionFind' or 'labelPropagation' on it; " +
+            "pass null as algorithm to only estimate the graph, the message explains an estimation that is not supported")
+    public Stream<MemRecResult> memrec(
+            @Name(value = "algorithm", defaultValue = "") String algorithm,
+            @Name(value = "label", defaultValue = "") String label,
+            @Name(value = "relationship", defaultValue = "") String relationship,
+            @Name(value = "config", defaultValue = "{}") Map<String, Object> config) {
+
+        final ProcedureConfiguration configuration = ProcedureConfiguration.create(config)
+                .overrideNodeLabelOrQuery(label)
+                .overrideRelationshipTypeOrQuery(relationship);
+        final Algorithm algo = Algorithm.parse(algorithm);
+        final int concurrency = configuration.getConcurrency();
+        final String graphName = configuration.getGraphName(null);
+        final boolean namedGraph = GraphCatalog.exists(graphName);
+        final Class<? extends GraphFactory> graphImpl = algo == Algorithm.LABEL_PROPAGATION
+                ? configuration.getGraphImpl(HeavyGraphFactory.class)
+                : configuration.getGraphImpl();
+
+        final GraphLoader loader = new GraphLoader(api, Pools.DEFAULT)
+                .withLog(log)
+                .withOptionalLabel(configuration.getNodeLabelOrQuery())
+                .withOptionalRelationshipType(configuration.getRelationshipOrQuery())
+                .withOptionalRelationshipWeightsFromProperty(
+                        configuration.getProperty(),
+                        configuration.getPropertyDefaultValue(1.0))
+                .withDirection(algo.direction(configuration))
+                .withConcurrency(concurrency)
+                .withName(graphName);
+        if (algo == Algorithm.LABEL_PROPAGATION) {
+            // label propagation also loads the node weights and the initial partitions
+            final String weightProperty = configuration.getString(
+                    LabelPropagationProc.CONFIG_WEIGHT_KEY,
+                    LabelPropagationProc.DEFAULT_WEIGHT_KEY);
+            loader.withOptionalRelationshipWeightsFromProperty(weightProperty, 1.0)
+                    .withOptionalNodeWeightsFromProperty(weightProperty, 1.0)
+                    .withOptionalNodeProperty(configuration.getString(
+                            LabelPropagationProc.CONFIG_PARTITION_KEY,
+                            LabelPropagationProc.DEFAULT_PARTITION_KEY), 0.0);
+        }
+        final GraphFactory factory = loader.build(graphImpl);
+
+        final GraphDimensions dimensions = factory.dimensions();
+        long relationships = dimensions.maxRelCount();
+        long nodes = dimensions.hugeNodeCount();
+        if (namedGraph) {
+            // the dimensions of the store might include nodes and relationships that are not part of the named graph
+            GraphCatalog.Entry entry = GraphCatalog.entry(graphName);
+            nodes = entry.graph.nodeCount();
+            relationships = entry.relationships;
+        }
+
+        final MemoryRange load = factory.memoryEstimation();
+        String message = null;
+        MemoryRange compute = MemoryRange.empty();
+        if (nodes > algo.maxNodes) {
+            message = String.format(
+                    "%s supports at most %d nodes but the graph has %d nodes, only the graph has been estimated",
+                    algo.name,
+                    algo.maxNodes,
+                    nodes);
+        } else {
+            compute = algo.estimate(nodes, relationships, configuration);
+        }
+        return Stream.of(new MemRecResult(
+                algo.name,
+                namedGraph ? graphName : configuration.getGraphName(ProcedureConstants.DEFAULT_GRAPH_IMPL),
+                nodes,
+                relationships,
+                load,
+                compute,
+                availableMemory(),
+                message));
+    }
+
+    private static long availableMemory() {
+        Runtime rt = Runtime.getRuntime();
+        return rt.maxMemory() - rt.totalMemory() + rt.freeMemory();
+    }
+
+    private enum Algorithm {
+        NONE(null, Long.MAX_VALUE) {
+            @Override
+            MemoryRange estimate(long nodes, long relationships, ProcedureConfiguration configuration) {
+                return MemoryRange.empty();
+            }
+        },
+        PAGE_RANK("pageRank", Long.MAX_VALUE) {
+            @Override
+            MemoryRange estimate(long nodes, long relationships, ProcedureConfiguration configuration) {
+                return PageRankAlgorithm.memoryEstimation(
+                        nodes,
+                        configuration.getConcurrency(),
+                        configuration.getProperty() != null,
+                        PageRankProc.pull(configuration),
+                        PageRankProc.floatPrecision(configuration));
+            }
+
+            @Override
+            Direction direction(ProcedureConfiguration configuration) {
+                // like PageRankProc, which ignores the direction
+                return PageRankProc.pull(configuration) ? Direction.BOTH : Direction.OUTGOING;
+            }
+        },
+        UNION_FIND("unionFind", Integer.MAX_VALUE) {
+            @Override
+            MemoryRange estimate(long nodes, long relationships, ProcedureConfiguration configuration) {
+                return GraphUnionFind.memoryEstimation((int) nodes);
+            }
+        },
+        LABEL_PROPAGATION("labelPropagation", Integer.MAX_VALUE) {
+            @Override
+            MemoryRange estimate(long nodes, long relationships, ProcedureConfiguration configuration) {
+                return LabelPropagation.memoryEstimation((int) nodes, relationships, configuration.getConcurrency());
+            }
+        };
+
+        private final String name;
+        // the int based implementations cannot run on more nodes
+        private final long maxNodes;
+
+        Algorithm(String name, long maxNodes) {
+            this.name = name;
+            this.maxNodes = maxNodes;
+        }
+
+        abstract MemoryRange estimate(long nodes, long relationships, ProcedureConfiguration configuration);
+
+        /**
+         * @return the direction that the procedure of the algorithm loads the graph with
+         */
+        Direction direction(ProcedureConfiguration configuration) {
+            return configuration.getDirection(Direction.OUTGOING);
+        }
+
+        static Algorithm parse(String name) {
+            if (name == null || name.isEmpty()) {
+                return NONE;
+            }
+            for (Algorithm algorithm : values()) {
+                if (name.equalsIgnoreCase(algorithm.name)) {
+                    return algorithm;
+                }
+            }
+            throw new IllegalArgumentException("Unknown algorithm '" + name +
+                    "', expected one of 'pageRank', 'unionFind' or 'labelPropagation'");
+        }
+    }
+
+    public static class MemRecResult {
+        public final String algorithm;
+        public final String graph;
+        public final long nodes;
+        public final long relationships;
+        public final long loadMinBytes;
+        public final long loadMaxBytes;
+        public final long computeMinBytes;
+        public final long computeMaxBytes;
+        public final long minBytes;
+        public final long maxBytes;
+        public final String requiredMemory;
+        public final long availableBytes;
+        public final String message;
+
+        public MemRecResult(
+                String algorithm,
+                String graph,
+                long nodes,
+                long relationships,
+                MemoryRange load,
+                MemoryRange compute,
+                long availableBytes,
+                String message) {
+            MemoryRange total = load.add(compute);
+            this.algorithm = algorithm;
+            this.graph = graph;
+            this.nodes = nodes;
+            this.relationships = relationships;
+            this.loadMinBytes = load.min;
+            this.loadMaxBytes = load.max;
+            this.computeMinBytes = compute.min;
+            this.computeMaxBytes = compute.max;
+            this.minBytes = total.min;
+            this.maxBytes = total.max;
+            this.requiredMemory = total.toString();
+            this.availableBytes = availableBytes;
+            this.message = message;
+        }
+    }
+}
@@ -1,10 +1,10 @@
 package org.neo4j.graphalgo;
 
 import org.neo4j.graphalgo.api.Graph;
-import org.neo4j.graphalgo.api.GraphFactory;
 import org.neo4j.graphalgo.api.HugeGraph;
 import org.neo4j.graphalgo.core.GraphLoader;
 import org.neo4j.graphalgo.core.ProcedureConfiguration;
+import org.neo4j.graphalgo.core.ProcedureConstants;
 import org.neo4j.graphalgo.core.utils.Pools;
 import org.neo4j.graphalgo.core.utils.ProgressTimer;
 import org.neo4j.graphalgo.core.utils.TerminationFlag;
@@ -13,8 +13,12 @@ import org.neo4j.graphalgo.core.write.Exporter;
 import org.neo4j.graphalgo.impl.PageRankResult;
 import org.neo4j.graphalgo.impl.Algorithm;
 import org.neo4j.graphalgo.impl.PageRankAlgorithm;
+import org.neo4j.graphalgo.impl.PageRankSources;
+import org.neo4j.graphalgo.impl.PersonalizedPageRankBatch;
 import org.neo4j.graphalgo.results.PageRankScore;
+import org.neo4j.graphalgo.results.PersonalizedPageRankScore;
 import org.neo4j.graphdb.Direction;
+import org.neo4j.graphdb.Node;
 import org.neo4j.kernel.api.KernelTransaction;
 import org.neo4j.kernel.internal.GraphDatabaseAPI;
 import org.neo4j.logging.Log;
@@ -24,6 +28,8 @@ import org.neo4j.procedure.Mode;
 import org.neo4j.procedure.Name;
 import org.neo4j.procedure.Procedure;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.stream.IntStream;
 import java.util.stream.LongStream;
@@ -32,10 +38,23 @@ import java.util.stream.Stream;
 public final class PageRankProc {
 
     public static final String CONFIG_DAMPING = "dampingFactor";
+    public static final String CONFIG_TOLERANCE = "tolerance";
+    public static final String CONFIG_SOURCE_NODES = "sourceNodes";
+    public static final String CONFIG_SOURCE_WEIGHTS = "sourceWeights";
+    public static final String CONFIG_TOP_K = "topK";
+    public static final String CONFIG_SETS_PER_PASS = "setsPerPass";
+    public static final String CONFIG_MODE = "mode";
+    public static final String CONFIG_PRECISION = "precision";
 
     public static final Double DEFAULT_DAMPING = 0.85;
+    public static final Double DEFAULT_TOLERANCE = 0.0;
     public static final Integer DEFAULT_ITERATIONS = 20;
     public static final String DEFAULT_SCORE_PROPERTY = "pagerank";
+    public static final Integer DEFAULT_TOP_K = 10;
+    public static final String MODE_PUSH = "push";
+    public static final String MODE_PULL = "pull";
+    public static final String PRECISION_DOUBLE = "double";
+    public static final String PRECISION_FLOAT = "float";
 
     @Context
     public GraphDatabaseAPI api;
@@ -48,8 +67,8 @@ public final class PageRankProc {
 
     @Procedure(value = "algo.pageRank", mode = Mode.WRITE)
     @Description("CALL algo.pageRank(label:String, relationship:String, " +
-            "{iterations:5, dampingFactor:0.85, write: true, writeProperty:'pagerank', concurrency:4}) " +
-            "YIELD nodes, iterations, loadMillis, computeMillis, writeMillis, dampingFactor, write, writeProperty" +
+            "{iterations:5, dampingFactor:0.85, tolerance:0.0, weightProperty:null, defaultValue:1.0, sourceNodes:[], sourceWeights:[], mode:'push', precision:'double', write: true, writeProperty:'pagerank', concurrency:4}) " +
+            "YIELD nodes, iterations, loadMillis, computeMillis, writeMillis, dampingFactor, didConverge, write, writeProperty" +
             " - calculates page rank and potentially writes back")
     public Stream<PageRankScore.Stats> pageRank(
             @Name(value = "label", defaultValue = "") String label,
@@ -60,9 +79,13 @@ public final class PageRankProc {
 
         PageRankScore.Stats.Builder statsBuilder = new PageRankScore.Stats.Builder();
         AllocationTracker tracker = AllocationTracker.create();
-        final Graph graph = load(label, relationship, tracker, configuration.getGraphImpl(), statsBuilder);
+        final Graph graph = load(label, relationship, tracker, configuration, statsBuilder);
         TerminationFlag terminationFlag = TerminationFlag.wrap(transaction);
-        PageRankResult scores = evaluate(graph, tracker, terminationFlag, configuration, statsBuilder);
+        PageRankSources sources = sources(
+                graph,
+                configuration.get(CONFIG_SOURCE_NODES),
+                configuration.get(CONFIG_SOURCE_WEIGHTS));
+        PageRankResult scores = evaluate(graph, tracker, terminationFlag, sources, configuration, statsBuilder);
 
         log.info("PageRank: overall memory usage: %s", tracker.getUsageString());
 
@@ -73,7 +96,7 @@ public final class PageRankProc {
 
     @Procedure(value = "algo.pageRank.stream", mode = Mode.READ)
     @Description("CALL algo.pageRank.stream(label:String, relationship:String, " +
-            "{iterations:20, dampingFactor:0.85, concurrency:4}) " +
+            "{iterations:20, dampingFactor:0.85, tolerance:0.0, weightProperty:null, defaultValue:1.0, sourceNodes:[], sourceWeights:[], mode:'push', precision:'double', concurrency:4}) " +
             "YIELD node, score - calculates page rank and streams results")
     public Stream<PageRankScore> pageRankStream(
             @Name(value = "label", defaultValue = "") String label,
@@ -84,10 +107,14 @@ public final class PageRankProc {
 
         PageRankScore.Stats.Builder statsBuilder = new PageRankScore.Stats.Builder();
         AllocationTracker tracker = AllocationTracker.create();
-        final Graph graph = load(label, relationship, tracker, configuration.getGraphImpl(), statsBuilder);
+        final Graph graph = load(label, relationship, tracker, configuration, statsBuilder);
 
         TerminationFlag terminationFlag = TerminationFlag.wrap(transaction);
-        PageRankResult scores = evaluate(graph, tracker, terminationFlag, configuration, statsBuilder);
+        PageRankSources sources = sources(
+                graph,
+                configuration.get(CONFIG_SOURCE_NODES),
+                configuration.get(CONFIG_SOURCE_WEIGHTS));
+        PageRankResult scores = evaluate(graph, tracker, terminationFlag, sources, configuration, statsBuilder);
 
         log.info("PageRank: overall memory usage: %s", tracker.getUsageString());
 
@@ -107,11 +134,83 @@ public final class PageRankProc {
                 ));
     }
 
+    @Procedure(value = "algo.pageRank.personalized.stream", mode = Mode.READ)
+    @Description("CALL algo.pageRank.personalized.stream(label:String, relationship:String, sourceSets:List, " +
+            "{iterations:20, dampingFactor:0.85, tolerance:0.0, topK:10, setsPerPass:16, concurrency:4}) " +
+            "YIELD sourceSet, node, score - calculates personalized page rank for every source set " +
+            "and streams the top scores of each set")
+    public Stream<PersonalizedPageRankScore> personalizedPageRankStream(
+            @Name(value = "label", defaultValue = "") String label,
+            @Name(value = "relationship", defaultValue = "") String relationship,
+            @Name(value = "sourceSets", defaultValue = "[]") List<Object> sourceSets,
+            @Name(value = "config", defaultValue = "{}") Map<String, Object> config) {
+
+        ProcedureConfiguration configuration = ProcedureConfiguration.create(config);
+
+        PageRankScore.Stats.Builder statsBuilder = new PageRankScore.Stats.Builder();
+        AllocationTracker tracker = AllocationTracker.create();
+        final Graph graph = load(label, relationship, tracker, configuration, statsBuilder);
+
+        List<PageRankSources> sets = new ArrayList<>(sourceSets.size());
+        for (Object sourceSet : sourceSets) {
+            if (sourceSet instanceof Map) {
+                Map<?, ?> weighted = (Map<?, ?>) sourceSet;
+                sets.add(sources(graph, weighted.get("nodes"), weighted.get("weights")));
+            } else {
+                sets.add(sources(graph, sourceSet, null));
+            }
+        }
+
+        double dampingFactor = configuration.get(CONFIG_DAMPING, DEFAULT_DAMPING);
+        int iterations = configuration.getIterations(DEFAULT_ITERATIONS);
+        double tolerance = tolerance(configuration);
+        int topK = configuration.getInt(CONFIG_TOP_K, DEFAULT_TOP_K);
+        if (topK <= 0) {
+            throw new IllegalArgumentException("topK must be positive: " + topK);
+        }
+        int setsPerPass = configuration.getInt(CONFIG_SETS_PER_PASS, PersonalizedPageRankBatch.DEFAULT_SETS_PER_PASS);
+        PersonalizedPageRankBatch batch = new PersonalizedPageRankBatch(
+                graph,
+                dampingFactor,
+                Pools.DEFAULT,
+                configuration.getConcurrency(Pools.getNoThreadsInDefaultPool()),
+                setsPerPass,
+                tracker);
+        batch.withLog(log).withTerminationFlag(TerminationFlag.wrap(transaction));
+
+        PersonalizedPageRankBatch.TopScores[] topScores = batch.compute(sets, iterations, tolerance, topK);
+        if (batch.setsPerPass() < Math.min(setsPerPass, sets.size())) {
+            log.warn("PageRank: %d source sets per pass would not fit into the heap, computed %d sets per pass instead",
+                    setsPerPass,
+                    batch.setsPerPass());
+        }
+        log.info("PageRank: overall memory usage: %s", tracker.getUsageString());
+        graph.release();
+
+        return IntStream.range(0, topScores.length)
+                .boxed()
+                .flatMap(set -> {
+                    PersonalizedPageRankBatch.TopScores top = topScores[set];
+                    return IntStream.range(0, top.nodes.length)
+                            .mapToObj(i -> new PersonalizedPageRankScore(
+                                    set,
+                                    api.getNodeById(toOriginalNodeId(graph, top.nodes[i])),
+                                    top.scores[i]));
+                });
+    }
+
+    private static long toOriginalNodeId(Graph graph, long nodeId) {
+        if (graph instanceof HugeGraph) {
+            return ((HugeGraph) graph).toOriginalNodeId(nodeId);
+        }
+        return graph.toOriginalNodeId(Math.toIntExact(nodeId));
+    }
+
     private Graph load(
             String label,
             String relationship,
             AllocationTracker tracker,
-            Class<? extends GraphFactory> graphFactory,
+            ProcedureConfiguration configuration,
             PageRankScore.Stats.Builder statsBuilder) {
 
         GraphLoader graphLoader = new GraphLoader(api, Pools.DEFAULT)
@@ -119,11 +218,16 @@ public final class PageRankProc {
                 .withAllocationTracker(tracker)
                 .withOptionalLabel(label)
                 .withOptionalRelationshipType(relationship)
-                .withDirection(Direction.OUTGOING)
-                .withoutRelationshipWeights();
+                // pulling the scores needs the incoming relationships and the outgoing degrees
+                .withDirection(pull(configuration) ? Direction.BOTH : Direction.OUTGOING)
+                .withOptionalRelationshipWeightsFromProperty(
+                        configuration.getProperty(),
+                        configuration.getPropertyDefaultValue(1.0))
+                .withKernelCacheSize(configuration.getNumber(ProcedureConstants.KERNEL_CACHE_SIZE, 0L).longValue())
+                .withName(configuration.getGraphName(null));
 
         try (ProgressTimer timer = statsBuilder.timeLoad()) {
-            Graph graph = graphLoader.load(graphFactory);
+            Graph graph = graphLoader.load(configuration.getGraphImpl());
             statsBuilder.withNodes(graph.nodeCount());
             return graph;
         }
@@ -133,32 +237,54 @@ public final class PageRankProc {
             Graph graph,
             AllocationTracker tracker,
             TerminationFlag terminationFlag,
+            PageRankSources sources,
             ProcedureConfiguration configuration,
             PageRankScore.Stats.Builder statsBuilder) {
 
         double dampingFactor = configuration.get(CONFIG_DAMPING, DEFAULT_DAMPING);
         int iterations = configuration.getIterations(DEFAULT_ITERATIONS);
+        double tolerance = tolerance(configuration);
+        boolean weighted = configuration.getProperty() != null;
         final int batchSize = configuration.getBatchSize();
         final int concurrency = configuration.getConcurrency(Pools.getNoThreadsInDefaultPool());
         log.debug("Computing page rank with damping of " + dampingFactor + " and " + iterations + " iterations.");
 
-        PageRankAlgorithm prAlgo = PageRankAlgorithm.of(
-                tracker,
-                graph,
-                dampingFactor,
-                Pools.DEFAULT,
-                concurrency,
-                batchSize);
+        boolean floatPrecision = floatPrecision(configuration);
+        if (floatPrecision && !pull(configuration)) {
+            throw new IllegalArgumentException(
+                    "precision:'" + PRECISION_FLOAT + "' is only supported with mode:'" + MODE_PULL + "'");
+        }
+        PageRankAlgorithm prAlgo = pull(configuration)
+                ? PageRankAlgorithm.pull(
+                        tracker,
+                        graph,
+                        dampingFactor,
+                        sources,
+                        weighted,
+                        floatPrecision,
+                        Pools.DEFAULT,
+                        concurrency,
+                        batchSize)
+                : PageRankAlgorithm.of(
+                        tracker,
+                        graph,
+                        dampingFactor,
+                        sources,
+                        weighted,
+                        Pools.DEFAULT,
+                        concurrency,
+                        batchSize);
         Algorithm<?> algo = prAlgo
                 .algorithm()
                 .withLog(log)
                 .withTerminationFlag(terminationFlag);
 
-        statsBuilder.timeEval(() -> prAlgo.compute(iterations));
+        statsBuilder.timeEval(() -> prAlgo.compute(iterations, tolerance));
 
         statsBuilder
-                .withIterations(iterations)
-                .withDampingFactor(dampingFactor);
+                .withIterations(prAlgo.iterations())
+                .withDampingFactor(dampingFactor)
+                .withDidConverge(prAlgo.didConverge());
 
         final PageRankResult pageRank = prAlgo.result();
         algo.release();
@@ -190,4 +316,88 @@ public final class PageRankProc {
             statsBuilder.withWrite(false);
         }
     }
+
+    private static double tolerance(ProcedureConfiguration configuration) {
+        double tolerance = configuration.getNumber(CONFIG_TOLERANCE, DEFAULT_TOLERANCE).doubleValue();
+        if (tolerance < 0.0) {
+            throw new IllegalArgumentException("tolerance must not be negative: " + tolerance);
+        }
+        return tolerance;
+    }
+
+    /**
+     * @return true if the scores are pulled over the incoming relationships instead of pushed
+     */
+    static boolean pull(ProcedureConfiguration configuration) {
+        String mode = configuration.getString(CONFIG_MODE, MODE_PUSH);
+        if (MODE_PULL.equalsIgnoreCase(mode)) {
+            return true;
+        }
+        if (MODE_PUSH.equalsIgnoreCase(mode)) {
+            return false;
+        }
+        throw new IllegalArgumentException(
+                "Unknown mode '" + mode + "', expected one of '" + MODE_PUSH + "' or '" + MODE_PULL + "'");
+    }
+
+    /**
+     * @return true if the scores are stored as floats instead of doubles
+     */
+    static boolean floatPrecision(ProcedureConfiguration configuration) {
+        String precision = configuration.getString(CONFIG_PRECISION, PRECISION_DOUBLE);
+        if (PRECISION_FLOAT.equalsIgnoreCase(precision)) {
+            return true;
+        }
+        if (PRECISION_DOUBLE.equalsIgnoreCase(precision)) {
+            return false;
+        }
+        throw new IllegalArgumentException(
+                "Unknown precision '" + precision + "', expected one of '" + PRECISION_DOUBLE + "' or '" + PRECISION_FLOAT + "'");
+    }
+
+    /**
+     * @param nodes a list of nodes or node ids, null for a global PageRank
+     * @param weights a list of numbers, null for a weight of 1 for every source
+     */
+    private static PageRankSources sources(Graph graph, Object nodes, Object weights) {
+        if (nodes == null) {
+            return null;
+        }
+        List<?> nodeList = asList(nodes);
+        long[] mappedNodes = new long[nodeList.size()];
+        for (int i = 0; i < mappedNodes.length; i++) {
+            Object node = nodeList.get(i);
+            long nodeId;
+            if (node instanceof Node) {
+                nodeId = ((Node) node).getId();
+            } else if (node instanceof Number) {
+                nodeId = ((Number) node).longValue();
+            } else {
+                throw new IllegalArgumentException("Expected a node or a node id as source but got " + node);
+            }
+            long mappedId = graph instanceof HugeGraph
+                    ? ((HugeGraph) graph).toHugeMappedNodeId(nodeId)
+                    : graph.toMappedNodeId(nodeId);
+            if (mappedId == -1L) {
+                throw new IllegalArgumentException("Source node " + nodeId + " is not part of the graph");
+            }
+            mappedNodes[i] = mappedId;
+        }
+        double[] sourceWeights = null;
+        if (weights != null) {
+            List<?> weightList = asList(weights);
+            sourceWeights = new double[weightList.size()];
+            for (int i = 0; i < sourceWeights.length; i++) {
+                sourceWeights[i] = ((Number) weightList.get(i)).doubleValue();
+            }
+        }
+        return PageRankSources.of(mappedNodes, sourceWeights);
+    }
+
+    private static List<?> asList(Object value) {
+        if (value instanceof List) {
+            return (List<?>) value;
+        }
+        throw new IllegalArgumentException("Expected a list but got " + value);
+    }
 }
@@ -72,6 +72,7 @@ public class ShortestPathDeltaSteppingProc {
                         propertyName,
                         configuration.getPropertyDefaultValue(Double.MAX_VALUE))
                 .withDirection(Direction.OUTGOING)
+                .withName(configuration.getGraphName(null))
                 .load(configuration.getGraphImpl());
 
         final ShortestPathDeltaStepping algo = new ShortestPathDeltaStepping(graph, delta)
@@ -109,6 +110,7 @@ public class ShortestPathDeltaSteppingProc {
                             propertyName,
                             configuration.getPropertyDefaultValue(Double.MAX_VALUE))
                     .withDirection(Direction.OUTGOING)
+                    .withName(configuration.getGraphName(null))
                     .load(configuration.getGraphImpl());
         }
 
@@ -75,6 +75,7 @@ public class ShortestPathProc {
                         propertyName,
                         configuration.getPropertyDefaultValue(1.0))
                 .withDirection(direction)
+                .withName(configuration.getGraphName(null))
                 .load(configuration.getGraphImpl());
 
         return new ShortestPathDijkstra(graph)
@@ -112,6 +113,7 @@ public class ShortestPathProc {
                             propertyName,
                             configuration.getPropertyDefaultValue(1.0))
                     .withDirection(direction)
+                    .withName(configuration.getGraphName(null))
                     .load(configuration.getGraphImpl());
         }
 
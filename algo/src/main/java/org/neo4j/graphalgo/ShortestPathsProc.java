@@ -59,6 +59,7 @@ public class ShortestPathsProc {
                         propertyName,
                         configuration.getPropertyDefaultValue(1.0))
                 .withDirection(Direction.OUTGOING)
+                .withName(configuration.getGraphName(null))
                 .load(configuration.getGraphImpl());
 
         final ShortestPaths algo = new ShortestPaths(graph)
@@ -92,6 +93,7 @@ public class ShortestPathsProc {
                         propertyName,
                         configuration.getPropertyDefaultValue(1.0))
                 .withDirection(Direction.OUTGOING)
+                .withName(configuration.getGraphName(null))
                 .load(configuration.getGraphImpl());
         load.stop();
 
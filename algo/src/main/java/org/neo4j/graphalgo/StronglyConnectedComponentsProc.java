@@ -88,6 +88,7 @@ public class StronglyConnectedComponentsProc {
                 .withOptionalRelationshipType(relationship)
                 .withoutRelationshipWeights()
                 .withDirection(Direction.OUTGOING)
+                .withName(configuration.getGraphName(null))
                 .load(configuration.getGraphImpl());
         loadTimer.stop();
 
@@ -149,6 +150,7 @@ public class StronglyConnectedComponentsProc {
                 .withOptionalRelationshipType(relationship)
                 .withoutRelationshipWeights()
                 .withDirection(Direction.OUTGOING)
+                .withName(configuration.getGraphName(null))
                 .load(configuration.getGraphImpl());
         loadTimer.stop();
 
@@ -196,6 +198,7 @@ public class StronglyConnectedComponentsProc {
                 .withOptionalRelationshipType(relationship)
                 .withoutRelationshipWeights()
                 .withDirection(Direction.OUTGOING)
+                .withName(configuration.getGraphName(null))
                 .load(configuration.getGraphImpl());
 
         return new SCCTunedTarjan(graph)
@@ -225,6 +228,7 @@ public class StronglyConnectedComponentsProc {
                 .withOptionalRelationshipType(relationship)
                 .withoutRelationshipWeights()
                 .withDirection(Direction.OUTGOING)
+                .withName(configuration.getGraphName(null))
                 .load(configuration.getGraphImpl());
         loadTimer.stop();
 
@@ -275,6 +279,7 @@ public class StronglyConnectedComponentsProc {
                 .withOptionalRelationshipType(relationship)
                 .withoutRelationshipWeights()
                 .withDirection(Direction.OUTGOING)
+                .withName(configuration.getGraphName(null))
                 .load(configuration.getGraphImpl());
 
         final SCCIterativeTarjan compute = new SCCIterativeTarjan(graph)
@@ -307,6 +312,7 @@ public class StronglyConnectedComponentsProc {
                 .withOptionalLabel(label)
                 .withOptionalRelationshipType(relationship)
                 .withoutRelationshipWeights()
+                .withName(configuration.getGraphName(null))
                 .load(configuration.getGraphImpl());
         loadTimer.stop();
 
@@ -358,6 +364,7 @@ public class StronglyConnectedComponentsProc {
                 .withOptionalLabel(label)
                 .withOptionalRelationshipType(relationship)
                 .withoutRelationshipWeights()
+                .withName(configuration.getGraphName(null))
                 .load(configuration.getGraphImpl());
 
         final MultistepSCC multistep = new MultistepSCC(graph, org.neo4j.graphalgo.core.utils.Pools.DEFAULT,
@@ -388,6 +395,7 @@ public class StronglyConnectedComponentsProc {
                 .withOptionalLabel(label)
                 .withOptionalRelationshipType(relationship)
                 .withoutRelationshipWeights()
+                .withName(configuration.getGraphName(null))
                 .load(configuration.getGraphImpl());
 
         final ForwardBackwardScc algo = new ForwardBackwardScc(graph, Pools.DEFAULT,
@@ -59,6 +59,7 @@ public class TriangleProc {
                 .withoutNodeWeights()
                 .withLog(log)
                 .withDirection(TriangleCount.D)
+                .withName(configuration.getGraphName(null))
                 .load(configuration.getGraphImpl());
 
         final TriangleStream triangleStream = new TriangleStream(graph, Pools.DEFAULT, configuration.getConcurrency())
@@ -87,6 +88,7 @@ public class TriangleProc {
                 .withoutNodeWeights()
                 .withLog(log)
                 .withDirection(TriangleCount.D)
+                .withName(configuration.getGraphName(null))
                 .load(configuration.getGraphImpl());
 
         final TriangleCount triangleCount = new TriangleCount(graph, Pools.DEFAULT, configuration.getConcurrency())
@@ -116,6 +118,7 @@ public class TriangleProc {
                 .withoutNodeWeights()
                 .withLog(log)
                 .withDirection(TriangleCount.D)
+                .withName(configuration.getGraphName(null))
                 .load(configuration.getGraphImpl());
 
         final TriangleCountExp triangleCount = new TriangleCountExp(graph, Pools.DEFAULT, configuration.getConcurrency())
@@ -152,6 +155,7 @@ public class TriangleProc {
                     .withoutNodeWeights()
                     .withLog(log)
                     .withDirection(TriangleCount.D)
+                    .withName(configuration.getGraphName(null))
                     .load(configuration.getGraphImpl());
         };
 
@@ -223,6 +227,7 @@ public class TriangleProc {
                     .withoutNodeWeights()
                     .withLog(log)
                     .withDirection(TriangleCount.D)
+                    .withName(configuration.getGraphName(null))
                     .load(configuration.getGraphImpl());
         };
 
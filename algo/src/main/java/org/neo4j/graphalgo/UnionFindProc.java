@@ -109,6 +109,7 @@ public class UnionFindProc {
                         config.getProperty(),
                         config.getPropertyDefaultValue(1.0))
                 .withDirection(Direction.OUTGOING)
+                .withName(config.getGraphName(null))
                 .load(config.getGraphImpl());
     }
 
@@ -110,6 +110,7 @@ public class UnionFindProc3 {
                         config.getProperty(),
                         config.getPropertyDefaultValue(1.0))
                 .withDirection(Direction.OUTGOING)
+                .withName(config.getGraphName(null))
                 .load(config.getGraphImpl());
     }
 
@@ -3,6 +3,8 @@ package org.neo4j.graphalgo.impl;
 import org.neo4j.graphalgo.api.Graph;
 import org.neo4j.graphalgo.core.utils.ProgressLogger;
 import org.neo4j.graphalgo.core.utils.dss.DisjointSetStruct;
+import org.neo4j.graphalgo.core.utils.paged.MemoryRange;
+import org.neo4j.graphalgo.core.utils.paged.MemoryUsage;
 import org.neo4j.graphdb.Direction;
 
 /**
@@ -33,6 +35,13 @@ public class GraphUnionFind extends Algorithm<GraphUnionFind> {
         this.dss = new DisjointSetStruct(nodeCount);
     }
 
+    /**
+     * The {@link DisjointSetStruct} keeps a parent and a depth per node.
+     */
+    public static MemoryRange memoryEstimation(int nodeCount) {
+        return MemoryRange.of(MemoryUsage.sizeOfIntArray(nodeCount) << 1);
+    }
+
     /**
      * compute unions of connected nodes
      *
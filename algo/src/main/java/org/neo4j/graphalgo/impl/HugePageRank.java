@@ -3,10 +3,10 @@ package org.neo4j.graphalgo.impl;
 import com.carrotsearch.hppc.IntArrayList;
 import com.carrotsearch.hppc.LongArrayList;
 import org.neo4j.collection.primitive.PrimitiveLongIterator;
+import org.neo4j.graphalgo.api.AdjacencyCursor;
 import org.neo4j.graphalgo.api.HugeDegrees;
 import org.neo4j.graphalgo.api.HugeIdMapping;
 import org.neo4j.graphalgo.api.HugeNodeIterator;
-import org.neo4j.graphalgo.api.HugeRelationshipConsumer;
 import org.neo4j.graphalgo.api.HugeRelationshipIterator;
 import org.neo4j.graphalgo.core.utils.ParallelUtil;
 import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
@@ -79,6 +79,10 @@ import static org.neo4j.graphalgo.core.utils.paged.MemoryUsage.sizeOfObjectArray
  * Smaller partitions are merged down until we have at most {@code concurrency} partitions,
  * in order to batch partitions and keep the number of threads in use predictable/configurable.
  * <p>
+ * The weighted variant distributes the rank of a node proportional to the weights of its
+ * outgoing relationships. Every partition sums up the weights of its nodes once, before the
+ * first iteration, so that an iteration only has to read the weights along with the targets.
+ * <p>
  * [1]: <a href="http://delab.csd.auth.gr/~dimitris/courses/ir_spring06/page_rank_computing/01531136.pdf">An Efficient Partition-Based Parallel PageRank Algorithm</a><br>
  * [2]: <a href="https://www.cs.purdue.edu/homes/dgleich/publications/gleich2004-parallel.pdf">Fast Parallel PageRank: A Linear System Approach</a>
  */
@@ -93,13 +97,15 @@ public class HugePageRank extends Algorithm<HugePageRank> implements PageRankAlg
     private final HugeRelationshipIterator relationshipIterator;
     private final HugeDegrees degrees;
     private final double dampingFactor;
+    private final PageRankSources sources;
+    private final boolean weighted;
 
     private Log log;
     private ComputeSteps computeSteps;
 
     /**
      * Forces sequential use. If you want parallelism, prefer
-     * {@link #HugePageRank(ExecutorService, int, int, AllocationTracker, HugeIdMapping, HugeNodeIterator, HugeRelationshipIterator, HugeDegrees, double)}
+     * {@link #HugePageRank(ExecutorService, int, int, AllocationTracker, HugeIdMapping, HugeNodeIterator, HugeRelationshipIterator, HugeDegrees, double, PageRankSources, boolean)}
      */
     HugePageRank(
             AllocationTracker tracker,
@@ -107,7 +113,9 @@ public class HugePageRank extends Algorithm<HugePageRank> implements PageRankAlg
             HugeNodeIterator nodeIterator,
             HugeRelationshipIterator relationshipIterator,
             HugeDegrees degrees,
-            double dampingFactor) {
+            double dampingFactor,
+            PageRankSources sources,
+            boolean weighted) {
         this(
                 null,
                 -1,
@@ -117,13 +125,18 @@ public class HugePageRank extends Algorithm<HugePageRank> implements PageRankAlg
                 nodeIterator,
                 relationshipIterator,
                 degrees,
-                dampingFactor);
+                dampingFactor,
+                sources,
+                weighted);
     }
 
     /**
      * Parallel Page Rank implementation.
      * Whether the algorithm actually runs in parallel depends on the given
      * executor and batchSize.
+     *
+     * @param sources  the nodes the random surfer teleports to, null for all nodes
+     * @param weighted whether the rank is distributed proportional to the relationship weights
      */
     HugePageRank(
             ExecutorService executor,
@@ -134,7 +147,9 @@ public class HugePageRank extends Algorithm<HugePageRank> implements PageRankAlg
             HugeNodeIterator nodeIterator,
             HugeRelationshipIterator relationshipIterator,
             HugeDegrees degrees,
-            double dampingFactor) {
+            double dampingFactor,
+            PageRankSources sources,
+            boolean weighted) {
         this.executor = executor;
         this.concurrency = concurrency;
         this.batchSize = batchSize;
@@ -144,6 +159,8 @@ public class HugePageRank extends Algorithm<HugePageRank> implements PageRankAlg
         this.relationshipIterator = relationshipIterator;
         this.degrees = degrees;
         this.dampingFactor = dampingFactor;
+        this.sources = sources;
+        this.weighted = weighted;
     }
 
     /**
@@ -151,12 +168,28 @@ public class HugePageRank extends Algorithm<HugePageRank> implements PageRankAlg
      */
     @Override
     public HugePageRank compute(int iterations) {
-        assert iterations >= 1;
+        return compute(iterations, 0.0);
+    }
+
+    @Override
+    public HugePageRank compute(int maxIterations, double tolerance) {
+        assert maxIterations >= 1;
+        assert tolerance >= 0.0;
         initializeSteps();
-        computeSteps.run(iterations);
+        computeSteps.run(maxIterations, tolerance);
         return this;
     }
 
+    @Override
+    public int iterations() {
+        return computeSteps != null ? computeSteps.iterations : 0;
+    }
+
+    @Override
+    public boolean didConverge() {
+        return computeSteps != null && computeSteps.didConverge;
+    }
+
     @Override
     public PageRankResult result() {
         return computeSteps.getPageRank();
@@ -263,6 +296,8 @@ public class HugePageRank extends Algorithm<HugePageRank> implements PageRankAlg
 
             computeSteps.add(new ComputeStep(
                     dampingFactor,
+                    sources,
+                    weighted,
                     relationshipIterator,
                     degrees,
                     tracker,
@@ -383,6 +418,7 @@ public class HugePageRank extends Algorithm<HugePageRank> implements PageRankAlg
 
         perThreadUsage *= stepSize;
         perThreadUsage += shallowSizeOfInstance(ComputeStep.class);
+        perThreadUsage += sizeOfLongArray(AdjacencyCursor.BATCH_SIZE) * stepSize;
         perThreadUsage += sizeOfObjectArray(stepSize);
 
         sharedUsage += shallowSizeOfInstance(ComputeSteps.class);
@@ -438,6 +474,8 @@ public class HugePageRank extends Algorithm<HugePageRank> implements PageRankAlg
         private final ExecutorService pool;
         private int[][][] scores;
         private final int concurrency;
+        private int iterations;
+        private boolean didConverge;
 
         private ComputeSteps(
                 AllocationTracker tracker,
@@ -469,12 +507,14 @@ public class HugePageRank extends Algorithm<HugePageRank> implements PageRankAlg
             }
         }
 
-        private void run(int iterations) {
-            final int operations = (iterations << 1) + 1;
+        private void run(int maxIterations, double tolerance) {
+            final int operations = (maxIterations << 1) + 1;
             int op = 0;
             ParallelUtil.runWithConcurrency(concurrency, steps, pool);
             getProgressLogger().logProgress(++op, operations, tracker);
-            for (int i = 0; i < iterations && running(); i++) {
+            iterations = 0;
+            didConverge = false;
+            while (iterations < maxIterations && running()) {
                 // calculate scores
                 ParallelUtil.runWithConcurrency(concurrency, steps, pool);
                 getProgressLogger().logProgress(++op, operations, tracker);
@@ -482,9 +522,22 @@ public class HugePageRank extends Algorithm<HugePageRank> implements PageRankAlg
                 // sync scores
                 ParallelUtil.runWithConcurrency(concurrency, steps, pool);
                 getProgressLogger().logProgress(++op, operations, tracker);
+                ++iterations;
+                if (tolerance > 0.0 && maxDelta() < tolerance) {
+                    didConverge = true;
+                    break;
+                }
             }
         }
 
+        private double maxDelta() {
+            double maxDelta = 0.0;
+            for (ComputeStep step : steps) {
+                maxDelta = Math.max(maxDelta, step.maxDelta);
+            }
+            return maxDelta;
+        }
+
         private void synchronizeScores() {
             int stepSize = steps.size();
             int[][][] scores = this.scores;
@@ -515,7 +568,7 @@ public class HugePageRank extends Algorithm<HugePageRank> implements PageRankAlg
         }
     }
 
-    private static final class ComputeStep implements Runnable, HugeRelationshipConsumer {
+    private static final class ComputeStep implements Runnable {
         private static final int S_INIT = 0;
         private static final int S_CALC = 1;
         private static final int S_SYNC = 2;
@@ -524,15 +577,22 @@ public class HugePageRank extends Algorithm<HugePageRank> implements PageRankAlg
 
         private long[] starts;
         private int[] lengths;
-        private final HugeRelationshipIterator relationshipIterator;
+        private final AdjacencyCursor cursor;
+        private final long[] targets;
+        private final double[] weights;
         private final HugeDegrees degrees;
         private final AllocationTracker tracker;
 
         private final double alpha;
         private final double dampingFactor;
+        private final PageRankSources sources;
 
         private double[] pageRank;
         private double[] deltas;
+        // the sum of the outgoing weights of every node of this partition, only if weighted
+        private double[] weightSums;
+        // the largest change of a score of this partition in the last iteration
+        private double maxDelta;
         private int[][] nextScores;
         private int[][] prevScores;
 
@@ -540,10 +600,10 @@ public class HugePageRank extends Algorithm<HugePageRank> implements PageRankAlg
         private final long endNode;
         private final int partitionSize;
 
-        private int srcRankDelta = 0;
-
         ComputeStep(
                 double dampingFactor,
+                PageRankSources sources,
+                boolean weighted,
                 HugeRelationshipIterator relationshipIterator,
                 HugeDegrees degrees,
                 AllocationTracker tracker,
@@ -551,7 +611,10 @@ public class HugePageRank extends Algorithm<HugePageRank> implements PageRankAlg
                 long startNode) {
             this.dampingFactor = dampingFactor;
             this.alpha = 1.0 - dampingFactor;
-            this.relationshipIterator = relationshipIterator.concurrentCopy();
+            this.sources = sources;
+            this.cursor = relationshipIterator.concurrentCopy().newAdjacencyCursor();
+            this.targets = new long[AdjacencyCursor.BATCH_SIZE];
+            this.weights = weighted ? new double[AdjacencyCursor.BATCH_SIZE] : null;
             this.degrees = degrees;
             this.tracker = tracker;
             this.partitionSize = partitionSize;
@@ -589,37 +652,103 @@ public class HugePageRank extends Algorithm<HugePageRank> implements PageRankAlg
 
             tracker.add(sizeOfDoubleArray(partitionSize) << 1);
             double[] partitionRank = new double[partitionSize];
-            Arrays.fill(partitionRank, alpha);
+            if (sources == null) {
+                Arrays.fill(partitionRank, alpha);
+            } else {
+                sources.initialize(alpha, startNode, partitionRank);
+            }
 
             this.pageRank = partitionRank;
             this.deltas = Arrays.copyOf(partitionRank, partitionSize);
+
+            if (weights != null) {
+                tracker.add(sizeOfDoubleArray(partitionSize));
+                weightSums = new double[partitionSize];
+                for (long nodeId = startNode; nodeId < endNode; ++nodeId) {
+                    weightSums[(int) (nodeId - startNode)] = weightSum(nodeId);
+                }
+            }
+        }
+
+        private double weightSum(long nodeId) {
+            double sum = 0.0;
+            cursor.init(nodeId, Direction.OUTGOING);
+            int length;
+            while ((length = cursor.next(targets, weights)) > 0) {
+                for (int i = 0; i < length; i++) {
+                    sum += weights[i];
+                }
+            }
+            return sum;
         }
 
         private void singleIteration() {
+            if (weights != null) {
+                singleWeightedIteration();
+                return;
+            }
             long startNode = this.startNode;
             long endNode = this.endNode;
-            HugeRelationshipIterator rels = this.relationshipIterator;
+            AdjacencyCursor cursor = this.cursor;
+            long[] targets = this.targets;
+            long[] starts = this.starts;
+            int[][] nextScores = this.nextScores;
             for (long nodeId = startNode; nodeId < endNode; ++nodeId) {
                 double delta = deltas[(int) (nodeId - startNode)];
                 if (delta > 0) {
                     int degree = degrees.degree(nodeId, Direction.OUTGOING);
                     if (degree > 0) {
-                        srcRankDelta = (int) (100_000 * (delta / degree));
-                        rels.forEachRelationship(nodeId, Direction.OUTGOING, this);
+                        int srcRankDelta = (int) (100_000 * (delta / degree));
+                        if (srcRankDelta == 0) {
+                            continue;
+                        }
+                        cursor.init(nodeId, Direction.OUTGOING);
+                        int length;
+                        while ((length = cursor.next(targets)) > 0) {
+                            for (int i = 0; i < length; i++) {
+                                long targetNodeId = targets[i];
+                                int idx = binaryLookup(targetNodeId, starts);
+                                nextScores[idx][(int) (targetNodeId - starts[idx])] += srcRankDelta;
+                            }
+                        }
                     }
                 }
             }
         }
 
-        @Override
-        public boolean accept(
-                long sourceNodeId,
-                long targetNodeId) {
-            if (srcRankDelta != 0) {
-                int idx = binaryLookup(targetNodeId, starts);
-                nextScores[idx][(int) (targetNodeId - starts[idx])] += srcRankDelta;
+        /**
+         * Distributes the delta of every node proportional to the weights of its relationships,
+         * nodes whose weights sum up to 0 are treated like nodes without relationships.
+         */
+        private void singleWeightedIteration() {
+            long startNode = this.startNode;
+            long endNode = this.endNode;
+            AdjacencyCursor cursor = this.cursor;
+            long[] targets = this.targets;
+            double[] weights = this.weights;
+            long[] starts = this.starts;
+            int[][] nextScores = this.nextScores;
+            for (long nodeId = startNode; nodeId < endNode; ++nodeId) {
+                double delta = deltas[(int) (nodeId - startNode)];
+                if (delta > 0) {
+                    double weightSum = weightSums[(int) (nodeId - startNode)];
+                    if (weightSum > 0) {
+                        double srcRankDelta = 100_000 * (delta / weightSum);
+                        cursor.init(nodeId, Direction.OUTGOING);
+                        int length;
+                        while ((length = cursor.next(targets, weights)) > 0) {
+                            for (int i = 0; i < length; i++) {
+                                int targetRankDelta = (int) (srcRankDelta * weights[i]);
+                                if (targetRankDelta != 0) {
+                                    long targetNodeId = targets[i];
+                                    int idx = binaryLookup(targetNodeId, starts);
+                                    nextScores[idx][(int) (targetNodeId - starts[idx])] += targetRankDelta;
+                                }
+                            }
+                        }
+                    }
+                }
             }
-            return true;
         }
 
         void prepareNextIteration(int[][] prevScores) {
@@ -633,6 +762,7 @@ public class HugePageRank extends Algorithm<HugePageRank> implements PageRankAlg
             int scoreDim = prevScores.length;
             int[][] prevScores = this.prevScores;
 
+            double maxDelta = 0.0;
             int length = prevScores[0].length;
             for (int i = 0; i < length; i++) {
                 int sum = 0;
@@ -644,7 +774,9 @@ public class HugePageRank extends Algorithm<HugePageRank> implements PageRankAlg
                 double delta = dampingFactor * (sum / 100_000.0);
                 pageRank[i] += delta;
                 deltas[i] = delta;
+                maxDelta = Math.max(maxDelta, delta);
             }
+            this.maxDelta = maxDelta;
         }
 
     }
@@ -8,10 +8,15 @@ import com.carrotsearch.hppc.IntObjectMap;
 import com.carrotsearch.hppc.cursors.IntDoubleCursor;
 import org.neo4j.collection.primitive.PrimitiveIntIterable;
 import org.neo4j.collection.primitive.PrimitiveIntIterator;
-import org.neo4j.graphalgo.api.RelationshipConsumer;
-import org.neo4j.graphalgo.core.heavyweight.HeavyGraph;
+import org.neo4j.graphalgo.api.AdjacencyCursor;
+import org.neo4j.graphalgo.api.Graph;
+import org.neo4j.graphalgo.api.NodeProperties;
+import org.neo4j.graphalgo.api.NodeWeights;
+import org.neo4j.graphalgo.api.RelationshipWeights;
 import org.neo4j.graphalgo.core.utils.ParallelUtil;
 import org.neo4j.graphalgo.core.utils.ProgressLogger;
+import org.neo4j.graphalgo.core.utils.paged.MemoryRange;
+import org.neo4j.graphalgo.core.utils.paged.MemoryUsage;
 import org.neo4j.graphdb.Direction;
 
 import java.util.List;
@@ -19,11 +24,18 @@ import java.util.Random;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.ThreadLocalRandom;
 
+/**
+ * Label propagation on any graph that provides relationship weights, node weights
+ * and the node values that seed the labels, like the
+ * {@link org.neo4j.graphalgo.core.heavyweight.HeavyGraph} and the {@link org.neo4j.graphalgo.api.HugeGraph}.
+ */
 public final class LabelPropagation extends Algorithm<LabelPropagation> {
 
     private static final int[] EMPTY_INTS = new int[0];
 
-    private HeavyGraph graph;
+    private Graph graph;
+    private NodeWeights nodeWeights;
+    private NodeProperties nodeProperties;
     private final int batchSize;
     private final int concurrency;
     private final ExecutorService executor;
@@ -33,18 +45,33 @@ public final class LabelPropagation extends Algorithm<LabelPropagation> {
     private long ranIterations;
     private boolean didConverge;
 
-    public LabelPropagation(
-            HeavyGraph graph,
+    public <G extends Graph & RelationshipWeights & NodeWeights & NodeProperties> LabelPropagation(
+            G graph,
             int batchSize,
             int concurrency,
             ExecutorService executor) {
         this.graph = graph;
+        this.nodeWeights = graph;
+        this.nodeProperties = graph;
         nodeCount = Math.toIntExact(graph.nodeCount());
         this.batchSize = batchSize;
         this.concurrency = concurrency;
         this.executor = executor;
     }
 
+    /**
+     * Every node has a label, and every thread counts the votes of the neighbours of a node
+     * in a map that grows up to the highest degree, which is at most the number of relationships.
+     */
+    public static MemoryRange memoryEstimation(int nodeCount, long relCount, int concurrency) {
+        long maxDegree = Math.min(nodeCount, relCount);
+        return MemoryRange.of(
+                MemoryUsage.sizeOfHashMap(0L, Integer.BYTES, Double.BYTES, 0.75),
+                MemoryUsage.sizeOfHashMap(maxDegree, Integer.BYTES, Double.BYTES, 0.75))
+                .times(Math.max(1, concurrency))
+                .add(MemoryUsage.sizeOfIntArray(nodeCount));
+    }
+
     public LabelPropagation compute(
         Direction direction,
         long maxIterations) {
@@ -71,6 +98,8 @@ public final class LabelPropagation extends Algorithm<LabelPropagation> {
                 graph,
                 (offset, nodes) -> new InitStep(
                         graph,
+                        nodeWeights,
+                        nodeProperties,
                         labels,
                         direction,
                         randomizeOrder,
@@ -143,12 +172,16 @@ public final class LabelPropagation extends Algorithm<LabelPropagation> {
     @Override
     public LabelPropagation release() {
         graph = null;
+        nodeWeights = null;
+        nodeProperties = null;
         return this;
     }
 
     private static final class InitStep implements Runnable {
 
-        private final HeavyGraph graph;
+        private final Graph graph;
+        private final NodeWeights nodeWeights;
+        private final NodeProperties nodeProperties;
         private final int[] existingLabels;
         private final Direction direction;
         private final boolean randomizeOrder;
@@ -156,13 +189,17 @@ public final class LabelPropagation extends Algorithm<LabelPropagation> {
         private final PrimitiveIntIterable nodes;
 
         private InitStep(
-                HeavyGraph graph,
+                Graph graph,
+                NodeWeights nodeWeights,
+                NodeProperties nodeProperties,
                 int[] existingLabels,
                 Direction direction,
                 boolean randomizeOrder,
                 ProgressLogger progressLogger,
                 PrimitiveIntIterable nodes) {
             this.graph = graph;
+            this.nodeWeights = nodeWeights;
+            this.nodeProperties = nodeProperties;
             this.existingLabels = existingLabels;
             this.direction = direction;
             this.randomizeOrder = randomizeOrder;
@@ -179,13 +216,14 @@ public final class LabelPropagation extends Algorithm<LabelPropagation> {
             PrimitiveIntIterator iterator = nodes.iterator();
             while (iterator.hasNext()) {
                 int nodeId = iterator.next();
-                existingLabels[nodeId] = (int) graph.valueOf(nodeId, nodeId);
+                existingLabels[nodeId] = (int) nodeProperties.valueOf(nodeId, nodeId);
             }
         }
 
         private ComputeStep computeStep() {
             return new ComputeStep(
                     graph,
+                    nodeWeights,
                     existingLabels,
                     direction,
                     randomizeOrder,
@@ -194,33 +232,42 @@ public final class LabelPropagation extends Algorithm<LabelPropagation> {
         }
     }
 
-    private static final class ComputeStep implements Runnable, RelationshipConsumer {
+    private static final class ComputeStep implements Runnable {
 
-        private final HeavyGraph graph;
+        private final Graph graph;
+        private final NodeWeights nodeWeights;
         private final int[] existingLabels;
         private final Direction direction;
         private final ProgressLogger progressLogger;
         private final PrimitiveIntIterable nodes;
         private final int maxNode;
         private final IntDoubleHashMap votes;
+        private final AdjacencyCursor cursor;
+        private final int[] targets;
+        private final double[] weights;
 
         private boolean didChange = true;
         private long iteration = 0L;
 
         private ComputeStep(
-                HeavyGraph graph,
+                Graph graph,
+                NodeWeights nodeWeights,
                 int[] existingLabels,
                 Direction direction,
                 boolean randomizeOrder,
                 ProgressLogger progressLogger,
                 PrimitiveIntIterable nodes) {
             this.graph = graph;
+            this.nodeWeights = nodeWeights;
             this.existingLabels = existingLabels;
             this.direction = direction;
             this.progressLogger = progressLogger;
             this.nodes = RandomlySwitchingIterable.of(randomizeOrder, nodes);
             this.maxNode = (int) (graph.nodeCount() - 1L);
             this.votes = new IntDoubleScatterMap();
+            this.cursor = graph.newAdjacencyCursor();
+            this.targets = new int[AdjacencyCursor.BATCH_SIZE];
+            this.weights = new double[AdjacencyCursor.BATCH_SIZE];
         }
 
         @Override
@@ -243,7 +290,7 @@ public final class LabelPropagation extends Algorithm<LabelPropagation> {
             votes.clear();
             int partition = existingLabels[nodeId];
             int previous = partition;
-            graph.forEachRelationship(nodeId, direction, this);
+            countVotes(nodeId);
             double weight = Double.NEGATIVE_INFINITY;
             for (IntDoubleCursor vote : votes) {
                 if (weight < vote.value) {
@@ -259,15 +306,20 @@ public final class LabelPropagation extends Algorithm<LabelPropagation> {
             return didChange;
         }
 
-        @Override
-        public boolean accept(
-                final int sourceNodeId,
-                final int targetNodeId,
-                final long relationId) {
-            int partition = existingLabels[targetNodeId];
-            double weight = graph.weightOf(sourceNodeId, targetNodeId) * graph.weightOf(targetNodeId);
-            votes.addTo(partition, weight);
-            return true;
+        private void countVotes(int nodeId) {
+            int[] targets = this.targets;
+            double[] weights = this.weights;
+            // the weights are read with the targets, looking them up would scan the adjacency again
+            cursor.init(nodeId, direction);
+            int length;
+            while ((length = cursor.next(targets, weights)) > 0) {
+                for (int i = 0; i < length; i++) {
+                    int targetNodeId = targets[i];
+                    int partition = existingLabels[targetNodeId];
+                    double weight = weights[i] * nodeWeights.weightOf(targetNodeId);
+                    votes.addTo(partition, weight);
+                }
+            }
         }
 
         private void release() {
@@ -2,10 +2,10 @@ package org.neo4j.graphalgo.impl;
 
 import com.carrotsearch.hppc.IntArrayList;
 import org.neo4j.collection.primitive.PrimitiveIntIterator;
+import org.neo4j.graphalgo.api.AdjacencyCursor;
 import org.neo4j.graphalgo.api.Degrees;
 import org.neo4j.graphalgo.api.IdMapping;
 import org.neo4j.graphalgo.api.NodeIterator;
-import org.neo4j.graphalgo.api.RelationshipConsumer;
 import org.neo4j.graphalgo.api.RelationshipIterator;
 import org.neo4j.graphalgo.core.utils.ParallelUtil;
 import org.neo4j.graphalgo.core.utils.Pools;
@@ -72,6 +72,10 @@ import static org.neo4j.graphalgo.core.utils.ArrayUtil.binaryLookup;
  * Smaller partitions are merged down until we have at most {@code concurrency} partitions,
  * in order to batch partitions and keep the number of threads in use predictable/configurable.
  * <p>
+ * The weighted variant distributes the rank of a node proportional to the weights of its
+ * outgoing relationships. Every partition sums up the weights of its nodes once, before the
+ * first iteration, so that an iteration only has to read the weights along with the targets.
+ * <p>
  * [1]: <a href="http://delab.csd.auth.gr/~dimitris/courses/ir_spring06/page_rank_computing/01531136.pdf">An Efficient Partition-Based Parallel PageRank Algorithm</a><br>
  * [2]: <a href="https://www.cs.purdue.edu/homes/dgleich/publications/gleich2004-parallel.pdf">Fast Parallel PageRank: A Linear System Approach</a>
  */
@@ -81,14 +85,16 @@ public class PageRank extends Algorithm<PageRank> implements PageRankAlgorithm {
 
     /**
      * Forces sequential use. If you want parallelism, prefer
-     * {@link #PageRank(ExecutorService, int, int, IdMapping, NodeIterator, RelationshipIterator, Degrees, double)}
+     * {@link #PageRank(ExecutorService, int, int, IdMapping, NodeIterator, RelationshipIterator, Degrees, double, PageRankSources, boolean)}
      */
     PageRank(
             IdMapping idMapping,
             NodeIterator nodeIterator,
             RelationshipIterator relationshipIterator,
             Degrees degrees,
-            double dampingFactor) {
+            double dampingFactor,
+            PageRankSources sources,
+            boolean weighted) {
         this(
                 null,
                 -1,
@@ -97,13 +103,18 @@ public class PageRank extends Algorithm<PageRank> implements PageRankAlgorithm {
                 nodeIterator,
                 relationshipIterator,
                 degrees,
-                dampingFactor);
+                dampingFactor,
+                sources,
+                weighted);
     }
 
     /**
      * Parallel Page Rank implementation.
      * Whether the algorithm actually runs in parallel depends on the given
      * executor and batchSize.
+     *
+     * @param sources  the nodes the random surfer teleports to, null for all nodes
+     * @param weighted whether the rank is distributed proportional to the relationship weights
      */
     PageRank(
             ExecutorService executor,
@@ -113,7 +124,9 @@ public class PageRank extends Algorithm<PageRank> implements PageRankAlgorithm {
             NodeIterator nodeIterator,
             RelationshipIterator relationshipIterator,
             Degrees degrees,
-            double dampingFactor) {
+            double dampingFactor,
+            PageRankSources sources,
+            boolean weighted) {
         List<Partition> partitions;
         if (ParallelUtil.canRunInParallel(executor)) {
             partitions = partitionGraph(
@@ -129,6 +142,8 @@ public class PageRank extends Algorithm<PageRank> implements PageRankAlgorithm {
         computeSteps = createComputeSteps(
                 concurrency,
                 dampingFactor,
+                sources,
+                weighted,
                 relationshipIterator,
                 degrees,
                 partitions,
@@ -140,11 +155,27 @@ public class PageRank extends Algorithm<PageRank> implements PageRankAlgorithm {
      */
     @Override
     public PageRank compute(int iterations) {
-        assert iterations >= 1;
-        computeSteps.run(iterations);
+        return compute(iterations, 0.0);
+    }
+
+    @Override
+    public PageRank compute(int maxIterations, double tolerance) {
+        assert maxIterations >= 1;
+        assert tolerance >= 0.0;
+        computeSteps.run(maxIterations, tolerance);
         return this;
     }
 
+    @Override
+    public int iterations() {
+        return computeSteps.iterations;
+    }
+
+    @Override
+    public boolean didConverge() {
+        return computeSteps.didConverge;
+    }
+
     @Override
     public PageRankResult result() {
         return computeSteps.getPageRank();
@@ -202,6 +233,8 @@ public class PageRank extends Algorithm<PageRank> implements PageRankAlgorithm {
     private ComputeSteps createComputeSteps(
             int concurrency,
             double dampingFactor,
+            PageRankSources sources,
+            boolean weighted,
             RelationshipIterator relationshipIterator,
             Degrees degrees,
             List<Partition> partitions,
@@ -234,6 +267,8 @@ public class PageRank extends Algorithm<PageRank> implements PageRankAlgorithm {
 
             computeSteps.add(new ComputeStep(
                     dampingFactor,
+                    sources,
+                    weighted,
                     relationshipIterator,
                     degrees,
                     partitionCount,
@@ -295,6 +330,8 @@ public class PageRank extends Algorithm<PageRank> implements PageRankAlgorithm {
         private List<ComputeStep> steps;
         private final ExecutorService pool;
         private int[][][] scores;
+        private int iterations;
+        private boolean didConverge;
 
         private ComputeSteps(
                 int concurrency,
@@ -323,18 +360,33 @@ public class PageRank extends Algorithm<PageRank> implements PageRankAlgorithm {
             return new PartitionedPrimitiveDoubleArrayResult(results, firstStep.starts);
         }
 
-        private void run(int iterations) {
+        private void run(int maxIterations, double tolerance) {
             // initialize data structures
             ParallelUtil.runWithConcurrency(concurrency, steps, pool);
-            for (int i = 0; i < iterations && running(); i++) {
+            iterations = 0;
+            didConverge = false;
+            while (iterations < maxIterations && running()) {
                 // calculate scores
                 ParallelUtil.runWithConcurrency(concurrency, steps, pool);
                 synchronizeScores();
                 // sync scores
                 ParallelUtil.runWithConcurrency(concurrency, steps, pool);
+                ++iterations;
+                if (tolerance > 0.0 && maxDelta() < tolerance) {
+                    didConverge = true;
+                    break;
+                }
             }
         }
 
+        private double maxDelta() {
+            double maxDelta = 0.0;
+            for (ComputeStep step : steps) {
+                maxDelta = Math.max(maxDelta, step.maxDelta);
+            }
+            return maxDelta;
+        }
+
         private void synchronizeScores() {
             int stepSize = steps.size();
             int[][][] scores = this.scores;
@@ -362,7 +414,7 @@ public class PageRank extends Algorithm<PageRank> implements PageRankAlgorithm {
         }
     }
 
-    private static final class ComputeStep implements Runnable, RelationshipConsumer {
+    private static final class ComputeStep implements Runnable {
         private static final int S_INIT = 0;
         private static final int S_CALC = 1;
         private static final int S_SYNC = 2;
@@ -371,14 +423,21 @@ public class PageRank extends Algorithm<PageRank> implements PageRankAlgorithm {
 
         private int[] starts;
         private int[] lengths;
-        private final RelationshipIterator relationshipIterator;
+        private final AdjacencyCursor cursor;
+        private final int[] targets;
+        private final double[] weights;
         private final Degrees degrees;
 
         private final double alpha;
         private final double dampingFactor;
+        private final PageRankSources sources;
 
         private double[] pageRank;
         private double[] deltas;
+        // the sum of the outgoing weights of every node of this partition, only if weighted
+        private double[] weightSums;
+        // the largest change of a score of this partition in the last iteration
+        private double maxDelta;
         private int[][] nextScores;
         private int[][] prevScores;
 
@@ -386,17 +445,20 @@ public class PageRank extends Algorithm<PageRank> implements PageRankAlgorithm {
         private final int startNode;
         private final int endNode;
 
-        private int srcRankDelta = 0;
-
         ComputeStep(
                 double dampingFactor,
+                PageRankSources sources,
+                boolean weighted,
                 RelationshipIterator relationshipIterator,
                 Degrees degrees,
                 int partitionSize,
                 int startNode) {
             this.dampingFactor = dampingFactor;
             this.alpha = 1.0 - dampingFactor;
-            this.relationshipIterator = relationshipIterator;
+            this.sources = sources;
+            this.cursor = relationshipIterator.newAdjacencyCursor();
+            this.targets = new int[AdjacencyCursor.BATCH_SIZE];
+            this.weights = weighted ? new double[AdjacencyCursor.BATCH_SIZE] : null;
             this.degrees = degrees;
             this.partitionSize = partitionSize;
             this.startNode = startNode;
@@ -428,38 +490,102 @@ public class PageRank extends Algorithm<PageRank> implements PageRankAlgorithm {
             Arrays.setAll(nextScores, i -> new int[lengths[i]]);
 
             double[] partitionRank = new double[partitionSize];
-            Arrays.fill(partitionRank, alpha);
+            if (sources == null) {
+                Arrays.fill(partitionRank, alpha);
+            } else {
+                sources.initialize(alpha, startNode, partitionRank);
+            }
 
             this.pageRank = partitionRank;
             this.deltas = Arrays.copyOf(partitionRank, partitionSize);
+
+            if (weights != null) {
+                weightSums = new double[partitionSize];
+                for (int nodeId = startNode; nodeId < endNode; ++nodeId) {
+                    weightSums[nodeId - startNode] = weightSum(nodeId);
+                }
+            }
+        }
+
+        private double weightSum(int nodeId) {
+            double sum = 0.0;
+            cursor.init(nodeId, Direction.OUTGOING);
+            int length;
+            while ((length = cursor.next(targets, weights)) > 0) {
+                for (int i = 0; i < length; i++) {
+                    sum += weights[i];
+                }
+            }
+            return sum;
         }
 
         private void singleIteration() {
+            if (weights != null) {
+                singleWeightedIteration();
+                return;
+            }
             int startNode = this.startNode;
             int endNode = this.endNode;
-            RelationshipIterator rels = this.relationshipIterator;
+            AdjacencyCursor cursor = this.cursor;
+            int[] targets = this.targets;
+            int[] starts = this.starts;
+            int[][] nextScores = this.nextScores;
             for (int nodeId = startNode; nodeId < endNode; ++nodeId) {
                 double delta = deltas[nodeId - startNode];
                 if (delta > 0) {
                     int degree = degrees.degree(nodeId, Direction.OUTGOING);
                     if (degree > 0) {
-                        srcRankDelta = (int) (100_000 * (delta / degree));
-                        rels.forEachRelationship(nodeId, Direction.OUTGOING, this);
+                        int srcRankDelta = (int) (100_000 * (delta / degree));
+                        if (srcRankDelta == 0) {
+                            continue;
+                        }
+                        cursor.init(nodeId, Direction.OUTGOING);
+                        int length;
+                        while ((length = cursor.next(targets)) > 0) {
+                            for (int i = 0; i < length; i++) {
+                                int targetNodeId = targets[i];
+                                int idx = binaryLookup(targetNodeId, starts);
+                                nextScores[idx][targetNodeId - starts[idx]] += srcRankDelta;
+                            }
+                        }
                     }
                 }
             }
         }
 
-        @Override
-        public boolean accept(
-                int sourceNodeId,
-                int targetNodeId,
-                long relationId) {
-            if (srcRankDelta != 0) {
-                int idx = binaryLookup(targetNodeId, starts);
-                nextScores[idx][targetNodeId - starts[idx]] += srcRankDelta;
+        /**
+         * Distributes the delta of every node proportional to the weights of its relationships,
+         * nodes whose weights sum up to 0 are treated like nodes without relationships.
+         */
+        private void singleWeightedIteration() {
+            int startNode = this.startNode;
+            int endNode = this.endNode;
+            AdjacencyCursor cursor = this.cursor;
+            int[] targets = this.targets;
+            double[] weights = this.weights;
+            int[] starts = this.starts;
+            int[][] nextScores = this.nextScores;
+            for (int nodeId = startNode; nodeId < endNode; ++nodeId) {
+                double delta = deltas[nodeId - startNode];
+                if (delta > 0) {
+                    double weightSum = weightSums[nodeId - startNode];
+                    if (weightSum > 0) {
+                        double srcRankDelta = 100_000 * (delta / weightSum);
+                        cursor.init(nodeId, Direction.OUTGOING);
+                        int length;
+                        while ((length = cursor.next(targets, weights)) > 0) {
+                            for (int i = 0; i < length; i++) {
+                                int targetRankDelta = (int) (srcRankDelta * weights[i]);
+                                if (targetRankDelta != 0) {
+                                    int targetNodeId = targets[i];
+                                    int idx = binaryLookup(targetNodeId, starts);
+                                    nextScores[idx][targetNodeId - starts[idx]] += targetRankDelta;
+                                }
+                            }
+                        }
+                    }
+                }
             }
-            return true;
         }
 
         void prepareNextIteration(int[][] prevScores) {
@@ -487,6 +613,7 @@ public class PageRank extends Algorithm<PageRank> implements PageRankAlgorithm {
         private void synchronizeScores(int[] allScores) {
             double dampingFactor = this.dampingFactor;
             double[] pageRank = this.pageRank;
+            double maxDelta = 0.0;
 
             int length = allScores.length;
             for (int i = 0; i < length; i++) {
@@ -494,8 +621,10 @@ public class PageRank extends Algorithm<PageRank> implements PageRankAlgorithm {
                 double delta = dampingFactor * (sum / 100_000.0);
                 pageRank[i] += delta;
                 deltas[i] = delta;
+                maxDelta = Math.max(maxDelta, delta);
                 allScores[i] = 0;
             }
+            this.maxDelta = maxDelta;
         }
 
     }
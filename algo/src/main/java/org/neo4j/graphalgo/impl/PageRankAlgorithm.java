@@ -3,6 +3,7 @@ package org.neo4j.graphalgo.impl;
 import org.neo4j.graphalgo.api.Graph;
 import org.neo4j.graphalgo.api.HugeGraph;
 import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
+import org.neo4j.graphalgo.core.utils.paged.MemoryRange;
 
 import java.util.concurrent.ExecutorService;
 
@@ -10,10 +11,57 @@ public interface PageRankAlgorithm {
 
     PageRankAlgorithm compute(int iterations);
 
+    /**
+     * Runs until no score changes by more than the tolerance within a single
+     * iteration, but at most maxIterations. A tolerance of 0 always runs maxIterations.
+     */
+    PageRankAlgorithm compute(int maxIterations, double tolerance);
+
+    /**
+     * @return the number of iterations of the last computation
+     */
+    int iterations();
+
+    /**
+     * @return true if the last computation stopped because the scores converged
+     */
+    boolean didConverge();
+
     PageRankResult result();
 
     Algorithm<?> algorithm();
 
+    /**
+     * Both implementations keep the score and the delta of every node as doubles and
+     * every compute step receives the scores of all nodes as ints. The huge implementation
+     * throttles the concurrency when there is not enough memory, down to a single step.
+     */
+    static MemoryRange memoryEstimation(long nodeCount, int concurrency) {
+        return memoryEstimation(nodeCount, concurrency, false, false, false);
+    }
+
+    /**
+     * A weighted computation also keeps the weight sum of every node. The {@link PullPageRank}
+     * keeps the score and the share of every node, in floats or doubles, and needs no memory per step.
+     */
+    static MemoryRange memoryEstimation(
+            long nodeCount,
+            int concurrency,
+            boolean weighted,
+            boolean pull,
+            boolean floatPrecision) {
+        if (pull) {
+            long arrays = weighted ? 3L : 2L;
+            return MemoryRange.of(nodeCount * arrays * (floatPrecision ? Float.BYTES : Double.BYTES));
+        }
+        long shared = nodeCount * (Double.BYTES << 1);
+        if (weighted) {
+            shared += nodeCount * Double.BYTES;
+        }
+        long perStep = nodeCount * Integer.BYTES;
+        return MemoryRange.of(shared + perStep, shared + perStep * Math.max(1, concurrency));
+    }
+
     static PageRankAlgorithm of(
         Graph graph,
         double dampingFactor) {
@@ -24,11 +72,35 @@ public interface PageRankAlgorithm {
             AllocationTracker tracker,
             Graph graph,
             double dampingFactor) {
+        return of(tracker, graph, dampingFactor, (PageRankSources) null);
+    }
+
+    /**
+     * @param sources the nodes the random surfer teleports to, null for all nodes
+     */
+    static PageRankAlgorithm of(
+            AllocationTracker tracker,
+            Graph graph,
+            double dampingFactor,
+            PageRankSources sources) {
+        return of(tracker, graph, dampingFactor, sources, false);
+    }
+
+    /**
+     * @param sources  the nodes the random surfer teleports to, null for all nodes
+     * @param weighted whether the rank is distributed proportional to the relationship weights
+     */
+    static PageRankAlgorithm of(
+            AllocationTracker tracker,
+            Graph graph,
+            double dampingFactor,
+            PageRankSources sources,
+            boolean weighted) {
         if (graph instanceof HugeGraph) {
             HugeGraph huge = (HugeGraph) graph;
-            return new HugePageRank(tracker, huge, huge, huge, huge, dampingFactor);
+            return new HugePageRank(tracker, huge, huge, huge, huge, dampingFactor, sources, weighted);
         }
-        return new PageRank(graph, graph, graph, graph, dampingFactor);
+        return new PageRank(graph, graph, graph, graph, dampingFactor, sources, weighted);
     }
 
     static PageRankAlgorithm of(
@@ -47,6 +119,36 @@ public interface PageRankAlgorithm {
             ExecutorService pool,
             int concurrency,
             int batchSize) {
+        return of(tracker, graph, dampingFactor, null, pool, concurrency, batchSize);
+    }
+
+    /**
+     * @param sources the nodes the random surfer teleports to, null for all nodes
+     */
+    static PageRankAlgorithm of(
+            AllocationTracker tracker,
+            Graph graph,
+            double dampingFactor,
+            PageRankSources sources,
+            ExecutorService pool,
+            int concurrency,
+            int batchSize) {
+        return of(tracker, graph, dampingFactor, sources, false, pool, concurrency, batchSize);
+    }
+
+    /**
+     * @param sources  the nodes the random surfer teleports to, null for all nodes
+     * @param weighted whether the rank is distributed proportional to the relationship weights
+     */
+    static PageRankAlgorithm of(
+            AllocationTracker tracker,
+            Graph graph,
+            double dampingFactor,
+            PageRankSources sources,
+            boolean weighted,
+            ExecutorService pool,
+            int concurrency,
+            int batchSize) {
         if (graph instanceof HugeGraph) {
             HugeGraph huge = (HugeGraph) graph;
             return new HugePageRank(
@@ -58,7 +160,9 @@ public interface PageRankAlgorithm {
                     huge,
                     huge,
                     huge,
-                    dampingFactor);
+                    dampingFactor,
+                    sources,
+                    weighted);
         }
         return new PageRank(
                 pool,
@@ -68,6 +172,55 @@ public interface PageRankAlgorithm {
                 graph,
                 graph,
                 graph,
-                dampingFactor);
+                dampingFactor,
+                sources,
+                weighted);
+    }
+
+    /**
+     * A {@link PullPageRank}, the graph has to be loaded with both directions.
+     *
+     * @param sources  the nodes the random surfer teleports to, null for all nodes
+     * @param weighted whether the rank is distributed proportional to the relationship weights
+     */
+    static PageRankAlgorithm pull(
+            AllocationTracker tracker,
+            Graph graph,
+            double dampingFactor,
+            PageRankSources sources,
+            boolean weighted,
+            ExecutorService pool,
+            int concurrency,
+            int batchSize) {
+        return pull(tracker, graph, dampingFactor, sources, weighted, false, pool, concurrency, batchSize);
+    }
+
+    /**
+     * A {@link PullPageRank}, the graph has to be loaded with both directions.
+     *
+     * @param sources        the nodes the random surfer teleports to, null for all nodes
+     * @param weighted       whether the rank is distributed proportional to the relationship weights
+     * @param floatPrecision whether the scores are stored as floats instead of doubles
+     */
+    static PageRankAlgorithm pull(
+            AllocationTracker tracker,
+            Graph graph,
+            double dampingFactor,
+            PageRankSources sources,
+            boolean weighted,
+            boolean floatPrecision,
+            ExecutorService pool,
+            int concurrency,
+            int batchSize) {
+        return new PullPageRank(
+                pool,
+                concurrency,
+                batchSize,
+                tracker,
+                graph,
+                dampingFactor,
+                sources,
+                weighted,
+                floatPrecision);
     }
 }
@@ -0,0 +1,67 @@
+package org.neo4j.graphalgo.impl;
+
+import java.util.Arrays;
+
+/**
+ * The source nodes of a personalized PageRank, given as mapped node ids.
+ * <p>
+ * The random surfer only teleports to the source nodes. A source starts with
+ * {@code (1 - dampingFactor) * weight} instead of {@code 1 - dampingFactor}
+ * and every other node starts with 0. The scores are not normalized, with
+ * every node as a source of weight 1 the scores equal the global PageRank.
+ */
+public final class PageRankSources {
+
+    private final long[] nodes;
+    private final double[] weights;
+
+    private PageRankSources(long[] nodes, double[] weights) {
+        this.nodes = nodes;
+        this.weights = weights;
+    }
+
+    /**
+     * sources that all have a weight of 1
+     */
+    public static PageRankSources of(long... nodes) {
+        return of(nodes, null);
+    }
+
+    /**
+     * @param weights the weight of the source at the same index, null for a weight of 1
+     */
+    public static PageRankSources of(long[] nodes, double[] weights) {
+        if (weights != null && weights.length != nodes.length) {
+            throw new IllegalArgumentException(
+                    "Expected " + nodes.length + " source weights but got " + weights.length);
+        }
+        return new PageRankSources(nodes, weights);
+    }
+
+    public int size() {
+        return nodes.length;
+    }
+
+    public long node(int index) {
+        return nodes[index];
+    }
+
+    public double weight(int index) {
+        return weights != null ? weights[index] : 1.0;
+    }
+
+    /**
+     * Writes the initial score of every source within {@code [startNode, startNode + scores.length)}
+     * into the scores of that partition, the scores of all other nodes are set to 0.
+     */
+    void initialize(double alpha, long startNode, double[] scores) {
+        Arrays.fill(scores, 0.0);
+        long endNode = startNode + scores.length;
+        for (int i = 0; i < nodes.length; i++) {
+            long node = nodes[i];
+            if (node >= startNode && node < endNode) {
+                scores[(int) (node - startNode)] += alpha * weight(i);
+            }
+        }
+    }
+}
@@ -0,0 +1,334 @@
+package org.neo4j.graphalgo.impl;
+
+import com.carrotsearch.hppc.BitSet;
+import org.neo4j.graphalgo.api.AdjacencyCursor;
+import org.neo4j.graphalgo.api.Graph;
+import org.neo4j.graphalgo.api.HugeGraph;
+import org.neo4j.graphalgo.core.utils.ParallelUtil;
+import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
+import org.neo4j.graphalgo.core.utils.paged.DoubleArray;
+import org.neo4j.graphalgo.core.utils.paged.LongArray;
+import org.neo4j.graphalgo.core.utils.paged.MemoryUsage;
+import org.neo4j.graphalgo.core.utils.queue.LongMinPriorityQueue;
+import org.neo4j.graphdb.Direction;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Personalized PageRank for many source sets at once.
+ * <p>
+ * Up to {@code setsPerPass} source sets share a single pass over the adjacency
+ * in every iteration: the scores of all sets are interleaved per node, so the
+ * targets of a node are read once and its score is pushed to them for every set.
+ * Only the frontier of nodes whose score changed for any set in the last iteration
+ * is visited, which keeps the first iterations of small source sets cheap.
+ * <p>
+ * Passes run in parallel, every pass needs {@link #memoryEstimation(long, int)} bytes.
+ * If the passes that run at the same time would not fit into the available heap,
+ * fewer sets share a pass, see {@link #setsPerPass()}.
+ * <p>
+ * Only the {@code topK} highest scores of every set are returned.
+ * The scores are computed like those of {@link PageRank} with {@link PageRankSources}.
+ */
+public final class PersonalizedPageRankBatch extends Algorithm<PersonalizedPageRankBatch> {
+
+    public static final int DEFAULT_SETS_PER_PASS = 16;
+
+    private final Graph graph;
+    private final HugeGraph hugeGraph;
+    private final double dampingFactor;
+    private final ExecutorService executor;
+    private final int concurrency;
+    private final int requestedSetsPerPass;
+    private final long nodeCount;
+    private final AllocationTracker tracker;
+
+    private int setsPerPass;
+    private int iterations;
+
+    public PersonalizedPageRankBatch(
+            Graph graph,
+            double dampingFactor,
+            ExecutorService executor,
+            int concurrency,
+            int setsPerPass,
+            AllocationTracker tracker) {
+        this.graph = graph;
+        this.hugeGraph = graph instanceof HugeGraph ? (HugeGraph) graph : null;
+        this.dampingFactor = dampingFactor;
+        this.executor = executor;
+        this.concurrency = Math.max(1, concurrency);
+        this.nodeCount = graph.nodeCount();
+        this.requestedSetsPerPass = Math.max(1, setsPerPass);
+        this.setsPerPass = requestedSetsPerPass;
+        this.tracker = tracker;
+    }
+
+    /**
+     * @return the number of bytes that a single pass over {@code setsPerPass} source sets allocates
+     */
+    public static long memoryEstimation(long nodeCount, int setsPerPass) {
+        // scores, deltas and next deltas of every set plus the current and next frontier
+        return 3L * DoubleArray.estimateMemoryUsage(nodeCount * setsPerPass)
+                + 2L * LongArray.estimateMemoryUsage(nodeCount)
+                + MemoryUsage.sizeOfLongArray(BitSet.bits2words(nodeCount));
+    }
+
+    /**
+     * Runs until no score of any set changes by more than the tolerance within a single
+     * iteration, but at most maxIterations. A tolerance of 0 always runs maxIterations.
+     *
+     * @return the top scores of every source set, in the order of the source sets
+     */
+    public TopScores[] compute(List<PageRankSources> sourceSets, int maxIterations, double tolerance, int topK) {
+        assert maxIterations >= 1;
+        assert topK >= 1;
+        TopScores[] results = new TopScores[sourceSets.size()];
+        setsPerPass = setsPerPassByMemory(sourceSets.size());
+        int passCount = ParallelUtil.threadSize(setsPerPass, sourceSets.size());
+        AtomicInteger finished = new AtomicInteger();
+        List<Pass> passes = new ArrayList<>(passCount);
+        for (int offset = 0; offset < sourceSets.size(); offset += setsPerPass) {
+            int end = Math.min(sourceSets.size(), offset + setsPerPass);
+            passes.add(new Pass(
+                    sourceSets.subList(offset, end),
+                    offset,
+                    maxIterations,
+                    tolerance,
+                    topK,
+                    results,
+                    () -> getProgressLogger().logProgress(finished.incrementAndGet(), passCount)));
+        }
+        ParallelUtil.runWithConcurrency(concurrency, passes, executor);
+        iterations = 0;
+        for (Pass pass : passes) {
+            iterations = Math.max(iterations, pass.iterations);
+        }
+        return results;
+    }
+
+    /**
+     * @return the largest number of iterations that a pass of the last computation ran
+     */
+    public int iterations() {
+        return iterations;
+    }
+
+    /**
+     * @return the number of source sets that shared a pass in the last computation,
+     * which is less than requested if the passes would not have fit into the heap
+     */
+    public int setsPerPass() {
+        return setsPerPass;
+    }
+
+    @Override
+    public PersonalizedPageRankBatch me() {
+        return this;
+    }
+
+    @Override
+    public PersonalizedPageRankBatch release() {
+        return this;
+    }
+
+    private int setsPerPassByMemory(int setCount) {
+        int sets = Math.max(1, Math.min(requestedSetsPerPass, setCount));
+        int parallelPasses = Math.min(concurrency, ParallelUtil.threadSize(sets, setCount));
+        long available = availableMemory();
+        while (sets > 1 && memoryEstimation(nodeCount, sets) * parallelPasses > available) {
+            sets = Math.max(1, sets / 2);
+            parallelPasses = Math.min(concurrency, ParallelUtil.threadSize(sets, setCount));
+        }
+        return sets;
+    }
+
+    private static long availableMemory() {
+        Runtime rt = Runtime.getRuntime();
+        return rt.maxMemory() - rt.totalMemory() + rt.freeMemory();
+    }
+
+    private int degree(long node) {
+        if (hugeGraph != null) {
+            return hugeGraph.degree(node, Direction.OUTGOING);
+        }
+        return graph.degree((int) node, Direction.OUTGOING);
+    }
+
+    /**
+     * The highest scores of a source set in descending order.
+     */
+    public static final class TopScores {
+        public final long[] nodes;
+        public final double[] scores;
+
+        TopScores(long[] nodes, double[] scores) {
+            this.nodes = nodes;
+            this.scores = scores;
+        }
+    }
+
+    private final class Pass implements Runnable {
+        private final List<PageRankSources> sets;
+        private final int offset;
+        private final int maxIterations;
+        private final double tolerance;
+        private final int topK;
+        private final TopScores[] results;
+        private final Runnable onFinish;
+        private int iterations;
+
+        private Pass(
+                List<PageRankSources> sets,
+                int offset,
+                int maxIterations,
+                double tolerance,
+                int topK,
+                TopScores[] results,
+                Runnable onFinish) {
+            this.sets = sets;
+            this.offset = offset;
+            this.maxIterations = maxIterations;
+            this.tolerance = tolerance;
+            this.topK = topK;
+            this.results = results;
+            this.onFinish = onFinish;
+        }
+
+        @Override
+        public void run() {
+            final int lanes = sets.size();
+            final long size = nodeCount * lanes;
+            final double alpha = 1.0 - dampingFactor;
+            DoubleArray scores = DoubleArray.newArray(size, tracker);
+            DoubleArray deltas = DoubleArray.newArray(size, tracker);
+            DoubleArray nextDeltas = DoubleArray.newArray(size, tracker);
+            LongArray frontier = LongArray.newArray(nodeCount, tracker);
+            LongArray nextFrontier = LongArray.newArray(nodeCount, tracker);
+            BitSet inNextFrontier = new BitSet(nodeCount);
+            long bitSetSize = MemoryUsage.sizeOfLongArray(inNextFrontier.bits.length);
+            tracker.add(bitSetSize);
+            final double[] shares = new double[lanes];
+
+            long frontierSize = 0L;
+            for (int lane = 0; lane < lanes; lane++) {
+                PageRankSources sources = sets.get(lane);
+                for (int i = 0; i < sources.size(); i++) {
+                    long node = sources.node(i);
+                    long index = node * lanes + lane;
+                    double delta = deltas.get(index) + alpha * sources.weight(i);
+                    deltas.set(index, delta);
+                    scores.set(index, delta);
+                    if (!inNextFrontier.getAndSet(node)) {
+                        frontier.set(frontierSize++, node);
+                    }
+                }
+            }
+            // not BitSet#clear(), which would turn the later clear(index) calls into no-ops
+            for (long i = 0L; i < frontierSize; i++) {
+                inNextFrontier.clear(frontier.get(i));
+            }
+
+            final AdjacencyCursor cursor = graph.newAdjacencyCursor();
+            final long[] targets = new long[AdjacencyCursor.BATCH_SIZE];
+            iterations = 0;
+            while (iterations < maxIterations && frontierSize > 0L && running()) {
+                long nextFrontierSize = 0L;
+                for (long i = 0L; i < frontierSize; i++) {
+                    final long node = frontier.get(i);
+                    final long base = node * lanes;
+                    for (int lane = 0; lane < lanes; lane++) {
+                        shares[lane] = deltas.set(base + lane, 0.0);
+                    }
+                    final int degree = degree(node);
+                    if (degree == 0) {
+                        continue;
+                    }
+                    final double factor = dampingFactor / degree;
+                    for (int lane = 0; lane < lanes; lane++) {
+                        shares[lane] *= factor;
+                    }
+                    cursor.init(node, Direction.OUTGOING);
+                    int length;
+                    while ((length = cursor.next(targets)) > 0) {
+                        for (int j = 0; j < length; j++) {
+                            final long target = targets[j];
+                            if (!inNextFrontier.getAndSet(target)) {
+                                nextFrontier.set(nextFrontierSize++, target);
+                            }
+                            final long targetBase = target * lanes;
+                            for (int lane = 0; lane < lanes; lane++) {
+                                if (shares[lane] != 0.0) {
+                                    final long index = targetBase + lane;
+                                    nextDeltas.set(index, nextDeltas.get(index) + shares[lane]);
+                                }
+                            }
+                        }
+                    }
+                }
+
+                double maxDelta = 0.0;
+                for (long i = 0L; i < nextFrontierSize; i++) {
+                    final long node = nextFrontier.get(i);
+                    inNextFrontier.clear(node);
+                    final long base = node * lanes;
+                    for (int lane = 0; lane < lanes; lane++) {
+                        final double delta = nextDeltas.get(base + lane);
+                        scores.set(base + lane, scores.get(base + lane) + delta);
+                        maxDelta = Math.max(maxDelta, delta);
+                    }
+                }
+                // the deltas of the old frontier have been cleared while pushing them
+                DoubleArray swapDeltas = deltas;
+                deltas = nextDeltas;
+                nextDeltas = swapDeltas;
+                LongArray swapFrontier = frontier;
+                frontier = nextFrontier;
+                nextFrontier = swapFrontier;
+                frontierSize = nextFrontierSize;
+                ++iterations;
+                if (tolerance > 0.0 && maxDelta < tolerance) {
+                    break;
+                }
+            }
+            tracker.remove(deltas.release());
+            tracker.remove(nextDeltas.release());
+            tracker.remove(frontier.release());
+            tracker.remove(nextFrontier.release());
+            tracker.remove(bitSetSize);
+
+            for (int lane = 0; lane < lanes; lane++) {
+                results[offset + lane] = topScores(scores, lanes, lane);
+            }
+            tracker.remove(scores.release());
+            onFinish.run();
+        }
+
+        private TopScores topScores(DoubleArray scores, int lanes, int lane) {
+            LongMinPriorityQueue queue = new LongMinPriorityQueue(topK + 1);
+            for (long node = 0L; node < nodeCount; node++) {
+                double score = scores.get(node * lanes + lane);
+                if (score <= 0.0) {
+                    continue;
+                }
+                if (queue.size() < topK) {
+                    queue.add(node, score);
+                } else if (score > queue.topCost()) {
+                    queue.pop();
+                    queue.add(node, score);
+                }
+            }
+            int size = queue.size();
+            long[] nodes = new long[size];
+            double[] topScores = new double[size];
+            for (int i = size - 1; i >= 0; i--) {
+                topScores[i] = queue.topCost();
+                nodes[i] = queue.pop();
+            }
+            return new TopScores(nodes, topScores);
+        }
+    }
+}
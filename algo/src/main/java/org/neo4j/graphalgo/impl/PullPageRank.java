@@ -0,0 +1,479 @@
+package org.neo4j.graphalgo.impl;
+
+import com.carrotsearch.hppc.LongDoubleHashMap;
+import com.carrotsearch.hppc.cursors.LongDoubleCursor;
+import org.neo4j.graphalgo.api.AdjacencyCursor;
+import org.neo4j.graphalgo.api.Graph;
+import org.neo4j.graphalgo.api.HugeGraph;
+import org.neo4j.graphalgo.core.utils.ParallelUtil;
+import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
+import org.neo4j.graphalgo.core.utils.paged.DoubleArray;
+import org.neo4j.graphalgo.core.utils.paged.FloatArray;
+import org.neo4j.graphalgo.core.write.Exporter;
+import org.neo4j.graphalgo.core.write.PropertyTranslator;
+import org.neo4j.graphdb.Direction;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Pull based parallel PageRank.
+ * <p>
+ * Instead of pushing the score of a node to its targets, every node pulls the
+ * scores of the nodes that point to it, using the incoming relationships. A node
+ * is only ever written by the step that owns it, so the steps neither need
+ * message arrays nor any synchronization besides a barrier between the phases
+ * of an iteration. Regardless of the concurrency, only two arrays of all nodes are used:
+ * <ul>
+ * <li>the scores of the last iteration</li>
+ * <li>the share of its score that every node passes to each of its targets</li>
+ * </ul>
+ * Every iteration first computes the shares from the scores and then pulls
+ * the shares into the new scores. The graph has to be loaded with both directions,
+ * the outgoing degrees define the shares and the incoming relationships are pulled.
+ * <p>
+ * The scores are the same as those of {@link PageRank} and {@link HugePageRank},
+ * but are not rounded to 5 decimals within an iteration.
+ * <p>
+ * With float precision, all arrays are stored as floats, which halves their memory
+ * and the bandwidth of an iteration. The sums are still computed with doubles, only
+ * the stored values are rounded, each by a relative error of at most {@code 2^-24}.
+ * A new score is pulled from the rounded shares of the last scores and is rounded
+ * itself, so the relative error of every score grows by at most {@code 3 * 2^-24}
+ * per iteration, including the rounded weight sums. Compared to double precision,
+ * no score differs by more than {@link #floatPrecisionError(int)}, about {@code 3.6e-6}
+ * after 20 iterations. Nodes whose scores are closer than that may swap their ranks.
+ */
+public class PullPageRank extends Algorithm<PullPageRank> implements PageRankAlgorithm {
+
+    private final ExecutorService executor;
+    private final int concurrency;
+    private final int batchSize;
+    private final AllocationTracker tracker;
+    private final Graph graph;
+    private final double dampingFactor;
+    private final PageRankSources sources;
+    private final boolean weighted;
+    private final boolean floatPrecision;
+    private final long nodeCount;
+
+    private Scores scores;
+    private Scores shares;
+    private Scores weightSums;
+    private int iterations;
+    private boolean didConverge;
+
+    /**
+     * Whether the algorithm actually runs in parallel depends on the given
+     * executor and batchSize.
+     *
+     * @param sources        the nodes the random surfer teleports to, null for all nodes
+     * @param weighted       whether the rank is distributed proportional to the relationship weights
+     * @param floatPrecision whether the scores are stored as floats instead of doubles
+     */
+    PullPageRank(
+            ExecutorService executor,
+            int concurrency,
+            int batchSize,
+            AllocationTracker tracker,
+            Graph graph,
+            double dampingFactor,
+            PageRankSources sources,
+            boolean weighted,
+            boolean floatPrecision) {
+        this.executor = executor;
+        this.concurrency = concurrency;
+        this.batchSize = batchSize;
+        this.tracker = tracker;
+        this.graph = graph;
+        this.dampingFactor = dampingFactor;
+        this.sources = sources;
+        this.weighted = weighted;
+        this.floatPrecision = floatPrecision;
+        this.nodeCount = graph.nodeCount();
+    }
+
+    /**
+     * @return the largest relative difference of a score computed with float
+     * precision to the same score computed with double precision
+     */
+    public static double floatPrecisionError(int iterations) {
+        // every iteration rounds the share and the new score and divides by
+        // a rounded weight sum, the initial score is rounded once
+        double unitRoundoff = Math.ulp(1.0f) / 2.0;
+        return (3.0 * iterations + 1.0) * unitRoundoff;
+    }
+
+    /**
+     * compute pageRank for n iterations
+     */
+    @Override
+    public PullPageRank compute(int iterations) {
+        return compute(iterations, 0.0);
+    }
+
+    @Override
+    public PullPageRank compute(int maxIterations, double tolerance) {
+        assert maxIterations >= 1;
+        assert tolerance >= 0.0;
+        List<ComputeStep> steps = createComputeSteps();
+        int concurrency = this.concurrency > 0 ? this.concurrency : steps.size();
+        ExecutorService executor = ParallelUtil.canRunInParallel(this.executor) ? this.executor : null;
+
+        final int operations = (maxIterations << 1) + 1;
+        int op = 0;
+        ParallelUtil.runWithConcurrency(concurrency, steps, executor);
+        getProgressLogger().logProgress(++op, operations, tracker);
+        iterations = 0;
+        didConverge = false;
+        while (iterations < maxIterations && running()) {
+            // compute the shares of the last scores
+            ParallelUtil.runWithConcurrency(concurrency, steps, executor);
+            getProgressLogger().logProgress(++op, operations, tracker);
+            // pull the shares into the new scores
+            ParallelUtil.runWithConcurrency(concurrency, steps, executor);
+            getProgressLogger().logProgress(++op, operations, tracker);
+            ++iterations;
+            double maxDelta = 0.0;
+            for (ComputeStep step : steps) {
+                maxDelta = Math.max(maxDelta, step.maxDelta);
+            }
+            if (tolerance > 0.0 && maxDelta < tolerance) {
+                didConverge = true;
+                break;
+            }
+        }
+        return this;
+    }
+
+    @Override
+    public int iterations() {
+        return iterations;
+    }
+
+    @Override
+    public boolean didConverge() {
+        return didConverge;
+    }
+
+    @Override
+    public PageRankResult result() {
+        return new ScoresResult(scores);
+    }
+
+    @Override
+    public Algorithm<?> algorithm() {
+        return this;
+    }
+
+    @Override
+    public PullPageRank me() {
+        return this;
+    }
+
+    @Override
+    public PullPageRank release() {
+        if (shares != null) {
+            tracker.remove(shares.release());
+            shares = null;
+        }
+        if (weightSums != null) {
+            tracker.remove(weightSums.release());
+            weightSums = null;
+        }
+        return this;
+    }
+
+    private List<ComputeStep> createComputeSteps() {
+        release();
+        scores = newScores();
+        shares = newScores();
+        weightSums = weighted ? newScores() : null;
+
+        long[] sourceNodes = null;
+        double[] teleports = null;
+        if (sources != null) {
+            // sorted by node, so that every step can walk along its sources
+            LongDoubleHashMap bySource = new LongDoubleHashMap();
+            for (int i = 0; i < sources.size(); i++) {
+                bySource.addTo(sources.node(i), (1.0 - dampingFactor) * sources.weight(i));
+            }
+            sourceNodes = bySource.keys().toArray();
+            Arrays.sort(sourceNodes);
+            teleports = new double[sourceNodes.length];
+            for (LongDoubleCursor source : bySource) {
+                teleports[Arrays.binarySearch(sourceNodes, source.key)] = source.value;
+            }
+        }
+
+        List<ComputeStep> steps = new ArrayList<>();
+        if (!ParallelUtil.canRunInParallel(executor)) {
+            steps.add(new ComputeStep(0L, nodeCount, sourceNodes, teleports));
+            return steps;
+        }
+
+        // partitions have about the same number of incoming relationships
+        long partitionSize = ((long) batchSize) << 3;
+        if (partitionSize <= 0L) {
+            partitionSize = Long.MAX_VALUE;
+        }
+        List<long[]> partitions = new ArrayList<>();
+        long start = 0L;
+        long relationships = 0L;
+        for (long node = 0L; node < nodeCount; node++) {
+            relationships += degree(node, Direction.INCOMING);
+            if (relationships >= partitionSize) {
+                partitions.add(new long[]{start, node + 1});
+                start = node + 1;
+                relationships = 0L;
+            }
+        }
+        if (start < nodeCount || partitions.isEmpty()) {
+            partitions.add(new long[]{start, nodeCount});
+        }
+
+        int stepCount = concurrency > 0 ? concurrency : partitions.size();
+        int partitionsPerStep = ParallelUtil.threadSize(stepCount, partitions.size());
+        for (int i = 0; i < partitions.size(); i += partitionsPerStep) {
+            long stepStart = partitions.get(i)[0];
+            long stepEnd = partitions.get(Math.min(partitions.size(), i + partitionsPerStep) - 1)[1];
+            steps.add(new ComputeStep(stepStart, stepEnd, sourceNodes, teleports));
+        }
+        return steps;
+    }
+
+    private Scores newScores() {
+        return floatPrecision
+                ? new FloatScores(FloatArray.newArray(nodeCount, tracker))
+                : new DoubleScores(DoubleArray.newArray(nodeCount, tracker));
+    }
+
+    private int degree(long nodeId, Direction direction) {
+        return graph instanceof HugeGraph
+                ? ((HugeGraph) graph).degree(nodeId, direction)
+                : graph.degree((int) nodeId, direction);
+    }
+
+    private final class ComputeStep implements Runnable {
+        private static final int S_INIT = 0;
+        private static final int S_SHARE = 1;
+        private static final int S_PULL = 2;
+
+        private int state;
+
+        private final long startNode;
+        private final long endNode;
+        private final AdjacencyCursor cursor;
+        private final long[] targets;
+        private final double[] weights;
+        private final double alpha;
+
+        // the sorted sources of all steps and their initial scores, null for all nodes
+        private final long[] sourceNodes;
+        private final double[] teleports;
+        // the first source of this step
+        private final int firstSource;
+
+        // the largest change of a score of this step in the last iteration
+        private double maxDelta;
+
+        ComputeStep(long startNode, long endNode, long[] sourceNodes, double[] teleports) {
+            this.startNode = startNode;
+            this.endNode = endNode;
+            this.cursor = graph instanceof HugeGraph
+                    ? ((HugeGraph) graph).concurrentCopy().newAdjacencyCursor()
+                    : graph.newAdjacencyCursor();
+            this.targets = new long[AdjacencyCursor.BATCH_SIZE];
+            this.weights = weighted ? new double[AdjacencyCursor.BATCH_SIZE] : null;
+            this.alpha = 1.0 - dampingFactor;
+            this.sourceNodes = sourceNodes;
+            this.teleports = teleports;
+            if (sourceNodes != null) {
+                int index = Arrays.binarySearch(sourceNodes, startNode);
+                this.firstSource = index >= 0 ? index : -(index + 1);
+            } else {
+                this.firstSource = 0;
+            }
+            state = S_INIT;
+        }
+
+        @Override
+        public void run() {
+            if (state == S_SHARE) {
+                computeShares();
+                state = S_PULL;
+            } else if (state == S_PULL) {
+                pullShares();
+                state = S_SHARE;
+            } else if (state == S_INIT) {
+                initialize();
+                state = S_SHARE;
+            }
+        }
+
+        private void initialize() {
+            int source = firstSource;
+            for (long nodeId = startNode; nodeId < endNode; ++nodeId) {
+                double teleport = alpha;
+                if (sourceNodes != null) {
+                    teleport = 0.0;
+                    if (source < sourceNodes.length && sourceNodes[source] == nodeId) {
+                        teleport = teleports[source++];
+                    }
+                }
+                scores.set(nodeId, teleport);
+                if (weightSums != null) {
+                    weightSums.set(nodeId, weightSum(nodeId));
+                }
+            }
+        }
+
+        private double weightSum(long nodeId) {
+            double sum = 0.0;
+            cursor.init(nodeId, Direction.OUTGOING);
+            int length;
+            while ((length = cursor.next(targets, weights)) > 0) {
+                for (int i = 0; i < length; i++) {
+                    sum += weights[i];
+                }
+            }
+            return sum;
+        }
+
+        private void computeShares() {
+            for (long nodeId = startNode; nodeId < endNode; ++nodeId) {
+                double total = weightSums != null
+                        ? weightSums.get(nodeId)
+                        : degree(nodeId, Direction.OUTGOING);
+                shares.set(nodeId, total > 0 ? scores.get(nodeId) / total : 0.0);
+            }
+        }
+
+        private void pullShares() {
+            double maxDelta = 0.0;
+            int source = firstSource;
+            for (long nodeId = startNode; nodeId < endNode; ++nodeId) {
+                double sum = 0.0;
+                cursor.init(nodeId, Direction.INCOMING);
+                int length;
+                if (weights != null) {
+                    while ((length = cursor.next(targets, weights)) > 0) {
+                        for (int i = 0; i < length; i++) {
+                            sum += shares.get(targets[i]) * weights[i];
+                        }
+                    }
+                } else {
+                    while ((length = cursor.next(targets)) > 0) {
+                        for (int i = 0; i < length; i++) {
+                            sum += shares.get(targets[i]);
+                        }
+                    }
+                }
+                double teleport = alpha;
+                if (sourceNodes != null) {
+                    teleport = 0.0;
+                    if (source < sourceNodes.length && sourceNodes[source] == nodeId) {
+                        teleport = teleports[source++];
+                    }
+                }
+                double score = teleport + dampingFactor * sum;
+                maxDelta = Math.max(maxDelta, Math.abs(score - scores.set(nodeId, score)));
+            }
+            this.maxDelta = maxDelta;
+        }
+    }
+
+    /**
+     * The values of all nodes, stored with either double or float precision.
+     */
+    private interface Scores {
+
+        double get(long nodeId);
+
+        /**
+         * @return the previous value
+         */
+        double set(long nodeId, double value);
+
+        /**
+         * @return the released bytes
+         */
+        long release();
+    }
+
+    private static final class DoubleScores implements Scores {
+        private final DoubleArray array;
+
+        private DoubleScores(DoubleArray array) {
+            this.array = array;
+        }
+
+        @Override
+        public double get(long nodeId) {
+            return array.get(nodeId);
+        }
+
+        @Override
+        public double set(long nodeId, double value) {
+            return array.set(nodeId, value);
+        }
+
+        @Override
+        public long release() {
+            return array.release();
+        }
+    }
+
+    private static final class FloatScores implements Scores {
+        private final FloatArray array;
+
+        private FloatScores(FloatArray array) {
+            this.array = array;
+        }
+
+        @Override
+        public double get(long nodeId) {
+            return array.get(nodeId);
+        }
+
+        @Override
+        public double set(long nodeId, double value) {
+            return array.set(nodeId, (float) value);
+        }
+
+        @Override
+        public long release() {
+            return array.release();
+        }
+    }
+
+    private static final class ScoresResult implements PageRankResult, PropertyTranslator.OfDouble<Scores> {
+        private final Scores result;
+
+        private ScoresResult(Scores result) {
+            this.result = result;
+        }
+
+        @Override
+        public void export(final String propertyName, final Exporter exporter) {
+            exporter.write(propertyName, result, this);
+        }
+
+        @Override
+        public double toDouble(final Scores data, final long nodeId) {
+            return data.get(nodeId);
+        }
+
+        @Override
+        public double score(final long nodeId) {
+            return result.get(nodeId);
+        }
+
+        @Override
+        public double score(final int nodeId) {
+            return result.get(nodeId);
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package org.neo4j.graphalgo.impl;
 
 import org.neo4j.graphalgo.api.Graph;
+import org.neo4j.graphalgo.core.utils.AdjacencyIntersect;
 import org.neo4j.graphalgo.core.utils.ParallelUtil;
 import org.neo4j.graphalgo.core.utils.ProgressLogger;
 import org.neo4j.graphalgo.core.utils.TerminationFlag;
@@ -132,33 +133,19 @@ public class TriangleCount extends Algorithm<TriangleCount> {
         public void run() {
             final TerminationFlag flag = getTerminationFlag();
             final ProgressLogger progressLogger = getProgressLogger();
-            for (int i = startIndex; i < endIndex; i++) {
+            // the distinct neighbors of u are sorted once and intersected with those of every v
+            final AdjacencyIntersect intersect = new AdjacencyIntersect(graph, D);
+            for (int i = startIndex; i < endIndex && flag.running(); i++) {
                 // (u, v, w)
-                graph.forEachRelationship(i, D, (u, v, relationId) -> {
-                    if (u >= v) {
-                        return true;
+                final int u = i;
+                final int degree = intersect.readNeighbors(u);
+                for (int k = 0; k < degree; k++) {
+                    final int v = intersect.neighbor(k);
+                    if (u < v) {
+                        // only the neighbors after v, so w > v
+                        intersect.intersectNeighbors(k + 1, v, w -> exportTriangle(u, v, w));
                     }
-                    if (!flag.running()) {
-                        return false;
-                    }
-                    graph.forEachRelationship(v, D, (v2, w, relationId2) -> {
-                        if (v2 >= w) {
-                            return true;
-                        }
-                        if (!flag.running()) {
-                            return false;
-                        }
-                        graph.forEachRelationship(w, D, (sourceNodeId3, t, relationId3) -> {
-                            if (t == u) {
-                                exportTriangle(u, v, w);
-                                return false;
-                            }
-                            return flag.running();
-                        });
-                        return true;
-                    });
-                    return true;
-                });
+                }
                 progressLogger.logProgress(visitedNodes.incrementAndGet(), nodeCount);
             }
         }
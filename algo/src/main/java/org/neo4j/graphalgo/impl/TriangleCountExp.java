@@ -2,6 +2,7 @@ package org.neo4j.graphalgo.impl;
 
 import com.carrotsearch.hppc.IntStack;
 import org.neo4j.graphalgo.api.Graph;
+import org.neo4j.graphalgo.core.utils.AdjacencyIntersect;
 import org.neo4j.graphalgo.core.utils.ParallelUtil;
 import org.neo4j.graphalgo.core.utils.ProgressLogger;
 import org.neo4j.graphalgo.core.utils.TerminationFlag;
@@ -129,35 +130,22 @@ public class TriangleCountExp extends Algorithm<TriangleCountExp> {
             final TerminationFlag flag = getTerminationFlag();
             final ProgressLogger progressLogger = getProgressLogger();
             final int[] triangle = {-1, -1, -1}; // (u, v, w)
-            while ((triangle[0] = queue.getAndIncrement()) < nodeCount) {
-                // (u, v, w)
-                graph.forEachRelationship(triangle[0], D, (u, v, relationId) -> {
-                    if (u >= v) {
-                        return true;
-                    }
-                    if (!flag.running()) {
-                        return false;
-                    }
-                    triangle[1] = v;
-                    graph.forEachRelationship(triangle[1], D, (v2, w, relationId2) -> {
-                        if (v2 >= w) {
-                            return true;
-                        }
-                        if (!flag.running()) {
-                            return false;
-                        }
-                        triangle[2] = w;
-                        graph.forEachRelationship(w, D, (sourceNodeId3, t, relationId3) -> {
-                            if (t == u) {
-                                exportTriangle(triangle);
-                                return false;
-                            }
-                            return flag.running();
+            // the distinct neighbors of u are sorted once and intersected with those of every v
+            final AdjacencyIntersect intersect = new AdjacencyIntersect(graph, D);
+            while (flag.running() && (triangle[0] = queue.getAndIncrement()) < nodeCount) {
+                final int u = triangle[0];
+                final int degree = intersect.readNeighbors(u);
+                for (int k = 0; k < degree; k++) {
+                    final int v = intersect.neighbor(k);
+                    if (u < v) {
+                        triangle[1] = v;
+                        // only the neighbors after v, so w > v
+                        intersect.intersectNeighbors(k + 1, v, w -> {
+                            triangle[2] = w;
+                            exportTriangle(triangle);
                         });
-                        return true;
-                    });
-                    return true;
-                });
+                    }
+                }
                 progressLogger.logProgress(visitedNodes.incrementAndGet(), nodeCount);
             }
         }
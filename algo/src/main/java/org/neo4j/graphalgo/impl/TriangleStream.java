@@ -1,6 +1,7 @@
 package org.neo4j.graphalgo.impl;
 
 import org.neo4j.graphalgo.api.Graph;
+import org.neo4j.graphalgo.core.utils.AdjacencyIntersect;
 import org.neo4j.graphalgo.core.utils.ParallelUtil;
 import org.neo4j.graphalgo.core.utils.ProgressLogger;
 import org.neo4j.graphalgo.core.utils.TerminationFlag;
@@ -110,40 +111,28 @@ public class TriangleStream extends Algorithm<TriangleStream> {
         public void run() {
             final TerminationFlag flag = getTerminationFlag();
             final ProgressLogger progressLogger = getProgressLogger();
-            for (int i = startIndex; i < endIndex; i++) {
+            // the distinct neighbors of u are sorted once and intersected with those of every v
+            final AdjacencyIntersect intersect = new AdjacencyIntersect(graph, D);
+            for (int i = startIndex; i < endIndex && flag.running(); i++) {
                 // (u, v, w)
-                graph.forEachRelationship(i, D, (u, v, relationId) -> {
-                    if (u >= v) {
-                        return true;
-                    }
-                    if (!flag.running()) {
-                        return false;
-                    }
-                    graph.forEachRelationship(v, D, (v2, w, relationId2) -> {
-                        if (v2 >= w) {
-                            return true;
-                        }
-                        if (!flag.running()) {
-                            return false;
-                        }
-                        graph.forEachRelationship(w, D, (sourceNodeId3, t, relationId3) -> {
-                            if (t == u) {
-                                try {
-                                    resultQueue.put(new Result(
-                                            graph.toOriginalNodeId(u),
-                                            graph.toOriginalNodeId(v),
-                                            graph.toOriginalNodeId(w)));
-                                } catch (InterruptedException e) {
-                                    throw new RuntimeException(e);
-                                }
-                                return false;
+                final int u = i;
+                final int degree = intersect.readNeighbors(u);
+                for (int k = 0; k < degree; k++) {
+                    final int v = intersect.neighbor(k);
+                    if (u < v) {
+                        // only the neighbors after v, so w > v
+                        intersect.intersectNeighbors(k + 1, v, w -> {
+                            try {
+                                resultQueue.put(new Result(
+                                        graph.toOriginalNodeId(u),
+                                        graph.toOriginalNodeId(v),
+                                        graph.toOriginalNodeId(w)));
+                            } catch (InterruptedException e) {
+                                throw new RuntimeException(e);
                             }
-                            return flag.running();
                         });
-                        return true;
-                    });
-                    return true;
-                });
+                    }
+                }
                 progressLogger.logProgress(visitedNodes.incrementAndGet(), nodeCount);
             }
             runningThreads.decrementAndGet();
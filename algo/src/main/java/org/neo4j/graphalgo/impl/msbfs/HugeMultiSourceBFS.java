@@ -1,5 +1,6 @@
 package org.neo4j.graphalgo.impl.msbfs;
 
+import org.neo4j.graphalgo.api.AdjacencyCursor;
 import org.neo4j.graphalgo.api.HugeIdMapping;
 import org.neo4j.graphalgo.api.HugeRelationshipIterator;
 import org.neo4j.graphalgo.core.utils.ParallelUtil;
@@ -177,6 +178,8 @@ public final class HugeMultiSourceBFS implements Runnable, MsBFSAlgo {
             }
         }
 
+        AdjacencyCursor cursor = relationships.newAdjacencyCursor();
+        long[] targets = new long[AdjacencyCursor.BATCH_SIZE];
         int depth = 0;
 
         while (true) {
@@ -184,13 +187,13 @@ public final class HugeMultiSourceBFS implements Runnable, MsBFSAlgo {
             while ((nodeId = visit.nextSetNodeId(nodeId + 1)) >= 0) {
                 int nodeVisit = visit.get(nodeId);
                 assert nodeVisit != 0;
-                relationships.forEachRelationship(
-                        nodeId,
-                        direction,
-                        (src, tgt) -> {
-                            nextAndSeen.union(tgt, nodeVisit);
-                            return true;
-                        });
+                cursor.init(nodeId, direction);
+                int length;
+                while ((length = cursor.next(targets)) > 0) {
+                    for (int i = 0; i < length; i++) {
+                        nextAndSeen.union(targets[i], nodeVisit);
+                    }
+                }
             }
 
             depth++;
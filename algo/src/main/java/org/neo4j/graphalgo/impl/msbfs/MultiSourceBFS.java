@@ -1,5 +1,6 @@
 package org.neo4j.graphalgo.impl.msbfs;
 
+import org.neo4j.graphalgo.api.AdjacencyCursor;
 import org.neo4j.graphalgo.api.IdMapping;
 import org.neo4j.graphalgo.api.RelationshipIterator;
 import org.neo4j.graphalgo.core.utils.ParallelUtil;
@@ -176,6 +177,8 @@ public final class MultiSourceBFS implements Runnable, MsBFSAlgo {
             }
         }
 
+        AdjacencyCursor cursor = relationships.newAdjacencyCursor();
+        int[] targets = new int[AdjacencyCursor.BATCH_SIZE];
         int depth = 0;
 
         while (true) {
@@ -183,13 +186,13 @@ public final class MultiSourceBFS implements Runnable, MsBFSAlgo {
             while ((nodeId = visit.nextSetNodeId(nodeId + 1)) >= 0) {
                 int nodeVisit = visit.get(nodeId);
                 assert nodeVisit != 0;
-                relationships.forEachRelationship(
-                        nodeId,
-                        direction,
-                        (src, tgt, rel) -> {
-                            nextAndSeen.union(tgt, nodeVisit);
-                            return true;
-                        });
+                cursor.init(nodeId, direction);
+                int length;
+                while ((length = cursor.next(targets)) > 0) {
+                    for (int i = 0; i < length; i++) {
+                        nextAndSeen.union(targets[i], nodeVisit);
+                    }
+                }
             }
 
             depth++;
@@ -17,6 +17,7 @@ public class PageRankScore {
     public static final class Stats {
         public final long nodes, iterations, loadMillis, computeMillis, writeMillis;
         public final double dampingFactor;
+        public final boolean didConverge;
         public final boolean write;
         public final String writeProperty;
 
@@ -27,6 +28,7 @@ public class PageRankScore {
                 long computeMillis,
                 long writeMillis,
                 double dampingFactor,
+                boolean didConverge,
                 boolean write,
                 String writeProperty) {
             this.nodes = nodes;
@@ -35,6 +37,7 @@ public class PageRankScore {
             this.computeMillis = computeMillis;
             this.writeMillis = writeMillis;
             this.dampingFactor = dampingFactor;
+            this.didConverge = didConverge;
             this.write = write;
             this.writeProperty = writeProperty;
         }
@@ -43,6 +46,7 @@ public class PageRankScore {
             private long nodes;
             private long iterations;
             private double dampingFactor;
+            private boolean didConverge;
             private boolean write;
             private String writeProperty;
 
@@ -61,6 +65,11 @@ public class PageRankScore {
                 return this;
             }
 
+            public Builder withDidConverge(boolean didConverge) {
+                this.didConverge = didConverge;
+                return this;
+            }
+
             public Builder withWrite(boolean write) {
                 this.write = write;
                 return this;
@@ -79,6 +88,7 @@ public class PageRankScore {
                         evalDuration,
                         writeDuration,
                         dampingFactor,
+                        didConverge,
                         write,
                         writeProperty);
             }
@@ -0,0 +1,17 @@
+package org.neo4j.graphalgo.results;
+
+import org.neo4j.graphdb.Node;
+
+public class PersonalizedPageRankScore {
+
+    // index of the source set
+    public final long sourceSet;
+    public final Node node;
+    public final Double score;
+
+    public PersonalizedPageRankScore(final long sourceSet, final Node node, final Double score) {
+        this.sourceSet = sourceSet;
+        this.node = node;
+        this.score = score;
+    }
+}
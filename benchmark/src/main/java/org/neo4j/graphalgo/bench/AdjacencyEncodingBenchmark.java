@@ -0,0 +1,103 @@
+package org.neo4j.graphalgo.bench;
+
+import org.neo4j.graphalgo.api.AdjacencyCursor;
+import org.neo4j.graphalgo.api.HugeGraph;
+import org.neo4j.graphalgo.core.GraphLoader;
+import org.neo4j.graphalgo.core.huge.HugeGraphFactory;
+import org.neo4j.graphalgo.core.utils.Pools;
+import org.neo4j.graphdb.Direction;
+import org.neo4j.kernel.internal.GraphDatabaseAPI;
+import org.neo4j.test.TestGraphDatabaseFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the traversal of the varint and the block encoded adjacency of a HugeGraph.
+ */
+@Threads(1)
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class AdjacencyEncodingBenchmark {
+
+    private static final int NODES = 100_000;
+    private static final int DEGREE = 20;
+
+    @Param({"false", "true"})
+    boolean blockEncoding;
+
+    private GraphDatabaseAPI db;
+    private HugeGraph graph;
+    private AdjacencyCursor cursor;
+    private long[] buffer;
+
+    @Setup
+    public void setup() {
+        db = (GraphDatabaseAPI)
+                new TestGraphDatabaseFactory()
+                        .newImpermanentDatabaseBuilder()
+                        .newGraphDatabase();
+        db.execute("UNWIND range(1, " + NODES + ") AS i CREATE (:Node {id: i})").close();
+        db.execute("MATCH (n:Node) " +
+                "UNWIND range(1, " + DEGREE + ") AS k " +
+                "MATCH (m:Node {id: (n.id * k * 7919) % " + NODES + " + 1}) " +
+                "CREATE (n)-[:TYPE]->(m)").close();
+        graph = (HugeGraph) new GraphLoader(db, Pools.DEFAULT)
+                .withDirection(Direction.OUTGOING)
+                .withBlockEncoding(blockEncoding)
+                .load(HugeGraphFactory.class);
+        cursor = graph.newAdjacencyCursor();
+        buffer = new long[AdjacencyCursor.BATCH_SIZE];
+    }
+
+    @TearDown
+    public void tearDown() {
+        graph.release();
+        db.shutdown();
+    }
+
+    @Benchmark
+    public long forEachRelationship() {
+        long[] sum = {0L};
+        graph.forEachNode((long node) -> {
+            graph.forEachRelationship(node, Direction.OUTGOING, (long source, long target) -> {
+                sum[0] += target;
+                return true;
+            });
+            return true;
+        });
+        return sum[0];
+    }
+
+    @Benchmark
+    public long adjacencyCursor() {
+        long sum = 0L;
+        long nodeCount = graph.nodeCount();
+        for (long node = 0L; node < nodeCount; node++) {
+            cursor.init(node, Direction.OUTGOING);
+            int length;
+            while ((length = cursor.next(buffer)) > 0) {
+                for (int i = 0; i < length; i++) {
+                    sum += buffer[i];
+                }
+            }
+        }
+        return sum;
+    }
+}
@@ -3,6 +3,7 @@ package org.neo4j.graphalgo.bench;
 import org.neo4j.graphalgo.api.Graph;
 import org.neo4j.graphalgo.core.GraphLoader;
 import org.neo4j.graphalgo.core.utils.Pools;
+import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
 import org.neo4j.graphalgo.impl.PageRankResult;
 import org.neo4j.graphalgo.impl.PageRankAlgorithm;
 import org.neo4j.graphdb.Direction;
@@ -46,6 +47,9 @@ public class PageRankBenchmarkLdbc {
     @Param({"5", "20"})
     int iterations;
 
+    @Param({"push", "pull"})
+    String mode;
+
     private GraphDatabaseAPI db;
     private Graph grph;
     private int batchSize;
@@ -54,7 +58,7 @@ public class PageRankBenchmarkLdbc {
     public void setup() throws KernelException, IOException {
         db = LdbcDownloader.openDb(graphId);
         grph = new GraphLoader(db, Pools.DEFAULT)
-                .withDirection(Direction.OUTGOING)
+                .withDirection(mode.equals("pull") ? Direction.BOTH : Direction.OUTGOING)
                 .withoutRelationshipWeights()
                 .load(graph.impl);
         batchSize = parallel ? 10_000 : 2_000_000_000;
@@ -69,6 +73,19 @@ public class PageRankBenchmarkLdbc {
 
     @Benchmark
     public PageRankResult run() throws Exception {
+        if (mode.equals("pull")) {
+            return PageRankAlgorithm.pull(
+                    AllocationTracker.EMPTY,
+                    grph,
+                    0.85,
+                    null,
+                    false,
+                    Pools.DEFAULT,
+                    Pools.getNoThreadsInDefaultPool(),
+                    batchSize)
+                    .compute(iterations)
+                    .result();
+        }
         return PageRankAlgorithm.of(
                 grph,
                 0.85,
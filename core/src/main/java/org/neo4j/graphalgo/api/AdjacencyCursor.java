@@ -0,0 +1,64 @@
+package org.neo4j.graphalgo.api;
+
+import org.neo4j.graphdb.Direction;
+
+/**
+ * Pull-based access to the relationships of a node.
+ * <p>
+ * Instead of calling a consumer for every relationship, the cursor copies the
+ * targets in batches into a buffer that is owned by the caller. The caller loops
+ * over the buffer, which keeps the traversal free of megamorphic callbacks.
+ * <pre>
+ * AdjacencyCursor cursor = graph.newAdjacencyCursor();
+ * int[] targets = new int[AdjacencyCursor.BATCH_SIZE];
+ * cursor.init(nodeId, Direction.OUTGOING);
+ * int length;
+ * while ((length = cursor.next(targets)) > 0) {
+ *     for (int i = 0; i < length; i++) {
+ *         visit(targets[i]);
+ *     }
+ * }
+ * </pre>
+ * The relationships are returned in the same order as by
+ * {@link RelationshipIterator#forEachRelationship(int, Direction, RelationshipConsumer)}.
+ * <p>
+ * A cursor can be reused for any number of nodes, but it must not be shared between threads.
+ */
+public interface AdjacencyCursor {
+
+    /**
+     * a buffer size that amortizes the call overhead
+     */
+    int BATCH_SIZE = 64;
+
+    /**
+     * Moves the cursor to the relationships of the node.
+     */
+    void init(long nodeId, Direction direction);
+
+    /**
+     * Copies the next targets into the buffer, starting at index 0.
+     *
+     * @return the number of copied targets or 0 if there are no more relationships
+     */
+    int next(int[] targets);
+
+    /**
+     * @see #next(int[])
+     */
+    int next(long[] targets);
+
+    /**
+     * Copies the next targets and the weights of their relationships into the buffers,
+     * the number of copied relationships is limited by the shorter buffer.
+     *
+     * @return the number of copied relationships or 0 if there are no more relationships
+     * @throws UnsupportedOperationException if the graph does not provide weights
+     */
+    int next(int[] targets, double[] weights);
+
+    /**
+     * @see #next(int[], double[])
+     */
+    int next(long[] targets, double[] weights);
+}
@@ -1,5 +1,9 @@
 package org.neo4j.graphalgo.api;
 
+import org.neo4j.graphalgo.core.utils.AdjacencyIntersect;
+import org.neo4j.graphdb.Direction;
+
+import java.util.function.IntConsumer;
 
 /**
  * Composition of often used source interfaces
@@ -14,4 +18,48 @@ public interface Graph extends IdMapping, Degrees, NodeIterator, BatchNodeIterab
     default void release() {
 
     }
+
+    /**
+     * Whether {@link #release()} may actually free the underlying data.
+     * Graphs that are shared between several procedure calls, e.g. named graphs
+     * held by the {@link org.neo4j.graphalgo.core.loading.GraphCatalog},
+     * must not be released by any of their users.
+     */
+    default void canRelease(boolean canRelease) {
+
+    }
+
+    /**
+     * Whether the targets of every node are sorted ascending in the direction,
+     * which is guaranteed if the graph has been loaded with
+     * {@link org.neo4j.graphalgo.core.GraphLoader#withSortedAdjacency(boolean)}.
+     * {@link Direction#BOTH} is usually not sorted, as it concatenates both directions.
+     */
+    default boolean hasSortedAdjacency(Direction direction) {
+        return false;
+    }
+
+    /**
+     * Returns a new intersect of the neighbors in the direction. The default implementation
+     * copies the targets with an {@link AdjacencyCursor}, graphs that store their adjacency
+     * should override this.
+     */
+    default RelationshipIntersect newIntersect(Direction direction) {
+        return new AdjacencyIntersect(this, direction);
+    }
+
+    /**
+     * Calls the consumer for every common neighbor of both nodes, in ascending order.
+     * Algorithms that intersect many pairs should reuse {@link #newIntersect(Direction)}.
+     */
+    default void intersect(int nodeA, int nodeB, Direction direction, IntConsumer consumer) {
+        newIntersect(direction).intersect(nodeA, nodeB, consumer);
+    }
+
+    /**
+     * @return the number of common neighbors of both nodes
+     */
+    default int intersectionSize(int nodeA, int nodeB, Direction direction) {
+        return newIntersect(direction).intersectionSize(nodeA, nodeB);
+    }
 }
@@ -13,6 +13,8 @@ import org.neo4j.graphalgo.core.utils.ImportProgress;
 import org.neo4j.graphalgo.core.utils.ProgressLogger;
 import org.neo4j.graphalgo.core.utils.ProgressLoggerAdapter;
 import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
+import org.neo4j.graphalgo.core.utils.paged.MemoryRange;
+import org.neo4j.graphalgo.core.utils.paged.MemoryUsage;
 import org.neo4j.kernel.api.StatementConstants;
 import org.neo4j.kernel.api.exceptions.EntityNotFoundException;
 import org.neo4j.kernel.internal.GraphDatabaseAPI;
@@ -58,6 +60,34 @@ public abstract class GraphFactory {
 
     public abstract Graph build();
 
+    /**
+     * Estimates the memory that is required to load the graph, based on the
+     * {@link GraphDimensions} of the store. The graph is not loaded.
+     *
+     * @throws UnsupportedOperationException if the implementation cannot estimate its memory usage
+     */
+    public MemoryRange memoryEstimation() {
+        throw new UnsupportedOperationException(
+                "Memory estimation is not supported by " + getClass().getSimpleName());
+    }
+
+    /**
+     * Loads the graph and keeps it up to date with the transactions that are committed afterwards.
+     * The changes are compacted into the loaded graph once the relationships of
+     * {@code compactionThreshold} nodes have changed.
+     *
+     * @throws UnsupportedOperationException if the implementation cannot follow the transactions
+     * @see org.neo4j.graphalgo.core.loading.GraphDelta
+     */
+    public Graph buildIncremental(int compactionThreshold) {
+        throw new UnsupportedOperationException(
+                "Incremental loading is not supported by " + getClass().getSimpleName());
+    }
+
+    public GraphDimensions dimensions() {
+        return dimensions;
+    }
+
     protected IdMap loadIdMap() throws EntityNotFoundException {
         final NodeImporter nodeImporter = new NodeImporter(
                 api,
@@ -74,7 +104,9 @@ public abstract class GraphFactory {
                 progress,
                 dimensions.hugeNodeCount(),
                 dimensions.allNodesCount(),
-                dimensions.labelId());
+                dimensions.labelId(),
+                setup.concurrency(),
+                threadPool);
         return nodeImporter.call();
     }
 
@@ -93,6 +125,24 @@ public abstract class GraphFactory {
                     : new HugeWeightMap(dimensions.hugeNodeCount(), defaultValue, tracker);
     }
 
+    /**
+     * Estimates an {@link IdMap}, a long[] and a hash map of all node ids.
+     */
+    protected static long idMapMemoryUsage(int nodeCount) {
+        return MemoryUsage.sizeOfLongArray(nodeCount) +
+                MemoryUsage.sizeOfHashMap(nodeCount, Long.BYTES, Integer.BYTES, 0.99);
+    }
+
+    /**
+     * Estimates a {@link WeightMap} with the given number of entries,
+     * or nothing if the property does not exist.
+     */
+    protected static long weightMapMemoryUsage(int propertyId, long entries) {
+        return propertyId == StatementConstants.NO_SUCH_PROPERTY_KEY
+                ? 0L
+                : MemoryUsage.sizeOfHashMap(entries, Long.BYTES, Double.BYTES, 0.75);
+    }
+
     private static ProgressLogger progressLogger(Log log, long time, TimeUnit unit) {
         if (log == NullLog.getInstance()) {
             return ProgressLogger.NULL_LOGGER;
@@ -1,5 +1,7 @@
 package org.neo4j.graphalgo.api;
 
+import org.neo4j.graphalgo.core.huge.NodeOrdering;
+import org.neo4j.graphalgo.core.huge.RelationshipAggregation;
 import org.neo4j.graphalgo.core.utils.Pools;
 import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
 import org.neo4j.graphdb.Direction;
@@ -16,6 +18,8 @@ import java.util.concurrent.ExecutorService;
  */
 public class GraphSetup {
 
+    // name of a graph held by the graph catalog. null means no named graph.
+    public final String name;
     // start label type. null means any label.
     public final String startLabel;
     // end label type (not yet implemented).
@@ -53,6 +57,26 @@ public class GraphSetup {
     public final int batchSize;
     // TODO
     public final boolean accumulateWeights;
+    // true if the adjacency of a huge graph should be kept outside of the heap
+    public final boolean offHeap;
+    // true if the adjacency of a huge graph should be written in groups with a control byte instead of as single varints
+    public final boolean blockEncoding;
+    // order of the internal ids of a huge graph, NONE keeps the order of the store
+    public final NodeOrdering nodeOrdering;
+    // true if a huge graph should store every relationship at both of its nodes, regardless of the direction
+    public final boolean loadAsUndirected;
+    // relationship types that a huge graph stores in separate adjacencies. null means a single adjacency of relationshipType.
+    public final String[] relationshipTypes;
+    // weight property of every type in relationshipTypes. a null entry means relationWeightPropertyName is used for that type.
+    public final String[] relationshipTypeWeightPropertyNames;
+    // node properties that a huge graph loads into columns. null means no columns.
+    public final NodePropertyMapping[] nodePropertyMappings;
+    // how a huge graph merges parallel relationships, NONE keeps all of them
+    public final RelationshipAggregation relationshipAggregation;
+    // true if the targets of every node should be sorted ascending, the huge graph is always sorted
+    public final boolean sortAdjacency;
+    // relationships that every thread keeps in memory after reading them through the kernel view, 0 disables the cache
+    public final long kernelCacheSize;
 
     /**
      * main ctor
@@ -71,6 +95,20 @@ public class GraphSetup {
      * @param executor the executor. null means single threaded evaluation
      * @param batchSize batch size for parallel loading
      * @param accumulateWeights true if relationship-weights should be summed within the loader
+     * @param name the name of a graph in the graph catalog. null if the graph is loaded from the store.
+     * @param offHeap true if the adjacency should be kept outside of the heap, only supported by the huge graph
+     * @param blockEncoding true if the adjacency should be block encoded, only supported by the huge graph
+     * @param nodeOrdering the order of the internal node ids, only supported by the huge graph
+     * @param loadAsUndirected true if the relationships should be loaded as undirected, only supported by the huge graph
+     * @param relationshipTypes the types that are loaded into separate adjacencies in a single scan. null for a single adjacency,
+     *                          only supported by the huge graph
+     * @param relationshipTypeWeightPropertyNames the weight property of every type in relationshipTypes. null entries
+     *                                            use relationWeightPropertyName.
+     * @param nodePropertyMappings the node properties that are loaded into columns. null for none,
+     *                             only supported by the huge graph
+     * @param relationshipAggregation how parallel relationships are merged, only supported by the huge graph
+     * @param sortAdjacency true if the targets of every node should be sorted ascending
+     * @param kernelCacheSize the number of relationships every thread caches, only supported by the kernel view
      */
     public GraphSetup(
             String startLabel,
@@ -89,8 +127,20 @@ public class GraphSetup {
             boolean accumulateWeights,
             Log log,
             long logMillis,
-            AllocationTracker tracker) {
+            AllocationTracker tracker,
+            String name,
+            boolean offHeap,
+            boolean blockEncoding,
+            NodeOrdering nodeOrdering,
+            boolean loadAsUndirected,
+            String[] relationshipTypes,
+            String[] relationshipTypeWeightPropertyNames,
+            NodePropertyMapping[] nodePropertyMappings,
+            RelationshipAggregation relationshipAggregation,
+            boolean sortAdjacency,
+            long kernelCacheSize) {
 
+        this.name = name;
         this.startLabel = startLabel;
         this.endLabel = endLabel;
         this.relationshipType = relationshipType;
@@ -109,12 +159,23 @@ public class GraphSetup {
         this.log = log;
         this.logMillis = logMillis;
         this.tracker = tracker;
+        this.offHeap = offHeap;
+        this.blockEncoding = blockEncoding;
+        this.nodeOrdering = nodeOrdering;
+        this.loadAsUndirected = loadAsUndirected;
+        this.relationshipTypes = relationshipTypes;
+        this.relationshipTypeWeightPropertyNames = relationshipTypeWeightPropertyNames;
+        this.nodePropertyMappings = nodePropertyMappings;
+        this.relationshipAggregation = relationshipAggregation;
+        this.sortAdjacency = sortAdjacency;
+        this.kernelCacheSize = kernelCacheSize;
     }
 
     /**
      * Setup Graph to load any label, any relationship, no property in single threaded mode
      */
     public GraphSetup() {
+        this.name = null;
         this.startLabel = null;
         this.endLabel = null;
         this.relationshipType = null;
@@ -132,6 +193,16 @@ public class GraphSetup {
         this.log = NullLog.getInstance();
         this.logMillis = -1;
         this.tracker = AllocationTracker.EMPTY;
+        this.offHeap = false;
+        this.blockEncoding = false;
+        this.nodeOrdering = NodeOrdering.NONE;
+        this.loadAsUndirected = false;
+        this.relationshipTypes = null;
+        this.relationshipTypeWeightPropertyNames = null;
+        this.nodePropertyMappings = null;
+        this.relationshipAggregation = RelationshipAggregation.NONE;
+        this.sortAdjacency = false;
+        this.kernelCacheSize = 0;
     }
 
     /**
@@ -141,6 +212,7 @@ public class GraphSetup {
      * @param executor executor service
      */
     public GraphSetup(ExecutorService executor) {
+        this.name = null;
         this.startLabel = null;
         this.endLabel = null;
         this.relationshipType = null;
@@ -158,6 +230,16 @@ public class GraphSetup {
         this.log = NullLog.getInstance();
         this.logMillis = -1;
         this.tracker = AllocationTracker.EMPTY;
+        this.offHeap = false;
+        this.blockEncoding = false;
+        this.nodeOrdering = NodeOrdering.NONE;
+        this.loadAsUndirected = false;
+        this.relationshipTypes = null;
+        this.relationshipTypeWeightPropertyNames = null;
+        this.nodePropertyMappings = null;
+        this.relationshipAggregation = RelationshipAggregation.NONE;
+        this.sortAdjacency = false;
+        this.kernelCacheSize = 0;
     }
 
     public boolean loadConcurrent() {
@@ -190,4 +272,12 @@ public class GraphSetup {
     public boolean loadAnyRelationshipType() {
         return relationshipType == null;
     }
+
+    public boolean loadSeparateRelationshipTypes() {
+        return relationshipTypes != null;
+    }
+
+    public boolean loadNodePropertyColumns() {
+        return nodePropertyMappings != null && nodePropertyMappings.length > 0;
+    }
 }
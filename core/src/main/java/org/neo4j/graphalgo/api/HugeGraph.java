@@ -4,6 +4,7 @@ package org.neo4j.graphalgo.api;
 import org.neo4j.collection.primitive.PrimitiveIntIterable;
 import org.neo4j.collection.primitive.PrimitiveIntIterator;
 import org.neo4j.collection.primitive.PrimitiveLongIterator;
+import org.neo4j.graphalgo.core.utils.BufferedAdjacencyCursor;
 import org.neo4j.graphalgo.core.utils.RawValues;
 import org.neo4j.graphdb.Direction;
 
@@ -17,7 +18,7 @@ import java.util.stream.Collectors;
  *
  * @author mknblch
  */
-public interface HugeGraph extends HugeIdMapping, HugeDegrees, HugeNodeIterator, HugeBatchNodeIterable, HugeRelationshipIterator, HugeRelationshipWeights, Graph {
+public interface HugeGraph extends HugeIdMapping, HugeDegrees, HugeNodeIterator, HugeBatchNodeIterable, HugeRelationshipIterator, HugeRelationshipWeights, HugeNodeProperties, Graph, RelationshipWeights, NodeWeights, NodeProperties {
 
     /**
      * release resources which are not part of the result or IdMapping
@@ -26,6 +27,31 @@ public interface HugeGraph extends HugeIdMapping, HugeDegrees, HugeNodeIterator,
 
     }
 
+    /**
+     * Calls the consumer for every relationship of the node together with its weight.
+     * The weight is looked up for every relationship, implementations that store
+     * the weights alongside the adjacency should override this.
+     */
+    default void forEachRelationship(
+            long nodeId,
+            Direction direction,
+            HugeWeightedRelationshipConsumer consumer) {
+        if (direction == Direction.BOTH) {
+            forEachRelationship(nodeId, Direction.INCOMING, consumer);
+            forEachRelationship(nodeId, Direction.OUTGOING, consumer);
+            return;
+        }
+        forEachRelationship(nodeId, direction, (HugeRelationshipConsumer) (s, t) -> consumer.accept(
+                s,
+                t,
+                direction == Direction.INCOMING ? weightOf(t, s) : weightOf(s, t)));
+    }
+
+    @Override
+    default AdjacencyCursor newAdjacencyCursor() {
+        return BufferedAdjacencyCursor.of((HugeRelationshipIterator) this);
+    }
+
     @Override
     default Collection<PrimitiveIntIterable> batchIterables(int batchSize) {
         return hugeBatchIterables(batchSize)
@@ -34,6 +60,21 @@ public interface HugeGraph extends HugeIdMapping, HugeDegrees, HugeNodeIterator,
                 .collect(Collectors.toList());
     }
 
+    @Override
+    default double weightOf(int sourceNodeId, int targetNodeId) {
+        return weightOf((long) sourceNodeId, (long) targetNodeId);
+    }
+
+    @Override
+    default double weightOf(int nodeId) {
+        return nodeWeight((long) nodeId);
+    }
+
+    @Override
+    default double valueOf(int nodeId, double defaultValue) {
+        return nodeValue((long) nodeId, defaultValue);
+    }
+
     @Override
     default int degree(int nodeId, Direction direction) {
         return degree((long) nodeId, direction);
@@ -0,0 +1,56 @@
+package org.neo4j.graphalgo.api;
+
+import java.util.Set;
+
+/**
+ * Getter interface for the numeric node properties of a huge graph,
+ * which are stored in a column per property that is indexed by the internal node id.
+ *
+ * @see org.neo4j.graphalgo.core.GraphLoader#withDoubleNodeProperty(String, double)
+ * @see org.neo4j.graphalgo.core.GraphLoader#withLongNodeProperty(String, long)
+ */
+public interface HugeNodeProperties {
+
+    /**
+     * @return the keys of the loaded properties, in the order they have been loaded
+     */
+    Set<String> nodePropertyKeys();
+
+    /**
+     * @throws IllegalArgumentException if the property has not been loaded as double property
+     */
+    DoubleProperty doubleProperty(String propertyKey);
+
+    /**
+     * @throws IllegalArgumentException if the property has not been loaded as long property
+     */
+    LongProperty longProperty(String propertyKey);
+
+    /**
+     * return the node weight, or the default weight if the node has no weight
+     *
+     * @see GraphSetup#nodeWeightPropertyName
+     */
+    double nodeWeight(long nodeId);
+
+    /**
+     * return the node value, or the given default value if the node has no value
+     *
+     * @see GraphSetup#nodePropertyName
+     */
+    double nodeValue(long nodeId, double defaultValue);
+
+    /**
+     * A loaded property, nodes that don't have the property return the default value of the property.
+     */
+    interface DoubleProperty {
+        double get(long nodeId);
+    }
+
+    /**
+     * A loaded property, nodes that don't have the property return the default value of the property.
+     */
+    interface LongProperty {
+        long get(long nodeId);
+    }
+}
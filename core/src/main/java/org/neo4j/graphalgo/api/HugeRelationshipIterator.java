@@ -1,5 +1,6 @@
 package org.neo4j.graphalgo.api;
 
+import org.neo4j.graphalgo.core.utils.BufferedAdjacencyCursor;
 import org.neo4j.graphdb.Direction;
 
 /**
@@ -31,4 +32,13 @@ public interface HugeRelationshipIterator {
     default HugeRelationshipIterator concurrentCopy() {
         return this;
     }
+
+    /**
+     * Returns a new cursor over the relationships of this iterator, which is
+     * independent from other cursors and iterations. The default implementation
+     * collects the relationships of a node with a consumer.
+     */
+    default AdjacencyCursor newAdjacencyCursor() {
+        return BufferedAdjacencyCursor.of(this);
+    }
 }
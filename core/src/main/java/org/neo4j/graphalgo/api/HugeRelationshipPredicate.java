@@ -0,0 +1,18 @@
+package org.neo4j.graphalgo.api;
+
+/**
+ * predicate interface for weighted relationships of a huge graph.
+ *
+ * @see org.neo4j.graphalgo.core.huge.HugeGraphProjection
+ */
+@FunctionalInterface
+public interface HugeRelationshipPredicate {
+
+    /**
+     * @param sourceNodeId mapped source node id
+     * @param targetNodeId mapped target node id
+     * @param weight       the weight of the relationship
+     * @return {@code true} if the relationship shall be kept, otherwise {@code false}.
+     */
+    boolean test(long sourceNodeId, long targetNodeId, double weight);
+}
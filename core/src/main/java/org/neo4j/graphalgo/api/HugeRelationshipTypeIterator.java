@@ -0,0 +1,45 @@
+package org.neo4j.graphalgo.api;
+
+import org.neo4j.graphdb.Direction;
+
+import java.util.List;
+
+/**
+ * Iterates the relationships of a single type of a graph that stores
+ * every relationship type in a separate adjacency.
+ *
+ * @see org.neo4j.graphalgo.core.GraphLoader#withRelationshipTypes(String...)
+ */
+public interface HugeRelationshipTypeIterator {
+
+    /**
+     * @return the relationship types in the order they have been loaded
+     */
+    List<String> relationshipTypes();
+
+    /**
+     * @throws IllegalArgumentException if the type has not been loaded
+     */
+    void forEachRelationship(
+            long nodeId,
+            Direction direction,
+            String relationshipType,
+            HugeRelationshipConsumer consumer);
+
+    /**
+     * @throws IllegalArgumentException if the type has not been loaded
+     */
+    void forEachRelationship(
+            long nodeId,
+            Direction direction,
+            String relationshipType,
+            HugeWeightedRelationshipConsumer consumer);
+
+    /**
+     * @throws IllegalArgumentException if the type has not been loaded
+     */
+    int degree(
+            long nodeId,
+            Direction direction,
+            String relationshipType);
+}
@@ -0,0 +1,20 @@
+package org.neo4j.graphalgo.api;
+
+/**
+ * Consumer interface for weighted relationships.
+ */
+public interface HugeWeightedRelationshipConsumer {
+
+    /**
+     * Called for every edge that matches a given relation-constraint
+     *
+     * @param sourceNodeId mapped source node id
+     * @param targetNodeId mapped target node id
+     * @param weight       the weight/cost of this edge
+     * @return {@code true} if the iteration shall continue, otherwise {@code false}.
+     */
+    boolean accept(
+            long sourceNodeId,
+            long targetNodeId,
+            double weight);
+}
@@ -0,0 +1,41 @@
+package org.neo4j.graphalgo.api;
+
+import java.util.Objects;
+
+/**
+ * A numeric node property that is loaded into a column of a huge graph.
+ * Nodes that don't have the property, or have a value that is not a number, get the default value.
+ *
+ * @see HugeNodeProperties
+ */
+public final class NodePropertyMapping {
+
+    public enum Type {
+        DOUBLE, LONG
+    }
+
+    public final String propertyKey;
+    public final Type type;
+    public final double defaultDouble;
+    public final long defaultLong;
+
+    private NodePropertyMapping(String propertyKey, Type type, double defaultDouble, long defaultLong) {
+        this.propertyKey = Objects.requireNonNull(propertyKey);
+        this.type = type;
+        this.defaultDouble = defaultDouble;
+        this.defaultLong = defaultLong;
+    }
+
+    public static NodePropertyMapping ofDouble(String propertyKey, double defaultValue) {
+        return new NodePropertyMapping(propertyKey, Type.DOUBLE, defaultValue, 0L);
+    }
+
+    public static NodePropertyMapping ofLong(String propertyKey, long defaultValue) {
+        return new NodePropertyMapping(propertyKey, Type.LONG, 0.0, defaultValue);
+    }
+
+    @Override
+    public String toString() {
+        return propertyKey + ":" + type + "=" + (type == Type.DOUBLE ? defaultDouble : defaultLong);
+    }
+}
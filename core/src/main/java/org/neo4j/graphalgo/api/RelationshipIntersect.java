@@ -0,0 +1,39 @@
+package org.neo4j.graphalgo.api;
+
+import org.neo4j.graphdb.Direction;
+
+import java.util.function.IntConsumer;
+
+/**
+ * Intersection of the neighbors of two nodes in a single direction.
+ * <p>
+ * The common neighbors are passed in ascending order and every neighbor is passed
+ * only once, even if there are parallel relationships to it. Graphs that keep their
+ * targets sorted (see {@link Graph#hasSortedAdjacency(Direction)}) intersect the lists
+ * in a single pass over their storage, the other graphs sort a copy of the targets first.
+ * <pre>
+ * RelationshipIntersect intersect = graph.newIntersect(Direction.BOTH);
+ * intersect.intersect(u, v, w -&gt; {
+ *     if (w &gt; v) {
+ *         triangle(u, v, w);
+ *     }
+ * });
+ * </pre>
+ * An intersect can be reused for any number of nodes, but it must not be shared between threads.
+ */
+public interface RelationshipIntersect {
+
+    /**
+     * Calls the consumer for every node that is a neighbor of both nodes.
+     */
+    void intersect(int nodeA, int nodeB, IntConsumer consumer);
+
+    /**
+     * @return the number of nodes that are neighbors of both nodes
+     */
+    default int intersectionSize(int nodeA, int nodeB) {
+        int[] size = {0};
+        intersect(nodeA, nodeB, node -> size[0]++);
+        return size[0];
+    }
+}
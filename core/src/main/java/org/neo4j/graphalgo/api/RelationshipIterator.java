@@ -1,5 +1,6 @@
 package org.neo4j.graphalgo.api;
 
+import org.neo4j.graphalgo.core.utils.BufferedAdjacencyCursor;
 import org.neo4j.graphdb.Direction;
 
 /**
@@ -18,4 +19,13 @@ public interface RelationshipIterator extends IncomingRelationshipIterator, Outg
     default void forEachOutgoing(int nodeId, RelationshipConsumer consumer) {
         forEachRelationship(nodeId, Direction.OUTGOING, consumer);
     }
+
+    /**
+     * Returns a new cursor over the relationships of this iterator. The default
+     * implementation collects the relationships of a node with a consumer,
+     * graphs that store their adjacency should override this.
+     */
+    default AdjacencyCursor newAdjacencyCursor() {
+        return BufferedAdjacencyCursor.of(this);
+    }
 }
@@ -0,0 +1,18 @@
+package org.neo4j.graphalgo.api;
+
+/**
+ * predicate interface for weighted relationships.
+ *
+ * @see org.neo4j.graphalgo.core.heavyweight.HeavyGraphProjection
+ */
+@FunctionalInterface
+public interface RelationshipPredicate {
+
+    /**
+     * @param sourceNodeId mapped source node id
+     * @param targetNodeId mapped target node id
+     * @param weight       the weight of the relationship
+     * @return {@code true} if the relationship shall be kept, otherwise {@code false}.
+     */
+    boolean test(int sourceNodeId, int targetNodeId, double weight);
+}
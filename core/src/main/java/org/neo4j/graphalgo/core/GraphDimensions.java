@@ -15,10 +15,13 @@ public final class GraphDimensions extends StatementTask<GraphDimensions, Runtim
     private long maxRelCount;
     private int labelId;
     private int[] relationId;
+    private int[] relationshipTypeIds;
+    private int[] relationshipTypeWeightIds;
     private int weightId;
     private int relWeightId;
     private int nodeWeightId;
     private int nodePropId;
+    private int[] nodePropertyIds;
 
     public GraphDimensions(
             GraphDatabaseAPI api,
@@ -51,6 +54,22 @@ public final class GraphDimensions extends StatementTask<GraphDimensions, Runtim
         return relationId;
     }
 
+    /**
+     * @return the id of every type of {@link GraphSetup#relationshipTypes}, {@link StatementConstants#NO_SUCH_RELATIONSHIP_TYPE}
+     * for unknown types, or null if the types are not loaded separately
+     */
+    public int[] relationshipTypeIds() {
+        return relationshipTypeIds;
+    }
+
+    /**
+     * @return the id of the weight property of every type of {@link GraphSetup#relationshipTypes},
+     * or null if the types are not loaded separately
+     */
+    public int[] relationshipTypeWeightIds() {
+        return relationshipTypeWeightIds;
+    }
+
     public int weightId() {
         return weightId;
     }
@@ -67,6 +86,14 @@ public final class GraphDimensions extends StatementTask<GraphDimensions, Runtim
         return nodePropId;
     }
 
+    /**
+     * @return the id of every property of {@link GraphSetup#nodePropertyMappings}, {@link StatementConstants#NO_SUCH_PROPERTY_KEY}
+     * for unknown properties, or null if no properties are loaded into columns
+     */
+    public int[] nodePropertyIds() {
+        return nodePropertyIds;
+    }
+
     @Override
     public GraphDimensions apply(final Statement statement) throws RuntimeException {
         final ReadOperations readOp = statement.readOperations();
@@ -91,12 +118,39 @@ public final class GraphDimensions extends StatementTask<GraphDimensions, Runtim
         nodePropId = setup.loadDefaultNodeProperty()
                 ? StatementConstants.NO_SUCH_PROPERTY_KEY
                 : readOp.propertyKeyGetForName(setup.nodePropertyName);
+        if (setup.loadNodePropertyColumns()) {
+            nodePropertyIds = new int[setup.nodePropertyMappings.length];
+            for (int i = 0; i < nodePropertyIds.length; i++) {
+                nodePropertyIds[i] = readOp.propertyKeyGetForName(setup.nodePropertyMappings[i].propertyKey);
+            }
+        }
         nodeCount = readOp.countsForNode(labelId);
         allNodesCount = readOp.nodesGetCount();
-        maxRelCount = Math.max(
-                readOp.countsForRelationshipWithoutTxState(labelId, relationId == null ? ReadOperations.ANY_RELATIONSHIP_TYPE : relationId[0], ReadOperations.ANY_LABEL),
-                readOp.countsForRelationshipWithoutTxState(ReadOperations.ANY_LABEL, relationId == null ? ReadOperations.ANY_RELATIONSHIP_TYPE : relationId[0], labelId)
-        );
+        if (setup.loadSeparateRelationshipTypes()) {
+            final int types = setup.relationshipTypes.length;
+            relationshipTypeIds = new int[types];
+            relationshipTypeWeightIds = new int[types];
+            maxRelCount = 0L;
+            for (int i = 0; i < types; i++) {
+                relationshipTypeIds[i] = readOp.relationshipTypeGetForName(setup.relationshipTypes[i]);
+                String weightProperty = setup.relationshipTypeWeightPropertyNames[i];
+                relationshipTypeWeightIds[i] = weightProperty == null
+                        ? weightId
+                        : readOp.propertyKeyGetForName(weightProperty);
+                if (relationshipTypeIds[i] != StatementConstants.NO_SUCH_RELATIONSHIP_TYPE) {
+                    maxRelCount += maxRelCount(readOp, relationshipTypeIds[i]);
+                }
+            }
+        } else {
+            maxRelCount = maxRelCount(readOp, relationId == null ? ReadOperations.ANY_RELATIONSHIP_TYPE : relationId[0]);
+        }
         return this;
     }
+
+    private long maxRelCount(ReadOperations readOp, int typeId) {
+        return Math.max(
+                readOp.countsForRelationshipWithoutTxState(labelId, typeId, ReadOperations.ANY_LABEL),
+                readOp.countsForRelationshipWithoutTxState(ReadOperations.ANY_LABEL, typeId, labelId)
+        );
+    }
 }
@@ -3,6 +3,10 @@ package org.neo4j.graphalgo.core;
 import org.neo4j.graphalgo.api.Graph;
 import org.neo4j.graphalgo.api.GraphFactory;
 import org.neo4j.graphalgo.api.GraphSetup;
+import org.neo4j.graphalgo.api.NodePropertyMapping;
+import org.neo4j.graphalgo.core.huge.NodeOrdering;
+import org.neo4j.graphalgo.core.huge.RelationshipAggregation;
+import org.neo4j.graphalgo.core.loading.GraphDelta;
 import org.neo4j.graphalgo.core.utils.ParallelUtil;
 import org.neo4j.graphalgo.core.utils.Pools;
 import org.neo4j.graphalgo.core.utils.ProgressLoggerAdapter;
@@ -18,6 +22,10 @@ import org.neo4j.logging.NullLog;
 import java.lang.invoke.MethodHandle;
 import java.lang.invoke.MethodHandles;
 import java.lang.invoke.MethodType;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Objects;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.TimeUnit;
@@ -40,6 +48,7 @@ public class GraphLoader {
             GraphDatabaseAPI.class,
             GraphSetup.class);
 
+    private String name = null;
     private String label = null;
     private String relation = null;
     private String relWeightProp = null;
@@ -55,6 +64,16 @@ public class GraphLoader {
     private int batchSize = ParallelUtil.DEFAULT_BATCH_SIZE;
     private int concurrency = Pools.DEFAULT_CONCURRENCY;
     private boolean accumulateWeights;
+    private boolean offHeap = false;
+    private boolean blockEncoding = false;
+    private NodeOrdering nodeOrdering = NodeOrdering.NONE;
+    private RelationshipAggregation relationshipAggregation = RelationshipAggregation.NONE;
+    private boolean undirected = false;
+    private boolean sortAdjacency = false;
+    private long kernelCacheSize = 0;
+    private String[] relationTypes = null;
+    private String[] relationTypeWeightProps = null;
+    private final List<NodePropertyMapping> nodePropertyMappings = new ArrayList<>();
     private Log log = NullLog.getInstance();
     private long logMillis = -1;
     private AllocationTracker tracker = AllocationTracker.EMPTY;
@@ -160,6 +179,20 @@ public class GraphLoader {
         return this;
     }
 
+    /**
+     * Use the graph that has been stored under the given name in the
+     * {@link org.neo4j.graphalgo.core.loading.GraphCatalog} instead of loading
+     * it from the store. Only used by the
+     * {@link org.neo4j.graphalgo.core.loading.LoadGraphFactory}.
+     *
+     * @param name May be null
+     * @return itself to enable fluent interface
+     */
+    public GraphLoader withName(String name) {
+        this.name = name;
+        return this;
+    }
+
     /**
      * Instructs the loader to load only nodes with the given label name.
      * If the label is not found, every node will be loaded.
@@ -215,6 +248,8 @@ public class GraphLoader {
      */
     public GraphLoader withRelationshipType(String relation) {
         this.relation = Objects.requireNonNull(relation);
+        this.relationTypes = null;
+        this.relationTypeWeightProps = null;
         return this;
     }
 
@@ -227,6 +262,8 @@ public class GraphLoader {
      */
     public GraphLoader withOptionalRelationshipType(String relation) {
         this.relation = relation;
+        this.relationTypes = null;
+        this.relationTypeWeightProps = null;
         return this;
     }
 
@@ -239,6 +276,8 @@ public class GraphLoader {
      */
     public GraphLoader withRelationshipType(RelationshipType relation) {
         this.relation = Objects.requireNonNull(relation).name();
+        this.relationTypes = null;
+        this.relationTypeWeightProps = null;
         return this;
     }
 
@@ -249,6 +288,51 @@ public class GraphLoader {
      */
     public GraphLoader withAnyRelationshipType() {
         this.relation = null;
+        this.relationTypes = null;
+        this.relationTypeWeightProps = null;
+        return this;
+    }
+
+    /**
+     * Instructs the loader to load the relationships of all given types in a single scan
+     * and to store every type in a separate adjacency, which can be traversed on its own with
+     * {@link org.neo4j.graphalgo.api.HugeRelationshipTypeIterator}.
+     * The weights of every type are read from the relationship weight property,
+     * use {@link #withRelationshipTypeWeightsFromProperty(String, String)} to read them from another property.
+     * Types that are not found have no relationships.
+     * Only supported by the {@link org.neo4j.graphalgo.core.huge.HugeGraphFactory},
+     * the other graph implementations ignore this setting and load every relationship type.
+     *
+     * @param types May not be null or empty
+     * @return itself to enable fluent interface
+     */
+    public GraphLoader withRelationshipTypes(String... types) {
+        if (Objects.requireNonNull(types).length == 0) {
+            throw new IllegalArgumentException("At least one relationship type is required");
+        }
+        if (new HashSet<>(Arrays.asList(types)).size() != types.length) {
+            throw new IllegalArgumentException("Duplicate relationship type in " + Arrays.toString(types));
+        }
+        this.relation = null;
+        this.relationTypes = types.clone();
+        this.relationTypeWeightProps = new String[types.length];
+        return this;
+    }
+
+    /**
+     * Instructs the loader to read the weights of the given relationship type from the given property,
+     * instead of the relationship weight property.
+     *
+     * @param type one of the types given to {@link #withRelationshipTypes(String...)}
+     * @param property May not be null
+     * @return itself to enable fluent interface
+     */
+    public GraphLoader withRelationshipTypeWeightsFromProperty(String type, String property) {
+        int index = relationTypes == null ? -1 : Arrays.asList(relationTypes).indexOf(type);
+        if (index == -1) {
+            throw new IllegalArgumentException("Relationship type '" + type + "' has not been added with withRelationshipTypes");
+        }
+        this.relationTypeWeightProps[index] = Objects.requireNonNull(property);
         return this;
     }
 
@@ -346,6 +430,46 @@ public class GraphLoader {
         return this;
     }
 
+    /**
+     * Instructs the loader to load the given property into a column of doubles,
+     * which is read with {@link org.neo4j.graphalgo.api.HugeNodeProperties#doubleProperty(String)}.
+     * Any number of properties can be loaded into columns.
+     * If the property is not set, the propertyDefaultValue is used instead.
+     * Only supported by the {@link org.neo4j.graphalgo.core.huge.HugeGraphFactory},
+     * the other graph implementations ignore this setting.
+     *
+     * @param property May not be null
+     * @param propertyDefaultValue the default value to use if property is not set
+     * @return itself to enable fluent interface
+     */
+    public GraphLoader withDoubleNodeProperty(String property, double propertyDefaultValue) {
+        return withNodePropertyMapping(NodePropertyMapping.ofDouble(property, propertyDefaultValue));
+    }
+
+    /**
+     * Instructs the loader to load the given property into a column of longs,
+     * which is read with {@link org.neo4j.graphalgo.api.HugeNodeProperties#longProperty(String)}.
+     * Floating point values are truncated.
+     *
+     * @param property May not be null
+     * @param propertyDefaultValue the default value to use if property is not set
+     * @return itself to enable fluent interface
+     * @see #withDoubleNodeProperty(String, double)
+     */
+    public GraphLoader withLongNodeProperty(String property, long propertyDefaultValue) {
+        return withNodePropertyMapping(NodePropertyMapping.ofLong(property, propertyDefaultValue));
+    }
+
+    private GraphLoader withNodePropertyMapping(NodePropertyMapping mapping) {
+        for (NodePropertyMapping existing : nodePropertyMappings) {
+            if (existing.propertyKey.equals(mapping.propertyKey)) {
+                throw new IllegalArgumentException("Node property '" + mapping.propertyKey + "' has already been added");
+            }
+        }
+        nodePropertyMappings.add(mapping);
+        return this;
+    }
+
     /**
      * Instructs the loader to not load any relationship weights. Instead each weight is set
      * to propertyDefaultValue.
@@ -433,6 +557,41 @@ public class GraphLoader {
         return invokeConstructor(constructor).build();
     }
 
+    /**
+     * Loads the graph like {@link #load(Class)} and keeps it up to date with the
+     * transactions that are committed afterwards, see {@link GraphFactory#buildIncremental(int)}.
+     * The graph stops following the transactions once it is released.
+     *
+     * @return the freshly loaded graph
+     */
+    public Graph loadIncremental(Class<? extends GraphFactory> factoryType) {
+        return loadIncremental(factoryType, GraphDelta.DEFAULT_COMPACTION_THRESHOLD);
+    }
+
+    /**
+     * @param compactionThreshold the number of changed nodes that triggers a compaction
+     * @see #loadIncremental(Class)
+     */
+    public Graph loadIncremental(Class<? extends GraphFactory> factoryType, int compactionThreshold) {
+        if (compactionThreshold < 1) {
+            throw new IllegalArgumentException("The compaction threshold must be positive, but was " + compactionThreshold);
+        }
+        final MethodHandle constructor = findConstructor(factoryType);
+        return invokeConstructor(constructor).buildIncremental(compactionThreshold);
+    }
+
+    /**
+     * Creates the GraphFactory with the built configuration, without loading the graph.
+     * This can be used to inspect the {@link GraphFactory#dimensions()} or the
+     * {@link GraphFactory#memoryEstimation()} before a graph is loaded.
+     *
+     * @return the factory that would load the graph
+     */
+    public GraphFactory build(Class<? extends GraphFactory> factoryType) {
+        final MethodHandle constructor = findConstructor(factoryType);
+        return invokeConstructor(constructor);
+    }
+
     private MethodHandle findConstructor(Class<?> factoryType) {
         try {
             return LOOKUP.findConstructor(factoryType, CTOR_METHOD);
@@ -460,7 +619,18 @@ public class GraphLoader {
                 accumulateWeights,
                 log,
                 logMillis,
-                tracker);
+                tracker,
+                name,
+                offHeap,
+                blockEncoding,
+                nodeOrdering,
+                undirected,
+                relationTypes == null ? null : relationTypes.clone(),
+                relationTypeWeightProps == null ? null : relationTypeWeightProps.clone(),
+                nodePropertyMappings.toArray(new NodePropertyMapping[0]),
+                relationshipAggregation,
+                sortAdjacency,
+                kernelCacheSize);
 
         try {
             return (GraphFactory) constructor.invoke(api, setup);
@@ -490,6 +660,8 @@ public class GraphLoader {
      */
     public GraphLoader withRelationshipStatement(String relationshipStatement) {
         this.relation = relationshipStatement;
+        this.relationTypes = null;
+        this.relationTypeWeightProps = null;
         return this;
     }
 
@@ -512,4 +684,112 @@ public class GraphLoader {
         this.accumulateWeights = accumulateWeights;
         return this;
     }
+
+    /**
+     * Keep the adjacency of the graph outside of the heap.
+     * Only supported by the {@link org.neo4j.graphalgo.core.huge.HugeGraphFactory},
+     * the other graph implementations ignore this setting.
+     *
+     * @param offHeap true if the adjacency should be allocated outside of the heap
+     * @return itself to enable fluent interface
+     */
+    public GraphLoader withOffHeap(boolean offHeap) {
+        this.offHeap = offHeap;
+        return this;
+    }
+
+    /**
+     * Write the adjacency in groups of {@link org.neo4j.graphalgo.core.utils.paged.ByteArray#GROUP_SIZE} targets
+     * that share a control byte instead of as single variable length longs, which decodes faster at the cost
+     * of a slightly larger adjacency.
+     * Only supported by the {@link org.neo4j.graphalgo.core.huge.HugeGraphFactory},
+     * the other graph implementations ignore this setting.
+     *
+     * @param blockEncoding true if the adjacency should be block encoded
+     * @return itself to enable fluent interface
+     */
+    public GraphLoader withBlockEncoding(boolean blockEncoding) {
+        this.blockEncoding = blockEncoding;
+        return this;
+    }
+
+    /**
+     * Relabel the nodes after the import to improve the locality of the relationships.
+     * Only supported by the {@link org.neo4j.graphalgo.core.huge.HugeGraphFactory},
+     * the other graph implementations ignore this setting.
+     *
+     * @param nodeOrdering the order of the internal node ids
+     * @return itself to enable fluent interface
+     */
+    public GraphLoader withNodeOrdering(NodeOrdering nodeOrdering) {
+        this.nodeOrdering = Objects.requireNonNull(nodeOrdering);
+        return this;
+    }
+
+    /**
+     * Merge parallel relationships into a single relationship whose weight combines
+     * the weights of the parallel relationships.
+     * {@link RelationshipAggregation#COUNT} stores the number of parallel relationships as
+     * weight, even if no weight property is loaded.
+     * Only supported by the {@link org.neo4j.graphalgo.core.huge.HugeGraphFactory},
+     * the other graph implementations ignore this setting. Without an aggregation, the huge graph
+     * sums the weights if {@link #withAccumulateWeights(boolean)} is set.
+     *
+     * @param relationshipAggregation how the weights of parallel relationships are combined
+     * @return itself to enable fluent interface
+     */
+    public GraphLoader withRelationshipAggregation(RelationshipAggregation relationshipAggregation) {
+        this.relationshipAggregation = Objects.requireNonNull(relationshipAggregation);
+        return this;
+    }
+
+    /**
+     * Load the relationships as undirected, every relationship is stored at both
+     * of its nodes and parallel relationships are stored only once, keeping
+     * the weight of one of them.
+     * The configured direction is ignored, all directions traverse the same relationships.
+     * Only supported by the {@link org.neo4j.graphalgo.core.huge.HugeGraphFactory},
+     * the other graph implementations ignore this setting.
+     *
+     * @param undirected true if the relationships should be loaded as undirected
+     * @return itself to enable fluent interface
+     */
+    public GraphLoader asUndirected(boolean undirected) {
+        this.undirected = undirected;
+        return this;
+    }
+
+    /**
+     * Sort the targets of every node ascending, which allows to intersect the
+     * neighbors of two nodes in a single pass, see {@link Graph#intersect(int, int, Direction, java.util.function.IntConsumer)}.
+     * The huge graph is always sorted, the view of the kernel sorts the relationships
+     * of a node every time they are read.
+     *
+     * @param sortAdjacency true if the targets of every node should be sorted
+     * @return itself to enable fluent interface
+     */
+    public GraphLoader withSortedAdjacency(boolean sortAdjacency) {
+        this.sortAdjacency = sortAdjacency;
+        return this;
+    }
+
+    /**
+     * Keep the relationships that have been read through the kernel in memory, so that
+     * iterative algorithms do not read them from the store on every visit.
+     * Every thread caches up to the given number of relationships and evicts the
+     * nodes that have not been visited for the longest time first. Changes to the
+     * store are not visible for cached nodes.
+     * Only supported by the {@link org.neo4j.graphalgo.core.neo4jview.GraphViewFactory},
+     * the other graph implementations ignore this setting.
+     *
+     * @param kernelCacheSize the number of relationships cached per thread, 0 disables the cache
+     * @return itself to enable fluent interface
+     */
+    public GraphLoader withKernelCacheSize(long kernelCacheSize) {
+        if (kernelCacheSize < 0) {
+            throw new IllegalArgumentException("kernelCacheSize: " + kernelCacheSize);
+        }
+        this.kernelCacheSize = kernelCacheSize;
+        return this;
+    }
 }
@@ -3,8 +3,11 @@ package org.neo4j.graphalgo.core;
 import org.neo4j.graphalgo.api.GraphFactory;
 import org.neo4j.graphalgo.core.heavyweight.HeavyCypherGraphFactory;
 import org.neo4j.graphalgo.core.heavyweight.HeavyGraphFactory;
+import org.neo4j.graphalgo.core.huge.HugeCypherGraphFactory;
 import org.neo4j.graphalgo.core.huge.HugeGraphFactory;
 import org.neo4j.graphalgo.core.lightweight.LightGraphFactory;
+import org.neo4j.graphalgo.core.loading.GraphCatalog;
+import org.neo4j.graphalgo.core.loading.LoadGraphFactory;
 import org.neo4j.graphalgo.core.neo4jview.GraphViewFactory;
 import org.neo4j.graphalgo.core.utils.Directions;
 import org.neo4j.graphalgo.core.utils.ParallelUtil;
@@ -263,6 +266,8 @@ public class ProcedureConfiguration {
                 return HeavyGraphFactory.class;
             case "cypher":
                 return HeavyCypherGraphFactory.class;
+            case "huge-cypher":
+                return HugeCypherGraphFactory.class;
             case "light":
                 return LightGraphFactory.class;
             case "kernel":
@@ -270,10 +275,36 @@ public class ProcedureConfiguration {
             case "huge":
                 return HugeGraphFactory.class;
             default:
+                if (GraphCatalog.exists(graphImpl)) {
+                    return LoadGraphFactory.class;
+                }
                 throw new IllegalArgumentException("Unknown impl: " + graphImpl);
         }
     }
 
+    /**
+     * return the Graph-Implementation Factory class for algorithms
+     * which only support one implementation. A named graph from the
+     * {@link GraphCatalog} is used if given, the defaultImpl otherwise.
+     *
+     * @param defaultImpl the factory to use if no named graph is given
+     * @return
+     */
+    public Class<? extends GraphFactory> getGraphImpl(Class<? extends GraphFactory> defaultImpl) {
+        return GraphCatalog.exists(getGraphName(null)) ? LoadGraphFactory.class : defaultImpl;
+    }
+
+    /**
+     * return the name of a graph in the {@link GraphCatalog} if the
+     * graph param refers to one
+     *
+     * @param defaultValue a default value
+     * @return the graph name
+     */
+    public String getGraphName(String defaultValue) {
+        return getString(ProcedureConstants.GRAPH_IMPL_PARAM, defaultValue);
+    }
+
     /**
      * specialized getter for String which either returns the value
      * if found, the defaultValue if the key is not found or null if
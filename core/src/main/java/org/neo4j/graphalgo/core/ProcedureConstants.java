@@ -43,4 +43,6 @@ public class ProcedureConstants {
 
     public static final String CONCURRENCY = "concurrency";
 
+    public static final String KERNEL_CACHE_SIZE = "kernelCacheSize";
+
 }
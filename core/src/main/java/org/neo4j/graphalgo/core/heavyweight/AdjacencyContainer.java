@@ -0,0 +1,55 @@
+package org.neo4j.graphalgo.core.heavyweight;
+
+import org.neo4j.graphalgo.api.RelationshipConsumer;
+import org.neo4j.graphalgo.api.WeightMapping;
+import org.neo4j.graphalgo.api.WeightedRelationshipConsumer;
+import org.neo4j.graphdb.Direction;
+
+/**
+ * Read access to the relationships of a {@link HeavyGraph}.
+ *
+ * @see AdjacencyMatrix
+ * @see CsrAdjacency
+ */
+interface AdjacencyContainer {
+
+    /**
+     * get the degree for node / direction
+     */
+    int degree(int nodeId, Direction direction);
+
+    /**
+     * iterate over each edge at the given node using an unweighted consumer
+     */
+    void forEach(int nodeId, Direction direction, RelationshipConsumer consumer);
+
+    /**
+     * iterate over each edge at the given node using a weighted consumer
+     */
+    void forEach(int nodeId, Direction direction, WeightMapping weights, WeightedRelationshipConsumer consumer);
+
+    /**
+     * @return the array that holds the targets of the node, starting at {@link #offset(int, Direction)}
+     */
+    int[] targets(int nodeId, Direction direction);
+
+    /**
+     * @return the index of the first target of the node in {@link #targets(int, Direction)}
+     */
+    int offset(int nodeId, Direction direction);
+
+    /**
+     * sorts the targets of the node ascending in every loaded direction
+     */
+    void sortTargets(int nodeId);
+
+    /**
+     * @return true if the relationships of the direction have been loaded, {@link Direction#BOTH} requires both
+     */
+    boolean isLoaded(Direction direction);
+
+    /**
+     * @return the estimated number of bytes held by the adjacency arrays
+     */
+    long memoryUsage();
+}
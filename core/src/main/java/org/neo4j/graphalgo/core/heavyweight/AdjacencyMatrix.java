@@ -4,6 +4,7 @@ import org.apache.lucene.util.ArrayUtil;
 import org.neo4j.collection.primitive.PrimitiveIntIterator;
 import org.neo4j.graphalgo.api.*;
 import org.neo4j.graphalgo.core.utils.RawValues;
+import org.neo4j.graphalgo.core.utils.paged.MemoryUsage;
 import org.neo4j.graphdb.Direction;
 
 import java.util.Arrays;
@@ -16,7 +17,7 @@ import java.util.function.IntPredicate;
  *
  * @author mknblch
  */
-class AdjacencyMatrix {
+class AdjacencyMatrix implements AdjacencyContainer {
 
     private static final int[] EMPTY_INTS = new int[0];
 
@@ -65,6 +66,56 @@ class AdjacencyMatrix {
         this.incoming = incoming;
     }
 
+    /**
+     * Copies the given adjacency into a new matrix. The rows of another matrix
+     * are shared with it, so they must not be changed afterwards.
+     */
+    static AdjacencyMatrix copyOf(AdjacencyContainer container) {
+        if (container instanceof AdjacencyMatrix) {
+            AdjacencyMatrix matrix = (AdjacencyMatrix) container;
+            return new AdjacencyMatrix(
+                    matrix.outOffsets != null ? matrix.outOffsets.clone() : null,
+                    matrix.inOffsets != null ? matrix.inOffsets.clone() : null,
+                    matrix.outgoing != null ? matrix.outgoing.clone() : null,
+                    matrix.incoming != null ? matrix.incoming.clone() : null);
+        }
+        CsrAdjacency csr = (CsrAdjacency) container;
+        return new AdjacencyMatrix(
+                csr.outDegrees != null ? csr.outDegrees.clone() : null,
+                csr.inDegrees != null ? csr.inDegrees.clone() : null,
+                rows(csr.outOffsets, csr.outDegrees, csr.outgoing),
+                rows(csr.inOffsets, csr.inDegrees, csr.incoming));
+    }
+
+    private static int[][] rows(int[] offsets, int[] degrees, int[] targets) {
+        if (offsets == null) {
+            return null;
+        }
+        int[][] rows = new int[degrees.length][];
+        for (int i = 0; i < degrees.length; i++) {
+            rows[i] = degrees[i] == 0
+                    ? EMPTY_INTS
+                    : Arrays.copyOfRange(targets, offsets[i], offsets[i] + degrees[i]);
+        }
+        return rows;
+    }
+
+    /**
+     * replaces all outgoing connections of the node
+     */
+    void setOutgoing(int sourceNodeId, int[] targets) {
+        outOffsets[sourceNodeId] = targets.length;
+        outgoing[sourceNodeId] = targets;
+    }
+
+    /**
+     * replaces all incoming connections of the node
+     */
+    void setIncoming(int targetNodeId, int[] sources) {
+        inOffsets[targetNodeId] = sources.length;
+        incoming[targetNodeId] = sources;
+    }
+
     /**
      * initialize array for outgoing connections
      */
@@ -156,6 +207,7 @@ class AdjacencyMatrix {
      *
      * @throws NullPointerException if the direction hasn't been loaded.
      */
+    @Override
     public int degree(int nodeId, Direction direction) {
         switch (direction) {
             case OUTGOING: {
@@ -173,6 +225,7 @@ class AdjacencyMatrix {
     /**
      * iterate over each edge at the given node using an unweighted consumer
      */
+    @Override
     public void forEach(int nodeId, Direction direction, RelationshipConsumer consumer) {
         switch (direction) {
             case OUTGOING:
@@ -191,6 +244,7 @@ class AdjacencyMatrix {
     /**
      * iterate over each edge at the given node using a weighted consumer
      */
+    @Override
     public void forEach(int nodeId, Direction direction, WeightMapping weights, WeightedRelationshipConsumer consumer) {
         switch (direction) {
             case OUTGOING:
@@ -206,6 +260,26 @@ class AdjacencyMatrix {
         }
     }
 
+    @Override
+    public int[] targets(int nodeId, Direction direction) {
+        return direction == Direction.OUTGOING ? outgoing[nodeId] : incoming[nodeId];
+    }
+
+    @Override
+    public int offset(int nodeId, Direction direction) {
+        return 0;
+    }
+
+    @Override
+    public void sortTargets(int nodeId) {
+        if (outgoing != null) {
+            Arrays.sort(outgoing[nodeId], 0, outOffsets[nodeId]);
+        }
+        if (incoming != null) {
+            Arrays.sort(incoming[nodeId], 0, inOffsets[nodeId]);
+        }
+    }
+
     public int capacity() {
         return outOffsets != null
                 ? outOffsets.length
@@ -214,6 +288,36 @@ class AdjacencyMatrix {
                 : 0;
     }
 
+    @Override
+    public boolean isLoaded(Direction direction) {
+        switch (direction) {
+            case OUTGOING:
+                return outgoing != null;
+            case INCOMING:
+                return incoming != null;
+            default:
+                return outgoing != null && incoming != null;
+        }
+    }
+
+    @Override
+    public long memoryUsage() {
+        return memoryUsage(outOffsets, outgoing) + memoryUsage(inOffsets, incoming);
+    }
+
+    private static long memoryUsage(int[] offsets, int[][] targets) {
+        if (offsets == null) {
+            return 0L;
+        }
+        long bytes = MemoryUsage.sizeOfIntArray(offsets.length) + MemoryUsage.sizeOfObjectArray(targets.length);
+        for (int[] target : targets) {
+            if (target != null && target != EMPTY_INTS) {
+                bytes += MemoryUsage.sizeOfIntArray(target.length);
+            }
+        }
+        return bytes;
+    }
+
     public void addMatrix(AdjacencyMatrix other, int offset, int length) {
         if (other.outgoing != null) {
             System.arraycopy(other.outgoing, 0, outgoing, offset, length);
@@ -0,0 +1,195 @@
+package org.neo4j.graphalgo.core.heavyweight;
+
+import org.apache.lucene.util.ArrayUtil;
+import org.neo4j.graphalgo.api.RelationshipConsumer;
+import org.neo4j.graphalgo.api.WeightMapping;
+import org.neo4j.graphalgo.api.WeightedRelationshipConsumer;
+import org.neo4j.graphalgo.core.utils.RawValues;
+import org.neo4j.graphalgo.core.utils.paged.MemoryUsage;
+import org.neo4j.graphdb.Direction;
+
+import java.util.Arrays;
+
+/**
+ * Relationships stored in compressed sparse row format. All targets of one
+ * direction are kept in a single contiguous array, the targets of a node
+ * start at {@code offsets[node]}.
+ * <p>
+ * The arrays are sized upfront from the degrees that have been counted before
+ * the relationships are read, so that no array has to be grown or copied during the import.
+ * As the counted degree is an upper bound, the actual number of relationships
+ * of a node is stored separately in {@code degrees}.
+ */
+final class CsrAdjacency implements AdjacencyContainer {
+
+    final int[] outOffsets;
+    final int[] outDegrees;
+    final int[] outgoing;
+    final int[] inOffsets;
+    final int[] inDegrees;
+    final int[] incoming;
+
+    CsrAdjacency(
+            int[] outOffsets,
+            int[] outDegrees,
+            int[] outgoing,
+            int[] inOffsets,
+            int[] inDegrees,
+            int[] incoming) {
+        this.outOffsets = outOffsets;
+        this.outDegrees = outDegrees;
+        this.outgoing = outgoing;
+        this.inOffsets = inOffsets;
+        this.inDegrees = inDegrees;
+        this.incoming = incoming;
+    }
+
+    /**
+     * Computes the start offset of every node from the given degrees.
+     * The returned array has one more entry than the degrees, the last one
+     * being the total number of relationships.
+     *
+     * @return the offsets or null if the relationships don't fit into a single array
+     */
+    static int[] offsets(int[] degrees) {
+        final int[] offsets = new int[degrees.length + 1];
+        long offset = 0L;
+        for (int i = 0; i < degrees.length; i++) {
+            offsets[i] = (int) offset;
+            offset += degrees[i];
+            if (offset > ArrayUtil.MAX_ARRAY_LENGTH) {
+                return null;
+            }
+        }
+        offsets[degrees.length] = (int) offset;
+        return offsets;
+    }
+
+    @Override
+    public int degree(int nodeId, Direction direction) {
+        switch (direction) {
+            case OUTGOING:
+                return outDegrees[nodeId];
+            case INCOMING:
+                return inDegrees[nodeId];
+            default:
+                return inDegrees[nodeId] + outDegrees[nodeId];
+        }
+    }
+
+    @Override
+    public void forEach(int nodeId, Direction direction, RelationshipConsumer consumer) {
+        switch (direction) {
+            case OUTGOING:
+                forEachOutgoing(nodeId, consumer);
+                break;
+            case INCOMING:
+                forEachIncoming(nodeId, consumer);
+                break;
+            default:
+                forEachIncoming(nodeId, consumer);
+                forEachOutgoing(nodeId, consumer);
+                break;
+        }
+    }
+
+    @Override
+    public void forEach(int nodeId, Direction direction, WeightMapping weights, WeightedRelationshipConsumer consumer) {
+        switch (direction) {
+            case OUTGOING:
+                forEachOutgoing(nodeId, weights, consumer);
+                break;
+            case INCOMING:
+                forEachIncoming(nodeId, weights, consumer);
+                break;
+            default:
+                forEachIncoming(nodeId, weights, consumer);
+                forEachOutgoing(nodeId, weights, consumer);
+                break;
+        }
+    }
+
+    @Override
+    public int[] targets(int nodeId, Direction direction) {
+        return direction == Direction.OUTGOING ? outgoing : incoming;
+    }
+
+    @Override
+    public int offset(int nodeId, Direction direction) {
+        return direction == Direction.OUTGOING ? outOffsets[nodeId] : inOffsets[nodeId];
+    }
+
+    @Override
+    public void sortTargets(int nodeId) {
+        if (outgoing != null) {
+            Arrays.sort(outgoing, outOffsets[nodeId], outOffsets[nodeId] + outDegrees[nodeId]);
+        }
+        if (incoming != null) {
+            Arrays.sort(incoming, inOffsets[nodeId], inOffsets[nodeId] + inDegrees[nodeId]);
+        }
+    }
+
+    @Override
+    public boolean isLoaded(Direction direction) {
+        switch (direction) {
+            case OUTGOING:
+                return outgoing != null;
+            case INCOMING:
+                return incoming != null;
+            default:
+                return outgoing != null && incoming != null;
+        }
+    }
+
+    @Override
+    public long memoryUsage() {
+        return memoryUsage(outOffsets, outDegrees, outgoing) + memoryUsage(inOffsets, inDegrees, incoming);
+    }
+
+    private static long memoryUsage(int[] offsets, int[] degrees, int[] targets) {
+        if (offsets == null) {
+            return 0L;
+        }
+        return MemoryUsage.sizeOfIntArray(offsets.length) +
+                MemoryUsage.sizeOfIntArray(degrees.length) +
+                MemoryUsage.sizeOfIntArray(targets.length);
+    }
+
+    private void forEachOutgoing(int nodeId, RelationshipConsumer consumer) {
+        final int offset = outOffsets[nodeId];
+        final int limit = offset + outDegrees[nodeId];
+        final int[] outs = outgoing;
+        for (int i = offset; i < limit; i++) {
+            consumer.accept(nodeId, outs[i], RawValues.combineIntInt(nodeId, outs[i]));
+        }
+    }
+
+    private void forEachIncoming(int nodeId, RelationshipConsumer consumer) {
+        final int offset = inOffsets[nodeId];
+        final int limit = offset + inDegrees[nodeId];
+        final int[] ins = incoming;
+        for (int i = offset; i < limit; i++) {
+            consumer.accept(nodeId, ins[i], RawValues.combineIntInt(ins[i], nodeId));
+        }
+    }
+
+    private void forEachOutgoing(int nodeId, WeightMapping weights, WeightedRelationshipConsumer consumer) {
+        final int offset = outOffsets[nodeId];
+        final int limit = offset + outDegrees[nodeId];
+        final int[] outs = outgoing;
+        for (int i = offset; i < limit; i++) {
+            final long relationId = RawValues.combineIntInt(nodeId, outs[i]);
+            consumer.accept(nodeId, outs[i], relationId, weights.get(relationId));
+        }
+    }
+
+    private void forEachIncoming(int nodeId, WeightMapping weights, WeightedRelationshipConsumer consumer) {
+        final int offset = inOffsets[nodeId];
+        final int limit = offset + inDegrees[nodeId];
+        final int[] ins = incoming;
+        for (int i = offset; i < limit; i++) {
+            final long relationId = RawValues.combineIntInt(ins[i], nodeId);
+            consumer.accept(nodeId, ins[i], relationId, weights.get(relationId));
+        }
+    }
+}
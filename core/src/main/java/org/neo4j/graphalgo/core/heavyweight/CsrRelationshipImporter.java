@@ -0,0 +1,185 @@
+package org.neo4j.graphalgo.core.heavyweight;
+
+import org.neo4j.collection.primitive.PrimitiveIntIterable;
+import org.neo4j.collection.primitive.PrimitiveIntIterator;
+import org.neo4j.graphalgo.api.WeightMapping;
+import org.neo4j.graphalgo.core.IdMap;
+import org.neo4j.graphalgo.core.WeightMap;
+import org.neo4j.graphalgo.core.utils.ImportProgress;
+import org.neo4j.graphalgo.core.utils.RawValues;
+import org.neo4j.graphalgo.core.utils.StatementTask;
+import org.neo4j.graphdb.Direction;
+import org.neo4j.kernel.api.ReadOperations;
+import org.neo4j.kernel.api.Statement;
+import org.neo4j.kernel.api.exceptions.EntityNotFoundException;
+import org.neo4j.kernel.impl.api.RelationshipVisitor;
+import org.neo4j.kernel.impl.api.store.RelationshipIterator;
+import org.neo4j.kernel.internal.GraphDatabaseAPI;
+
+/**
+ * Second pass of the {@link CsrAdjacency} import, writes the relationships of
+ * every node of a batch into the pre-sized target arrays.
+ * <p>
+ * Every task writes only to the slots of its own nodes, so the tasks can share
+ * the same arrays. The weights are collected per task and combined afterwards.
+ */
+final class CsrRelationshipImporter extends StatementTask<Void, EntityNotFoundException>
+        implements RelationshipVisitor<EntityNotFoundException> {
+
+    private final IdMap idMap;
+    private final PrimitiveIntIterable nodes;
+    private final ImportProgress progress;
+    private final int[] relationId;
+    private final CsrAdjacency adjacency;
+
+    final WeightMapping relWeights;
+    final WeightMapping nodeWeights;
+    final WeightMapping nodeProps;
+
+    private ReadOperations readOp;
+    private Direction direction;
+    private int sourceGraphId;
+    private int[] targets;
+    private int position;
+    private int limit;
+
+    CsrRelationshipImporter(
+            GraphDatabaseAPI api,
+            IdMap idMap,
+            PrimitiveIntIterable nodes,
+            ImportProgress progress,
+            int[] relationId,
+            CsrAdjacency adjacency,
+            WeightMapping relWeights,
+            WeightMapping nodeWeights,
+            WeightMapping nodeProps) {
+        super(api);
+        this.idMap = idMap;
+        this.nodes = nodes;
+        this.progress = progress;
+        this.relationId = relationId;
+        this.adjacency = adjacency;
+        this.relWeights = relWeights;
+        this.nodeWeights = nodeWeights;
+        this.nodeProps = nodeProps;
+    }
+
+    @Override
+    public String threadName() {
+        return "[Heavy] CsrRelationshipImport";
+    }
+
+    @Override
+    public Void apply(final Statement statement) throws EntityNotFoundException {
+        readOp = statement.readOperations();
+        final CsrAdjacency adjacency = this.adjacency;
+        PrimitiveIntIterator iterator = nodes.iterator();
+        while (iterator.hasNext()) {
+            final int nodeId = iterator.next();
+            final long neoId = idMap.toOriginalNodeId(nodeId);
+            if (adjacency.outgoing != null) {
+                readRelationships(
+                        nodeId,
+                        neoId,
+                        Direction.OUTGOING,
+                        adjacency.outOffsets,
+                        adjacency.outDegrees,
+                        adjacency.outgoing);
+            }
+            if (adjacency.incoming != null) {
+                readRelationships(
+                        nodeId,
+                        neoId,
+                        Direction.INCOMING,
+                        adjacency.inOffsets,
+                        adjacency.inDegrees,
+                        adjacency.incoming);
+            }
+            if (nodeWeights instanceof WeightMap) {
+                readNodeWeight(neoId, nodeId, (WeightMap) nodeWeights);
+            }
+            if (nodeProps instanceof WeightMap) {
+                readNodeWeight(neoId, nodeId, (WeightMap) nodeProps);
+            }
+            progress.relProgress();
+        }
+        readOp = null;
+        return null;
+    }
+
+    private void readRelationships(
+            int nodeId,
+            long neoId,
+            Direction direction,
+            int[] offsets,
+            int[] degrees,
+            int[] targets) throws EntityNotFoundException {
+        final int offset = offsets[nodeId];
+        this.limit = offsets[nodeId + 1];
+        if (offset == limit) {
+            degrees[nodeId] = 0;
+            return;
+        }
+        this.direction = direction;
+        this.sourceGraphId = nodeId;
+        this.targets = targets;
+        this.position = offset;
+        final RelationshipIterator rels = relationId == null
+                ? readOp.nodeGetRelationships(neoId, direction)
+                : readOp.nodeGetRelationships(neoId, direction, relationId);
+        // relationships that have been created after the degrees were counted are skipped
+        while (position < limit && rels.hasNext()) {
+            rels.relationshipVisit(rels.next(), this);
+        }
+        degrees[nodeId] = position - offset;
+    }
+
+    @Override
+    public void visit(
+            final long relationshipId,
+            final int typeId,
+            final long startNodeId,
+            final long endNodeId) throws EntityNotFoundException {
+        final boolean outgoing = direction == Direction.OUTGOING;
+        final int targetGraphId = idMap.get(outgoing ? endNodeId : startNodeId);
+        if (targetGraphId == -1 || position >= limit) {
+            return;
+        }
+        targets[position++] = targetGraphId;
+        if (relWeights instanceof WeightMap) {
+            readRelationshipWeight(
+                    outgoing ? sourceGraphId : targetGraphId,
+                    outgoing ? targetGraphId : sourceGraphId,
+                    (WeightMap) relWeights,
+                    relationshipId);
+        }
+    }
+
+    private void readRelationshipWeight(
+            int sourceGraphId,
+            int targetGraphId,
+            WeightMap weights,
+            long relationshipId) {
+        // a relationship that has been deleted concurrently keeps the default weight
+        try {
+            Object value = readOp.relationshipGetProperty(relationshipId, weights.propertyId());
+            if (value != null) {
+                weights.set(RawValues.combineIntInt(sourceGraphId, targetGraphId), value);
+            }
+        } catch (EntityNotFoundException ignored) {
+        }
+    }
+
+    private void readNodeWeight(
+            long neoId,
+            int nodeId,
+            WeightMap weights) {
+        try {
+            Object value = readOp.nodeGetProperty(neoId, weights.propertyId());
+            if (value != null) {
+                weights.set(nodeId, value);
+            }
+        } catch (EntityNotFoundException ignored) {
+        }
+    }
+}
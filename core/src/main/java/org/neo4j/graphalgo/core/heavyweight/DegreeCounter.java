@@ -0,0 +1,105 @@
+package org.neo4j.graphalgo.core.heavyweight;
+
+import org.neo4j.collection.primitive.PrimitiveIntIterable;
+import org.neo4j.collection.primitive.PrimitiveIntIterator;
+import org.neo4j.graphalgo.core.IdMap;
+import org.neo4j.graphalgo.core.utils.StatementTask;
+import org.neo4j.graphdb.Direction;
+import org.neo4j.kernel.api.ReadOperations;
+import org.neo4j.kernel.api.Statement;
+import org.neo4j.kernel.api.exceptions.EntityNotFoundException;
+import org.neo4j.kernel.impl.api.RelationshipVisitor;
+import org.neo4j.kernel.impl.api.store.RelationshipIterator;
+import org.neo4j.kernel.internal.GraphDatabaseAPI;
+
+/**
+ * First pass of the {@link CsrAdjacency} import, counts the degree of every node of a batch.
+ * <p>
+ * If all nodes are loaded, every relationship ends in a loaded node and the degree can be
+ * taken from the store. Otherwise the relationships have to be read in order to skip
+ * those that end in a node which is not part of the graph.
+ */
+final class DegreeCounter extends StatementTask<Void, EntityNotFoundException>
+        implements RelationshipVisitor<RuntimeException> {
+
+    private final IdMap idMap;
+    private final PrimitiveIntIterable nodes;
+    private final int[] relationId;
+    private final boolean fromDegreeStore;
+    private final int[] outDegrees;
+    private final int[] inDegrees;
+
+    private Direction direction;
+    private int degree;
+
+    DegreeCounter(
+            GraphDatabaseAPI api,
+            IdMap idMap,
+            PrimitiveIntIterable nodes,
+            int[] relationId,
+            boolean fromDegreeStore,
+            int[] outDegrees,
+            int[] inDegrees) {
+        super(api);
+        this.idMap = idMap;
+        this.nodes = nodes;
+        this.relationId = relationId;
+        this.fromDegreeStore = fromDegreeStore;
+        this.outDegrees = outDegrees;
+        this.inDegrees = inDegrees;
+    }
+
+    @Override
+    public String threadName() {
+        return "[Heavy] DegreeCount";
+    }
+
+    @Override
+    public Void apply(final Statement statement) throws EntityNotFoundException {
+        final ReadOperations readOp = statement.readOperations();
+        PrimitiveIntIterator iterator = nodes.iterator();
+        while (iterator.hasNext()) {
+            final int nodeId = iterator.next();
+            final long neoId = idMap.toOriginalNodeId(nodeId);
+            if (outDegrees != null) {
+                outDegrees[nodeId] = degree(readOp, neoId, Direction.OUTGOING);
+            }
+            if (inDegrees != null) {
+                inDegrees[nodeId] = degree(readOp, neoId, Direction.INCOMING);
+            }
+        }
+        return null;
+    }
+
+    private int degree(
+            ReadOperations readOp,
+            long neoId,
+            Direction direction) throws EntityNotFoundException {
+        if (fromDegreeStore) {
+            return relationId == null
+                    ? readOp.nodeGetDegree(neoId, direction)
+                    : readOp.nodeGetDegree(neoId, direction, relationId[0]);
+        }
+        final RelationshipIterator rels = relationId == null
+                ? readOp.nodeGetRelationships(neoId, direction)
+                : readOp.nodeGetRelationships(neoId, direction, relationId);
+        this.direction = direction;
+        this.degree = 0;
+        while (rels.hasNext()) {
+            rels.relationshipVisit(rels.next(), this);
+        }
+        return degree;
+    }
+
+    @Override
+    public void visit(
+            final long relationshipId,
+            final int typeId,
+            final long startNodeId,
+            final long endNodeId) {
+        long otherNodeId = direction == Direction.OUTGOING ? endNodeId : startNodeId;
+        if (idMap.get(otherNodeId) != -1) {
+            degree++;
+        }
+    }
+}
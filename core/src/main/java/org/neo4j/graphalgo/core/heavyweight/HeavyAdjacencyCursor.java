@@ -0,0 +1,53 @@
+package org.neo4j.graphalgo.core.heavyweight;
+
+import org.neo4j.graphalgo.api.WeightMapping;
+import org.neo4j.graphalgo.core.utils.IntAdjacencyCursor;
+import org.neo4j.graphalgo.core.utils.RawValues;
+import org.neo4j.graphdb.Direction;
+
+/**
+ * Copies the targets of a {@link HeavyGraph} straight out of its {@link AdjacencyContainer}.
+ */
+final class HeavyAdjacencyCursor extends IntAdjacencyCursor {
+
+    private final AdjacencyContainer container;
+    private final WeightMapping weights;
+
+    private int nodeId;
+    private boolean outgoing;
+    private int[] targets;
+    private int offset;
+    private int limit;
+
+    HeavyAdjacencyCursor(AdjacencyContainer container, WeightMapping weights) {
+        this.container = container;
+        this.weights = weights;
+    }
+
+    @Override
+    protected void open(int nodeId, Direction direction) {
+        this.nodeId = nodeId;
+        this.outgoing = direction == Direction.OUTGOING;
+        this.targets = container.targets(nodeId, direction);
+        this.offset = container.offset(nodeId, direction);
+        this.limit = offset + container.degree(nodeId, direction);
+    }
+
+    @Override
+    protected int read(int[] targets, double[] weights, int length) {
+        int read = Math.min(length, limit - offset);
+        if (read <= 0) {
+            return 0;
+        }
+        System.arraycopy(this.targets, offset, targets, 0, read);
+        offset += read;
+        if (weights != null) {
+            for (int i = 0; i < read; i++) {
+                weights[i] = this.weights.get(outgoing
+                        ? RawValues.combineIntInt(nodeId, targets[i])
+                        : RawValues.combineIntInt(targets[i], nodeId));
+            }
+        }
+        return read;
+    }
+}
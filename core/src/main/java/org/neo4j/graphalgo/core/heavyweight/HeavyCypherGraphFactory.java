@@ -81,7 +81,11 @@ public class HeavyCypherGraphFactory extends GraphFactory {
                 batchLoadRelationships(batchSize, nodes) :
                 loadRelationships(0, NO_BATCH, nodes);
 
-        return new HeavyGraph(nodes.idMap, relationships.matrix, relationships.relWeights, nodes.nodeWeights, nodes.nodeProps);
+        HeavyGraph graph = new HeavyGraph(nodes.idMap, relationships.matrix, relationships.relWeights, nodes.nodeWeights, nodes.nodeProps);
+        if (setup.sortAdjacency) {
+            graph.sortAdjacency(setup.executor, setup.concurrency());
+        }
+        return graph;
     }
 
     private Relationships batchLoadRelationships(int batchSize, Nodes nodes) {
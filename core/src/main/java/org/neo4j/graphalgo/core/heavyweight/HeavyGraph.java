@@ -4,9 +4,15 @@ import org.neo4j.collection.primitive.PrimitiveIntIterable;
 import org.neo4j.collection.primitive.PrimitiveIntIterator;
 import org.neo4j.graphalgo.api.*;
 import org.neo4j.graphalgo.core.IdMap;
+import org.neo4j.graphalgo.core.loading.GraphDelta;
+import org.neo4j.graphalgo.core.utils.AdjacencyIntersect;
+import org.neo4j.graphalgo.core.utils.ParallelUtil;
+import org.neo4j.graphalgo.core.utils.RawValues;
 import org.neo4j.graphdb.Direction;
 
 import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
 import java.util.function.IntPredicate;
 
 /**
@@ -17,14 +23,16 @@ import java.util.function.IntPredicate;
 public class HeavyGraph implements Graph, RelationshipWeights, NodeWeights, NodeProperties {
 
     private final IdMap nodeIdMap;
-    private AdjacencyMatrix container;
+    private AdjacencyContainer container;
     private WeightMapping relationshipWeights;
     private WeightMapping nodeWeights;
     private WeightMapping nodeProperties;
+    private boolean canRelease = true;
+    private boolean sorted = false;
 
     HeavyGraph(
             IdMap nodeIdMap,
-            AdjacencyMatrix container,
+            AdjacencyContainer container,
             final WeightMapping relationshipWeights,
             final WeightMapping nodeWeights,
             final WeightMapping nodeProperties) {
@@ -35,6 +43,10 @@ public class HeavyGraph implements Graph, RelationshipWeights, NodeWeights, Node
         this.nodeProperties = nodeProperties;
     }
 
+    long adjacencyMemoryUsage() {
+        return container != null ? container.memoryUsage() : 0L;
+    }
+
     @Override
     public long nodeCount() {
         return nodeIdMap.size();
@@ -60,6 +72,60 @@ public class HeavyGraph implements Graph, RelationshipWeights, NodeWeights, Node
         return container.degree(nodeId, direction);
     }
 
+    @Override
+    public AdjacencyCursor newAdjacencyCursor() {
+        return new HeavyAdjacencyCursor(container, relationshipWeights);
+    }
+
+    /**
+     * The sorted targets of a single direction are intersected directly in the
+     * arrays of the container, without copying them.
+     */
+    @Override
+    public RelationshipIntersect newIntersect(Direction direction) {
+        if (!hasSortedAdjacency(direction)) {
+            return Graph.super.newIntersect(direction);
+        }
+        final AdjacencyContainer container = this.container;
+        return (nodeA, nodeB, consumer) -> AdjacencyIntersect.intersect(
+                container.targets(nodeA, direction),
+                container.offset(nodeA, direction),
+                container.offset(nodeA, direction) + container.degree(nodeA, direction),
+                container.targets(nodeB, direction),
+                container.offset(nodeB, direction),
+                container.offset(nodeB, direction) + container.degree(nodeB, direction),
+                consumer);
+    }
+
+    @Override
+    public boolean hasSortedAdjacency(Direction direction) {
+        return sorted && direction != Direction.BOTH;
+    }
+
+    /**
+     * Sorts the targets of every node in parallel, the weights are stored
+     * by source and target and are not affected by the order.
+     */
+    void sortAdjacency(ExecutorService executor, int concurrency) {
+        final int nodeCount = Math.toIntExact(nodeCount());
+        if (ParallelUtil.canRunInParallel(executor) && concurrency > 1) {
+            ParallelUtil.iterateParallel(executor, nodeCount, concurrency, container::sortTargets);
+        } else {
+            for (int node = 0; node < nodeCount; node++) {
+                container.sortTargets(node);
+            }
+        }
+        sorted = true;
+    }
+
+    boolean isSorted() {
+        return sorted;
+    }
+
+    void sorted(boolean sorted) {
+        this.sorted = sorted;
+    }
+
     @Override
     public void forEachRelationship(int nodeId, Direction direction, RelationshipConsumer consumer) {
         container.forEach(nodeId, direction, consumer);
@@ -103,11 +169,88 @@ public class HeavyGraph implements Graph, RelationshipWeights, NodeWeights, Node
         return nodeProperties.get(nodeId, defaultValue);
     }
 
+    IdMap idMap() {
+        return nodeIdMap;
+    }
+
+    AdjacencyContainer container() {
+        return container;
+    }
+
+    WeightMapping relationshipWeights() {
+        return relationshipWeights;
+    }
+
+    WeightMapping nodeWeights() {
+        return nodeWeights;
+    }
+
+    WeightMapping nodeProperties() {
+        return nodeProperties;
+    }
+
+    /**
+     * @return the sorted targets and weights of the node
+     */
+    GraphDelta.Adjacency adjacency(int nodeId, Direction direction) {
+        int degree = container.degree(nodeId, direction);
+        long[] targets = new long[degree];
+        double[] weights = new double[degree];
+        int[] index = {0};
+        container.forEach(nodeId, direction, relationshipWeights, (s, t, relationId, weight) -> {
+            targets[index[0]] = t;
+            weights[index[0]++] = weight;
+            return true;
+        });
+        return GraphDelta.Adjacency.of(targets, weights, index[0]);
+    }
+
+    /**
+     * Returns a new graph that reads the given adjacencies instead of the stored ones.
+     * The relationships are copied into an {@link AdjacencyMatrix} that shares the
+     * untouched rows with this graph, if this graph is already backed by one.
+     */
+    HeavyGraph compact(
+            Map<Long, GraphDelta.Adjacency> outgoing,
+            Map<Long, GraphDelta.Adjacency> incoming) {
+        AdjacencyMatrix matrix = AdjacencyMatrix.copyOf(container);
+        PatchedWeightMap.Builder weights = PatchedWeightMap.patch(relationshipWeights);
+        outgoing.forEach((node, adjacency) -> {
+            int source = Math.toIntExact(node);
+            int[] targets = new int[adjacency.degree()];
+            for (int i = 0; i < targets.length; i++) {
+                targets[i] = (int) adjacency.target(i);
+                weights.put(RawValues.combineIntInt(source, targets[i]), adjacency.weight(i));
+            }
+            matrix.setOutgoing(source, targets);
+        });
+        incoming.forEach((node, adjacency) -> {
+            int target = Math.toIntExact(node);
+            int[] sources = new int[adjacency.degree()];
+            for (int i = 0; i < sources.length; i++) {
+                sources[i] = (int) adjacency.target(i);
+                weights.put(RawValues.combineIntInt(sources[i], target), adjacency.weight(i));
+            }
+            matrix.setIncoming(target, sources);
+        });
+        HeavyGraph compacted = new HeavyGraph(nodeIdMap, matrix, weights.build(), nodeWeights, nodeProperties);
+        compacted.canRelease = canRelease;
+        // the replaced rows are sorted as well
+        compacted.sorted = sorted;
+        return compacted;
+    }
+
     @Override
     public void release() {
+        if (!canRelease) return;
         container = null;
         relationshipWeights = null;
         nodeWeights = null;
         nodeProperties = null;
     }
+
+    @Override
+    public void canRelease(boolean canRelease) {
+        this.canRelease = canRelease;
+    }
 }
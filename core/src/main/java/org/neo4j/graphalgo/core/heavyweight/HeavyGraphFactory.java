@@ -1,12 +1,17 @@
 package org.neo4j.graphalgo.core.heavyweight;
 
+import org.apache.lucene.util.ArrayUtil;
 import org.neo4j.graphalgo.api.Graph;
 import org.neo4j.graphalgo.api.GraphFactory;
 import org.neo4j.graphalgo.api.GraphSetup;
 import org.neo4j.graphalgo.api.WeightMapping;
 import org.neo4j.graphalgo.core.IdMap;
+import org.neo4j.graphalgo.core.WeightMap;
 import org.neo4j.graphalgo.core.utils.ParallelUtil;
+import org.neo4j.graphalgo.core.utils.paged.MemoryRange;
+import org.neo4j.graphalgo.core.utils.paged.MemoryUsage;
 import org.neo4j.helpers.Exceptions;
+import org.neo4j.kernel.api.ReadOperations;
 import org.neo4j.kernel.api.exceptions.EntityNotFoundException;
 import org.neo4j.kernel.internal.GraphDatabaseAPI;
 
@@ -14,6 +19,13 @@ import java.util.Collection;
 import java.util.function.Supplier;
 
 /**
+ * Loads a {@link HeavyGraph} in two passes. The first pass counts the degree of
+ * every node, the second one writes the relationships into contiguous arrays
+ * of exactly that size (see {@link CsrAdjacency}). Both passes run in parallel.
+ * <p>
+ * If there are too many relationships for a single array, the relationships are
+ * loaded into an {@link AdjacencyMatrix} instead, which grows an array per node.
+ *
  * @author mknblch
  */
 public class HeavyGraphFactory extends GraphFactory {
@@ -29,6 +41,50 @@ public class HeavyGraphFactory extends GraphFactory {
         return build(setup.batchSize);
     }
 
+    /**
+     * The loaded graph is not undirected, so undirected changes cannot be applied to it.
+     */
+    @Override
+    public Graph buildIncremental(int compactionThreshold) {
+        if (setup.loadAsUndirected) {
+            throw new IllegalArgumentException("An undirected graph cannot be loaded incrementally by " +
+                    getClass().getSimpleName());
+        }
+        // the dimensions of this factory have been read before the transactions are followed,
+        // a node that is created in between would not be loaded
+        return IncrementalHeavyGraph.load(
+                api,
+                setup,
+                compactionThreshold,
+                () -> (HeavyGraph) new HeavyGraphFactory(api, setup).build());
+    }
+
+    /**
+     * The adjacency takes the least memory if it can be imported into the compressed
+     * arrays and the most if it falls back to an array per node.
+     */
+    @Override
+    public MemoryRange memoryEstimation() {
+        final int nodeCount = dimensions.nodeCount();
+        final long relCount = dimensions.maxRelCount();
+        final long matrix = MemoryUsage.sizeOfIntArray(nodeCount) +
+                MemoryUsage.sizeOfObjectArray(nodeCount) +
+                (long) nodeCount * MemoryUsage.sizeOfIntArray(1) +
+                relCount * Integer.BYTES;
+        final long csr = relCount <= ArrayUtil.MAX_ARRAY_LENGTH
+                ? MemoryUsage.sizeOfIntArray(nodeCount + 1) +
+                MemoryUsage.sizeOfIntArray(nodeCount) +
+                MemoryUsage.sizeOfIntArray((int) relCount)
+                : matrix;
+        final int directions = (setup.loadIncoming ? 1 : 0) + (setup.loadOutgoing ? 1 : 0);
+        return MemoryRange.of(csr, Math.max(csr, matrix))
+                .times(directions)
+                .add(idMapMemoryUsage(nodeCount))
+                .add(weightMapMemoryUsage(dimensions.relWeightId(), relCount))
+                .add(weightMapMemoryUsage(dimensions.nodeWeightId(), nodeCount))
+                .add(weightMapMemoryUsage(dimensions.nodePropId(), nodeCount));
+    }
+
     /* test-private */ Graph build(int batchSize) {
         try {
             return importGraph(batchSize);
@@ -57,6 +113,23 @@ public class HeavyGraphFactory extends GraphFactory {
                 nodeCount,
                 concurrency,
                 batchSize);
+
+        HeavyGraph csrGraph = importCsrGraph(
+                idMap,
+                relWeights,
+                nodeWeights,
+                nodeProps,
+                concurrency,
+                actualBatchSize);
+        if (csrGraph != null) {
+            if (setup.sortAdjacency) {
+                csrGraph.sortAdjacency(threadPool, concurrency);
+            }
+            setup.tracker.add(csrGraph.adjacencyMemoryUsage());
+            progressLogger.logDone();
+            return csrGraph;
+        }
+
         Collection<RelationshipImporter> tasks = ParallelUtil.readParallel(
                 concurrency,
                 actualBatchSize,
@@ -76,19 +149,122 @@ public class HeavyGraphFactory extends GraphFactory {
                 ),
                 threadPool);
 
-        final Graph graph = buildCompleteGraph(
+        final HeavyGraph graph = buildCompleteGraph(
                 nodeCount,
                 idMap,
                 relWeights,
                 nodeWeights,
                 nodeProps,
                 tasks);
+        if (setup.sortAdjacency) {
+            graph.sortAdjacency(threadPool, concurrency);
+        }
+        setup.tracker.add(graph.adjacencyMemoryUsage());
 
         progressLogger.logDone();
         return graph;
     }
 
-    private Graph buildCompleteGraph(
+    /**
+     * @return the graph or null if the relationships don't fit into a {@link CsrAdjacency},
+     * which is known without counting the degrees if the store has too many relationships
+     */
+    private HeavyGraph importCsrGraph(
+            final IdMap idMap,
+            final Supplier<WeightMapping> relWeightsSupplier,
+            final Supplier<WeightMapping> nodeWeightsSupplier,
+            final Supplier<WeightMapping> nodePropsSupplier,
+            int concurrency,
+            int batchSize) {
+        if (dimensions.maxRelCount() > ArrayUtil.MAX_ARRAY_LENGTH) {
+            return null;
+        }
+        final int nodeCount = idMap.size();
+        final int[] relationId = dimensions.relationId();
+        // without a label every relationship ends in a loaded node
+        final boolean fromDegreeStore = dimensions.labelId() == ReadOperations.ANY_LABEL;
+        final int[] outDegrees = setup.loadOutgoing ? new int[nodeCount] : null;
+        final int[] inDegrees = setup.loadIncoming ? new int[nodeCount] : null;
+
+        ParallelUtil.readParallel(
+                concurrency,
+                batchSize,
+                idMap,
+                (offset, nodeIds) -> new DegreeCounter(
+                        api,
+                        idMap,
+                        nodeIds,
+                        relationId,
+                        fromDegreeStore,
+                        outDegrees,
+                        inDegrees),
+                threadPool);
+
+        int[] outOffsets = null;
+        int[] outgoing = null;
+        if (outDegrees != null) {
+            outOffsets = CsrAdjacency.offsets(outDegrees);
+            if (outOffsets == null) {
+                return null;
+            }
+            outgoing = new int[outOffsets[nodeCount]];
+        }
+        int[] inOffsets = null;
+        int[] incoming = null;
+        if (inDegrees != null) {
+            inOffsets = CsrAdjacency.offsets(inDegrees);
+            if (inOffsets == null) {
+                return null;
+            }
+            incoming = new int[inOffsets[nodeCount]];
+        }
+        // the degrees are overwritten with the actual number of loaded relationships
+        final CsrAdjacency adjacency = new CsrAdjacency(
+                outOffsets,
+                outDegrees,
+                outgoing,
+                inOffsets,
+                inDegrees,
+                incoming);
+
+        Collection<CsrRelationshipImporter> tasks = ParallelUtil.readParallel(
+                concurrency,
+                batchSize,
+                idMap,
+                (offset, nodeIds) -> new CsrRelationshipImporter(
+                        api,
+                        idMap,
+                        nodeIds,
+                        progress,
+                        relationId,
+                        adjacency,
+                        relWeightsSupplier.get(),
+                        nodeWeightsSupplier.get(),
+                        nodePropsSupplier.get()),
+                threadPool);
+
+        if (tasks.size() == 1) {
+            CsrRelationshipImporter task = tasks.iterator().next();
+            return new HeavyGraph(idMap, adjacency, task.relWeights, task.nodeWeights, task.nodeProps);
+        }
+        final WeightMapping relWeights = relWeightsSupplier.get();
+        final WeightMapping nodeWeights = nodeWeightsSupplier.get();
+        final WeightMapping nodeProps = nodePropsSupplier.get();
+        for (CsrRelationshipImporter task : tasks) {
+            combineMaps(relWeights, task.relWeights);
+            combineMaps(nodeWeights, task.nodeWeights);
+            combineMaps(nodeProps, task.nodeProps);
+        }
+        return new HeavyGraph(idMap, adjacency, relWeights, nodeWeights, nodeProps);
+    }
+
+    private static void combineMaps(WeightMapping global, WeightMapping local) {
+        if (global instanceof WeightMap && local instanceof WeightMap) {
+            ((WeightMap) global).weights().putAll(((WeightMap) local).weights());
+        }
+    }
+
+    private HeavyGraph buildCompleteGraph(
             int nodeCount,
             final IdMap idMap,
             final Supplier<WeightMapping> relWeightsSupplier,
@@ -0,0 +1,325 @@
+package org.neo4j.graphalgo.core.heavyweight;
+
+import com.carrotsearch.hppc.BitSet;
+import com.carrotsearch.hppc.LongDoubleHashMap;
+import com.carrotsearch.hppc.LongDoubleMap;
+import org.neo4j.graphalgo.api.RelationshipPredicate;
+import org.neo4j.graphalgo.api.WeightMapping;
+import org.neo4j.graphalgo.core.IdMap;
+import org.neo4j.graphalgo.core.NullWeightMap;
+import org.neo4j.graphalgo.core.WeightMap;
+import org.neo4j.graphalgo.core.utils.ParallelUtil;
+import org.neo4j.graphalgo.core.utils.Pools;
+import org.neo4j.graphalgo.core.utils.RawValues;
+import org.neo4j.graphdb.Direction;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.function.DoublePredicate;
+import java.util.function.IntPredicate;
+
+/**
+ * Derives a new heavy graph from an already loaded one, without reading the store.
+ * <p>
+ * The projected graph contains the nodes that pass all node filters and the relationships
+ * between them that pass all relationship filters. The filters are called with the ids of
+ * the parent graph, relationships are always passed from their source to their target.
+ * The nodes keep their relative order and the relationships are copied into an
+ * {@link AdjacencyMatrix} in parallel over ranges of the new ids. The weights of the
+ * remaining relationships and nodes are copied, the parent graph is not changed.
+ *
+ * @see org.neo4j.graphalgo.core.huge.HugeGraphProjection
+ */
+public final class HeavyGraphProjection {
+
+    private final HeavyGraph parent;
+    private final List<IntPredicate> nodeFilters = new ArrayList<>();
+    private final List<RelationshipPredicate> relationshipFilters = new ArrayList<>();
+    private ExecutorService executor = Pools.DEFAULT;
+    private int concurrency = Pools.DEFAULT_CONCURRENCY;
+
+    public HeavyGraphProjection(HeavyGraph parent) {
+        this.parent = Objects.requireNonNull(parent);
+    }
+
+    /**
+     * Keeps the nodes for which the filter returns true.
+     *
+     * @return itself to enable fluent interface
+     */
+    public HeavyGraphProjection withNodeFilter(IntPredicate filter) {
+        nodeFilters.add(Objects.requireNonNull(filter));
+        return this;
+    }
+
+    /**
+     * Keeps the nodes whose bit is set.
+     *
+     * @return itself to enable fluent interface
+     */
+    public HeavyGraphProjection withNodeFilter(BitSet nodes) {
+        Objects.requireNonNull(nodes);
+        return withNodeFilter((IntPredicate) nodes::get);
+    }
+
+    /**
+     * Keeps the nodes whose weight passes the filter.
+     *
+     * @return itself to enable fluent interface
+     */
+    public HeavyGraphProjection withNodeWeight(DoublePredicate filter) {
+        Objects.requireNonNull(filter);
+        final WeightMapping nodeWeights = parent.nodeWeights();
+        return withNodeFilter(node -> filter.test(nodeWeights.get(node)));
+    }
+
+    /**
+     * Keeps the nodes whose value passes the filter.
+     *
+     * @return itself to enable fluent interface
+     */
+    public HeavyGraphProjection withNodeProperty(DoublePredicate filter) {
+        Objects.requireNonNull(filter);
+        final WeightMapping nodeProperties = parent.nodeProperties();
+        return withNodeFilter(node -> filter.test(nodeProperties.get(node)));
+    }
+
+    /**
+     * Keeps the relationships for which the filter returns true.
+     *
+     * @return itself to enable fluent interface
+     */
+    public HeavyGraphProjection withRelationshipFilter(RelationshipPredicate filter) {
+        relationshipFilters.add(Objects.requireNonNull(filter));
+        return this;
+    }
+
+    /**
+     * @return itself to enable fluent interface
+     */
+    public HeavyGraphProjection withExecutorService(ExecutorService executor) {
+        this.executor = Objects.requireNonNull(executor);
+        return this;
+    }
+
+    /**
+     * @return itself to enable fluent interface
+     */
+    public HeavyGraphProjection withConcurrency(int concurrency) {
+        this.concurrency = Math.max(1, concurrency);
+        return this;
+    }
+
+    public HeavyGraph project() {
+        final IdMap idMap = parent.idMap();
+        final int parentNodeCount = idMap.size();
+        final int[] newIds = new int[parentNodeCount];
+        final IntPredicate[] filters = nodeFilters.toArray(new IntPredicate[0]);
+        final List<Runnable> filterTasks = new ArrayList<>();
+        final int batchSize = batchSize(parentNodeCount);
+        for (int start = 0; start < parentNodeCount; start += batchSize) {
+            final int from = start;
+            final int to = Math.min(parentNodeCount, start + batchSize);
+            filterTasks.add(() -> {
+                for (int node = from; node < to; node++) {
+                    newIds[node] = accept(filters, node) ? 0 : -1;
+                }
+            });
+        }
+        ParallelUtil.run(filterTasks, executor);
+
+        int nodeCount = 0;
+        for (int node = 0; node < parentNodeCount; node++) {
+            if (newIds[node] != -1) {
+                newIds[node] = nodeCount++;
+            }
+        }
+        final int[] order = new int[nodeCount];
+        final IdMap newIdMap = new IdMap(nodeCount);
+        for (int node = 0; node < parentNodeCount; node++) {
+            if (newIds[node] != -1) {
+                order[newIds[node]] = node;
+                newIdMap.add(idMap.toOriginalNodeId(node));
+            }
+        }
+        newIdMap.buildMappedIds();
+
+        final AdjacencyContainer container = parent.container();
+        final AdjacencyMatrix matrix = new AdjacencyMatrix(
+                nodeCount,
+                container.isLoaded(Direction.INCOMING),
+                container.isLoaded(Direction.OUTGOING));
+        final WeightMapping relationshipWeights = parent.relationshipWeights();
+        final boolean copyWeights = !(relationshipWeights instanceof NullWeightMap);
+        final List<RewriteTask> tasks = new ArrayList<>();
+        final int rewriteBatchSize = batchSize(nodeCount);
+        for (int start = 0; start < nodeCount; start += rewriteBatchSize) {
+            tasks.add(new RewriteTask(
+                    container,
+                    matrix,
+                    relationshipWeights,
+                    copyWeights,
+                    relationshipFilters.toArray(new RelationshipPredicate[0]),
+                    newIds,
+                    order,
+                    start,
+                    Math.min(nodeCount, start + rewriteBatchSize)));
+        }
+        ParallelUtil.run(tasks, executor);
+
+        WeightMapping newRelationshipWeights = relationshipWeights;
+        if (copyWeights) {
+            LongDoubleMap weights = new LongDoubleHashMap();
+            for (RewriteTask task : tasks) {
+                weights.putAll(task.weights);
+            }
+            newRelationshipWeights = newWeightMap(relationshipWeights, weights, nodeCount);
+        }
+        HeavyGraph projection = new HeavyGraph(
+                newIdMap,
+                matrix,
+                newRelationshipWeights,
+                projectNodeWeights(parent.nodeWeights(), order),
+                projectNodeWeights(parent.nodeProperties(), order));
+        // the nodes keep their relative order, sorted targets stay sorted
+        projection.sorted(parent.isSorted());
+        return projection;
+    }
+
+    private int batchSize(int nodeCount) {
+        final int numTasks = Math.max(1, Math.min(concurrency, nodeCount));
+        return Math.max(1, (nodeCount + numTasks - 1) / numTasks);
+    }
+
+    private static boolean accept(IntPredicate[] filters, int node) {
+        for (IntPredicate filter : filters) {
+            if (!filter.test(node)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Copies the weights that have been loaded from a property, the default weight is not stored.
+     */
+    private static WeightMapping projectNodeWeights(WeightMapping nodeWeights, int[] order) {
+        if (nodeWeights instanceof NullWeightMap) {
+            return nodeWeights;
+        }
+        LongDoubleMap weights = new LongDoubleHashMap();
+        for (int node = 0; node < order.length; node++) {
+            double weight = nodeWeights.get(order[node], Double.NaN);
+            if (!Double.isNaN(weight)) {
+                weights.put(RawValues.combineIntInt(node, -1), weight);
+            }
+        }
+        return newWeightMap(nodeWeights, weights, order.length);
+    }
+
+    private static WeightMapping newWeightMap(WeightMapping old, LongDoubleMap weights, int capacity) {
+        // there is no relationship or node with a negative id, so this is always the default weight
+        double defaultValue = old.get(-1L);
+        int propertyId = old instanceof WeightMap ? ((WeightMap) old).propertyId() : -1;
+        return new WeightMap(capacity, weights, defaultValue, propertyId);
+    }
+
+    /**
+     * Copies the filtered relationships of a range of new ids into the rows of the
+     * matrix and collects their weights into a map of its own.
+     */
+    private static final class RewriteTask implements Runnable {
+        private final AdjacencyContainer container;
+        private final AdjacencyMatrix matrix;
+        private final WeightMapping relationshipWeights;
+        private final boolean copyWeights;
+        private final RelationshipPredicate[] filters;
+        private final int[] newIds;
+        private final int[] order;
+        private final int startId;
+        private final int endId;
+        private final LongDoubleMap weights = new LongDoubleHashMap();
+
+        private RewriteTask(
+                AdjacencyContainer container,
+                AdjacencyMatrix matrix,
+                WeightMapping relationshipWeights,
+                boolean copyWeights,
+                RelationshipPredicate[] filters,
+                int[] newIds,
+                int[] order,
+                int startId,
+                int endId) {
+            this.container = container;
+            this.matrix = matrix;
+            this.relationshipWeights = relationshipWeights;
+            this.copyWeights = copyWeights;
+            this.filters = filters;
+            this.newIds = newIds;
+            this.order = order;
+            this.startId = startId;
+            this.endId = endId;
+        }
+
+        @Override
+        public void run() {
+            final boolean loadOutgoing = container.isLoaded(Direction.OUTGOING);
+            final boolean loadIncoming = container.isLoaded(Direction.INCOMING);
+            for (int newId = startId; newId < endId; newId++) {
+                final int oldId = order[newId];
+                if (loadOutgoing) {
+                    matrix.setOutgoing(newId, rewrite(newId, oldId, Direction.OUTGOING, true));
+                }
+                if (loadIncoming) {
+                    // the weights are shared with the outgoing relationships
+                    matrix.setIncoming(newId, rewrite(newId, oldId, Direction.INCOMING, !loadOutgoing));
+                }
+            }
+        }
+
+        private int[] rewrite(int newId, int oldId, Direction direction, boolean collectWeights) {
+            final int degree = container.degree(oldId, direction);
+            final int[] oldTargets = container.targets(oldId, direction);
+            final int offset = container.offset(oldId, direction);
+            final boolean outgoing = direction == Direction.OUTGOING;
+            int[] targets = new int[degree];
+            int length = 0;
+            for (int i = 0; i < degree; i++) {
+                final int target = oldTargets[offset + i];
+                final int newTarget = newIds[target];
+                if (newTarget == -1) {
+                    continue;
+                }
+                final int source = outgoing ? oldId : target;
+                final int sink = outgoing ? target : oldId;
+                final long key = RawValues.combineIntInt(source, sink);
+                final double weight = relationshipWeights.get(key);
+                if (!accept(source, sink, weight)) {
+                    continue;
+                }
+                targets[length++] = newTarget;
+                if (copyWeights && collectWeights) {
+                    double storedWeight = relationshipWeights.get(key, Double.NaN);
+                    if (!Double.isNaN(storedWeight)) {
+                        weights.put(outgoing
+                                ? RawValues.combineIntInt(newId, newTarget)
+                                : RawValues.combineIntInt(newTarget, newId), storedWeight);
+                    }
+                }
+            }
+            return length == degree ? targets : Arrays.copyOf(targets, length);
+        }
+
+        private boolean accept(int source, int target, double weight) {
+            for (RelationshipPredicate filter : filters) {
+                if (!filter.test(source, target, weight)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,268 @@
+package org.neo4j.graphalgo.core.heavyweight;
+
+import org.neo4j.collection.primitive.PrimitiveIntIterable;
+import org.neo4j.collection.primitive.PrimitiveIntIterator;
+import org.neo4j.collection.primitive.PrimitiveLongIterator;
+import org.neo4j.graphalgo.api.Graph;
+import org.neo4j.graphalgo.api.GraphSetup;
+import org.neo4j.graphalgo.api.RelationshipConsumer;
+import org.neo4j.graphalgo.api.RelationshipWeights;
+import org.neo4j.graphalgo.api.WeightedRelationshipConsumer;
+import org.neo4j.graphalgo.core.loading.GraphDelta;
+import org.neo4j.graphalgo.core.utils.LazyBatchCollection;
+import org.neo4j.graphalgo.core.utils.RawValues;
+import org.neo4j.graphdb.Direction;
+import org.neo4j.kernel.internal.GraphDatabaseAPI;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.function.IntPredicate;
+import java.util.function.Supplier;
+
+/**
+ * A {@link HeavyGraph} that follows the transactions that are committed after the load.
+ * <p>
+ * The relationships of a node are read from the overlay of the {@link GraphDelta}
+ * if they have changed since the load and from the loaded graph otherwise.
+ * The delta is compacted into a new {@link HeavyGraph} in the background, which is
+ * backed by an {@link AdjacencyMatrix} that shares the unchanged rows with the old one.
+ * The weights of the changed relationships are kept in front of the loaded weights.
+ */
+public final class IncrementalHeavyGraph implements Graph, RelationshipWeights {
+
+    private static final GraphDelta.Base<HeavyGraph> BASE = new GraphDelta.Base<HeavyGraph>() {
+        @Override
+        public long toMappedNodeId(HeavyGraph graph, long originalNodeId) {
+            return graph.toMappedNodeId(originalNodeId);
+        }
+
+        @Override
+        public GraphDelta.Adjacency adjacency(HeavyGraph graph, long nodeId, Direction direction) {
+            return graph.adjacency((int) nodeId, direction);
+        }
+
+        @Override
+        public HeavyGraph compact(
+                HeavyGraph graph,
+                Map<Long, GraphDelta.Adjacency> outgoing,
+                Map<Long, GraphDelta.Adjacency> incoming) {
+            return graph.compact(outgoing, incoming);
+        }
+    };
+
+    private final GraphDelta<HeavyGraph> delta;
+
+    private IncrementalHeavyGraph(GraphDelta<HeavyGraph> delta) {
+        this.delta = delta;
+    }
+
+    /**
+     * Starts to follow the transactions before the graph is loaded, so that
+     * the transactions that are committed during the load are not lost.
+     */
+    static IncrementalHeavyGraph load(
+            GraphDatabaseAPI api,
+            GraphSetup setup,
+            int compactionThreshold,
+            Supplier<HeavyGraph> loader) {
+        final GraphDelta<HeavyGraph> delta = new GraphDelta<>(api, setup, BASE, compactionThreshold);
+        final HeavyGraph graph;
+        try {
+            graph = loader.get();
+        } catch (RuntimeException | Error e) {
+            delta.close();
+            throw e;
+        }
+        delta.loaded(graph, graph.nodeCount());
+        return new IncrementalHeavyGraph(delta);
+    }
+
+    /**
+     * Compacts the changes into the base graph, see {@link GraphDelta#compact()}.
+     */
+    public void compact() {
+        delta.compact();
+    }
+
+    /**
+     * @return the number of nodes whose relationships have changed and are not compacted yet
+     */
+    public int overlaySize() {
+        return delta.overlaySize();
+    }
+
+    /**
+     * @return the number of loaded nodes whose relationships have changed and are not compacted yet
+     */
+    public int compactableSize() {
+        return delta.compactableSize();
+    }
+
+    @Override
+    public long nodeCount() {
+        return delta.nodeCount();
+    }
+
+    @Override
+    public void forEachNode(IntPredicate consumer) {
+        int nodeCount = Math.toIntExact(nodeCount());
+        for (int node = 0; node < nodeCount; node++) {
+            if (!consumer.test(node)) {
+                return;
+            }
+        }
+    }
+
+    @Override
+    public PrimitiveIntIterator nodeIterator() {
+        return toIntIterator(GraphDelta.nodeRange(0L, nodeCount()));
+    }
+
+    @Override
+    public Collection<PrimitiveIntIterable> batchIterables(int batchSize) {
+        return LazyBatchCollection.of(
+                nodeCount(),
+                batchSize,
+                (start, length) -> () -> toIntIterator(GraphDelta.nodeRange(start, start + length)));
+    }
+
+    @Override
+    public int toMappedNodeId(long nodeId) {
+        int mappedId = delta.state().base.toMappedNodeId(nodeId);
+        return mappedId != -1 ? mappedId : (int) delta.toAddedNodeId(nodeId);
+    }
+
+    @Override
+    public long toOriginalNodeId(int nodeId) {
+        return nodeId < delta.baseNodeCount()
+                ? delta.state().base.toOriginalNodeId(nodeId)
+                : delta.toAddedOriginalNodeId(nodeId);
+    }
+
+    @Override
+    public boolean contains(long nodeId) {
+        int mappedId = toMappedNodeId(nodeId);
+        return mappedId != -1 && !delta.isDeleted(mappedId);
+    }
+
+    @Override
+    public double weightOf(int sourceNodeId, int targetNodeId) {
+        GraphDelta.State<HeavyGraph> state = delta.state();
+        GraphDelta.Adjacency adjacency = state.adjacency(sourceNodeId, Direction.OUTGOING);
+        if (adjacency == null) {
+            adjacency = state.adjacency(targetNodeId, Direction.INCOMING);
+            if (adjacency == null) {
+                return state.base.weightOf(sourceNodeId, targetNodeId);
+            }
+            return orDefault(adjacency.weightOf(sourceNodeId), state.base.weightOf(-1, -1));
+        }
+        return orDefault(adjacency.weightOf(targetNodeId), state.base.weightOf(-1, -1));
+    }
+
+    @Override
+    public int degree(int nodeId, Direction direction) {
+        if (direction == Direction.BOTH) {
+            return degree(nodeId, Direction.INCOMING) + degree(nodeId, Direction.OUTGOING);
+        }
+        GraphDelta.State<HeavyGraph> state = delta.state();
+        GraphDelta.Adjacency adjacency = state.adjacency(nodeId, direction);
+        if (adjacency != null) {
+            return adjacency.degree();
+        }
+        return nodeId < delta.baseNodeCount() ? state.base.degree(nodeId, direction) : 0;
+    }
+
+    /**
+     * The changed adjacencies are always sorted, so the graph is sorted if the base graph is.
+     */
+    @Override
+    public boolean hasSortedAdjacency(Direction direction) {
+        return delta.state().base.hasSortedAdjacency(direction);
+    }
+
+    @Override
+    public void forEachRelationship(int nodeId, Direction direction, RelationshipConsumer consumer) {
+        if (direction == Direction.BOTH) {
+            forEachRelationship(nodeId, Direction.INCOMING, consumer);
+            forEachRelationship(nodeId, Direction.OUTGOING, consumer);
+            return;
+        }
+        GraphDelta.State<HeavyGraph> state = delta.state();
+        GraphDelta.Adjacency adjacency = state.adjacency(nodeId, direction);
+        if (adjacency != null) {
+            for (int i = 0; i < adjacency.degree(); i++) {
+                int target = (int) adjacency.target(i);
+                if (!consumer.accept(nodeId, target, RawValues.combineIntInt(direction, nodeId, target))) {
+                    return;
+                }
+            }
+        } else if (nodeId < delta.baseNodeCount()) {
+            state.base.forEachRelationship(nodeId, direction, consumer);
+        }
+    }
+
+    @Override
+    public void forEachRelationship(int nodeId, Direction direction, WeightedRelationshipConsumer consumer) {
+        if (direction == Direction.BOTH) {
+            forEachRelationship(nodeId, Direction.INCOMING, consumer);
+            forEachRelationship(nodeId, Direction.OUTGOING, consumer);
+            return;
+        }
+        GraphDelta.State<HeavyGraph> state = delta.state();
+        GraphDelta.Adjacency adjacency = state.adjacency(nodeId, direction);
+        if (adjacency != null) {
+            for (int i = 0; i < adjacency.degree(); i++) {
+                int target = (int) adjacency.target(i);
+                long relationId = RawValues.combineIntInt(direction, nodeId, target);
+                if (!consumer.accept(nodeId, target, relationId, adjacency.weight(i))) {
+                    return;
+                }
+            }
+        } else if (nodeId < delta.baseNodeCount()) {
+            state.base.forEachRelationship(nodeId, direction, consumer);
+        }
+    }
+
+    /**
+     * Stops following the transactions, the graph can still be read but doesn't change anymore.
+     */
+    public void close() {
+        delta.close();
+    }
+
+    /**
+     * Stops following the transactions and releases the current base graph,
+     * unless it must not be released.
+     */
+    @Override
+    public void release() {
+        if (!delta.canRelease()) {
+            return;
+        }
+        delta.close();
+        delta.state().base.release();
+    }
+
+    @Override
+    public void canRelease(boolean canRelease) {
+        delta.canRelease(canRelease);
+    }
+
+    private static double orDefault(double weight, double defaultWeight) {
+        return Double.isNaN(weight) ? defaultWeight : weight;
+    }
+
+    private static PrimitiveIntIterator toIntIterator(PrimitiveLongIterator iterator) {
+        return new PrimitiveIntIterator() {
+            @Override
+            public boolean hasNext() {
+                return iterator.hasNext();
+            }
+
+            @Override
+            public int next() {
+                return (int) iterator.next();
+            }
+        };
+    }
+}
@@ -0,0 +1,77 @@
+package org.neo4j.graphalgo.core.heavyweight;
+
+import com.carrotsearch.hppc.LongDoubleHashMap;
+import com.carrotsearch.hppc.LongDoubleMap;
+import org.neo4j.graphalgo.api.WeightMapping;
+
+/**
+ * Relationship weights of a compacted {@link HeavyGraph}. The weights that have
+ * changed since the load are kept in a separate map in front of the loaded weights,
+ * so that the loaded weights can still be read by the graph they belong to.
+ * <p>
+ * The patch is not changed after the construction, a later compaction creates a new
+ * map on top of the same loaded weights.
+ */
+final class PatchedWeightMap implements WeightMapping {
+
+    private final WeightMapping base;
+    private final LongDoubleMap patch;
+
+    private PatchedWeightMap(WeightMapping base, LongDoubleMap patch) {
+        this.base = base;
+        this.patch = patch;
+    }
+
+    /**
+     * @return a builder for the weights that replace the given ones
+     */
+    static Builder patch(WeightMapping weights) {
+        if (weights instanceof PatchedWeightMap) {
+            PatchedWeightMap patched = (PatchedWeightMap) weights;
+            return new Builder(patched.base, new LongDoubleHashMap(patched.patch));
+        }
+        return new Builder(weights, new LongDoubleHashMap());
+    }
+
+    @Override
+    public double get(long id) {
+        int index = patch.indexOf(id);
+        return patch.indexExists(index) ? patch.indexGet(index) : base.get(id);
+    }
+
+    @Override
+    public double get(long id, double defaultValue) {
+        int index = patch.indexOf(id);
+        return patch.indexExists(index) ? patch.indexGet(index) : base.get(id, defaultValue);
+    }
+
+    @Override
+    public void set(long id, Object weight) {
+        throw new UnsupportedOperationException("the weights of a compacted graph are read-only");
+    }
+
+    @Override
+    public int size() {
+        return base.size() + patch.size();
+    }
+
+    static final class Builder {
+        private final WeightMapping base;
+        private final LongDoubleMap patch;
+
+        private Builder(WeightMapping base, LongDoubleMap patch) {
+            this.base = base;
+            this.patch = patch;
+        }
+
+        void put(long id, double weight) {
+            if (patch.containsKey(id) || base.get(id) != weight) {
+                patch.put(id, weight);
+            }
+        }
+
+        WeightMapping build() {
+            return patch.isEmpty() ? base : new PatchedWeightMap(base, patch);
+        }
+    }
+}
@@ -293,7 +293,7 @@ final class RelationshipImporter extends StatementTask<Void, EntityNotFoundExcep
         }
     }
 
-    Graph toGraph(final IdMap idMap) {
+    HeavyGraph toGraph(final IdMap idMap) {
         return new HeavyGraph(
                 idMap,
                 matrix,
@@ -0,0 +1,171 @@
+package org.neo4j.graphalgo.core.huge;
+
+import org.neo4j.graphalgo.api.AdjacencyCursor;
+import org.neo4j.graphalgo.api.HugeWeightMapping;
+import org.neo4j.graphalgo.core.utils.paged.ByteArray;
+import org.neo4j.graphalgo.core.utils.paged.DoubleArray;
+import org.neo4j.graphalgo.core.utils.paged.LongArray;
+import org.neo4j.graphdb.Direction;
+
+/**
+ * Decodes the delta encoded targets of a {@link HugeGraphImpl} directly into the buffer of the caller.
+ * The cursor has its own {@link ByteArray.DeltaCursor}s, so it doesn't interfere with the
+ * cached cursors of the graph.
+ */
+final class HugeAdjacencyCursor implements AdjacencyCursor {
+
+    private static final long[] EMPTY_LONGS = new long[0];
+
+    private final ByteArray inAdjacency;
+    private final ByteArray outAdjacency;
+    private final LongArray inOffsets;
+    private final LongArray outOffsets;
+    private final DoubleArray inWeights;
+    private final DoubleArray outWeights;
+    private final LongArray inWeightOffsets;
+    private final LongArray outWeightOffsets;
+    private final HugeWeightMapping weightMapping;
+    private final boolean undirected;
+
+    private final ByteArray.DeltaCursor inCursor;
+    private final ByteArray.DeltaCursor outCursor;
+    private final DoubleArray.Cursor inWeightCursor;
+    private final DoubleArray.Cursor outWeightCursor;
+
+    private long nodeId;
+    private boolean outgoingPending;
+    private Direction direction;
+    private ByteArray.DeltaCursor targets;
+    private DoubleArray weights;
+    private DoubleArray.Cursor weightCursor;
+    private long weightOffset;
+    private int remaining;
+    private long[] buffer = EMPTY_LONGS;
+
+    HugeAdjacencyCursor(
+            ByteArray inAdjacency,
+            ByteArray outAdjacency,
+            LongArray inOffsets,
+            LongArray outOffsets,
+            DoubleArray inWeights,
+            DoubleArray outWeights,
+            LongArray inWeightOffsets,
+            LongArray outWeightOffsets,
+            HugeWeightMapping weightMapping,
+            boolean undirected) {
+        this.inAdjacency = inAdjacency;
+        this.outAdjacency = outAdjacency;
+        this.inOffsets = inOffsets;
+        this.outOffsets = outOffsets;
+        this.inWeights = inWeights;
+        this.outWeights = outWeights;
+        this.inWeightOffsets = inWeightOffsets;
+        this.outWeightOffsets = outWeightOffsets;
+        this.weightMapping = weightMapping;
+        this.undirected = undirected;
+        this.inCursor = inAdjacency != null ? inAdjacency.newCursor() : null;
+        this.outCursor = outAdjacency != null ? outAdjacency.newCursor() : null;
+        this.inWeightCursor = inWeights != null ? inWeights.newCursor() : null;
+        this.outWeightCursor = outWeights != null ? outWeights.newCursor() : null;
+    }
+
+    @Override
+    public void init(long nodeId, Direction direction) {
+        this.nodeId = nodeId;
+        if (undirected) {
+            direction = Direction.OUTGOING;
+        }
+        outgoingPending = direction == Direction.BOTH;
+        open(outgoingPending ? Direction.INCOMING : direction);
+    }
+
+    @Override
+    public int next(long[] targets) {
+        return next(targets, null, targets.length);
+    }
+
+    @Override
+    public int next(long[] targets, double[] weights) {
+        return next(targets, weights, Math.min(targets.length, weights.length));
+    }
+
+    @Override
+    public int next(int[] targets) {
+        long[] buffer = buffer(targets.length);
+        int length = next(buffer, null, targets.length);
+        for (int i = 0; i < length; i++) {
+            targets[i] = (int) buffer[i];
+        }
+        return length;
+    }
+
+    @Override
+    public int next(int[] targets, double[] weights) {
+        long[] buffer = buffer(targets.length);
+        int length = next(buffer, weights, Math.min(targets.length, weights.length));
+        for (int i = 0; i < length; i++) {
+            targets[i] = (int) buffer[i];
+        }
+        return length;
+    }
+
+    private void open(Direction direction) {
+        this.direction = direction;
+        boolean outgoing = direction == Direction.OUTGOING;
+        LongArray offsets = outgoing ? outOffsets : inOffsets;
+        ByteArray adjacency = outgoing ? outAdjacency : inAdjacency;
+        long offset = offsets.get(nodeId);
+        if (offset == 0L) {
+            remaining = 0;
+            return;
+        }
+        targets = adjacency.deltaCursor(outgoing ? outCursor : inCursor, offset);
+        remaining = adjacency.getInt(offset);
+        weights = outgoing ? outWeights : inWeights;
+        if (weights != null) {
+            weightCursor = outgoing ? outWeightCursor : inWeightCursor;
+            weightOffset = (outgoing ? outWeightOffsets : inWeightOffsets).get(nodeId);
+        }
+    }
+
+    private int next(long[] targets, double[] weights, int length) {
+        int read = read(targets, weights, length);
+        if (read == 0 && outgoingPending) {
+            outgoingPending = false;
+            open(Direction.OUTGOING);
+            read = read(targets, weights, length);
+        }
+        return read;
+    }
+
+    private int read(long[] buffer, double[] weightBuffer, int length) {
+        int read = remaining > 0 ? targets.getVLongs(buffer, Math.min(length, remaining)) : 0;
+        if (weightBuffer != null && read > 0) {
+            if (weights != null) {
+                // the weights are positioned for every batch, as previous batches might have been read without them
+                DoubleArray.Cursor cursor = weights.cursor(weightCursor, weightOffset);
+                for (int i = 0; i < read; i++) {
+                    weightBuffer[i] = cursor.next();
+                }
+            } else {
+                // no weights loaded, the mapping provides the default weight
+                boolean outgoing = direction == Direction.OUTGOING;
+                for (int i = 0; i < read; i++) {
+                    weightBuffer[i] = outgoing
+                            ? weightMapping.weight(nodeId, buffer[i])
+                            : weightMapping.weight(buffer[i], nodeId);
+                }
+            }
+        }
+        weightOffset += read;
+        remaining -= read;
+        return read;
+    }
+
+    private long[] buffer(int length) {
+        if (buffer.length < length) {
+            buffer = new long[length];
+        }
+        return buffer;
+    }
+}
@@ -0,0 +1,379 @@
+package org.neo4j.graphalgo.core.huge;
+
+import org.neo4j.graphalgo.api.GraphFactory;
+import org.neo4j.graphalgo.api.GraphSetup;
+import org.neo4j.graphalgo.api.HugeGraph;
+import org.neo4j.graphalgo.core.HugeNullWeightMap;
+import org.neo4j.graphalgo.core.utils.ParallelUtil;
+import org.neo4j.graphalgo.core.utils.RawValues;
+import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
+import org.neo4j.graphalgo.core.utils.paged.ByteArray;
+import org.neo4j.graphalgo.core.utils.paged.DoubleArray;
+import org.neo4j.graphalgo.core.utils.paged.LongArray;
+import org.neo4j.graphdb.Result;
+import org.neo4j.helpers.collection.MapUtil;
+import org.neo4j.kernel.internal.GraphDatabaseAPI;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Loads a {@link HugeGraph} from cypher statements, like the
+ * {@link org.neo4j.graphalgo.core.heavyweight.HeavyCypherGraphFactory}:
+ * the node statement returns the node ids as {@code id}, the relationship
+ * statement returns {@code source}, {@code target} and optionally {@code weight}.
+ * Only the outgoing relationships are loaded.
+ * <p>
+ * The rows are written straight into the arrays of the graph. The targets of
+ * a source node are collected until the source changes and are then written
+ * into the adjacency with a {@link ByteArray.LocalAllocator} of the current thread.
+ * Rows are best ordered by their source, but that is not required: if a node
+ * shows up again, its stored targets are merged with the new ones and written
+ * again, which leaves the old block unused.
+ * <p>
+ * If both statements use the {@code skip} and {@code limit} parameters,
+ * they are run in batches of {@link GraphSetup#batchSize} rows, where every
+ * thread keeps its visitor and allocators across all of its batches.
+ */
+public final class HugeCypherGraphFactory extends GraphFactory {
+
+    private static final String LIMIT = "limit";
+    private static final String SKIP = "skip";
+    private static final int LOCK_STRIPES = 1 << 10;
+
+    public HugeCypherGraphFactory(
+            GraphDatabaseAPI api,
+            GraphSetup setup) {
+        super(api, setup);
+    }
+
+    @Override
+    public HugeGraph build() {
+        AllocationTracker tracker = setup.tracker;
+        HugeIdMap idMap = loadNodes(tracker);
+        return loadRelationships(idMap, tracker);
+    }
+
+    private HugeIdMap loadNodes(AllocationTracker tracker) {
+        List<NodeRowVisitor> visitors = new ArrayList<>();
+        for (int i = 0; i < setup.concurrency(); i++) {
+            visitors.add(new NodeRowVisitor());
+        }
+        run(setup.startLabel, visitors);
+
+        long rows = 0L;
+        long maxNodeId = -1L;
+        for (NodeRowVisitor visitor : visitors) {
+            rows += visitor.rows;
+            maxNodeId = Math.max(maxNodeId, visitor.maxNodeId);
+        }
+        HugeIdMap idMap = new HugeIdMap(rows, maxNodeId + 1L, tracker);
+        for (NodeRowVisitor visitor : visitors) {
+            visitor.addTo(idMap);
+        }
+        return idMap;
+    }
+
+    private HugeGraph loadRelationships(HugeIdMap idMap, AllocationTracker tracker) {
+        final long nodeCount = idMap.nodeCount();
+        final boolean loadWeights = !setup.loadDefaultRelationshipWeight();
+        ByteArray adjacency = setup.offHeap
+                ? ByteArray.newOffHeapArray(0L, setup.blockEncoding, tracker)
+                : ByteArray.newArray(0L, setup.blockEncoding, tracker);
+        adjacency.skipAllocationRegion(1);
+        LongArray offsets = LongArray.newArray(nodeCount, tracker);
+        DoubleArray weights = null;
+        LongArray weightOffsets = null;
+        if (loadWeights) {
+            weights = DoubleArray.newArray(0L, tracker);
+            weightOffsets = LongArray.newArray(nodeCount, tracker);
+        }
+
+        Object[] locks = new Object[LOCK_STRIPES];
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            locks[i] = new Object();
+        }
+        List<RelationshipRowVisitor> visitors = new ArrayList<>();
+        for (int i = 0; i < setup.concurrency(); i++) {
+            visitors.add(new RelationshipRowVisitor(
+                    idMap,
+                    adjacency,
+                    offsets,
+                    weights,
+                    weightOffsets,
+                    locks,
+                    setup.relationDefaultWeight,
+                    setup.accumulateWeights));
+        }
+        run(setup.relationshipType, visitors);
+
+        HugeGraphImpl graph = new HugeGraphImpl(
+                tracker,
+                idMap,
+                new HugeNullWeightMap(setup.relationDefaultWeight),
+                null,
+                adjacency,
+                null,
+                offsets,
+                null,
+                weights,
+                null,
+                weightOffsets,
+                false);
+        // node properties are not read from the statements, every node has the default weight
+        graph.nodeProperties(HugeNodePropertyStore.empty(setup.nodeDefaultWeight));
+        return graph;
+    }
+
+    /**
+     * Runs the statement once with the first visitor, or in batches if it can be batched.
+     * Every round runs one batch per visitor, the loading stops after
+     * a round in which any of the batches was empty.
+     */
+    private void run(String statement, List<? extends RowVisitor> visitors) {
+        final int batchSize = setup.batchSize;
+        if (!canBatchLoad(batchSize, statement)) {
+            RowVisitor visitor = visitors.get(0);
+            api.execute(statement, MapUtil.map(SKIP, 0L)).accept(visitor);
+            visitor.done();
+            return;
+        }
+        long offset = 0L;
+        boolean working = true;
+        while (working) {
+            List<Runnable> tasks = new ArrayList<>(visitors.size());
+            for (RowVisitor visitor : visitors) {
+                final long skip = offset;
+                tasks.add(() -> {
+                    visitor.batchRows = 0L;
+                    api.execute(statement, MapUtil.map(SKIP, skip, LIMIT, batchSize)).accept(visitor);
+                    visitor.done();
+                });
+                offset += batchSize;
+            }
+            ParallelUtil.run(tasks, setup.executor);
+            for (RowVisitor visitor : visitors) {
+                working &= visitor.batchRows > 0L;
+            }
+        }
+    }
+
+    private boolean canBatchLoad(int batchSize, String statement) {
+        return setup.loadConcurrent() && batchSize > 0 &&
+                (statement.contains("{" + LIMIT + "}") || statement.contains("$" + LIMIT)) &&
+                (statement.contains("{" + SKIP + "}") || statement.contains("$" + SKIP));
+    }
+
+    private abstract static class RowVisitor implements Result.ResultVisitor<RuntimeException> {
+        long rows;
+        long batchRows;
+
+        @Override
+        public final boolean visit(Result.ResultRow row) throws RuntimeException {
+            rows++;
+            batchRows++;
+            visitRow(row);
+            return true;
+        }
+
+        abstract void visitRow(Result.ResultRow row);
+
+        /**
+         * Called after all rows of one execution of the statement have been visited.
+         */
+        void done() {
+        }
+    }
+
+    /**
+     * Collects the node ids in pages, as the number of rows is not known upfront.
+     */
+    private static final class NodeRowVisitor extends RowVisitor {
+        private static final int PAGE_SHIFT = Integer.numberOfTrailingZeros(HugeIdMap.PAGE_SIZE);
+        private static final int PAGE_MASK = HugeIdMap.PAGE_SIZE - 1;
+
+        private long[][] pages = new long[0][];
+        private long maxNodeId = -1L;
+
+        @Override
+        void visitRow(Result.ResultRow row) {
+            long nodeId = row.getNumber("id").longValue();
+            long index = rows - 1L;
+            int pageIndex = (int) (index >>> PAGE_SHIFT);
+            if (pageIndex == pages.length) {
+                pages = Arrays.copyOf(pages, Math.max(1, pages.length << 1));
+            }
+            if (pages[pageIndex] == null) {
+                pages[pageIndex] = new long[HugeIdMap.PAGE_SIZE];
+            }
+            pages[pageIndex][(int) (index & PAGE_MASK)] = nodeId;
+            maxNodeId = Math.max(maxNodeId, nodeId);
+        }
+
+        void addTo(HugeIdMap idMap) {
+            for (long index = 0L; index < rows; index++) {
+                long nodeId = pages[(int) (index >>> PAGE_SHIFT)][(int) (index & PAGE_MASK)];
+                if (nodeId >= 0L && idMap.toHugeMappedNodeIdIfPresent(nodeId) == HugeIdMap.NOT_FOUND) {
+                    idMap.add(nodeId);
+                }
+            }
+            pages = null;
+        }
+    }
+
+    private static final class RelationshipRowVisitor extends RowVisitor {
+        private final HugeIdMap idMap;
+        private final ByteArray adjacency;
+        private final LongArray offsets;
+        private final DoubleArray weightArray;
+        private final LongArray weightOffsets;
+        private final ByteArray.LocalAllocator allocator;
+        private final DoubleArray.LocalAllocator weightAllocator;
+        private final Object[] locks;
+        private final double defaultWeight;
+        private final boolean accumulateWeights;
+        private final HugeGraphFactory.TargetsAndWeightsSorter sorter;
+
+        private long lastSourceId = -1L;
+        private long source = HugeIdMap.NOT_FOUND;
+        private long[] targets = new long[16];
+        private double[] weights;
+        private int length;
+
+        private RelationshipRowVisitor(
+                HugeIdMap idMap,
+                ByteArray adjacency,
+                LongArray offsets,
+                DoubleArray weightArray,
+                LongArray weightOffsets,
+                Object[] locks,
+                double defaultWeight,
+                boolean accumulateWeights) {
+            this.idMap = idMap;
+            this.adjacency = adjacency;
+            this.offsets = offsets;
+            this.weightArray = weightArray;
+            this.weightOffsets = weightOffsets;
+            this.allocator = adjacency.newAllocator();
+            this.weightAllocator = weightArray != null ? weightArray.newAllocator() : null;
+            this.locks = locks;
+            this.defaultWeight = defaultWeight;
+            this.accumulateWeights = accumulateWeights;
+            this.weights = weightArray != null ? new double[targets.length] : null;
+            this.sorter = new HugeGraphFactory.TargetsAndWeightsSorter();
+        }
+
+        @Override
+        void visitRow(Result.ResultRow row) {
+            long sourceId = row.getNumber("source").longValue();
+            if (sourceId != lastSourceId) {
+                flush();
+                lastSourceId = sourceId;
+                source = idMap.toHugeMappedNodeIdIfPresent(sourceId);
+            }
+            if (source == HugeIdMap.NOT_FOUND) {
+                return;
+            }
+            long target = idMap.toHugeMappedNodeIdIfPresent(row.getNumber("target").longValue());
+            if (target == HugeIdMap.NOT_FOUND) {
+                return;
+            }
+            ensureCapacity(length + 1);
+            targets[length] = target;
+            if (weights != null) {
+                weights[length] = RawValues.extractValue(row.get("weight"), defaultWeight);
+            }
+            length++;
+        }
+
+        @Override
+        void done() {
+            flush();
+            lastSourceId = -1L;
+            source = HugeIdMap.NOT_FOUND;
+        }
+
+        private void flush() {
+            if (length == 0) {
+                return;
+            }
+            // another thread might write the same node if its rows are spread over several batches
+            synchronized (locks[(int) (source & (LOCK_STRIPES - 1))]) {
+                long offset = offsets.get(source);
+                if (offset != 0L) {
+                    appendStoredTargets(offset);
+                }
+                sort();
+                if (accumulateWeights) {
+                    accumulate();
+                }
+                offsets.set(source, allocator.writeTargets(targets, length));
+                if (weightAllocator != null) {
+                    long weightsIdx = weightAllocator.allocate(length);
+                    weightOffsets.set(source, weightsIdx);
+                    for (int i = 0; i < length; i++) {
+                        weightAllocator.set(weightsIdx + i, weights[i]);
+                    }
+                }
+            }
+            length = 0;
+        }
+
+        private void appendStoredTargets(long offset) {
+            int degree = adjacency.getInt(offset);
+            ensureCapacity(length + degree);
+            // the cursor must see the pages that other threads might have added
+            ByteArray.DeltaCursor cursor = adjacency.deltaCursor(adjacency.newCursor(), offset);
+            long weightsIdx = weights != null ? weightOffsets.get(source) : 0L;
+            for (int i = 0; i < degree; i++) {
+                targets[length] = cursor.getVLong();
+                if (weights != null) {
+                    weights[length] = weightArray.get(weightsIdx + i);
+                }
+                length++;
+            }
+        }
+
+        private void sort() {
+            if (weights != null) {
+                sorter.targets = targets;
+                sorter.weights = weights;
+                sorter.sort(0, length);
+            } else {
+                Arrays.sort(targets, 0, length);
+            }
+        }
+
+        /**
+         * Keeps a single relationship per target with the sum of the weights.
+         */
+        private void accumulate() {
+            int write = 0;
+            for (int read = 1; read < length; read++) {
+                if (targets[read] == targets[write]) {
+                    if (weights != null) {
+                        weights[write] += weights[read];
+                    }
+                } else {
+                    ++write;
+                    targets[write] = targets[read];
+                    if (weights != null) {
+                        weights[write] = weights[read];
+                    }
+                }
+            }
+            length = write + 1;
+        }
+
+        private void ensureCapacity(int capacity) {
+            if (targets.length < capacity) {
+                int newLength = Math.max(capacity, targets.length << 1);
+                targets = Arrays.copyOf(targets, newLength);
+                if (weights != null) {
+                    weights = Arrays.copyOf(weights, newLength);
+                }
+            }
+        }
+    }
+}
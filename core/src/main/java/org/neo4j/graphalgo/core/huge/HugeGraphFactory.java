@@ -1,24 +1,32 @@
 package org.neo4j.graphalgo.core.huge;
 
 import org.apache.lucene.util.ArrayUtil;
+import org.apache.lucene.util.IntroSorter;
 import org.neo4j.collection.primitive.PrimitiveLongIterable;
 import org.neo4j.collection.primitive.PrimitiveLongIterator;
 import org.neo4j.graphalgo.api.GraphFactory;
 import org.neo4j.graphalgo.api.GraphSetup;
 import org.neo4j.graphalgo.api.HugeGraph;
 import org.neo4j.graphalgo.api.HugeWeightMapping;
+import org.neo4j.graphalgo.api.NodePropertyMapping;
 import org.neo4j.graphalgo.core.GraphDimensions;
-import org.neo4j.graphalgo.core.HugeWeightMap;
+import org.neo4j.graphalgo.core.HugeNullWeightMap;
 import org.neo4j.graphalgo.core.utils.ImportProgress;
 import org.neo4j.graphalgo.core.utils.ParallelUtil;
+import org.neo4j.graphalgo.core.utils.RawValues;
 import org.neo4j.graphalgo.core.utils.StatementTask;
 import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
 import org.neo4j.graphalgo.core.utils.paged.ByteArray;
+import org.neo4j.graphalgo.core.utils.paged.DoubleArray;
 import org.neo4j.graphalgo.core.utils.paged.LongArray;
+import org.neo4j.graphalgo.core.utils.paged.MemoryRange;
+import org.neo4j.graphalgo.core.utils.paged.MemoryUsage;
+import org.neo4j.graphalgo.core.utils.paged.SparseLongArray;
 import org.neo4j.graphdb.Direction;
 import org.neo4j.helpers.Exceptions;
 import org.neo4j.kernel.api.ReadOperations;
 import org.neo4j.kernel.api.Statement;
+import org.neo4j.kernel.api.StatementConstants;
 import org.neo4j.kernel.api.exceptions.EntityNotFoundException;
 import org.neo4j.kernel.impl.api.RelationshipVisitor;
 import org.neo4j.kernel.impl.api.store.RelationshipIterator;
@@ -26,9 +34,13 @@ import org.neo4j.kernel.internal.GraphDatabaseAPI;
 
 import java.util.Arrays;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
 
 public final class HugeGraphFactory extends GraphFactory {
 
+    private long mergedRelationships;
+
     public HugeGraphFactory(
             GraphDatabaseAPI api,
             GraphSetup setup) {
@@ -44,18 +56,169 @@ public final class HugeGraphFactory extends GraphFactory {
         }
     }
 
+    /**
+     * @return the number of parallel relationships that have been merged into another
+     * relationship by the last {@link #build()}, 0 if no {@link RelationshipAggregation} is used
+     */
+    public long mergedRelationships() {
+        return mergedRelationships;
+    }
+
+    /**
+     * Only a graph with a single adjacency per direction can follow the transactions,
+     * separately loaded relationship types are not supported.
+     */
+    @Override
+    public HugeGraph buildIncremental(int compactionThreshold) {
+        if (setup.loadSeparateRelationshipTypes()) {
+            throw new IllegalArgumentException(
+                    "A graph with separate relationship types cannot be loaded incrementally");
+        }
+        // the dimensions of this factory have been read before the transactions are followed,
+        // a node that is created in between would not be loaded
+        return IncrementalHugeGraph.load(
+                api,
+                setup,
+                compactionThreshold,
+                () -> (HugeGraphImpl) new HugeGraphFactory(api, setup).build());
+    }
+
+    /**
+     * Every target takes at least one byte and at most as many bytes as the
+     * vlong of the highest node id, the degree is stored once for every node
+     * with relationships. A block encoded target takes up to 8 bytes and
+     * every group of targets has a control byte.
+     * The memory of an off-heap adjacency is included.
+     * An undirected graph stores every relationship at both of its nodes
+     * but only has a single adjacency. Separately loaded relationship types
+     * have their own offsets and import chunks. Node properties are stored in a column each.
+     * Counting parallel relationships stores weights even without a weight property.
+     */
+    @Override
+    public MemoryRange memoryEstimation() {
+        final long nodeCount = dimensions.hugeNodeCount();
+        final long relCount = dimensions.maxRelCount();
+        final long maxTargets = setup.loadAsUndirected ? relCount << 1 : relCount;
+        final long maxTargetBytes = setup.blockEncoding
+                ? 1L << ByteArray.groupCode(nodeCount)
+                : Math.max(1L, (64L - Long.numberOfLeadingZeros(nodeCount) + 6L) / 7L);
+        // the last group of every node might not be full
+        final long minControlBytes = setup.blockEncoding ? (relCount + ByteArray.GROUP_SIZE - 1L) / ByteArray.GROUP_SIZE : 0L;
+        final long maxControlBytes = setup.blockEncoding ? maxTargets / ByteArray.GROUP_SIZE + Math.min(nodeCount, maxTargets) : 0L;
+        final int[] weightIds = setup.loadSeparateRelationshipTypes()
+                ? dimensions.relationshipTypeWeightIds()
+                : new int[]{dimensions.weightId()};
+        final int types = weightIds.length;
+        final long weightedTypes = Arrays.stream(weightIds).filter(this::storesWeights).count();
+        // every import batch reserves a chunk of the arrays of every type for itself
+        final long batches = ParallelUtil.threadSize(setup.batchSize, nodeCount);
+        final long offsets = LongArray.estimateMemoryUsage(nodeCount);
+        MemoryRange adjacency = MemoryRange.of(
+                offsets * types + ByteArray.estimateMemoryUsage(relCount + minControlBytes + (relCount > 0L ? Integer.BYTES : 0L)),
+                offsets * types + ByteArray.estimateMemoryUsage(maxTargets * maxTargetBytes + maxControlBytes + Math.min(nodeCount, maxTargets) * Integer.BYTES) +
+                        ByteArray.estimateLocalAllocatorMemoryUsage(batches) * types);
+        if (weightedTypes > 0L) {
+            // the weights of unweighted types are not stored
+            adjacency = adjacency.add(
+                    offsets * weightedTypes + DoubleArray.estimateMemoryUsage(weightedTypes == types ? relCount : 0L),
+                    offsets * weightedTypes + DoubleArray.estimateMemoryUsage(maxTargets) +
+                            DoubleArray.estimateLocalAllocatorMemoryUsage(batches) * weightedTypes);
+        }
+        final int directions = setup.loadAsUndirected
+                ? 1
+                : (setup.loadIncoming ? 1 : 0) + (setup.loadOutgoing ? 1 : 0);
+        // dense ids are stored as a single run, otherwise the sparse id map
+        // only allocates the pages of the node ids that are in use
+        final MemoryRange idMap = MemoryRange.of(
+                MemoryUsage.sizeOfLongArray(1) << 1,
+                LongArray.estimateMemoryUsage(nodeCount) + SparseLongArray.estimateMemoryUsage(dimensions.allNodesCount()));
+        return adjacency.times(directions).add(idMap).add(nodePropertiesMemoryUsage(nodeCount));
+    }
+
+    /**
+     * Every loaded node property has a column with an entry for every node.
+     */
+    private long nodePropertiesMemoryUsage(long nodeCount) {
+        long memoryUsage = 0L;
+        if (dimensions.nodeWeightId() != StatementConstants.NO_SUCH_PROPERTY_KEY) {
+            memoryUsage += DoubleArray.estimateMemoryUsage(nodeCount);
+        }
+        if (dimensions.nodePropId() != StatementConstants.NO_SUCH_PROPERTY_KEY) {
+            memoryUsage += DoubleArray.estimateMemoryUsage(nodeCount);
+        }
+        if (setup.loadNodePropertyColumns()) {
+            for (NodePropertyMapping mapping : setup.nodePropertyMappings) {
+                memoryUsage += mapping.type == NodePropertyMapping.Type.LONG
+                        ? LongArray.estimateMemoryUsage(nodeCount)
+                        : DoubleArray.estimateMemoryUsage(nodeCount);
+            }
+        }
+        return memoryUsage;
+    }
+
+    /**
+     * The aggregation of parallel relationships, without an explicit aggregation
+     * the weights are summed if they should be accumulated.
+     */
+    private RelationshipAggregation relationshipAggregation() {
+        if (setup.relationshipAggregation != RelationshipAggregation.NONE) {
+            return setup.relationshipAggregation;
+        }
+        return setup.accumulateWeights ? RelationshipAggregation.SUM : RelationshipAggregation.NONE;
+    }
+
+    private boolean storesWeights(int weightId) {
+        return weightId >= 0 || relationshipAggregation() == RelationshipAggregation.COUNT;
+    }
 
     private HugeGraph importGraph() throws EntityNotFoundException {
+        if (setup.loadSeparateRelationshipTypes() && setup.nodeOrdering != NodeOrdering.NONE) {
+            throw new IllegalArgumentException(
+                    "The nodes of a graph with separate relationship types cannot be reordered");
+        }
         int concurrency = setup.concurrency();
         int batchSize = setup.batchSize;
         AllocationTracker tracker = setup.tracker;
-        HugeWeightMapping weights = hugeWeightMapping(tracker, dimensions.weightId(), setup.relationDefaultWeight);
+        // weights are stored alongside the adjacency, the mapping only provides the default weight
+        HugeWeightMapping weights = new HugeNullWeightMap(setup.relationDefaultWeight);
         HugeIdMap mapping = loadHugeIdMap(tracker);
         HugeGraph graph = loadRelationships(dimensions, mapping, weights, concurrency, batchSize, tracker, progress);
+        loadNodeProperties(graph, mapping, concurrency, batchSize, tracker);
         progressLogger.logDone(tracker);
+        if (relationshipAggregation() != RelationshipAggregation.NONE) {
+            log.info("Merged %d parallel relationships with %s",
+                    mergedRelationships,
+                    relationshipAggregation());
+        }
+        if (setup.nodeOrdering != NodeOrdering.NONE) {
+            log.info("Reordered the nodes by %s, %s",
+                    setup.nodeOrdering,
+                    ((HugeGraphImpl) graph).locality());
+        }
         return graph;
     }
 
+    /**
+     * The properties are indexed by the ids of the final graph, a reordered graph has a new id map.
+     */
+    private void loadNodeProperties(
+            HugeGraph graph,
+            HugeIdMap mapping,
+            int concurrency,
+            int batchSize,
+            AllocationTracker tracker) {
+        if (graph instanceof HugeTypedGraphImpl) {
+            ((HugeTypedGraphImpl) graph).nodeProperties(
+                    new HugeNodePropertyImporter(api, setup, dimensions, mapping, tracker)
+                            .load(concurrency, batchSize, threadPool));
+            return;
+        }
+        HugeGraphImpl hugeGraph = (HugeGraphImpl) graph;
+        hugeGraph.nodeProperties(
+                new HugeNodePropertyImporter(api, setup, dimensions, hugeGraph.idMap(), tracker)
+                        .load(concurrency, batchSize, threadPool));
+    }
+
     private HugeGraph loadRelationships(
             GraphDimensions dimensions,
             HugeIdMap mapping,
@@ -65,31 +228,43 @@ public final class HugeGraphFactory extends GraphFactory {
             AllocationTracker tracker,
             ImportProgress progress) {
         final long nodeCount = dimensions.hugeNodeCount();
-        final int[] relationId = dimensions.relationId();
-        final int weightId = dimensions.weightId();
-        boolean loadsAnything = false;
-        LongArray inOffsets = null;
-        LongArray outOffsets = null;
-        ByteArray inAdjacency = null;
-        ByteArray outAdjacency = null;
-        if (setup.loadIncoming) {
-            inOffsets = LongArray.newArray(nodeCount, tracker);
-            inAdjacency = ByteArray.newArray(0, tracker);
-            inAdjacency.skipAllocationRegion(1);
-            loadsAnything = true;
-        }
-        if (setup.loadOutgoing) {
-            outOffsets = LongArray.newArray(nodeCount, tracker);
-            outAdjacency = ByteArray.newArray(nodeCount, tracker);
-            outAdjacency.skipAllocationRegion(1);
-            loadsAnything = true;
-        }
-        if (loadsAnything) {
-            // needs final b/c of reference from lambda
-            final LongArray finalInOffsets = inOffsets;
-            final LongArray finalOutOffsets = outOffsets;
-            final ByteArray finalInAdjacency = inAdjacency;
-            final ByteArray finalOutAdjacency = outAdjacency;
+        // an undirected graph stores all relationships in the outgoing adjacency
+        final boolean undirected = setup.loadAsUndirected;
+        final boolean loadIncoming = setup.loadIncoming && !undirected;
+        final boolean loadOutgoing = setup.loadOutgoing || undirected;
+        // either a single adjacency for the relationships of the type filter
+        // or a separate adjacency for every relationship type
+        final boolean separateTypes = setup.loadSeparateRelationshipTypes();
+        final int types = separateTypes ? setup.relationshipTypes.length : 1;
+        final int[] weightIds = separateTypes
+                ? dimensions.relationshipTypeWeightIds()
+                : new int[]{dimensions.weightId()};
+        final TypeAdjacency[] in = new TypeAdjacency[types];
+        final TypeAdjacency[] out = new TypeAdjacency[types];
+        for (int i = 0; i < types; i++) {
+            if (loadIncoming) {
+                in[i] = newTypeAdjacency(0, nodeCount, storesWeights(weightIds[i]), tracker);
+            }
+            if (loadOutgoing) {
+                out[i] = newTypeAdjacency(nodeCount, nodeCount, storesWeights(weightIds[i]), tracker);
+            }
+        }
+
+        // types that don't exist in the store are not imported and stay empty
+        final int[] importTypes = separateTypes
+                ? IntStream.range(0, types)
+                .filter(i -> dimensions.relationshipTypeIds()[i] != StatementConstants.NO_SUCH_RELATIONSHIP_TYPE)
+                .toArray()
+                : new int[]{0};
+        final int[] relationId = separateTypes
+                ? Arrays.stream(importTypes).map(i -> dimensions.relationshipTypeIds()[i]).toArray()
+                : dimensions.relationId();
+        final RelationshipAggregation aggregation = relationshipAggregation();
+        final AtomicLong merged = new AtomicLong();
+        if ((loadIncoming || loadOutgoing) && importTypes.length > 0) {
+            final TypeAdjacency[] importIn = Arrays.stream(importTypes).mapToObj(i -> in[i]).toArray(TypeAdjacency[]::new);
+            final TypeAdjacency[] importOut = Arrays.stream(importTypes).mapToObj(i -> out[i]).toArray(TypeAdjacency[]::new);
+            final int[] importWeightIds = Arrays.stream(importTypes).map(i -> weightIds[i]).toArray();
             final AtomicInteger batchIndex = new AtomicInteger();
             ParallelUtil.readParallel(
                     concurrency,
@@ -101,43 +276,140 @@ public final class HugeGraphFactory extends GraphFactory {
                             nodeIds,
                             progress,
                             mapping,
-                            finalInOffsets,
-                            finalOutOffsets,
-                            finalInAdjacency,
-                            finalOutAdjacency,
+                            loadIncoming ? importIn : null,
+                            loadOutgoing ? importOut : null,
                             relationId,
-                            weightId,
-                            weights
+                            importWeightIds,
+                            setup.relationDefaultWeight,
+                            undirected ? Direction.BOTH : Direction.OUTGOING,
+                            aggregation,
+                            merged
                     ),
                     threadPool);
         }
+        mergedRelationships = merged.get();
+
+        if (separateTypes) {
+            HugeGraphImpl[] graphs = new HugeGraphImpl[types];
+            for (int i = 0; i < types; i++) {
+                graphs[i] = newGraph(mapping, weights, in[i], out[i], undirected, tracker);
+            }
+            return new HugeTypedGraphImpl(mapping, weights, setup.relationshipTypes, graphs);
+        }
+
+        if (setup.nodeOrdering != NodeOrdering.NONE) {
+            return new HugeNodeReordering(
+                    setup.nodeOrdering,
+                    mapping,
+                    in[0] != null ? in[0].toReorderingAdjacency() : null,
+                    out[0] != null ? out[0].toReorderingAdjacency() : null,
+                    setup.offHeap,
+                    undirected,
+                    concurrency,
+                    threadPool,
+                    tracker
+            ).reorder(weights);
+        }
+
+        return newGraph(mapping, weights, in[0], out[0], undirected, tracker);
+    }
+
+    private TypeAdjacency newTypeAdjacency(
+            long size,
+            long nodeCount,
+            boolean loadWeights,
+            AllocationTracker tracker) {
+        LongArray offsets = LongArray.newArray(nodeCount, tracker);
+        ByteArray adjacency = newAdjacency(size, tracker);
+        adjacency.skipAllocationRegion(1);
+        if (!loadWeights) {
+            return new TypeAdjacency(offsets, adjacency, null, null);
+        }
+        return new TypeAdjacency(
+                offsets,
+                adjacency,
+                LongArray.newArray(nodeCount, tracker),
+                DoubleArray.newArray(0, tracker));
+    }
 
+    private ByteArray newAdjacency(long size, AllocationTracker tracker) {
+        return setup.offHeap
+                ? ByteArray.newOffHeapArray(size, setup.blockEncoding, tracker)
+                : ByteArray.newArray(size, setup.blockEncoding, tracker);
+    }
+
+    private static HugeGraphImpl newGraph(
+            HugeIdMap mapping,
+            HugeWeightMapping weights,
+            TypeAdjacency in,
+            TypeAdjacency out,
+            boolean undirected,
+            AllocationTracker tracker) {
         return new HugeGraphImpl(
                 tracker,
                 mapping,
                 weights,
-                inAdjacency,
-                outAdjacency,
-                inOffsets,
-                outOffsets
+                in != null ? in.adjacency : null,
+                out != null ? out.adjacency : null,
+                in != null ? in.offsets : null,
+                out != null ? out.offsets : null,
+                in != null ? in.weights : null,
+                out != null ? out.weights : null,
+                in != null ? in.weightOffsets : null,
+                out != null ? out.weightOffsets : null,
+                undirected
         );
     }
 
+    /**
+     * The arrays of the relationships of a single type in a single direction,
+     * weights and weight offsets are null if no weights are loaded for the type.
+     */
+    private static final class TypeAdjacency {
+        private final LongArray offsets;
+        private final ByteArray adjacency;
+        private final LongArray weightOffsets;
+        private final DoubleArray weights;
+
+        private TypeAdjacency(
+                LongArray offsets,
+                ByteArray adjacency,
+                LongArray weightOffsets,
+                DoubleArray weights) {
+            this.offsets = offsets;
+            this.adjacency = adjacency;
+            this.weightOffsets = weightOffsets;
+            this.weights = weights;
+        }
+
+        private HugeNodeReordering.Adjacency toReorderingAdjacency() {
+            return new HugeNodeReordering.Adjacency(adjacency, offsets, weights, weightOffsets);
+        }
+    }
+
+    /**
+     * Imports the relationships of a batch of nodes. The relationships of all
+     * types are read with a single iteration over the relationships of a node
+     * and are dispatched to the importer of their type.
+     * The merged parallel relationships are counted in the outgoing direction,
+     * or in the incoming direction if only that is loaded.
+     */
     private static final class BatchImportTask extends StatementTask<Void, EntityNotFoundException> {
         private final int batchIndex;
         private final ImportProgress progress;
         private final PrimitiveLongIterable nodes;
         private final HugeIdMap idMap;
-        private final LongArray inOffsets;
-        private final LongArray outOffsets;
-        private final ByteArray.LocalAllocator inAllocator;
-        private final ByteArray.LocalAllocator outAllocator;
+        private final TypeImporter[] inImporters;
+        private final TypeImporter[] outImporters;
         private final int[] relationId;
-        private final int weightId;
-        private final HugeWeightMapping weights;
+        private final int[] weightIds;
+        private final double defaultWeight;
+        private final Direction outDirection;
+        private final RelationshipAggregation aggregation;
+        private final AtomicLong mergedRelationships;
 
-        private DeltaEncodingVisitor inImporter;
-        private DeltaEncodingVisitor outImporter;
+        private RelationshipVisitor<EntityNotFoundException> inVisitor;
+        private RelationshipVisitor<EntityNotFoundException> outVisitor;
 
         BatchImportTask(
                 GraphDatabaseAPI api,
@@ -145,25 +417,38 @@ public final class HugeGraphFactory extends GraphFactory {
                 PrimitiveLongIterable nodes,
                 ImportProgress progress,
                 HugeIdMap idMap,
-                LongArray inOffsets,
-                LongArray outOffsets,
-                ByteArray inAdjacency,
-                ByteArray outAdjacency,
+                TypeAdjacency[] in,
+                TypeAdjacency[] out,
                 int[] relationId,
-                int weightId,
-                HugeWeightMapping weights) {
+                int[] weightIds,
+                double defaultWeight,
+                Direction outDirection,
+                RelationshipAggregation aggregation,
+                AtomicLong mergedRelationships) {
             super(api);
             this.batchIndex = batchIndex;
             this.progress = progress;
             this.nodes = nodes;
             this.idMap = idMap;
-            this.inOffsets = inOffsets;
-            this.outOffsets = outOffsets;
-            this.inAllocator = inAdjacency != null ? inAdjacency.newAllocator() : null;
-            this.outAllocator = outAdjacency != null ? outAdjacency.newAllocator() : null;
+            this.inImporters = newImporters(in);
+            this.outImporters = newImporters(out);
             this.relationId = relationId;
-            this.weightId = weightId;
-            this.weights = weights;
+            this.weightIds = weightIds;
+            this.defaultWeight = defaultWeight;
+            this.outDirection = outDirection;
+            this.aggregation = aggregation;
+            this.mergedRelationships = mergedRelationships;
+        }
+
+        private static TypeImporter[] newImporters(TypeAdjacency[] adjacencies) {
+            if (adjacencies == null) {
+                return null;
+            }
+            TypeImporter[] importers = new TypeImporter[adjacencies.length];
+            for (int i = 0; i < adjacencies.length; i++) {
+                importers[i] = new TypeImporter(adjacencies[i]);
+            }
+            return importers;
         }
 
         @Override
@@ -176,21 +461,21 @@ public final class HugeGraphFactory extends GraphFactory {
             ReadOperations readOp = statement.readOperations();
 
             PrimitiveLongIterator iterator = nodes.iterator();
-            boolean loadIncoming = inAllocator != null;
-            boolean loadOutgoing = outAllocator != null;
+            boolean loadIncoming = inImporters != null;
+            boolean loadOutgoing = outImporters != null;
 
             if (loadIncoming) {
-                inImporter = newImporter(
+                inVisitor = newVisitor(
                         readOp,
-                        idMap,
+                        inImporters,
                         Direction.INCOMING
                 );
             }
             if (loadOutgoing) {
-                outImporter = newImporter(
+                outVisitor = newVisitor(
                         readOp,
-                        idMap,
-                        Direction.OUTGOING
+                        outImporters,
+                        outDirection
                 );
             }
 
@@ -205,22 +490,55 @@ public final class HugeGraphFactory extends GraphFactory {
                         loadOutgoing);
                 progress.relProgress();
             }
+            if (aggregation != RelationshipAggregation.NONE) {
+                long merged = 0L;
+                for (TypeImporter importer : loadOutgoing ? outImporters : inImporters) {
+                    merged += importer.delta.merged;
+                }
+                mergedRelationships.addAndGet(merged);
+            }
             return null;
         }
 
+        /**
+         * Creates the delta encoders of all types and returns a visitor
+         * that passes every relationship to the encoder of its type.
+         */
+        private RelationshipVisitor<EntityNotFoundException> newVisitor(
+                ReadOperations readOp,
+                TypeImporter[] importers,
+                Direction direction) {
+            for (int i = 0; i < importers.length; i++) {
+                importers[i].delta = newImporter(readOp, idMap, direction, weightIds[i]);
+            }
+            if (importers.length == 1) {
+                return importers[0].delta;
+            }
+            return (relationshipId, typeId, startNodeId, endNodeId) -> {
+                for (int i = 0; i < relationId.length; i++) {
+                    if (relationId[i] == typeId) {
+                        importers[i].delta.visit(relationshipId, typeId, startNodeId, endNodeId);
+                        return;
+                    }
+                }
+            };
+        }
+
         DeltaEncodingVisitor newImporter(
                 ReadOperations readOp,
                 HugeIdMap idMap,
-                Direction direction) {
-            if (weightId >= 0) {
+                Direction direction,
+                int weightId) {
+            if (weightId >= 0 || aggregation == RelationshipAggregation.COUNT) {
                 return new RelationshipImporterWithWeights(
                         idMap,
                         direction,
+                        aggregation,
                         readOp,
                         weightId,
-                        weights);
+                        defaultWeight);
             }
-            return new DeltaEncodingVisitor(idMap, direction);
+            return new DeltaEncodingVisitor(idMap, direction, aggregation);
         }
 
         private void readNodeBatch(
@@ -234,10 +552,9 @@ public final class HugeGraphFactory extends GraphFactory {
                         sourceGraphId,
                         sourceNodeId,
                         readOp,
-                        Direction.OUTGOING,
-                        outOffsets,
-                        outAllocator,
-                        outImporter
+                        outDirection,
+                        outImporters,
+                        outVisitor
                 );
             }
             if (loadIncoming) {
@@ -246,9 +563,8 @@ public final class HugeGraphFactory extends GraphFactory {
                         sourceNodeId,
                         readOp,
                         Direction.INCOMING,
-                        inOffsets,
-                        inAllocator,
-                        inImporter
+                        inImporters,
+                        inVisitor
                 );
             }
         }
@@ -258,16 +574,24 @@ public final class HugeGraphFactory extends GraphFactory {
                 long sourceNodeId,
                 ReadOperations readOp,
                 Direction direction,
-                LongArray offsets,
-                ByteArray.LocalAllocator allocator,
-                DeltaEncodingVisitor delta) throws EntityNotFoundException {
-
-            int degree = relationId == null
-                    ? readOp.nodeGetDegree(sourceNodeId, direction)
-                    : readOp.nodeGetDegree(
-                    sourceNodeId,
-                    direction,
-                    relationId[0]);
+                TypeImporter[] importers,
+                RelationshipVisitor<EntityNotFoundException> visitor) throws EntityNotFoundException {
+
+            int degree = 0;
+            for (int i = 0; i < importers.length; i++) {
+                int typeDegree = relationId == null
+                        ? readOp.nodeGetDegree(sourceNodeId, direction)
+                        : readOp.nodeGetDegree(
+                        sourceNodeId,
+                        direction,
+                        relationId[i]);
+                if (typeDegree > 0) {
+                    importers[i].delta.reset(typeDegree, sourceGraphId, sourceNodeId);
+                    degree += typeDegree;
+                } else {
+                    importers[i].delta.length = 0;
+                }
+            }
 
             if (degree <= 0) {
                 return;
@@ -277,25 +601,12 @@ public final class HugeGraphFactory extends GraphFactory {
                     sourceNodeId,
                     readOp,
                     direction);
-            delta.reset(degree, sourceGraphId);
             while (rs.hasNext()) {
-                rs.relationshipVisit(rs.next(), delta);
-            }
-
-            degree = delta.length;
-            if (degree == 0) {
-                return;
+                rs.relationshipVisit(rs.next(), visitor);
             }
 
-            long requiredSize = delta.applyDelta();
-            long adjacencyIdx = allocator.allocate(requiredSize);
-            offsets.set(sourceGraphId, adjacencyIdx);
-
-            ByteArray.BulkAdder bulkAdder = allocator.adder;
-            bulkAdder.addUnsignedInt(degree);
-            long[] targets = delta.targets;
-            for (int i = 0; i < degree; i++) {
-                bulkAdder.addVLong(targets[i]);
+            for (TypeImporter importer : importers) {
+                importer.write(sourceGraphId);
             }
         }
 
@@ -312,42 +623,84 @@ public final class HugeGraphFactory extends GraphFactory {
         }
     }
 
-    private static class DeltaEncodingVisitor implements RelationshipVisitor<EntityNotFoundException> {
-        private static final int[] encodingSizeCache;
+    /**
+     * Writes the relationships of a single type in a single direction
+     * into the chunks of the import thread.
+     */
+    private static final class TypeImporter {
+        private final LongArray offsets;
+        private final ByteArray.LocalAllocator allocator;
+        private final LongArray weightOffsets;
+        private final DoubleArray.LocalAllocator weightAllocator;
+
+        private DeltaEncodingVisitor delta;
+
+        private TypeImporter(TypeAdjacency adjacency) {
+            this.offsets = adjacency.offsets;
+            this.allocator = adjacency.adjacency.newAllocator();
+            this.weightOffsets = adjacency.weightOffsets;
+            this.weightAllocator = adjacency.weights != null ? adjacency.weights.newAllocator() : null;
+        }
 
-        static {
-            encodingSizeCache = new int[66];
-            for (int i = 0; i < 65; i++) {
-                encodingSizeCache[i] = (int) Math.ceil(i / 7.0);
+        private void write(long sourceGraphId) {
+            int degree = delta.length;
+            if (degree == 0) {
+                return;
+            }
+
+            delta.sortTargets();
+            // duplicates might have been removed or merged
+            degree = delta.length;
+            offsets.set(sourceGraphId, allocator.writeTargets(delta.targets, degree));
+
+            if (weightAllocator != null) {
+                long weightsIdx = weightAllocator.allocate(degree);
+                weightOffsets.set(sourceGraphId, weightsIdx);
+                double[] weights = ((RelationshipImporterWithWeights) delta).weights;
+                for (int i = 0; i < degree; i++) {
+                    weightAllocator.set(weightsIdx + i, weights[i]);
+                }
             }
-            encodingSizeCache[65] = 1;
         }
+    }
 
+    private static class DeltaEncodingVisitor implements RelationshipVisitor<EntityNotFoundException> {
         private final HugeIdMap idMap;
         final Direction direction;
+        final RelationshipAggregation aggregation;
 
         long sourceGraphId;
+        private long sourceNodeId;
         private long prevTarget;
         private boolean isSorted;
-        private long[] targets;
-        private int length;
+        long[] targets;
+        int length;
+        // parallel relationships that have been merged by all sortTargets calls
+        long merged;
 
         private DeltaEncodingVisitor(
                 HugeIdMap idMap,
-                Direction direction) {
+                Direction direction,
+                RelationshipAggregation aggregation) {
             this.idMap = idMap;
             this.direction = direction;
+            this.aggregation = aggregation;
             targets = new long[0];
         }
 
-        final void reset(int degree, long sourceGraphId) {
+        final void reset(int degree, long sourceGraphId, long sourceNodeId) {
             length = 0;
             this.sourceGraphId = sourceGraphId;
+            this.sourceNodeId = sourceNodeId;
             prevTarget = -1L;
             isSorted = true;
             if (targets.length < degree) {
                 targets = new long[ArrayUtil.oversize(degree, Long.BYTES)];
             }
+            grow(targets.length);
+        }
+
+        void grow(int capacity) {
         }
 
         @Override
@@ -356,9 +709,13 @@ public final class HugeGraphFactory extends GraphFactory {
                 final int typeId,
                 final long startNodeId,
                 final long endNodeId) throws EntityNotFoundException {
-            maybeVisit(
-                    relationshipId,
-                    direction == Direction.OUTGOING ? endNodeId : startNodeId);
+            final long targetNodeId;
+            if (direction == Direction.BOTH) {
+                targetNodeId = startNodeId == sourceNodeId ? endNodeId : startNodeId;
+            } else {
+                targetNodeId = direction == Direction.OUTGOING ? endNodeId : startNodeId;
+            }
+            maybeVisit(relationshipId, targetNodeId);
         }
 
         long maybeVisit(
@@ -375,44 +732,93 @@ public final class HugeGraphFactory extends GraphFactory {
             return prevTarget = targets[length++] = targetId;
         }
 
-        final long applyDelta() {
-            int length = this.length;
-            long[] targets = this.targets;
+        /**
+         * Sorts the targets, which are delta encoded by {@link ByteArray.LocalAllocator#writeTargets(long[], int)}.
+         * Parallel relationships are next to each other afterwards and are merged if they are aggregated.
+         */
+        final void sortTargets() {
             if (!isSorted) {
-                Arrays.sort(targets, 0, length);
+                sort(targets, length);
             }
-            long delta = 0;
-            long requiredBytes = 4;  // length as full-int
-            for (int i = 0; i < length; i++) {
-                long nextDelta = targets[i];
-                long value = targets[i] -= delta;
-                delta = nextDelta;
-                int bits = Long.numberOfTrailingZeros(Long.highestOneBit(value)) + 1;
-                requiredBytes += encodingSizeCache[bits];
+            if (direction == Direction.BOTH || aggregation != RelationshipAggregation.NONE) {
+                // both directions of a relationship between two nodes are stored only once
+                length = removeDuplicates(targets, length);
             }
-            return requiredBytes;
+        }
+
+        void sort(long[] targets, int length) {
+            Arrays.sort(targets, 0, length);
+        }
+
+        private int removeDuplicates(long[] targets, int length) {
+            int write = 1;
+            for (int read = 1; read < length; read++) {
+                if (targets[read] != targets[write - 1]) {
+                    if (read != write) {
+                        targets[write] = targets[read];
+                        move(read, write);
+                    }
+                    write++;
+                } else {
+                    merge(read, write - 1);
+                    // an undirected relationship is seen from both of its nodes, but only counted once
+                    if (direction != Direction.BOTH || targets[read] >= sourceGraphId) {
+                        merged++;
+                    }
+                }
+            }
+            return Math.min(write, length);
+        }
+
+        /**
+         * Called when the target at index {@code from} has been moved to index {@code to}.
+         */
+        void move(int from, int to) {
+        }
+
+        /**
+         * Called when the target at index {@code from} is the same as the target at
+         * index {@code into} and is removed.
+         */
+        void merge(int from, int into) {
         }
     }
 
+    /**
+     * Also reads the weight of every relationship into an array that is
+     * kept aligned with the targets, so that the weights can be written
+     * in the same order as the sorted targets.
+     * Without a weight property, every relationship has the default weight,
+     * which is only useful to count parallel relationships.
+     */
     private static final class RelationshipImporterWithWeights extends DeltaEncodingVisitor {
         private final int weightId;
-        private final HugeWeightMap weights;
+        private final double defaultWeight;
         private final ReadOperations readOp;
+        private final TargetsAndWeightsSorter sorter;
+
+        private double[] weights;
 
         private RelationshipImporterWithWeights(
                 final HugeIdMap idMap,
                 final Direction direction,
+                final RelationshipAggregation aggregation,
                 final ReadOperations readOp,
                 int weightId,
-                HugeWeightMapping weights) {
-            super(idMap, direction);
+                double defaultWeight) {
+            super(idMap, direction, aggregation);
             this.readOp = readOp;
-            if (!(weights instanceof HugeWeightMap) || weightId < 0) {
-                throw new IllegalArgumentException(
-                        "expected weights to be defined");
-            }
             this.weightId = weightId;
-            this.weights = (HugeWeightMap) weights;
+            this.defaultWeight = defaultWeight;
+            this.weights = new double[0];
+            this.sorter = new TargetsAndWeightsSorter();
+        }
+
+        @Override
+        void grow(final int capacity) {
+            if (weights.length < capacity) {
+                weights = Arrays.copyOf(weights, capacity);
+            }
         }
 
         @Override
@@ -421,22 +827,73 @@ public final class HugeGraphFactory extends GraphFactory {
                 final long endNodeId) throws EntityNotFoundException {
             long targetGraphId = super.maybeVisit(relationshipId, endNodeId);
             if (targetGraphId >= 0) {
-                Object value = readOp.relationshipGetProperty(
-                        relationshipId,
-                        weightId);
-                if (direction == Direction.OUTGOING) {
-                    weights.put(
-                            sourceGraphId,
-                            targetGraphId,
-                            value);
-                } else {
-                    weights.put(
-                            targetGraphId,
-                            sourceGraphId,
-                            value);
-                }
+                Object value = weightId >= 0
+                        ? readOp.relationshipGetProperty(relationshipId, weightId)
+                        : null;
+                weights[length - 1] = aggregation.initialWeight(RawValues.extractValue(value, defaultWeight));
             }
             return targetGraphId;
         }
+
+        @Override
+        void sort(final long[] targets, final int length) {
+            sorter.targets = targets;
+            sorter.weights = weights;
+            sorter.sort(0, length);
+        }
+
+        @Override
+        void move(final int from, final int to) {
+            weights[to] = weights[from];
+        }
+
+        @Override
+        void merge(final int from, final int into) {
+            // without an aggregation, the weight of the first relationship is kept
+            weights[into] = aggregation.merge(weights[into], weights[from]);
+        }
+    }
+
+    /**
+     * Sorts the targets and keeps the weights aligned with them.
+     */
+    public static final class TargetsAndWeightsSorter extends IntroSorter {
+        long[] targets;
+        double[] weights;
+        private long pivot;
+
+        /**
+         * Sorts the first {@code length} targets together with their weights in place.
+         */
+        public void sort(long[] targets, double[] weights, int length) {
+            this.targets = targets;
+            this.weights = weights;
+            sort(0, length);
+        }
+
+        @Override
+        protected void swap(final int i, final int j) {
+            long target = targets[i];
+            targets[i] = targets[j];
+            targets[j] = target;
+            double weight = weights[i];
+            weights[i] = weights[j];
+            weights[j] = weight;
+        }
+
+        @Override
+        protected int compare(final int i, final int j) {
+            return Long.compare(targets[i], targets[j]);
+        }
+
+        @Override
+        protected void setPivot(final int i) {
+            pivot = targets[i];
+        }
+
+        @Override
+        protected int comparePivot(final int j) {
+            return Long.compare(pivot, targets[j]);
+        }
     }
 }
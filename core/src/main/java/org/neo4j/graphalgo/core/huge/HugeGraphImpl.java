@@ -2,18 +2,30 @@ package org.neo4j.graphalgo.core.huge;
 
 import org.neo4j.collection.primitive.PrimitiveLongIterable;
 import org.neo4j.collection.primitive.PrimitiveLongIterator;
+import org.neo4j.graphalgo.api.AdjacencyCursor;
 import org.neo4j.graphalgo.api.HugeGraph;
+import org.neo4j.graphalgo.api.HugeNodeProperties;
 import org.neo4j.graphalgo.api.HugeRelationshipConsumer;
 import org.neo4j.graphalgo.api.HugeWeightMapping;
+import org.neo4j.graphalgo.api.HugeWeightedRelationshipConsumer;
 import org.neo4j.graphalgo.api.RelationshipConsumer;
+import org.neo4j.graphalgo.api.RelationshipIntersect;
 import org.neo4j.graphalgo.api.WeightedRelationshipConsumer;
+import org.neo4j.graphalgo.core.HugeNullWeightMap;
+import org.neo4j.graphalgo.core.loading.GraphDelta;
 import org.neo4j.graphalgo.core.utils.RawValues;
 import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
 import org.neo4j.graphalgo.core.utils.paged.ByteArray;
+import org.neo4j.graphalgo.core.utils.paged.DoubleArray;
 import org.neo4j.graphalgo.core.utils.paged.LongArray;
+import org.neo4j.graphalgo.core.utils.paged.PagedDataStructure;
+import org.neo4j.graphalgo.core.utils.paged.PagedStorage;
 import org.neo4j.graphdb.Direction;
 
+import java.io.IOException;
 import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
 import java.util.function.LongPredicate;
 
 /**
@@ -54,23 +66,62 @@ import java.util.function.LongPredicate;
  * and gives access to this data during import. Synchronization between threads only
  * has to happen when a new chunk has to be pre-allocated. This is similar to
  * what most garbage collectors do with TLAB allocations.
+ * <p>
+ * Relationship weights are stored in a DoubleArray per direction, in the same
+ * order as the sorted targets of a node. Another LongArray stores the offset of
+ * the first weight of every node. A weighted traversal reads the targets and
+ * the weights side by side with a {@link WeightedDeltaCursor}.
+ * Looking up the weight of a single relationship with {@link #weightOf(long, long)}
+ * has to scan the adjacency of the source node instead.
+ * <p>
+ * If the graph has been loaded with {@link org.neo4j.graphalgo.api.GraphSetup#offHeap},
+ * the adjacency pages are allocated outside of the heap. They are freed once the graph
+ * and all cursors of its copies have been garbage collected, {@link #release()} only
+ * makes sure that no cursor reads them afterwards.
+ * <p>
+ * If the graph has been loaded with a {@link NodeOrdering}, the internal ids
+ * are relabeled after the import by {@link HugeNodeReordering}.
+ * <p>
+ * Node weights, node values and any number of numeric node properties are stored
+ * in columns of a {@link HugeNodePropertyStore}, which are indexed by the internal id.
+ * <p>
+ * If the graph has been loaded with {@link org.neo4j.graphalgo.api.GraphSetup#loadAsUndirected},
+ * there is only the outgoing adjacency, which contains every neighbour of a node exactly once.
+ * All directions read from that adjacency, so traversing {@link Direction#BOTH}
+ * is a single scan that doesn't visit a relationship twice.
  *
  * @see <a href="https://developers.google.com/protocol-buffers/docs/encoding#varints">more abount vlong</a>
  * @see <a href="https://shipilev.net/jvm-anatomy-park/4-tlab-allocation/">more abount TLAB allocation</a>
  */
 public class HugeGraphImpl implements HugeGraph {
 
+    // the flags of the stored graph
+    private static final int UNDIRECTED = 1;
+    private static final int BLOCK_ENCODED = 2;
+
     private final HugeIdMap idMapping;
     private final AllocationTracker tracker;
+    private final boolean undirected;
 
     private HugeWeightMapping weights;
     private ByteArray inAdjacency;
     private ByteArray outAdjacency;
     private LongArray inOffsets;
     private LongArray outOffsets;
+    private DoubleArray inWeights;
+    private DoubleArray outWeights;
+    private LongArray inWeightOffsets;
+    private LongArray outWeightOffsets;
     private ByteArray.DeltaCursor empty;
     private ByteArray.DeltaCursor inCache;
     private ByteArray.DeltaCursor outCache;
+    private WeightedDeltaCursor inWeightedCache;
+    private WeightedDeltaCursor outWeightedCache;
+    private boolean canRelease = true;
+    // the bytes of the adjacency and weight arrays when they were last written from scratch
+    private long rewrittenBytes;
+    private NodeOrdering.Locality locality;
+    private HugeNodePropertyStore nodeProperties = HugeNodePropertyStore.empty(1.0);
 
     HugeGraphImpl(
             final AllocationTracker tracker,
@@ -79,24 +130,110 @@ public class HugeGraphImpl implements HugeGraph {
             final ByteArray inAdjacency,
             final ByteArray outAdjacency,
             final LongArray inOffsets,
-            final LongArray outOffsets) {
+            final LongArray outOffsets,
+            final DoubleArray inWeights,
+            final DoubleArray outWeights,
+            final LongArray inWeightOffsets,
+            final LongArray outWeightOffsets,
+            final boolean undirected) {
         this.idMapping = idMapping;
         this.tracker = tracker;
+        this.undirected = undirected;
         this.weights = weights;
         this.inAdjacency = inAdjacency;
         this.outAdjacency = outAdjacency;
         this.inOffsets = inOffsets;
         this.outOffsets = outOffsets;
+        this.inWeights = inWeights;
+        this.outWeights = outWeights;
+        this.inWeightOffsets = inWeightOffsets;
+        this.outWeightOffsets = outWeightOffsets;
         inCache = newCursor(this.inAdjacency);
         outCache = newCursor(this.outAdjacency);
+        inWeightedCache = newWeightedCursor(this.inAdjacency, this.inWeights);
+        outWeightedCache = newWeightedCursor(this.outAdjacency, this.outWeights);
         empty = inCache == null ? newCursor(this.outAdjacency) : newCursor(this.inAdjacency);
     }
 
+    static HugeGraphImpl read(PagedStorage.Reader in, AllocationTracker tracker) throws IOException {
+        HugeIdMap idMapping = HugeIdMap.read(in, tracker);
+        HugeWeightMapping weights = new HugeNullWeightMap(in.readDouble());
+        int flags = in.readInt();
+        boolean undirected = (flags & UNDIRECTED) != 0;
+        boolean blockEncoded = (flags & BLOCK_ENCODED) != 0;
+        HugeGraphImpl graph = new HugeGraphImpl(
+                tracker,
+                idMapping,
+                weights,
+                in.readByteArray(blockEncoded, tracker),
+                in.readByteArray(blockEncoded, tracker),
+                in.readLongArray(tracker),
+                in.readLongArray(tracker),
+                in.readDoubleArray(tracker),
+                in.readDoubleArray(tracker),
+                in.readLongArray(tracker),
+                in.readLongArray(tracker),
+                undirected);
+        graph.nodeProperties(HugeNodePropertyStore.read(in, tracker));
+        return graph;
+    }
+
+    /**
+     * Writes the graph in the order that is expected by {@link #read(PagedStorage.Reader, AllocationTracker)}.
+     */
+    void write(PagedStorage.Writer out) throws IOException {
+        idMapping.write(out);
+        // there is no relationship between negative ids, so this is always the default weight
+        ByteArray adjacency = outAdjacency != null ? outAdjacency : inAdjacency;
+        int flags = (undirected ? UNDIRECTED : 0) |
+                (adjacency != null && adjacency.isBlockEncoded() ? BLOCK_ENCODED : 0);
+        out.writeDouble(weights.weight(-1L, -1L))
+                .writeInt(flags)
+                .write(inAdjacency)
+                .write(outAdjacency)
+                .write(inOffsets)
+                .write(outOffsets)
+                .write(inWeights)
+                .write(outWeights)
+                .write(inWeightOffsets)
+                .write(outWeightOffsets);
+        nodeProperties.write(out);
+    }
+
     @Override
     public long nodeCount() {
         return idMapping.nodeCount();
     }
 
+    /**
+     * Sums the degrees of the outgoing direction, or of the incoming one if only that has
+     * been loaded. An undirected graph counts every relationship at both of its nodes.
+     */
+    public long relationshipCount() {
+        final boolean outgoing = outAdjacency != null;
+        final ByteArray adjacency = outgoing ? outAdjacency : inAdjacency;
+        if (adjacency == null) {
+            return 0L;
+        }
+        final LongArray offsets = outgoing ? outOffsets : inOffsets;
+        final long nodeCount = nodeCount();
+        long count = 0L;
+        for (long node = 0L; node < nodeCount; node++) {
+            count += degree(node, offsets, adjacency);
+        }
+        return count;
+    }
+
+    /**
+     * @return the directions whose adjacency has been loaded, {@link Direction#BOTH} for an undirected graph
+     */
+    public Direction loadedDirection() {
+        if (undirected || (inAdjacency != null && outAdjacency != null)) {
+            return Direction.BOTH;
+        }
+        return inAdjacency != null ? Direction.INCOMING : Direction.OUTGOING;
+    }
+
     @Override
     public Collection<PrimitiveLongIterable> hugeBatchIterables(final int batchSize) {
         return idMapping.hugeBatchIterables(batchSize);
@@ -114,14 +251,26 @@ public class HugeGraphImpl implements HugeGraph {
 
     @Override
     public double weightOf(final long sourceNodeId, final long targetNodeId) {
-        return weights.weight(sourceNodeId, targetNodeId);
+        return weightOf(sourceNodeId, targetNodeId, weights.weight(sourceNodeId, targetNodeId));
     }
 
+    /**
+     * The adjacency is delta encoded and can only be read sequentially, so finding
+     * the weight of a relationship takes {@code O(degree)} of the source node.
+     * Algorithms that visit every relationship should read the weights together
+     * with the targets from an {@link #newAdjacencyCursor() adjacency cursor}.
+     */
     @Override
     public double weightOf(
             final long sourceNodeId,
             final long targetNodeId,
             final double defaultWeight) {
+        if (outWeights != null) {
+            return findWeight(sourceNodeId, targetNodeId, defaultWeight, outOffsets, outAdjacency, outWeightOffsets, outWeights);
+        }
+        if (inWeights != null) {
+            return findWeight(targetNodeId, sourceNodeId, defaultWeight, inOffsets, inAdjacency, inWeightOffsets, inWeights);
+        }
         return weights.weight(sourceNodeId, targetNodeId, defaultWeight);
     }
 
@@ -130,7 +279,7 @@ public class HugeGraphImpl implements HugeGraph {
             long vertexId,
             Direction direction,
             HugeRelationshipConsumer consumer) {
-        switch (direction) {
+        switch (resolve(direction)) {
             case INCOMING:
                 forEachIncoming(vertexId, consumer);
                 return;
@@ -154,7 +303,7 @@ public class HugeGraphImpl implements HugeGraph {
             int nodeId,
             Direction direction,
             RelationshipConsumer consumer) {
-        switch (direction) {
+        switch (resolve(direction)) {
             case INCOMING:
                 forEachIncoming(nodeId, consumer);
                 return;
@@ -173,11 +322,58 @@ public class HugeGraphImpl implements HugeGraph {
         }
     }
 
+    @Override
+    public void forEachRelationship(
+            long nodeId,
+            Direction direction,
+            HugeWeightedRelationshipConsumer consumer) {
+        switch (resolve(direction)) {
+            case INCOMING:
+                forEachWeighted(nodeId, inWeightedCache, inOffsets, inAdjacency, inWeightOffsets, inWeights, consumer);
+                return;
+
+            case OUTGOING:
+                forEachWeighted(nodeId, outWeightedCache, outOffsets, outAdjacency, outWeightOffsets, outWeights, consumer);
+                return;
+
+            case BOTH:
+                forEachWeighted(nodeId, inWeightedCache, inOffsets, inAdjacency, inWeightOffsets, inWeights, consumer);
+                forEachWeighted(nodeId, outWeightedCache, outOffsets, outAdjacency, outWeightOffsets, outWeights, consumer);
+                return;
+
+            default:
+                throw new IllegalArgumentException(direction + "");
+        }
+    }
+
     @Override
     public void forEachRelationship(
             int nodeId,
             Direction direction,
             WeightedRelationshipConsumer consumer) {
+        if (undirected && direction != Direction.OUTGOING) {
+            forEachRelationship(nodeId, Direction.OUTGOING, consumer);
+            return;
+        }
+        if (direction == Direction.BOTH) {
+            forEachRelationship(nodeId, Direction.INCOMING, consumer);
+            forEachRelationship(nodeId, Direction.OUTGOING, consumer);
+            return;
+        }
+        DoubleArray weights = direction == Direction.OUTGOING ? outWeights : inWeights;
+        if (weights != null) {
+            HugeWeightedRelationshipConsumer weighted = (s, t, w) -> consumer.accept(
+                    (int) s,
+                    (int) t,
+                    RawValues.combineIntInt(direction, (int) s, (int) t),
+                    w);
+            if (direction == Direction.OUTGOING) {
+                forEachWeighted(nodeId, outWeightedCache, outOffsets, outAdjacency, outWeightOffsets, outWeights, weighted);
+            } else {
+                forEachWeighted(nodeId, inWeightedCache, inOffsets, inAdjacency, inWeightOffsets, inWeights, weighted);
+            }
+            return;
+        }
         RelationshipConsumer nonWeighted = (s, t, relId) -> {
             double weight = direction == Direction.OUTGOING
                     ? weightOf((long) s, (long) t)
@@ -191,11 +387,71 @@ public class HugeGraphImpl implements HugeGraph {
         forEachRelationship(nodeId, direction, nonWeighted);
     }
 
+    /**
+     * The targets are always sorted, every direction of an undirected graph
+     * and the single directions of a directed graph.
+     */
+    @Override
+    public boolean hasSortedAdjacency(Direction direction) {
+        return undirected || direction != Direction.BOTH;
+    }
+
+    /**
+     * Merges the delta encoded targets of both nodes while they are decoded.
+     */
+    @Override
+    public RelationshipIntersect newIntersect(Direction direction) {
+        final boolean outgoing = undirected || direction == Direction.OUTGOING;
+        final ByteArray adjacency = outgoing ? outAdjacency : inAdjacency;
+        final LongArray offsets = outgoing ? outOffsets : inOffsets;
+        if (!hasSortedAdjacency(direction) || adjacency == null) {
+            return HugeGraph.super.newIntersect(direction);
+        }
+        final ByteArray.DeltaCursor reuseA = adjacency.newCursor();
+        final ByteArray.DeltaCursor reuseB = adjacency.newCursor();
+        return (nodeA, nodeB, consumer) -> {
+            ByteArray.DeltaCursor a = cursor(nodeA, reuseA, offsets, adjacency);
+            ByteArray.DeltaCursor b = cursor(nodeB, reuseB, offsets, adjacency);
+            long targetA = a.getVLong();
+            long targetB = b.getVLong();
+            long last = -1L;
+            while (targetA != -1L && targetB != -1L) {
+                if (targetA < targetB) {
+                    targetA = a.getVLong();
+                } else if (targetA > targetB) {
+                    targetB = b.getVLong();
+                } else {
+                    if (targetA != last) {
+                        consumer.accept((int) targetA);
+                        last = targetA;
+                    }
+                    targetA = a.getVLong();
+                    targetB = b.getVLong();
+                }
+            }
+        };
+    }
+
+    @Override
+    public AdjacencyCursor newAdjacencyCursor() {
+        return new HugeAdjacencyCursor(
+                inAdjacency,
+                outAdjacency,
+                inOffsets,
+                outOffsets,
+                inWeights,
+                outWeights,
+                inWeightOffsets,
+                outWeightOffsets,
+                weights,
+                undirected);
+    }
+
     @Override
     public int degree(
             final long node,
             final Direction direction) {
-        switch (direction) {
+        switch (resolve(direction)) {
             case INCOMING:
                 return degree(node, inOffsets, inAdjacency);
 
@@ -218,6 +474,13 @@ public class HugeGraphImpl implements HugeGraph {
         return idMapping.toHugeMappedNodeId(nodeId);
     }
 
+    /**
+     * @see HugeIdMap#toHugeMappedNodeIdIfPresent(long)
+     */
+    long toHugeMappedNodeIdIfPresent(long nodeId) {
+        return idMapping.toHugeMappedNodeIdIfPresent(nodeId);
+    }
+
     @Override
     public long toOriginalNodeId(long vertexId) {
         return idMapping.toOriginalNodeId(vertexId);
@@ -232,6 +495,10 @@ public class HugeGraphImpl implements HugeGraph {
     public void forEachIncoming(
             final long node,
             final HugeRelationshipConsumer consumer) {
+        if (undirected) {
+            forEachOutgoing(node, consumer);
+            return;
+        }
         ByteArray.DeltaCursor cursor = cursor(
                 node,
                 inCache,
@@ -242,6 +509,10 @@ public class HugeGraphImpl implements HugeGraph {
 
     @Override
     public void forEachIncoming(int nodeId, RelationshipConsumer consumer) {
+        if (undirected) {
+            forEachOutgoing(nodeId, consumer);
+            return;
+        }
         final long node = (long) nodeId;
         ByteArray.DeltaCursor cursor = cursor(
                 node,
@@ -282,21 +553,339 @@ public class HugeGraphImpl implements HugeGraph {
 
     @Override
     public HugeGraph concurrentCopy() {
-        return new HugeGraphImpl(
+        HugeGraphImpl copy = new HugeGraphImpl(
                 tracker,
                 idMapping,
                 weights,
                 inAdjacency,
                 outAdjacency,
                 inOffsets,
-                outOffsets
+                outOffsets,
+                inWeights,
+                outWeights,
+                inWeightOffsets,
+                outWeightOffsets,
+                undirected
         );
+        copy.canRelease = canRelease;
+        copy.locality = locality;
+        copy.nodeProperties = nodeProperties;
+        return copy;
+    }
+
+    /**
+     * Reads the sorted targets and weights of a node with new cursors,
+     * so that it can be called while the graph is being traversed.
+     */
+    GraphDelta.Adjacency adjacency(long node, Direction direction) {
+        boolean outgoing = undirected || direction == Direction.OUTGOING;
+        LongArray offsets = outgoing ? outOffsets : inOffsets;
+        ByteArray adjacency = outgoing ? outAdjacency : inAdjacency;
+        DoubleArray weights = outgoing ? outWeights : inWeights;
+        int degree = adjacency != null ? degree(node, offsets, adjacency) : 0;
+        long[] targets = new long[degree];
+        double[] targetWeights = new double[degree];
+        if (degree == 0) {
+            return GraphDelta.Adjacency.of(targets, targetWeights, 0);
+        }
+        int index = 0;
+        long next;
+        if (weights != null) {
+            WeightedDeltaCursor cursor = new WeightedDeltaCursor(adjacency, weights)
+                    .init(adjacency, offsets.get(node), weights, (outgoing ? outWeightOffsets : inWeightOffsets).get(node));
+            while ((next = cursor.getVLong()) != -1L) {
+                targets[index] = next;
+                targetWeights[index++] = cursor.weight();
+            }
+        } else {
+            ByteArray.DeltaCursor cursor = adjacency.deltaCursor(adjacency.newCursor(), offsets.get(node));
+            while ((next = cursor.getVLong()) != -1L) {
+                targets[index] = next;
+                targetWeights[index++] = outgoing
+                        ? this.weights.weight(node, next)
+                        : this.weights.weight(next, node);
+            }
+        }
+        return GraphDelta.Adjacency.of(targets, targetWeights, index);
+    }
+
+    /**
+     * Returns a new graph that reads the given adjacencies instead of the stored ones.
+     * <p>
+     * The adjacencies are appended to the adjacency and weight arrays of this graph,
+     * only the offsets are copied. The replaced regions are not reclaimed, so once
+     * the arrays have grown to twice their size since they were last written, all
+     * adjacencies are rewritten into new arrays instead.
+     * <p>
+     * This graph can still be traversed, but it must not be released as long as
+     * the new graph is in use. The replaced arrays are no longer tracked, they are
+     * freed once this graph has been garbage collected.
+     */
+    HugeGraphImpl compact(
+            Map<Long, GraphDelta.Adjacency> outgoing,
+            Map<Long, GraphDelta.Adjacency> incoming) {
+        long nodeCount = idMapping.nodeCount();
+        long bytes = adjacencyBytes();
+        long rewrittenBytes = this.rewrittenBytes > 0L ? this.rewrittenBytes : bytes;
+        HugeGraphImpl compacted;
+        if (bytes > 2L * rewrittenBytes) {
+            HugeNodeReordering.Adjacency out = rewrite(outgoing, nodeCount, Direction.OUTGOING);
+            HugeNodeReordering.Adjacency in = rewrite(incoming, nodeCount, Direction.INCOMING);
+            untrack(outAdjacency, outOffsets, outWeights, outWeightOffsets);
+            untrack(inAdjacency, inOffsets, inWeights, inWeightOffsets);
+            compacted = new HugeGraphImpl(
+                    tracker,
+                    idMapping,
+                    weights,
+                    in != null ? in.adjacency : null,
+                    out != null ? out.adjacency : null,
+                    in != null ? in.offsets : null,
+                    out != null ? out.offsets : null,
+                    in != null ? in.weights : null,
+                    out != null ? out.weights : null,
+                    in != null ? in.weightOffsets : null,
+                    out != null ? out.weightOffsets : null,
+                    undirected
+            );
+            compacted.rewrittenBytes = compacted.adjacencyBytes();
+        } else {
+            compacted = new HugeGraphImpl(
+                    tracker,
+                    idMapping,
+                    weights,
+                    inAdjacency,
+                    outAdjacency,
+                    append(incoming, nodeCount, inOffsets, inAdjacency),
+                    append(outgoing, nodeCount, outOffsets, outAdjacency),
+                    inWeights,
+                    outWeights,
+                    appendWeights(incoming, nodeCount, inWeightOffsets, inWeights),
+                    appendWeights(outgoing, nodeCount, outWeightOffsets, outWeights),
+                    undirected
+            );
+            compacted.rewrittenBytes = rewrittenBytes;
+        }
+        compacted.canRelease = canRelease;
+        compacted.nodeProperties = nodeProperties;
+        return compacted;
+    }
+
+    private LongArray append(
+            Map<Long, GraphDelta.Adjacency> nodes,
+            long nodeCount,
+            LongArray offsets,
+            ByteArray adjacency) {
+        if (adjacency == null || nodes.isEmpty()) {
+            return offsets;
+        }
+        LongArray newOffsets = copy(offsets, nodeCount);
+        untrack(offsets);
+        ByteArray.LocalAllocator allocator = adjacency.newAllocator();
+        nodes.forEach((node, targets) -> newOffsets.set(node, writeTargets(allocator, targets)));
+        return newOffsets;
+    }
+
+    private LongArray appendWeights(
+            Map<Long, GraphDelta.Adjacency> nodes,
+            long nodeCount,
+            LongArray weightOffsets,
+            DoubleArray weights) {
+        if (weights == null || nodes.isEmpty()) {
+            return weightOffsets;
+        }
+        LongArray newWeightOffsets = copy(weightOffsets, nodeCount);
+        untrack(weightOffsets);
+        DoubleArray.LocalAllocator allocator = weights.newAllocator();
+        nodes.forEach((node, targets) -> {
+            if (targets.degree() > 0) {
+                newWeightOffsets.set(node, writeWeights(allocator, targets));
+            }
+        });
+        return newWeightOffsets;
+    }
+
+    /**
+     * Writes the adjacencies of all nodes of one direction into new arrays,
+     * reading the given nodes from the map and all others from this graph.
+     *
+     * @return the new arrays or null if the direction has not been loaded
+     */
+    private HugeNodeReordering.Adjacency rewrite(
+            Map<Long, GraphDelta.Adjacency> nodes,
+            long nodeCount,
+            Direction direction) {
+        HugeNodeReordering.Adjacency old = arrays(direction);
+        if (old == null || (undirected && direction == Direction.INCOMING)) {
+            return null;
+        }
+        boolean blockEncoded = old.adjacency.isBlockEncoded();
+        ByteArray adjacency = old.adjacency.isOffHeap()
+                ? ByteArray.newOffHeapArray(0L, blockEncoded, tracker)
+                : ByteArray.newArray(0L, blockEncoded, tracker);
+        // offset 0 marks a node without relationships
+        adjacency.skipAllocationRegion(1);
+        LongArray offsets = LongArray.newArray(nodeCount, tracker);
+        DoubleArray weights = null;
+        LongArray weightOffsets = null;
+        if (old.weights != null) {
+            weights = DoubleArray.newArray(0L, tracker);
+            weightOffsets = LongArray.newArray(nodeCount, tracker);
+        }
+        ByteArray.LocalAllocator allocator = adjacency.newAllocator();
+        DoubleArray.LocalAllocator weightAllocator = weights != null ? weights.newAllocator() : null;
+        for (long node = 0L; node < nodeCount; node++) {
+            GraphDelta.Adjacency targets = nodes.get(node);
+            if (targets == null) {
+                targets = adjacency(node, direction);
+            }
+            offsets.set(node, writeTargets(allocator, targets));
+            if (weightAllocator != null && targets.degree() > 0) {
+                weightOffsets.set(node, writeWeights(weightAllocator, targets));
+            }
+        }
+        return new HugeNodeReordering.Adjacency(adjacency, offsets, weights, weightOffsets);
+    }
+
+    private static long writeTargets(ByteArray.LocalAllocator allocator, GraphDelta.Adjacency targets) {
+        int degree = targets.degree();
+        if (degree == 0) {
+            return 0L;
+        }
+        long[] sorted = new long[degree];
+        for (int i = 0; i < degree; i++) {
+            sorted[i] = targets.target(i);
+        }
+        return allocator.writeTargets(sorted, degree);
+    }
+
+    private static long writeWeights(DoubleArray.LocalAllocator allocator, GraphDelta.Adjacency targets) {
+        int degree = targets.degree();
+        long index = allocator.allocate(degree);
+        for (int i = 0; i < degree; i++) {
+            allocator.set(index + i, targets.weight(i));
+        }
+        return index;
+    }
+
+    /**
+     * @return the bytes of the adjacency and weight arrays, which grow with every compaction
+     */
+    private long adjacencyBytes() {
+        long bytes = 0L;
+        for (PagedDataStructure<?> array : new PagedDataStructure<?>[]{inAdjacency, outAdjacency, inWeights, outWeights}) {
+            if (array != null) {
+                bytes += array.memoryUsage();
+            }
+        }
+        return bytes;
+    }
+
+    /**
+     * Stops tracking arrays that have been replaced. They are not released, as an older
+     * graph might still be traversed, but freed by the garbage collector.
+     */
+    private void untrack(PagedDataStructure<?>... arrays) {
+        for (PagedDataStructure<?> array : arrays) {
+            if (array != null) {
+                tracker.remove(array.memoryUsage());
+            }
+        }
+    }
+
+    private LongArray copy(LongArray array, long size) {
+        LongArray copy = LongArray.newArray(size, tracker);
+        for (long i = 0; i < size; i++) {
+            copy.set(i, array.get(i));
+        }
+        return copy;
+    }
+
+    /**
+     * @return the locality gain of the node reordering, or null if the nodes have not been reordered
+     * @see NodeOrdering
+     */
+    public NodeOrdering.Locality locality() {
+        return locality;
+    }
+
+    void locality(NodeOrdering.Locality locality) {
+        this.locality = locality;
+    }
+
+    HugeIdMap idMap() {
+        return idMapping;
+    }
+
+    HugeWeightMapping weightMapping() {
+        return weights;
+    }
+
+    boolean isUndirected() {
+        return undirected;
+    }
+
+    /**
+     * @return the arrays that store the given direction, null if it has not been loaded
+     */
+    HugeNodeReordering.Adjacency arrays(Direction direction) {
+        if (undirected || direction == Direction.OUTGOING) {
+            return outAdjacency != null
+                    ? new HugeNodeReordering.Adjacency(outAdjacency, outOffsets, outWeights, outWeightOffsets)
+                    : null;
+        }
+        return inAdjacency != null
+                ? new HugeNodeReordering.Adjacency(inAdjacency, inOffsets, inWeights, inWeightOffsets)
+                : null;
+    }
+
+    HugeNodePropertyStore nodeProperties() {
+        return nodeProperties;
+    }
+
+    void nodeProperties(HugeNodePropertyStore nodeProperties) {
+        this.nodeProperties = nodeProperties;
+    }
+
+    @Override
+    public Set<String> nodePropertyKeys() {
+        return nodeProperties.keys();
+    }
+
+    @Override
+    public HugeNodeProperties.DoubleProperty doubleProperty(String propertyKey) {
+        return nodeProperties.doubleProperty(propertyKey);
+    }
+
+    @Override
+    public HugeNodeProperties.LongProperty longProperty(String propertyKey) {
+        return nodeProperties.longProperty(propertyKey);
+    }
+
+    @Override
+    public double nodeWeight(long nodeId) {
+        return nodeProperties.nodeWeight(nodeId);
+    }
+
+    @Override
+    public double nodeValue(long nodeId, double defaultValue) {
+        return nodeProperties.nodeValue(nodeId, defaultValue);
+    }
+
+    /**
+     * An undirected graph stores all relationships in the outgoing adjacency.
+     */
+    private Direction resolve(final Direction direction) {
+        return undirected ? Direction.OUTGOING : direction;
     }
 
     private ByteArray.DeltaCursor newCursor(final ByteArray adjacency) {
         return adjacency != null ? adjacency.newCursor() : null;
     }
 
+    private WeightedDeltaCursor newWeightedCursor(final ByteArray adjacency, final DoubleArray weights) {
+        return adjacency != null && weights != null ? new WeightedDeltaCursor(adjacency, weights) : null;
+    }
+
     private int degree(long node, LongArray offsets, ByteArray array) {
         long offset = offsets.get(node);
         if (offset == 0L) {
@@ -327,24 +916,95 @@ public class HugeGraphImpl implements HugeGraph {
                 consumer.accept(startNode, next)) ;
     }
 
+    private void forEachWeighted(
+            long node,
+            WeightedDeltaCursor cursor,
+            LongArray offsets,
+            ByteArray adjacency,
+            LongArray weightOffsets,
+            DoubleArray weights,
+            HugeWeightedRelationshipConsumer consumer) {
+        if (weights == null) {
+            // no weights loaded, the mapping provides the default weight
+            ByteArray.DeltaCursor targets = cursor(node, adjacency.newCursor(), offsets, adjacency);
+            consumeNodes(node, targets, (s, t) -> consumer.accept(s, t, this.weights.weight(s, t)));
+            return;
+        }
+        final long offset = offsets.get(node);
+        if (offset == 0L) {
+            return;
+        }
+        cursor.init(adjacency, offset, weights, weightOffsets.get(node));
+        long next;
+        //noinspection StatementWithEmptyBody
+        while ((next = cursor.getVLong()) != -1L &&
+                consumer.accept(node, next, cursor.weight())) ;
+    }
+
+    private double findWeight(
+            long node,
+            long target,
+            double defaultWeight,
+            LongArray offsets,
+            ByteArray adjacency,
+            LongArray weightOffsets,
+            DoubleArray weights) {
+        final long offset = offsets.get(node);
+        if (offset == 0L) {
+            return defaultWeight;
+        }
+        // the targets are sorted, so we can stop as soon as we passed the target
+        ByteArray.DeltaCursor cursor = adjacency.deltaCursor(adjacency.newCursor(), offset);
+        long index = weightOffsets.get(node);
+        long next;
+        while ((next = cursor.getVLong()) != -1L && next <= target) {
+            if (next == target) {
+                return weights.get(index);
+            }
+            ++index;
+        }
+        return defaultWeight;
+    }
+
     @Override
     public void release() {
+        if (!canRelease) return;
         if (inAdjacency != null) {
             tracker.remove(inAdjacency.release());
             tracker.remove(inOffsets.release());
             inAdjacency = null;
             inOffsets = null;
         }
+        if (inWeights != null) {
+            tracker.remove(inWeights.release());
+            tracker.remove(inWeightOffsets.release());
+            inWeights = null;
+            inWeightOffsets = null;
+        }
         if (outAdjacency != null) {
             tracker.remove(outAdjacency.release());
             tracker.remove(outOffsets.release());
             outAdjacency = null;
             outOffsets = null;
         }
+        if (outWeights != null) {
+            tracker.remove(outWeights.release());
+            tracker.remove(outWeightOffsets.release());
+            outWeights = null;
+            outWeightOffsets = null;
+        }
         tracker.remove(weights.release());
+        nodeProperties.release(tracker);
         empty = null;
         inCache = null;
         outCache = null;
+        inWeightedCache = null;
+        outWeightedCache = null;
         weights = null;
     }
+
+    @Override
+    public void canRelease(boolean canRelease) {
+        this.canRelease = canRelease;
+    }
 }
@@ -0,0 +1,466 @@
+package org.neo4j.graphalgo.core.huge;
+
+import com.carrotsearch.hppc.BitSet;
+import org.neo4j.graphalgo.api.HugeGraph;
+import org.neo4j.graphalgo.api.HugeNodeProperties;
+import org.neo4j.graphalgo.api.HugeRelationshipPredicate;
+import org.neo4j.graphalgo.core.utils.ParallelUtil;
+import org.neo4j.graphalgo.core.utils.Pools;
+import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
+import org.neo4j.graphalgo.core.utils.paged.ByteArray;
+import org.neo4j.graphalgo.core.utils.paged.DoubleArray;
+import org.neo4j.graphalgo.core.utils.paged.LongArray;
+import org.neo4j.graphdb.Direction;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.function.DoublePredicate;
+import java.util.function.LongPredicate;
+
+/**
+ * Derives a new, compact huge graph from an already loaded one, without reading the store.
+ * <p>
+ * The projected graph contains the nodes that pass all node filters and the relationships
+ * between them that pass all relationship filters. The filters are called with the ids of
+ * the parent graph, relationships are always passed from their source to their target,
+ * undirected relationships from the lower to the higher id.
+ * The nodes keep their relative order, so the targets of every node are still sorted
+ * after they have been mapped to the new ids and are written without sorting them again.
+ * The weights and the node properties are copied, the parent graph is not changed and can
+ * be used and released independently of the projection.
+ * <p>
+ * The nodes are filtered and the adjacency is rewritten in parallel over ranges of ids.
+ * A graph with separate relationship types is projected type by type, an incremental
+ * graph has to be projected from a copy that doesn't follow the transactions.
+ *
+ * <pre>
+ * HugeGraph germany = new HugeGraphProjection(graph)
+ *         .withLongNodeProperty("country", country -&gt; country == 49)
+ *         .withRelationshipFilter((source, target, weight) -&gt; weight &gt; 0.5)
+ *         .project();
+ * </pre>
+ */
+public final class HugeGraphProjection {
+
+    private final HugeGraph parent;
+    private final List<LongPredicate> nodeFilters = new ArrayList<>();
+    private final List<HugeRelationshipPredicate> relationshipFilters = new ArrayList<>();
+    private ExecutorService executor = Pools.DEFAULT;
+    private int concurrency = Pools.DEFAULT_CONCURRENCY;
+    private boolean offHeap = false;
+    private AllocationTracker tracker = AllocationTracker.EMPTY;
+
+    /**
+     * @param parent a graph loaded by the {@link HugeGraphFactory}, with or without separate relationship types
+     */
+    public HugeGraphProjection(HugeGraph parent) {
+        if (!(parent instanceof HugeGraphImpl) && !(parent instanceof HugeTypedGraphImpl)) {
+            throw new IllegalArgumentException("Only a graph that has been loaded by the " +
+                    HugeGraphFactory.class.getSimpleName() + " can be projected");
+        }
+        this.parent = parent;
+    }
+
+    /**
+     * Keeps the nodes for which the filter returns true.
+     *
+     * @return itself to enable fluent interface
+     */
+    public HugeGraphProjection withNodeFilter(LongPredicate filter) {
+        nodeFilters.add(Objects.requireNonNull(filter));
+        return this;
+    }
+
+    /**
+     * Keeps the nodes whose bit is set.
+     *
+     * @return itself to enable fluent interface
+     */
+    public HugeGraphProjection withNodeFilter(BitSet nodes) {
+        Objects.requireNonNull(nodes);
+        return withNodeFilter((LongPredicate) nodes::get);
+    }
+
+    /**
+     * Keeps the nodes whose value of a loaded double property passes the filter,
+     * nodes without the property are tested with the default value.
+     *
+     * @throws IllegalArgumentException if the property has not been loaded as double property
+     * @return itself to enable fluent interface
+     */
+    public HugeGraphProjection withDoubleNodeProperty(String propertyKey, DoublePredicate filter) {
+        Objects.requireNonNull(filter);
+        final HugeNodeProperties.DoubleProperty property = parent.doubleProperty(propertyKey);
+        return withNodeFilter(node -> filter.test(property.get(node)));
+    }
+
+    /**
+     * Keeps the nodes whose value of a loaded long property passes the filter,
+     * nodes without the property are tested with the default value.
+     *
+     * @throws IllegalArgumentException if the property has not been loaded as long property
+     * @return itself to enable fluent interface
+     */
+    public HugeGraphProjection withLongNodeProperty(String propertyKey, LongPredicate filter) {
+        Objects.requireNonNull(filter);
+        final HugeNodeProperties.LongProperty property = parent.longProperty(propertyKey);
+        return withNodeFilter(node -> filter.test(property.get(node)));
+    }
+
+    /**
+     * Keeps the relationships for which the filter returns true.
+     * Unweighted graphs pass the default weight.
+     *
+     * @return itself to enable fluent interface
+     */
+    public HugeGraphProjection withRelationshipFilter(HugeRelationshipPredicate filter) {
+        relationshipFilters.add(Objects.requireNonNull(filter));
+        return this;
+    }
+
+    /**
+     * @return itself to enable fluent interface
+     */
+    public HugeGraphProjection withExecutorService(ExecutorService executor) {
+        this.executor = Objects.requireNonNull(executor);
+        return this;
+    }
+
+    /**
+     * @return itself to enable fluent interface
+     */
+    public HugeGraphProjection withConcurrency(int concurrency) {
+        this.concurrency = Math.max(1, concurrency);
+        return this;
+    }
+
+    /**
+     * @param offHeap true if the adjacency of the projection should be allocated outside of the heap
+     * @return itself to enable fluent interface
+     */
+    public HugeGraphProjection withOffHeap(boolean offHeap) {
+        this.offHeap = offHeap;
+        return this;
+    }
+
+    /**
+     * @return itself to enable fluent interface
+     */
+    public HugeGraphProjection withAllocationTracker(AllocationTracker tracker) {
+        this.tracker = Objects.requireNonNull(tracker);
+        return this;
+    }
+
+    /**
+     * @return the projected graph, either a {@link HugeGraphImpl} or a {@link HugeTypedGraphImpl} like the parent
+     */
+    public HugeGraph project() {
+        final HugeIdMap idMap = parent instanceof HugeTypedGraphImpl
+                ? ((HugeTypedGraphImpl) parent).idMap()
+                : ((HugeGraphImpl) parent).idMap();
+        final long parentNodeCount = idMap.nodeCount();
+        final LongArray newIds = LongArray.newArray(parentNodeCount, tracker);
+        final long nodeCount = filterNodes(parentNodeCount, newIds);
+        final LongArray order = LongArray.newArray(nodeCount, tracker);
+        for (long node = 0L; node < parentNodeCount; node++) {
+            long newId = newIds.get(node);
+            if (newId != -1L) {
+                order.set(newId, node);
+            }
+        }
+        final HugeIdMap newIdMap = idMap.project(order, nodeCount, tracker);
+
+        final HugeGraph projection;
+        if (parent instanceof HugeTypedGraphImpl) {
+            HugeTypedGraphImpl typed = (HugeTypedGraphImpl) parent;
+            HugeGraphImpl[] graphs = typed.graphs();
+            HugeGraphImpl[] newGraphs = new HugeGraphImpl[graphs.length];
+            for (int i = 0; i < graphs.length; i++) {
+                newGraphs[i] = project(graphs[i], newIdMap, nodeCount, newIds, order);
+            }
+            HugeTypedGraphImpl newTyped = new HugeTypedGraphImpl(
+                    newIdMap,
+                    typed.weightMapping(),
+                    typed.relationshipTypes().toArray(new String[0]),
+                    newGraphs);
+            newTyped.nodeProperties(graphs[0].nodeProperties().project(order, nodeCount, tracker));
+            projection = newTyped;
+        } else {
+            HugeGraphImpl graph = (HugeGraphImpl) parent;
+            HugeGraphImpl newGraph = project(graph, newIdMap, nodeCount, newIds, order);
+            newGraph.nodeProperties(graph.nodeProperties().project(order, nodeCount, tracker));
+            projection = newGraph;
+        }
+        tracker.remove(newIds.release());
+        tracker.remove(order.release());
+        return projection;
+    }
+
+    /**
+     * Marks every node that passes the filters in {@code newIds} and assigns the new ids
+     * in the order of the parent ids, filtered nodes are set to -1.
+     *
+     * @return the number of nodes in the projection
+     */
+    private long filterNodes(long parentNodeCount, LongArray newIds) {
+        final LongPredicate[] filters = nodeFilters.toArray(new LongPredicate[0]);
+        final List<FilterTask> tasks = new ArrayList<>();
+        final long batchSize = batchSize(parentNodeCount);
+        for (long start = 0L; start < parentNodeCount; start += batchSize) {
+            tasks.add(new FilterTask(filters, newIds, start, Math.min(parentNodeCount, start + batchSize)));
+        }
+        ParallelUtil.run(tasks, executor);
+        long nodeCount = 0L;
+        for (FilterTask task : tasks) {
+            task.firstId = nodeCount;
+            nodeCount += task.nodeCount;
+        }
+        ParallelUtil.run(tasks, executor);
+        return nodeCount;
+    }
+
+    private HugeGraphImpl project(
+            HugeGraphImpl graph,
+            HugeIdMap newIdMap,
+            long nodeCount,
+            LongArray newIds,
+            LongArray order) {
+        final boolean undirected = graph.isUndirected();
+        final HugeNodeReordering.Adjacency in = undirected ? null : graph.arrays(Direction.INCOMING);
+        final HugeNodeReordering.Adjacency out = graph.arrays(Direction.OUTGOING);
+        final double defaultWeight = graph.weightMapping().weight(-1L, -1L);
+        final HugeNodeReordering.Adjacency newIn = in != null
+                ? rewrite(in, Direction.INCOMING, defaultWeight, nodeCount, newIds, order)
+                : null;
+        final HugeNodeReordering.Adjacency newOut = out != null
+                ? rewrite(out, undirected ? Direction.BOTH : Direction.OUTGOING, defaultWeight, nodeCount, newIds, order)
+                : null;
+        return new HugeGraphImpl(
+                tracker,
+                newIdMap,
+                graph.weightMapping(),
+                newIn != null ? newIn.adjacency : null,
+                newOut != null ? newOut.adjacency : null,
+                newIn != null ? newIn.offsets : null,
+                newOut != null ? newOut.offsets : null,
+                newIn != null ? newIn.weights : null,
+                newOut != null ? newOut.weights : null,
+                newIn != null ? newIn.weightOffsets : null,
+                newOut != null ? newOut.weightOffsets : null,
+                undirected);
+    }
+
+    private HugeNodeReordering.Adjacency rewrite(
+            HugeNodeReordering.Adjacency old,
+            Direction direction,
+            double defaultWeight,
+            long nodeCount,
+            LongArray newIds,
+            LongArray order) {
+        final boolean blockEncoded = old.adjacency.isBlockEncoded();
+        final ByteArray adjacency = offHeap
+                ? ByteArray.newOffHeapArray(0L, blockEncoded, tracker)
+                : ByteArray.newArray(0L, blockEncoded, tracker);
+        adjacency.skipAllocationRegion(1);
+        final LongArray offsets = LongArray.newArray(nodeCount, tracker);
+        DoubleArray weights = null;
+        LongArray weightOffsets = null;
+        if (old.weights != null) {
+            weights = DoubleArray.newArray(0L, tracker);
+            weightOffsets = LongArray.newArray(nodeCount, tracker);
+        }
+        final HugeNodeReordering.Adjacency rewritten = new HugeNodeReordering.Adjacency(
+                adjacency,
+                offsets,
+                weights,
+                weightOffsets);
+
+        final HugeRelationshipPredicate[] filters = relationshipFilters.toArray(new HugeRelationshipPredicate[0]);
+        final List<RewriteTask> tasks = new ArrayList<>();
+        final long batchSize = batchSize(nodeCount);
+        for (long start = 0L; start < nodeCount; start += batchSize) {
+            tasks.add(new RewriteTask(
+                    old,
+                    rewritten,
+                    direction,
+                    defaultWeight,
+                    filters,
+                    newIds,
+                    order,
+                    start,
+                    Math.min(nodeCount, start + batchSize)));
+        }
+        ParallelUtil.run(tasks, executor);
+        return rewritten;
+    }
+
+    private long batchSize(long nodeCount) {
+        final long numTasks = Math.max(1L, Math.min(concurrency, nodeCount));
+        return Math.max(1L, (nodeCount + numTasks - 1L) / numTasks);
+    }
+
+    /**
+     * Tests the nodes of a range of parent ids in the first run and
+     * assigns their new ids, starting at {@link #firstId}, in the second run.
+     */
+    private static final class FilterTask implements Runnable {
+        private final LongPredicate[] filters;
+        private final LongArray newIds;
+        private final long startId;
+        private final long endId;
+
+        private long nodeCount;
+        private long firstId = -1L;
+
+        private FilterTask(LongPredicate[] filters, LongArray newIds, long startId, long endId) {
+            this.filters = filters;
+            this.newIds = newIds;
+            this.startId = startId;
+            this.endId = endId;
+        }
+
+        @Override
+        public void run() {
+            if (firstId == -1L) {
+                for (long node = startId; node < endId; node++) {
+                    if (accept(node)) {
+                        newIds.set(node, 0L);
+                        nodeCount++;
+                    } else {
+                        newIds.set(node, -1L);
+                    }
+                }
+            } else {
+                long newId = firstId;
+                for (long node = startId; node < endId; node++) {
+                    if (newIds.get(node) != -1L) {
+                        newIds.set(node, newId++);
+                    }
+                }
+            }
+        }
+
+        private boolean accept(long node) {
+            for (LongPredicate filter : filters) {
+                if (!filter.test(node)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Writes the filtered adjacency of a range of new ids. The targets are read
+     * in ascending order of the parent ids, which is also the order of the new ids.
+     */
+    private static final class RewriteTask implements Runnable {
+        private final HugeNodeReordering.Adjacency old;
+        private final LongArray offsets;
+        private final LongArray weightOffsets;
+        private final ByteArray.LocalAllocator allocator;
+        private final DoubleArray.LocalAllocator weightAllocator;
+        private final Direction direction;
+        private final double defaultWeight;
+        private final HugeRelationshipPredicate[] filters;
+        private final LongArray newIds;
+        private final LongArray order;
+        private final long startId;
+        private final long endId;
+
+        private long[] targets = new long[0];
+        private double[] weights = new double[0];
+
+        private RewriteTask(
+                HugeNodeReordering.Adjacency old,
+                HugeNodeReordering.Adjacency rewritten,
+                Direction direction,
+                double defaultWeight,
+                HugeRelationshipPredicate[] filters,
+                LongArray newIds,
+                LongArray order,
+                long startId,
+                long endId) {
+            this.old = old;
+            this.offsets = rewritten.offsets;
+            this.weightOffsets = rewritten.weightOffsets;
+            this.allocator = rewritten.adjacency.newAllocator();
+            this.weightAllocator = rewritten.weights != null ? rewritten.weights.newAllocator() : null;
+            this.direction = direction;
+            this.defaultWeight = defaultWeight;
+            this.filters = filters;
+            this.newIds = newIds;
+            this.order = order;
+            this.startId = startId;
+            this.endId = endId;
+        }
+
+        @Override
+        public void run() {
+            final ByteArray.DeltaCursor cursor = old.adjacency.newCursor();
+            for (long newId = startId; newId < endId; newId++) {
+                final long oldId = order.get(newId);
+                final long offset = old.offsets.get(oldId);
+                if (offset == 0L) {
+                    continue;
+                }
+                final int degree = old.adjacency.getInt(offset);
+                if (targets.length < degree) {
+                    targets = new long[degree];
+                    weights = new double[degree];
+                }
+                final long oldWeightsIdx = old.weights != null ? old.weightOffsets.get(oldId) : 0L;
+                old.adjacency.deltaCursor(cursor, offset);
+                int length = 0;
+                for (int i = 0; i < degree; i++) {
+                    final long target = cursor.getVLong();
+                    final long newTarget = newIds.get(target);
+                    if (newTarget == -1L) {
+                        continue;
+                    }
+                    final double weight = old.weights != null
+                            ? old.weights.get(oldWeightsIdx + i)
+                            : defaultWeight;
+                    if (accept(oldId, target, weight)) {
+                        targets[length] = newTarget;
+                        weights[length++] = weight;
+                    }
+                }
+                if (length == 0) {
+                    continue;
+                }
+
+                offsets.set(newId, allocator.writeTargets(targets, length));
+                if (weightAllocator != null) {
+                    final long weightsIdx = weightAllocator.allocate(length);
+                    weightOffsets.set(newId, weightsIdx);
+                    for (int i = 0; i < length; i++) {
+                        weightAllocator.set(weightsIdx + i, weights[i]);
+                    }
+                }
+            }
+        }
+
+        private boolean accept(long node, long target, double weight) {
+            final long source;
+            if (direction == Direction.BOTH) {
+                // both nodes of an undirected relationship have to make the same decision
+                source = Math.min(node, target);
+                target = Math.max(node, target);
+            } else if (direction == Direction.INCOMING) {
+                source = target;
+                target = node;
+            } else {
+                source = node;
+            }
+            for (HugeRelationshipPredicate filter : filters) {
+                if (!filter.test(source, target, weight)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
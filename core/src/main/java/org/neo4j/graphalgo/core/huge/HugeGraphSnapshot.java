@@ -0,0 +1,182 @@
+package org.neo4j.graphalgo.core.huge;
+
+import org.neo4j.graphalgo.api.HugeGraph;
+import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
+import org.neo4j.graphalgo.core.utils.paged.PagedStorage;
+import org.neo4j.kernel.impl.transaction.log.TransactionIdStore;
+import org.neo4j.kernel.internal.GraphDatabaseAPI;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Saves a {@link HugeGraph} into a file and restores it from there, so that
+ * the graph doesn't have to be loaded from the store again after a restart.
+ * <p>
+ * The file starts with a header of a magic number, the format version,
+ * the id of the last transaction that had been committed when the graph was loaded
+ * and the relationship property that the weights have been loaded from.
+ * It is followed by the id mapping, the default weight, whether the graph is
+ * undirected, the adjacency, offset and weight arrays of both directions
+ * and the node property columns, written page by page.
+ * <p>
+ * A snapshot is stale once another transaction has been committed, as the
+ * graph might have been changed. {@link #read(GraphDatabaseAPI, File, AllocationTracker)}
+ * refuses to restore stale snapshots.
+ */
+public final class HugeGraphSnapshot {
+
+    static final int MAGIC = 0x48475350;
+    static final int VERSION = 5;
+
+    private HugeGraphSnapshot() {
+        throw new UnsupportedOperationException("No instances");
+    }
+
+    /**
+     * @return the id of the last committed transaction of the given database
+     */
+    public static long lastCommittedTransactionId(GraphDatabaseAPI api) {
+        return api.getDependencyResolver()
+                .resolveDependency(TransactionIdStore.class)
+                .getLastCommittedTransactionId();
+    }
+
+    /**
+     * Writes a graph without weights into the given file, replacing any existing file.
+     *
+     * @param transactionId the id of the last transaction that is reflected in the graph
+     */
+    public static void write(
+            HugeGraph graph,
+            File file,
+            long transactionId) throws IOException {
+        write(graph, file, transactionId, null);
+    }
+
+    /**
+     * Writes the graph into the given file, replacing any existing file.
+     * The graph is first written into a temporary file which is then moved in place,
+     * so a failed write doesn't leave a broken snapshot behind.
+     *
+     * @param transactionId the id of the last transaction that is reflected in the graph
+     * @param weightProperty the relationship property of the weights, null if the graph has no weights
+     */
+    public static void write(
+            HugeGraph graph,
+            File file,
+            long transactionId,
+            String weightProperty) throws IOException {
+        if (!(graph instanceof HugeGraphImpl)) {
+            throw new IllegalArgumentException("Only graphs of type 'huge' can be saved");
+        }
+        final Path target = file.toPath();
+        final Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(
+                temp,
+                StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.WRITE)) {
+            PagedStorage.Writer out = PagedStorage.writer(channel);
+            out.writeInt(MAGIC)
+                    .writeInt(VERSION)
+                    .writeLong(transactionId)
+                    // an empty name stands for no weights, as it cannot be a property key
+                    .writeString(weightProperty != null ? weightProperty : "");
+            ((HugeGraphImpl) graph).write(out);
+            out.flush();
+            channel.force(false);
+        }
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * @return the id of the last transaction that is reflected in the snapshot
+     */
+    public static long transactionId(File file) throws IOException {
+        return header(file).transactionId;
+    }
+
+    /**
+     * Reads only the header of the snapshot, without restoring the graph.
+     */
+    public static Header header(File file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            return readHeader(PagedStorage.reader(channel), file);
+        }
+    }
+
+    /**
+     * Restores the graph from the given file if no other transaction
+     * has been committed since the snapshot was written.
+     *
+     * @throws IllegalStateException if the snapshot is stale
+     */
+    public static HugeGraph read(
+            GraphDatabaseAPI api,
+            File file,
+            AllocationTracker tracker) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            final PagedStorage.Reader in = PagedStorage.reader(channel);
+            final long transactionId = readHeader(in, file).transactionId;
+            final long lastTransactionId = lastCommittedTransactionId(api);
+            if (transactionId != lastTransactionId) {
+                throw new IllegalStateException(String.format(
+                        "The snapshot %s is stale, it has been written at transaction %d but the last committed transaction is %d",
+                        file,
+                        transactionId,
+                        lastTransactionId));
+            }
+            return HugeGraphImpl.read(in, tracker);
+        }
+    }
+
+    /**
+     * Restores the graph from the given file without checking whether it is stale.
+     */
+    public static HugeGraph read(
+            File file,
+            AllocationTracker tracker) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            final PagedStorage.Reader in = PagedStorage.reader(channel);
+            readHeader(in, file);
+            return HugeGraphImpl.read(in, tracker);
+        }
+    }
+
+    private static Header readHeader(PagedStorage.Reader in, File file) throws IOException {
+        if (in.readInt() != MAGIC) {
+            throw new IOException("The file " + file + " is not a graph snapshot");
+        }
+        final int version = in.readInt();
+        if (version != VERSION) {
+            throw new IOException(String.format(
+                    "The snapshot %s has version %d, only version %d is supported",
+                    file,
+                    version,
+                    VERSION));
+        }
+        final long transactionId = in.readLong();
+        final String weightProperty = in.readString();
+        return new Header(transactionId, weightProperty.isEmpty() ? null : weightProperty);
+    }
+
+    /**
+     * The values that are written in front of the graph.
+     */
+    public static final class Header {
+        public final long transactionId;
+        // null if the graph has been loaded without weights
+        public final String weightProperty;
+
+        Header(long transactionId, String weightProperty) {
+            this.transactionId = transactionId;
+            this.weightProperty = weightProperty;
+        }
+    }
+}
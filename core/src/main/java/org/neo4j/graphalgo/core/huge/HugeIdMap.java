@@ -7,16 +7,27 @@ import org.neo4j.graphalgo.api.HugeIdMapping;
 import org.neo4j.graphalgo.api.HugeNodeIterator;
 import org.neo4j.graphalgo.core.utils.LazyBatchCollection;
 import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
+import org.apache.lucene.util.ArrayUtil;
 import org.neo4j.graphalgo.core.utils.paged.LongArray;
+import org.neo4j.graphalgo.core.utils.paged.MemoryUsage;
 import org.neo4j.graphalgo.core.utils.paged.PageUtil;
+import org.neo4j.graphalgo.core.utils.paged.PagedStorage;
 import org.neo4j.graphalgo.core.utils.paged.SparseLongArray;
 
+import java.io.IOException;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.function.LongPredicate;
 
 /**
  * This is basically a long to int mapper. It sorts the id's in ascending order so its
  * guaranteed that there is no ID greater then nextGraphId / capacity
+ * <p>
+ * Ids that have been added in ascending order with only a few gaps are stored
+ * as runs of consecutive ids instead of two arrays with an entry for every node.
+ * A single run, e.g. when all nodes of the database are loaded, is an identity
+ * or offset mapping and doesn't need any lookup. Otherwise the run of an id is
+ * found with a binary search.
  */
 public final class HugeIdMap implements HugeIdMapping, HugeNodeIterator, HugeBatchNodeIterable {
 
@@ -25,10 +36,21 @@ public final class HugeIdMap implements HugeIdMapping, HugeNodeIterator, HugeBat
     // page size to use when loading nodes in parallel
     static final int PAGE_SIZE = PageUtil.pageSizeFor(Long.BYTES);
 
+    // runs are only used if they have this many ids on average
+    static final int MIN_RUN_LENGTH = 16;
+    // upper bound for the number of runs, the runs are stored in plain arrays
+    private static final int MAX_RUNS = 1 << 24;
+
     private long nextGraphId;
     private LongArray graphIds;
     private SparseLongArray nodeToGraphIds;
 
+    // the original id and the graph id of the first node of every run, null if the arrays are used
+    private long[] runStarts;
+    private long[] runOffsets;
+    // the original id of graph id 0, used if there is a single run
+    private long offset;
+
     /**
      * initialize the map with maximum node capacity
      */
@@ -46,6 +68,106 @@ public final class HugeIdMap implements HugeIdMapping, HugeNodeIterator, HugeBat
         nodeToGraphIds = sparseOriginalMap;
     }
 
+    private HugeIdMap(long capacity, long[] runStarts, long[] runOffsets) {
+        nextGraphId = capacity;
+        this.runStarts = runStarts;
+        this.runOffsets = runOffsets;
+        offset = runStarts.length > 0 ? runStarts[0] : 0L;
+    }
+
+    static HugeIdMap read(PagedStorage.Reader in, AllocationTracker tracker) throws IOException {
+        long nodeCount = in.readLong();
+        int runs = in.readInt();
+        if (runs >= 0) {
+            long[] runStarts = new long[runs];
+            long[] runOffsets = new long[runs];
+            for (int i = 0; i < runs; i++) {
+                runStarts[i] = in.readLong();
+                runOffsets[i] = in.readLong();
+            }
+            tracker.add(MemoryUsage.sizeOfLongArray(runs) << 1);
+            return new HugeIdMap(nodeCount, runStarts, runOffsets);
+        }
+        LongArray graphIds = in.readLongArray(tracker);
+        SparseLongArray nodeToGraphIds = in.readSparseLongArray(tracker);
+        return new HugeIdMap(nodeCount, graphIds, nodeToGraphIds);
+    }
+
+    /**
+     * Writes the number of runs, or -1 if the arrays are used, followed by either of them.
+     */
+    void write(PagedStorage.Writer out) throws IOException {
+        out.writeLong(nextGraphId);
+        if (runStarts != null) {
+            out.writeInt(runStarts.length);
+            for (int i = 0; i < runStarts.length; i++) {
+                out.writeLong(runStarts[i]).writeLong(runOffsets[i]);
+            }
+            return;
+        }
+        out.writeInt(-1)
+                .write(graphIds)
+                .write(nodeToGraphIds);
+    }
+
+    /**
+     * @return whether the ids are stored as runs of consecutive ids
+     */
+    boolean isRunLength() {
+        return runStarts != null;
+    }
+
+    /**
+     * Returns the map for the new ids of the nodes, {@code newIds} maps every old id to the new one.
+     * The mapping of the neo4j ids is overwritten, so this map must not be used afterwards.
+     */
+    HugeIdMap relabel(LongArray newIds, AllocationTracker tracker) {
+        final long nodeCount = nodeCount();
+        LongArray newGraphIds = LongArray.newArray(nodeCount, tracker);
+        // the new order can not be expressed as runs
+        SparseLongArray nodeToGraphIds = this.nodeToGraphIds != null
+                ? this.nodeToGraphIds
+                : SparseLongArray.newArray(nodeCount > 0L ? toOriginalNodeId(nodeCount - 1L) + 1L : 0L, tracker);
+        for (long node = 0L; node < nodeCount; node++) {
+            long originalId = toOriginalNodeId(node);
+            newGraphIds.set(newIds.get(node), originalId);
+            nodeToGraphIds.set(originalId, newIds.get(node));
+        }
+        if (graphIds != null) {
+            tracker.remove(graphIds.release());
+        } else {
+            tracker.remove(MemoryUsage.sizeOfLongArray(runStarts.length) << 1);
+        }
+        return new HugeIdMap(nodeCount, newGraphIds, nodeToGraphIds);
+    }
+
+    /**
+     * Returns the map of a subset of the nodes, {@code order} contains the ids of this map
+     * in the order of the new ids. The ids are stored as runs if the subset allows it,
+     * this map is not changed and can still be used afterwards.
+     */
+    HugeIdMap project(LongArray order, long nodeCount, AllocationTracker tracker) {
+        RunBuilder runs = new RunBuilder(nodeCount);
+        long maxOriginalId = -1L;
+        boolean asRuns = true;
+        for (long node = 0L; node < nodeCount; node++) {
+            long originalId = toOriginalNodeId(order.get(node));
+            maxOriginalId = Math.max(maxOriginalId, originalId);
+            asRuns = asRuns && runs.add(originalId);
+        }
+        if (asRuns) {
+            return runs.build(tracker);
+        }
+        LongArray newGraphIds = LongArray.newArray(nodeCount, tracker);
+        SparseLongArray newNodeToGraphIds = SparseLongArray.newArray(maxOriginalId + 1L, tracker);
+        for (long node = 0L; node < nodeCount; node++) {
+            long originalId = toOriginalNodeId(order.get(node));
+            newGraphIds.set(node, originalId);
+            newNodeToGraphIds.set(originalId, node);
+        }
+        return new HugeIdMap(nodeCount, newGraphIds, newNodeToGraphIds);
+    }
+
     void add(long longValue) {
         long internalId = nextGraphId++;
         nodeToGraphIds.set(longValue, internalId);
@@ -54,19 +176,73 @@ public final class HugeIdMap implements HugeIdMapping, HugeNodeIterator, HugeBat
 
     @Override
     public long toHugeMappedNodeId(long nodeId) {
+        if (runStarts != null) {
+            return runsToGraphId(nodeId);
+        }
         return nodeToGraphIds.get(nodeId);
     }
 
+    /**
+     * Like {@link #toHugeMappedNodeId(long)}, but safe for arbitrary ids, e.g. those returned
+     * by a cypher statement: returns {@link #NOT_FOUND} if the id is out of range or
+     * has not been added, even if it shares a page with an added id.
+     */
+    long toHugeMappedNodeIdIfPresent(long nodeId) {
+        if (runStarts != null) {
+            return runsToGraphId(nodeId);
+        }
+        if (nodeId < 0L || nodeId >= nodeToGraphIds.capacity()) {
+            return NOT_FOUND;
+        }
+        long graphId = nodeToGraphIds.get(nodeId);
+        if (graphId == NOT_FOUND || graphId >= nextGraphId || graphIds.get(graphId) != nodeId) {
+            return NOT_FOUND;
+        }
+        return graphId;
+    }
+
     @Override
     public long toOriginalNodeId(long nodeId) {
+        if (runStarts != null) {
+            if (runStarts.length == 1) {
+                return nodeId + offset;
+            }
+            int run = findRun(runOffsets, nodeId);
+            return runStarts[run] + nodeId - runOffsets[run];
+        }
         return graphIds.get(nodeId);
     }
 
     @Override
     public boolean contains(final long nodeId) {
+        if (runStarts != null) {
+            return runsToGraphId(nodeId) != NOT_FOUND;
+        }
         return nodeToGraphIds.contains(nodeId);
     }
 
+    private long runsToGraphId(long nodeId) {
+        if (runStarts.length == 1) {
+            long graphId = nodeId - offset;
+            return graphId >= 0L && graphId < nextGraphId ? graphId : NOT_FOUND;
+        }
+        int run = findRun(runStarts, nodeId);
+        if (run < 0) {
+            return NOT_FOUND;
+        }
+        long graphId = runOffsets[run] + nodeId - runStarts[run];
+        long runEnd = run + 1 < runOffsets.length ? runOffsets[run + 1] : nextGraphId;
+        return graphId < runEnd ? graphId : NOT_FOUND;
+    }
+
+    /**
+     * @return the index of the last run that starts at or before the id, or -1 if there is none
+     */
+    private static int findRun(long[] starts, long id) {
+        int run = Arrays.binarySearch(starts, id);
+        return run >= 0 ? run : -run - 2;
+    }
+
     @Override
     public long nodeCount() {
         return nextGraphId;
@@ -95,6 +271,73 @@ public final class HugeIdMap implements HugeIdMapping, HugeNodeIterator, HugeBat
                 IdIterable::new);
     }
 
+    /**
+     * Collects ids as runs of consecutive ids as long as they are added
+     * in ascending order and there are not too many runs.
+     */
+    static final class RunBuilder {
+        private final long maxRuns;
+        private long[] runStarts = new long[1];
+        private long[] runOffsets = new long[1];
+        private int runs;
+        private long nodeCount;
+        private long nextId = -1L;
+
+        RunBuilder(long expectedNodeCount) {
+            this.maxRuns = Math.max(1L, Math.min(expectedNodeCount / MIN_RUN_LENGTH, MAX_RUNS));
+        }
+
+        /**
+         * @return false if the id can not be added to the runs, the builder must not be used afterwards
+         */
+        boolean add(long nodeId) {
+            return addRun(nodeId, 1L);
+        }
+
+        /**
+         * Adds the runs of a builder that has collected the ids following the ids of this builder.
+         *
+         * @return false if the runs can not be added, the builder must not be used afterwards
+         */
+        boolean append(RunBuilder other) {
+            for (int i = 0; i < other.runs; i++) {
+                long runEnd = i + 1 < other.runs ? other.runOffsets[i + 1] : other.nodeCount;
+                if (!addRun(other.runStarts[i], runEnd - other.runOffsets[i])) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private boolean addRun(long start, long length) {
+            if (start != nextId) {
+                if (start < nextId || runs == maxRuns) {
+                    return false;
+                }
+                if (runs == runStarts.length) {
+                    runStarts = ArrayUtil.grow(runStarts, runs + 1);
+                    runOffsets = ArrayUtil.grow(runOffsets, runs + 1);
+                }
+                runStarts[runs] = start;
+                runOffsets[runs++] = nodeCount;
+            }
+            nextId = start + length;
+            nodeCount += length;
+            return true;
+        }
+
+        long nodeCount() {
+            return nodeCount;
+        }
+
+        HugeIdMap build(AllocationTracker tracker) {
+            long[] runStarts = Arrays.copyOf(this.runStarts, runs);
+            long[] runOffsets = Arrays.copyOf(this.runOffsets, runs);
+            tracker.add(MemoryUsage.sizeOfLongArray(runs) << 1);
+            return new HugeIdMap(nodeCount, runStarts, runOffsets);
+        }
+    }
+
     private static final class IdIterable implements PrimitiveLongIterable {
         private final long start;
         private final long length;
@@ -2,19 +2,50 @@ package org.neo4j.graphalgo.core.huge;
 
 import org.neo4j.collection.primitive.PrimitiveLongIterator;
 import org.neo4j.graphalgo.core.utils.ImportProgress;
+import org.neo4j.graphalgo.core.utils.ParallelUtil;
 import org.neo4j.graphalgo.core.utils.StatementTask;
 import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
+import org.neo4j.graphalgo.core.utils.paged.LongArray;
+import org.neo4j.graphalgo.core.utils.paged.SparseLongArray;
 import org.neo4j.kernel.api.ReadOperations;
 import org.neo4j.kernel.api.Statement;
 import org.neo4j.kernel.api.exceptions.EntityNotFoundException;
+import org.neo4j.kernel.impl.store.id.IdGeneratorFactory;
+import org.neo4j.kernel.impl.store.id.IdType;
 import org.neo4j.kernel.internal.GraphDatabaseAPI;
 
-public final class HugeNodeImporter extends StatementTask<HugeIdMap, EntityNotFoundException> {
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Loads the {@link HugeIdMap} of all nodes or the nodes with a label.
+ * <p>
+ * The range of node ids is split into batches that are scanned in parallel.
+ * Every batch counts its nodes and collects them as runs of consecutive ids.
+ * A prefix sum over the counts gives the first graph id of every batch, so
+ * the graph ids follow the order of the node ids. If the runs are dense
+ * enough they become the mapping, otherwise every batch is scanned again and
+ * writes the ids of its range into the mapping arrays. The batches are
+ * aligned to the pages of the {@link SparseLongArray}, so every page is only
+ * populated by a single batch.
+ * <p>
+ * A label that only few nodes have is read from the label scan store
+ * on a single thread, instead of checking every node of the store.
+ */
+public final class HugeNodeImporter {
+
+    // the label scan store is used if less than one of this many nodes has the label
+    private static final int LABEL_SCAN_FACTOR = 8;
+
+    private final GraphDatabaseAPI api;
     private final AllocationTracker tracker;
     private final ImportProgress progress;
     private final long nodeCount;
     private final long allNodesCount;
     private final int labelId;
+    private final int concurrency;
+    private final ExecutorService threadPool;
 
     public HugeNodeImporter(
             GraphDatabaseAPI api,
@@ -22,27 +53,202 @@ public final class HugeNodeImporter extends StatementTask<HugeIdMap, EntityNotFo
             ImportProgress progress,
             long nodeCount,
             long allNodesCount,
-            int labelId) {
-        super(api);
+            int labelId,
+            int concurrency,
+            ExecutorService threadPool) {
+        this.api = api;
         this.tracker = tracker;
         this.progress = progress;
         this.nodeCount = nodeCount;
         this.allNodesCount = allNodesCount;
         this.labelId = labelId;
+        this.concurrency = concurrency;
+        this.threadPool = threadPool;
     }
 
-    @Override
-    public HugeIdMap apply(final Statement statement) throws EntityNotFoundException {
-        final HugeIdMap mapping = new HugeIdMap(nodeCount, allNodesCount, tracker);
-        final ReadOperations readOp = statement.readOperations();
-        final PrimitiveLongIterator nodeIds = labelId == ReadOperations.ANY_LABEL
-                ? readOp.nodesGetAll()
-                : readOp.nodesGetForLabel(labelId);
-        while (nodeIds.hasNext()) {
-            mapping.add(nodeIds.next());
-            progress.nodeProgress();
+    public HugeIdMap call() throws EntityNotFoundException {
+        final long highId = Math.max(allNodesCount, api.getDependencyResolver()
+                .resolveDependency(IdGeneratorFactory.class)
+                .get(IdType.NODE)
+                .getHighId());
+        final HugeIdMap mapping;
+        if (labelId != ReadOperations.ANY_LABEL && nodeCount * LABEL_SCAN_FACTOR < highId) {
+            mapping = new LabelScanTask(highId).call();
+        } else {
+            mapping = scanParallel(highId);
         }
         progress.resetForRelationships();
         return mapping;
     }
+
+    private HugeIdMap scanParallel(long highId) {
+        final long batchSize = alignToPage(ParallelUtil.adjustBatchSize(
+                highId,
+                concurrency,
+                (long) HugeIdMap.PAGE_SIZE));
+        final List<ScanTask> tasks = new ArrayList<>();
+        for (long start = 0L; start < highId; start += batchSize) {
+            tasks.add(new ScanTask(start, Math.min(highId, start + batchSize)));
+        }
+        ParallelUtil.run(tasks, threadPool);
+
+        // the prefix sum of the counts is the first graph id of every batch
+        long nodes = 0L;
+        for (ScanTask task : tasks) {
+            task.graphIdOffset = nodes;
+            nodes += task.count;
+        }
+        HugeIdMap.RunBuilder runs = new HugeIdMap.RunBuilder(nodes);
+        boolean dense = true;
+        for (ScanTask task : tasks) {
+            if (task.runs == null || !runs.append(task.runs)) {
+                dense = false;
+                break;
+            }
+        }
+        if (dense) {
+            return runs.build(tracker);
+        }
+
+        final LongArray graphIds = LongArray.newArray(nodes, tracker);
+        final SparseLongArray nodeToGraphIds = SparseLongArray.newArray(highId, tracker);
+        final List<FillTask> fillTasks = new ArrayList<>(tasks.size());
+        for (ScanTask task : tasks) {
+            fillTasks.add(new FillTask(task, graphIds, nodeToGraphIds));
+        }
+        ParallelUtil.run(fillTasks, threadPool);
+        return new HugeIdMap(nodes, graphIds, nodeToGraphIds);
+    }
+
+    private static long alignToPage(long batchSize) {
+        final long pageMask = HugeIdMap.PAGE_SIZE - 1L;
+        return (batchSize + pageMask) & ~pageMask;
+    }
+
+    private boolean isImported(ReadOperations readOp, long nodeId) throws EntityNotFoundException {
+        return readOp.nodeExists(nodeId) &&
+                (labelId == ReadOperations.ANY_LABEL || readOp.nodeHasLabel(nodeId, labelId));
+    }
+
+    /**
+     * Counts the nodes of a range of node ids and collects them as runs.
+     */
+    private final class ScanTask extends StatementTask<Void, EntityNotFoundException> {
+        private final long start;
+        private final long end;
+        private HugeIdMap.RunBuilder runs;
+        private long count;
+        private long graphIdOffset;
+
+        private ScanTask(long start, long end) {
+            super(HugeNodeImporter.this.api);
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        public String threadName() {
+            return "HugeNodeImport-" + start;
+        }
+
+        @Override
+        public Void apply(final Statement statement) throws EntityNotFoundException {
+            final ReadOperations readOp = statement.readOperations();
+            // the runs of a batch are limited by its share of the id range
+            HugeIdMap.RunBuilder runs = new HugeIdMap.RunBuilder(end - start);
+            long count = 0L;
+            for (long nodeId = start; nodeId < end; nodeId++) {
+                if (isImported(readOp, nodeId)) {
+                    if (runs != null && !runs.add(nodeId)) {
+                        runs = null;
+                    }
+                    count++;
+                    progress.nodeProgress();
+                }
+            }
+            this.runs = runs;
+            this.count = count;
+            return null;
+        }
+    }
+
+    /**
+     * Writes the graph ids of the nodes that have been counted by a {@link ScanTask}.
+     */
+    private final class FillTask extends StatementTask<Void, EntityNotFoundException> {
+        private final ScanTask scan;
+        private final LongArray graphIds;
+        private final SparseLongArray nodeToGraphIds;
+
+        private FillTask(ScanTask scan, LongArray graphIds, SparseLongArray nodeToGraphIds) {
+            super(HugeNodeImporter.this.api);
+            this.scan = scan;
+            this.graphIds = graphIds;
+            this.nodeToGraphIds = nodeToGraphIds;
+        }
+
+        @Override
+        public String threadName() {
+            return "HugeNodeImport-" + scan.start;
+        }
+
+        @Override
+        public Void apply(final Statement statement) throws EntityNotFoundException {
+            final ReadOperations readOp = statement.readOperations();
+            long graphId = scan.graphIdOffset;
+            // nodes that have been created after the scan don't fit into the range of the batch
+            final long end = graphId + scan.count;
+            for (long nodeId = scan.start; nodeId < scan.end && graphId < end; nodeId++) {
+                if (isImported(readOp, nodeId)) {
+                    graphIds.set(graphId, nodeId);
+                    nodeToGraphIds.set(nodeId, graphId++);
+                }
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Reads the nodes from the label scan store. The ids are first collected
+     * as runs, only if there are too many runs, they are read again into
+     * a full mapping.
+     */
+    private final class LabelScanTask extends StatementTask<HugeIdMap, EntityNotFoundException> {
+        private final long highId;
+
+        private LabelScanTask(long highId) {
+            super(HugeNodeImporter.this.api);
+            this.highId = highId;
+        }
+
+        @Override
+        public HugeIdMap apply(final Statement statement) throws EntityNotFoundException {
+            final ReadOperations readOp = statement.readOperations();
+            final HugeIdMap.RunBuilder runs = new HugeIdMap.RunBuilder(nodeCount);
+            PrimitiveLongIterator nodeIds = readOp.nodesGetForLabel(labelId);
+            boolean dense = true;
+            while (nodeIds.hasNext()) {
+                if (!runs.add(nodeIds.next())) {
+                    dense = false;
+                    break;
+                }
+                progress.nodeProgress();
+            }
+            if (dense) {
+                return runs.build(tracker);
+            }
+            final HugeIdMap mapping = new HugeIdMap(nodeCount, highId, tracker);
+            // the nodes that have been read into the runs are already part of the progress
+            final long reported = runs.nodeCount();
+            long added = 0L;
+            nodeIds = readOp.nodesGetForLabel(labelId);
+            while (nodeIds.hasNext()) {
+                mapping.add(nodeIds.next());
+                if (++added > reported) {
+                    progress.nodeProgress();
+                }
+            }
+            return mapping;
+        }
+    }
 }
@@ -0,0 +1,203 @@
+package org.neo4j.graphalgo.core.huge;
+
+import org.neo4j.collection.primitive.PrimitiveLongIterable;
+import org.neo4j.collection.primitive.PrimitiveLongIterator;
+import org.neo4j.graphalgo.api.GraphSetup;
+import org.neo4j.graphalgo.api.NodePropertyMapping;
+import org.neo4j.graphalgo.core.GraphDimensions;
+import org.neo4j.graphalgo.core.utils.ParallelUtil;
+import org.neo4j.graphalgo.core.utils.RawValues;
+import org.neo4j.graphalgo.core.utils.StatementTask;
+import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
+import org.neo4j.graphalgo.core.utils.paged.DoubleArray;
+import org.neo4j.graphalgo.core.utils.paged.LongArray;
+import org.neo4j.kernel.api.ReadOperations;
+import org.neo4j.kernel.api.Statement;
+import org.neo4j.kernel.api.StatementConstants;
+import org.neo4j.kernel.api.exceptions.EntityNotFoundException;
+import org.neo4j.kernel.internal.GraphDatabaseAPI;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Loads the node weights, the node values and the node property columns of a
+ * {@link GraphSetup} into a {@link HugeNodePropertyStore}.
+ * <p>
+ * The columns are indexed by the internal ids of the final {@link HugeIdMap},
+ * so the properties are loaded after the nodes have been reordered.
+ * Every batch of nodes reads the properties of its nodes into all columns at once.
+ * Properties that don't exist in the store are not read, their columns only
+ * contain the default value.
+ */
+final class HugeNodePropertyImporter {
+
+    private final GraphDatabaseAPI api;
+    private final GraphSetup setup;
+    private final GraphDimensions dimensions;
+    private final HugeIdMap idMap;
+    private final AllocationTracker tracker;
+
+    HugeNodePropertyImporter(
+            GraphDatabaseAPI api,
+            GraphSetup setup,
+            GraphDimensions dimensions,
+            HugeIdMap idMap,
+            AllocationTracker tracker) {
+        this.api = api;
+        this.setup = setup;
+        this.dimensions = dimensions;
+        this.idMap = idMap;
+        this.tracker = tracker;
+    }
+
+    HugeNodePropertyStore load(int concurrency, int batchSize, ExecutorService threadPool) {
+        final long nodeCount = idMap.nodeCount();
+        final List<Column> columns = new ArrayList<>();
+        DoubleArray nodeWeights = null;
+        if (dimensions.nodeWeightId() != StatementConstants.NO_SUCH_PROPERTY_KEY) {
+            nodeWeights = DoubleArray.newArray(nodeCount, tracker);
+            nodeWeights.fill(setup.nodeDefaultWeight);
+            columns.add(new DoubleColumn(dimensions.nodeWeightId(), nodeWeights, setup.nodeDefaultWeight));
+        }
+        DoubleArray nodeValues = null;
+        if (dimensions.nodePropId() != StatementConstants.NO_SUCH_PROPERTY_KEY) {
+            // the caller provides the default value of nodes without a value
+            nodeValues = DoubleArray.newArray(nodeCount, tracker);
+            nodeValues.fill(Double.NaN);
+            columns.add(new DoubleColumn(dimensions.nodePropId(), nodeValues, Double.NaN));
+        }
+
+        final Set<String> keys = new LinkedHashSet<>();
+        final Map<String, DoubleArray> doubleColumns = new LinkedHashMap<>();
+        final Map<String, LongArray> longColumns = new LinkedHashMap<>();
+        final Map<String, Double> doubleDefaults = new LinkedHashMap<>();
+        final Map<String, Long> longDefaults = new LinkedHashMap<>();
+        if (setup.loadNodePropertyColumns()) {
+            final int[] propertyIds = dimensions.nodePropertyIds();
+            for (int i = 0; i < propertyIds.length; i++) {
+                NodePropertyMapping mapping = setup.nodePropertyMappings[i];
+                keys.add(mapping.propertyKey);
+                if (mapping.type == NodePropertyMapping.Type.LONG) {
+                    LongArray column = LongArray.newArray(nodeCount, tracker);
+                    column.fill(mapping.defaultLong);
+                    longColumns.put(mapping.propertyKey, column);
+                    longDefaults.put(mapping.propertyKey, mapping.defaultLong);
+                    if (propertyIds[i] != StatementConstants.NO_SUCH_PROPERTY_KEY) {
+                        columns.add(new LongColumn(propertyIds[i], column, mapping.defaultLong));
+                    }
+                } else {
+                    DoubleArray column = DoubleArray.newArray(nodeCount, tracker);
+                    column.fill(mapping.defaultDouble);
+                    doubleColumns.put(mapping.propertyKey, column);
+                    doubleDefaults.put(mapping.propertyKey, mapping.defaultDouble);
+                    if (propertyIds[i] != StatementConstants.NO_SUCH_PROPERTY_KEY) {
+                        columns.add(new DoubleColumn(propertyIds[i], column, mapping.defaultDouble));
+                    }
+                }
+            }
+        }
+
+        if (!columns.isEmpty()) {
+            final Column[] readColumns = columns.toArray(new Column[0]);
+            ParallelUtil.readParallel(
+                    concurrency,
+                    batchSize,
+                    idMap,
+                    (offset, nodeIds) -> new PropertyTask(nodeIds, readColumns),
+                    threadPool);
+        }
+        return new HugeNodePropertyStore(
+                setup.nodeDefaultWeight,
+                nodeWeights,
+                nodeValues,
+                doubleColumns,
+                longColumns,
+                doubleDefaults,
+                longDefaults,
+                keys);
+    }
+
+    /**
+     * Reads the properties of a batch of nodes into all columns.
+     */
+    private final class PropertyTask extends StatementTask<Void, EntityNotFoundException> {
+        private final PrimitiveLongIterable nodes;
+        private final Column[] columns;
+
+        private PropertyTask(PrimitiveLongIterable nodes, Column[] columns) {
+            super(HugeNodePropertyImporter.this.api);
+            this.nodes = nodes;
+            this.columns = columns;
+        }
+
+        @Override
+        public String threadName() {
+            return "HugeNodePropertyImport";
+        }
+
+        @Override
+        public Void apply(final Statement statement) throws EntityNotFoundException {
+            final ReadOperations readOp = statement.readOperations();
+            final PrimitiveLongIterator iterator = nodes.iterator();
+            while (iterator.hasNext()) {
+                final long node = iterator.next();
+                final long neoId = idMap.toOriginalNodeId(node);
+                for (Column column : columns) {
+                    Object value = readOp.nodeGetProperty(neoId, column.propertyId);
+                    if (value != null) {
+                        column.set(node, value);
+                    }
+                }
+            }
+            return null;
+        }
+    }
+
+    private abstract static class Column {
+        final int propertyId;
+
+        Column(int propertyId) {
+            this.propertyId = propertyId;
+        }
+
+        abstract void set(long node, Object value);
+    }
+
+    private static final class DoubleColumn extends Column {
+        private final DoubleArray array;
+        private final double defaultValue;
+
+        DoubleColumn(int propertyId, DoubleArray array, double defaultValue) {
+            super(propertyId);
+            this.array = array;
+            this.defaultValue = defaultValue;
+        }
+
+        @Override
+        void set(long node, Object value) {
+            array.set(node, RawValues.extractValue(value, defaultValue));
+        }
+    }
+
+    private static final class LongColumn extends Column {
+        private final LongArray array;
+        private final long defaultValue;
+
+        LongColumn(int propertyId, LongArray array, long defaultValue) {
+            super(propertyId);
+            this.array = array;
+            this.defaultValue = defaultValue;
+        }
+
+        @Override
+        void set(long node, Object value) {
+            array.set(node, value instanceof Number ? ((Number) value).longValue() : defaultValue);
+        }
+    }
+}
@@ -0,0 +1,226 @@
+package org.neo4j.graphalgo.core.huge;
+
+import org.neo4j.graphalgo.api.HugeNodeProperties;
+import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
+import org.neo4j.graphalgo.core.utils.paged.DoubleArray;
+import org.neo4j.graphalgo.core.utils.paged.LongArray;
+import org.neo4j.graphalgo.core.utils.paged.PagedStorage;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The node properties of a {@link HugeGraphImpl}, stored in a column per
+ * property that is indexed by the internal node id.
+ * <p>
+ * The node weights and node values of the {@link org.neo4j.graphalgo.api.GraphSetup}
+ * have a column of their own. The weights of nodes without a weight are the default
+ * weight, the values of nodes without a value are {@code NaN}, so that the caller
+ * of {@link #nodeValue(long, double)} can provide the default value.
+ * If no weights or values are loaded, there is no column at all.
+ * <p>
+ * Nodes that have been added after the import, see {@link IncrementalHugeGraph},
+ * are not part of the columns and have the default values.
+ * <p>
+ * All graphs with the same {@link HugeIdMap} share the same store.
+ */
+final class HugeNodePropertyStore {
+
+    private final double defaultWeight;
+    private final Map<String, DoubleArray> doubleColumns;
+    private final Map<String, LongArray> longColumns;
+    private final Map<String, Double> doubleDefaults;
+    private final Map<String, Long> longDefaults;
+    private final Set<String> keys;
+    private DoubleArray nodeWeights;
+    private DoubleArray nodeValues;
+
+    HugeNodePropertyStore(
+            double defaultWeight,
+            DoubleArray nodeWeights,
+            DoubleArray nodeValues,
+            Map<String, DoubleArray> doubleColumns,
+            Map<String, LongArray> longColumns,
+            Map<String, Double> doubleDefaults,
+            Map<String, Long> longDefaults,
+            Set<String> keys) {
+        this.defaultWeight = defaultWeight;
+        this.nodeWeights = nodeWeights;
+        this.nodeValues = nodeValues;
+        this.doubleColumns = doubleColumns;
+        this.longColumns = longColumns;
+        this.doubleDefaults = doubleDefaults;
+        this.longDefaults = longDefaults;
+        this.keys = keys;
+    }
+
+    static HugeNodePropertyStore empty(double defaultWeight) {
+        return new HugeNodePropertyStore(
+                defaultWeight,
+                null,
+                null,
+                new LinkedHashMap<>(),
+                new LinkedHashMap<>(),
+                new LinkedHashMap<>(),
+                new LinkedHashMap<>(),
+                new LinkedHashSet<>());
+    }
+
+    static HugeNodePropertyStore read(PagedStorage.Reader in, AllocationTracker tracker) throws IOException {
+        double defaultWeight = in.readDouble();
+        DoubleArray nodeWeights = in.readDoubleArray(tracker);
+        DoubleArray nodeValues = in.readDoubleArray(tracker);
+        Set<String> keys = new LinkedHashSet<>();
+        Map<String, DoubleArray> doubleColumns = new LinkedHashMap<>();
+        Map<String, Double> doubleDefaults = new LinkedHashMap<>();
+        for (int i = in.readInt(); i > 0; i--) {
+            String key = in.readString();
+            keys.add(key);
+            doubleDefaults.put(key, in.readDouble());
+            doubleColumns.put(key, in.readDoubleArray(tracker));
+        }
+        Map<String, LongArray> longColumns = new LinkedHashMap<>();
+        Map<String, Long> longDefaults = new LinkedHashMap<>();
+        for (int i = in.readInt(); i > 0; i--) {
+            String key = in.readString();
+            keys.add(key);
+            longDefaults.put(key, in.readLong());
+            longColumns.put(key, in.readLongArray(tracker));
+        }
+        return new HugeNodePropertyStore(
+                defaultWeight,
+                nodeWeights,
+                nodeValues,
+                doubleColumns,
+                longColumns,
+                doubleDefaults,
+                longDefaults,
+                keys);
+    }
+
+    /**
+     * Returns a store with the properties of a subset of the nodes, {@code order}
+     * contains the ids of this store in the order of the new ids.
+     */
+    HugeNodePropertyStore project(LongArray order, long nodeCount, AllocationTracker tracker) {
+        Map<String, DoubleArray> newDoubleColumns = new LinkedHashMap<>();
+        for (Map.Entry<String, DoubleArray> column : doubleColumns.entrySet()) {
+            newDoubleColumns.put(column.getKey(), project(column.getValue(), order, nodeCount, tracker));
+        }
+        Map<String, LongArray> newLongColumns = new LinkedHashMap<>();
+        for (Map.Entry<String, LongArray> column : longColumns.entrySet()) {
+            LongArray values = column.getValue();
+            LongArray projected = LongArray.newArray(nodeCount, tracker);
+            for (long node = 0L; node < nodeCount; node++) {
+                projected.set(node, values.get(order.get(node)));
+            }
+            newLongColumns.put(column.getKey(), projected);
+        }
+        return new HugeNodePropertyStore(
+                defaultWeight,
+                project(nodeWeights, order, nodeCount, tracker),
+                project(nodeValues, order, nodeCount, tracker),
+                newDoubleColumns,
+                newLongColumns,
+                new LinkedHashMap<>(doubleDefaults),
+                new LinkedHashMap<>(longDefaults),
+                new LinkedHashSet<>(keys));
+    }
+
+    private static DoubleArray project(DoubleArray values, LongArray order, long nodeCount, AllocationTracker tracker) {
+        if (values == null) {
+            return null;
+        }
+        DoubleArray projected = DoubleArray.newArray(nodeCount, tracker);
+        for (long node = 0L; node < nodeCount; node++) {
+            projected.set(node, values.get(order.get(node)));
+        }
+        return projected;
+    }
+
+    /**
+     * Writes the store in the order that is expected by {@link #read(PagedStorage.Reader, AllocationTracker)}.
+     * The order of the keys between double and long columns is not preserved.
+     */
+    void write(PagedStorage.Writer out) throws IOException {
+        out.writeDouble(defaultWeight)
+                .write(nodeWeights)
+                .write(nodeValues)
+                .writeInt(doubleColumns.size());
+        for (Map.Entry<String, DoubleArray> column : doubleColumns.entrySet()) {
+            out.writeString(column.getKey())
+                    .writeDouble(doubleDefaults.get(column.getKey()))
+                    .write(column.getValue());
+        }
+        out.writeInt(longColumns.size());
+        for (Map.Entry<String, LongArray> column : longColumns.entrySet()) {
+            out.writeString(column.getKey())
+                    .writeLong(longDefaults.get(column.getKey()))
+                    .write(column.getValue());
+        }
+    }
+
+    Set<String> keys() {
+        return Collections.unmodifiableSet(keys);
+    }
+
+    HugeNodeProperties.DoubleProperty doubleProperty(String propertyKey) {
+        DoubleArray column = doubleColumns.get(propertyKey);
+        if (column == null) {
+            throw new IllegalArgumentException("Node property '" + propertyKey + "' has not been loaded as double property");
+        }
+        final double defaultValue = doubleDefaults.get(propertyKey);
+        final long size = column.size();
+        return nodeId -> nodeId < size ? column.get(nodeId) : defaultValue;
+    }
+
+    HugeNodeProperties.LongProperty longProperty(String propertyKey) {
+        LongArray column = longColumns.get(propertyKey);
+        if (column == null) {
+            throw new IllegalArgumentException("Node property '" + propertyKey + "' has not been loaded as long property");
+        }
+        final long defaultValue = longDefaults.get(propertyKey);
+        final long size = column.size();
+        return nodeId -> nodeId < size ? column.get(nodeId) : defaultValue;
+    }
+
+    double nodeWeight(long nodeId) {
+        return nodeWeights != null && nodeId < nodeWeights.size() ? nodeWeights.get(nodeId) : defaultWeight;
+    }
+
+    double nodeValue(long nodeId, double defaultValue) {
+        if (nodeValues == null || nodeId >= nodeValues.size()) {
+            return defaultValue;
+        }
+        double value = nodeValues.get(nodeId);
+        return Double.isNaN(value) ? defaultValue : value;
+    }
+
+    /**
+     * Releases all columns, the store is empty afterwards.
+     * The store might be shared, so releasing it again does nothing.
+     */
+    void release(AllocationTracker tracker) {
+        if (nodeWeights != null) {
+            tracker.remove(nodeWeights.release());
+            nodeWeights = null;
+        }
+        if (nodeValues != null) {
+            tracker.remove(nodeValues.release());
+            nodeValues = null;
+        }
+        for (DoubleArray column : doubleColumns.values()) {
+            tracker.remove(column.release());
+        }
+        for (LongArray column : longColumns.values()) {
+            tracker.remove(column.release());
+        }
+        doubleColumns.clear();
+        longColumns.clear();
+        keys.clear();
+    }
+}
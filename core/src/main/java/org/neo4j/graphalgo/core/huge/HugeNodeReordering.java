@@ -0,0 +1,345 @@
+package org.neo4j.graphalgo.core.huge;
+
+import org.neo4j.graphalgo.api.HugeWeightMapping;
+import org.neo4j.graphalgo.core.utils.ParallelUtil;
+import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
+import org.neo4j.graphalgo.core.utils.paged.ByteArray;
+import org.neo4j.graphalgo.core.utils.paged.DoubleArray;
+import org.neo4j.graphalgo.core.utils.paged.LongArray;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Relabels the nodes of a freshly imported huge graph according to a {@link NodeOrdering}.
+ * <p>
+ * The new order is computed from the imported adjacency, which is then rewritten
+ * in the new order: the offsets are indexed by the new ids, and the targets are
+ * mapped to their new ids and sorted again, together with their weights.
+ * The {@link HugeIdMap} is relabeled as well, so that {@link HugeIdMap#toOriginalNodeId(long)}
+ * still returns the neo4j id of a node.
+ * <p>
+ * The rewrite runs in parallel over ranges of the new ids. The old arrays are
+ * released afterwards, so the memory peaks at about twice the size of the adjacency.
+ */
+final class HugeNodeReordering {
+
+    private final NodeOrdering ordering;
+    private final HugeIdMap idMap;
+    private final Adjacency in;
+    private final Adjacency out;
+    private final boolean offHeap;
+    private final boolean undirected;
+    private final int concurrency;
+    private final ExecutorService executor;
+    private final AllocationTracker tracker;
+
+    HugeNodeReordering(
+            NodeOrdering ordering,
+            HugeIdMap idMap,
+            Adjacency in,
+            Adjacency out,
+            boolean offHeap,
+            boolean undirected,
+            int concurrency,
+            ExecutorService executor,
+            AllocationTracker tracker) {
+        this.ordering = ordering;
+        this.idMap = idMap;
+        this.in = in;
+        this.out = out;
+        this.offHeap = offHeap;
+        this.undirected = undirected;
+        this.concurrency = concurrency;
+        this.executor = executor;
+        this.tracker = tracker;
+    }
+
+    /**
+     * Relabels the nodes and returns the graph with the new ids.
+     * The arrays that have been passed to this instance must not be used afterwards.
+     */
+    HugeGraphImpl reorder(HugeWeightMapping weights) {
+        long nodeCount = idMap.nodeCount();
+        LongArray newIds = LongArray.newArray(nodeCount, tracker);
+        LongArray order = LongArray.newArray(nodeCount, tracker);
+        newIds.fill(-1L);
+        if (ordering == NodeOrdering.DEGREE) {
+            degreeOrder(nodeCount, newIds, order);
+        } else {
+            bfsOrder(nodeCount, newIds, order);
+        }
+
+        Adjacency newIn = in != null ? rewrite(in, nodeCount, newIds, order) : null;
+        Adjacency newOut = out != null ? rewrite(out, nodeCount, newIds, order) : null;
+        HugeIdMap newIdMap = idMap.relabel(newIds, tracker);
+
+        long relationships = 0L;
+        double gapBefore = 0.0;
+        double gapAfter = 0.0;
+        for (Adjacency adjacency : new Adjacency[]{newIn, newOut}) {
+            if (adjacency != null) {
+                relationships += adjacency.relationships;
+                gapBefore += adjacency.gapBefore;
+                gapAfter += adjacency.gapAfter;
+            }
+        }
+        tracker.remove(newIds.release());
+        tracker.remove(order.release());
+
+        HugeGraphImpl graph = new HugeGraphImpl(
+                tracker,
+                newIdMap,
+                weights,
+                newIn != null ? newIn.adjacency : null,
+                newOut != null ? newOut.adjacency : null,
+                newIn != null ? newIn.offsets : null,
+                newOut != null ? newOut.offsets : null,
+                newIn != null ? newIn.weights : null,
+                newOut != null ? newOut.weights : null,
+                newIn != null ? newIn.weightOffsets : null,
+                newOut != null ? newOut.weightOffsets : null,
+                undirected);
+        graph.locality(relationships == 0L
+                ? new NodeOrdering.Locality(0.0, 0.0)
+                : new NodeOrdering.Locality(gapBefore / relationships, gapAfter / relationships));
+        return graph;
+    }
+
+    /**
+     * Stable counting sort of the nodes by their total degree, descending.
+     */
+    private void degreeOrder(long nodeCount, LongArray newIds, LongArray order) {
+        int maxDegree = 0;
+        for (long node = 0L; node < nodeCount; node++) {
+            maxDegree = Math.max(maxDegree, degree(node));
+        }
+        long[] starts = new long[maxDegree + 1];
+        for (long node = 0L; node < nodeCount; node++) {
+            starts[degree(node)]++;
+        }
+        long start = 0L;
+        for (int degree = maxDegree; degree >= 0; degree--) {
+            long count = starts[degree];
+            starts[degree] = start;
+            start += count;
+        }
+        for (long node = 0L; node < nodeCount; node++) {
+            long newId = starts[degree(node)]++;
+            newIds.set(node, newId);
+            order.set(newId, node);
+        }
+    }
+
+    /**
+     * Breadth first traversal over the relationships of all loaded directions.
+     * The order array doubles as the queue of the traversal, every unvisited
+     * node in the old order starts a new traversal.
+     */
+    private void bfsOrder(long nodeCount, LongArray newIds, LongArray order) {
+        ByteArray.DeltaCursor inCursor = in != null ? in.adjacency.newCursor() : null;
+        ByteArray.DeltaCursor outCursor = out != null ? out.adjacency.newCursor() : null;
+        long head = 0L;
+        long tail = 0L;
+        for (long root = 0L; root < nodeCount; root++) {
+            if (newIds.get(root) != -1L) {
+                continue;
+            }
+            newIds.set(root, tail);
+            order.set(tail++, root);
+            while (head < tail) {
+                long node = order.get(head++);
+                if (out != null) {
+                    tail = visitNeighbours(node, out, outCursor, newIds, order, tail);
+                }
+                if (in != null) {
+                    tail = visitNeighbours(node, in, inCursor, newIds, order, tail);
+                }
+            }
+        }
+    }
+
+    private static long visitNeighbours(
+            long node,
+            Adjacency adjacency,
+            ByteArray.DeltaCursor cursor,
+            LongArray newIds,
+            LongArray order,
+            long tail) {
+        long offset = adjacency.offsets.get(node);
+        if (offset == 0L) {
+            return tail;
+        }
+        adjacency.adjacency.deltaCursor(cursor, offset);
+        long target;
+        while ((target = cursor.getVLong()) != -1L) {
+            if (newIds.get(target) == -1L) {
+                newIds.set(target, tail);
+                order.set(tail++, target);
+            }
+        }
+        return tail;
+    }
+
+    private int degree(long node) {
+        return (in != null ? in.degree(node) : 0) + (out != null ? out.degree(node) : 0);
+    }
+
+    private Adjacency rewrite(
+            Adjacency old,
+            long nodeCount,
+            LongArray newIds,
+            LongArray order) {
+        boolean blockEncoded = old.adjacency.isBlockEncoded();
+        ByteArray adjacency = offHeap
+                ? ByteArray.newOffHeapArray(0L, blockEncoded, tracker)
+                : ByteArray.newArray(0L, blockEncoded, tracker);
+        adjacency.skipAllocationRegion(1);
+        LongArray offsets = LongArray.newArray(nodeCount, tracker);
+        DoubleArray weights = null;
+        LongArray weightOffsets = null;
+        if (old.weights != null) {
+            weights = DoubleArray.newArray(0L, tracker);
+            weightOffsets = LongArray.newArray(nodeCount, tracker);
+        }
+        Adjacency rewritten = new Adjacency(adjacency, offsets, weights, weightOffsets);
+
+        int numTasks = (int) Math.max(1L, Math.min(concurrency, nodeCount));
+        long batchSize = (nodeCount + numTasks - 1L) / numTasks;
+        List<RewriteTask> tasks = new ArrayList<>(numTasks);
+        for (long start = 0L; start < nodeCount; start += batchSize) {
+            tasks.add(new RewriteTask(old, rewritten, newIds, order, start, Math.min(nodeCount, start + batchSize)));
+        }
+        ParallelUtil.run(tasks, executor);
+        for (RewriteTask task : tasks) {
+            rewritten.relationships += task.relationships;
+            rewritten.gapBefore += task.gapBefore;
+            rewritten.gapAfter += task.gapAfter;
+        }
+
+        tracker.remove(old.adjacency.release());
+        tracker.remove(old.offsets.release());
+        if (old.weights != null) {
+            tracker.remove(old.weights.release());
+            tracker.remove(old.weightOffsets.release());
+        }
+        return rewritten;
+    }
+
+    /**
+     * The arrays of one direction of the graph.
+     */
+    static final class Adjacency {
+        final ByteArray adjacency;
+        final LongArray offsets;
+        final DoubleArray weights;
+        final LongArray weightOffsets;
+
+        private long relationships;
+        private double gapBefore;
+        private double gapAfter;
+
+        Adjacency(
+                ByteArray adjacency,
+                LongArray offsets,
+                DoubleArray weights,
+                LongArray weightOffsets) {
+            this.adjacency = adjacency;
+            this.offsets = offsets;
+            this.weights = weights;
+            this.weightOffsets = weightOffsets;
+        }
+
+        int degree(long node) {
+            long offset = offsets.get(node);
+            return offset == 0L ? 0 : adjacency.getInt(offset);
+        }
+    }
+
+    private static final class RewriteTask implements Runnable {
+        private final Adjacency old;
+        private final LongArray offsets;
+        private final LongArray weightOffsets;
+        private final ByteArray.LocalAllocator allocator;
+        private final DoubleArray.LocalAllocator weightAllocator;
+        private final LongArray newIds;
+        private final LongArray order;
+        private final long startId;
+        private final long endId;
+        private final HugeGraphFactory.TargetsAndWeightsSorter sorter;
+
+        private long[] targets = new long[0];
+        private double[] weights = new double[0];
+        private long relationships;
+        private double gapBefore;
+        private double gapAfter;
+
+        private RewriteTask(
+                Adjacency old,
+                Adjacency rewritten,
+                LongArray newIds,
+                LongArray order,
+                long startId,
+                long endId) {
+            this.old = old;
+            this.offsets = rewritten.offsets;
+            this.weightOffsets = rewritten.weightOffsets;
+            this.allocator = rewritten.adjacency.newAllocator();
+            this.weightAllocator = rewritten.weights != null ? rewritten.weights.newAllocator() : null;
+            this.newIds = newIds;
+            this.order = order;
+            this.startId = startId;
+            this.endId = endId;
+            this.sorter = new HugeGraphFactory.TargetsAndWeightsSorter();
+        }
+
+        @Override
+        public void run() {
+            ByteArray.DeltaCursor cursor = old.adjacency.newCursor();
+            for (long newId = startId; newId < endId; newId++) {
+                long oldId = order.get(newId);
+                long offset = old.offsets.get(oldId);
+                if (offset == 0L) {
+                    continue;
+                }
+                int degree = old.adjacency.getInt(offset);
+                if (targets.length < degree) {
+                    targets = new long[degree];
+                    weights = new double[degree];
+                }
+                old.adjacency.deltaCursor(cursor, offset);
+                for (int i = 0; i < degree; i++) {
+                    long target = cursor.getVLong();
+                    long newTarget = newIds.get(target);
+                    gapBefore += Math.abs(oldId - target);
+                    gapAfter += Math.abs(newId - newTarget);
+                    targets[i] = newTarget;
+                }
+                relationships += degree;
+
+                if (weightAllocator != null) {
+                    long oldWeightsIdx = old.weightOffsets.get(oldId);
+                    for (int i = 0; i < degree; i++) {
+                        weights[i] = old.weights.get(oldWeightsIdx + i);
+                    }
+                    sorter.targets = targets;
+                    sorter.weights = weights;
+                    sorter.sort(0, degree);
+                } else {
+                    Arrays.sort(targets, 0, degree);
+                }
+
+                offsets.set(newId, allocator.writeTargets(targets, degree));
+                if (weightAllocator != null) {
+                    long weightsIdx = weightAllocator.allocate(degree);
+                    weightOffsets.set(newId, weightsIdx);
+                    for (int i = 0; i < degree; i++) {
+                        weightAllocator.set(weightsIdx + i, weights[i]);
+                    }
+                }
+            }
+        }
+    }
+}
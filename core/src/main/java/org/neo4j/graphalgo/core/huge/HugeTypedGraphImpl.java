@@ -0,0 +1,268 @@
+package org.neo4j.graphalgo.core.huge;
+
+import org.neo4j.collection.primitive.PrimitiveLongIterable;
+import org.neo4j.collection.primitive.PrimitiveLongIterator;
+import org.neo4j.graphalgo.api.HugeGraph;
+import org.neo4j.graphalgo.api.HugeNodeProperties;
+import org.neo4j.graphalgo.api.HugeRelationshipConsumer;
+import org.neo4j.graphalgo.api.HugeRelationshipTypeIterator;
+import org.neo4j.graphalgo.api.HugeWeightMapping;
+import org.neo4j.graphalgo.api.HugeWeightedRelationshipConsumer;
+import org.neo4j.graphalgo.api.RelationshipConsumer;
+import org.neo4j.graphalgo.api.WeightedRelationshipConsumer;
+import org.neo4j.graphdb.Direction;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.function.LongPredicate;
+
+/**
+ * A huge graph that stores the relationships of every type in a separate
+ * {@link HugeGraphImpl}, all of them share the same {@link HugeIdMap}.
+ * <p>
+ * A single type is traversed with the methods of {@link HugeRelationshipTypeIterator},
+ * the methods of {@link HugeGraph} traverse the relationships of all types one type
+ * after the other. Two nodes that are connected by relationships of different
+ * types are visited once for every type, the degree is the sum of the degrees of all types.
+ */
+public final class HugeTypedGraphImpl implements HugeGraph, HugeRelationshipTypeIterator {
+
+    private final HugeIdMap idMapping;
+    private final HugeWeightMapping weights;
+    private final List<String> types;
+    private final HugeGraphImpl[] graphs;
+
+    HugeTypedGraphImpl(
+            final HugeIdMap idMapping,
+            final HugeWeightMapping weights,
+            final String[] types,
+            final HugeGraphImpl[] graphs) {
+        this.idMapping = idMapping;
+        this.weights = weights;
+        this.types = Collections.unmodifiableList(Arrays.asList(types));
+        this.graphs = graphs;
+    }
+
+    @Override
+    public List<String> relationshipTypes() {
+        return types;
+    }
+
+    @Override
+    public void forEachRelationship(
+            long nodeId,
+            Direction direction,
+            String relationshipType,
+            HugeRelationshipConsumer consumer) {
+        graph(relationshipType).forEachRelationship(nodeId, direction, consumer);
+    }
+
+    @Override
+    public void forEachRelationship(
+            long nodeId,
+            Direction direction,
+            String relationshipType,
+            HugeWeightedRelationshipConsumer consumer) {
+        graph(relationshipType).forEachRelationship(nodeId, direction, consumer);
+    }
+
+    @Override
+    public int degree(
+            long nodeId,
+            Direction direction,
+            String relationshipType) {
+        return graph(relationshipType).degree(nodeId, direction);
+    }
+
+    @Override
+    public long nodeCount() {
+        return idMapping.nodeCount();
+    }
+
+    @Override
+    public Collection<PrimitiveLongIterable> hugeBatchIterables(final int batchSize) {
+        return idMapping.hugeBatchIterables(batchSize);
+    }
+
+    @Override
+    public void forEachNode(LongPredicate consumer) {
+        idMapping.forEachNode(consumer);
+    }
+
+    @Override
+    public PrimitiveLongIterator hugeNodeIterator() {
+        return idMapping.hugeNodeIterator();
+    }
+
+    @Override
+    public long toHugeMappedNodeId(long nodeId) {
+        return idMapping.toHugeMappedNodeId(nodeId);
+    }
+
+    @Override
+    public long toOriginalNodeId(long nodeId) {
+        return idMapping.toOriginalNodeId(nodeId);
+    }
+
+    @Override
+    public boolean contains(final long nodeId) {
+        return idMapping.contains(nodeId);
+    }
+
+    HugeIdMap idMap() {
+        return idMapping;
+    }
+
+    HugeWeightMapping weightMapping() {
+        return weights;
+    }
+
+    /**
+     * @return the graphs of the types, in the order of {@link #relationshipTypes()}
+     */
+    HugeGraphImpl[] graphs() {
+        return graphs;
+    }
+
+    void nodeProperties(HugeNodePropertyStore nodeProperties) {
+        for (HugeGraphImpl graph : graphs) {
+            graph.nodeProperties(nodeProperties);
+        }
+    }
+
+    /**
+     * All types share the same node properties.
+     */
+    @Override
+    public Set<String> nodePropertyKeys() {
+        return graphs[0].nodePropertyKeys();
+    }
+
+    @Override
+    public HugeNodeProperties.DoubleProperty doubleProperty(String propertyKey) {
+        return graphs[0].doubleProperty(propertyKey);
+    }
+
+    @Override
+    public HugeNodeProperties.LongProperty longProperty(String propertyKey) {
+        return graphs[0].longProperty(propertyKey);
+    }
+
+    @Override
+    public double nodeWeight(long nodeId) {
+        return graphs[0].nodeWeight(nodeId);
+    }
+
+    @Override
+    public double nodeValue(long nodeId, double defaultValue) {
+        return graphs[0].nodeValue(nodeId, defaultValue);
+    }
+
+    /**
+     * Returns the weight of the first type that has a relationship between the nodes.
+     */
+    @Override
+    public double weightOf(final long sourceNodeId, final long targetNodeId) {
+        return weightOf(sourceNodeId, targetNodeId, weights.weight(sourceNodeId, targetNodeId));
+    }
+
+    @Override
+    public double weightOf(
+            final long sourceNodeId,
+            final long targetNodeId,
+            final double defaultWeight) {
+        for (HugeGraphImpl graph : graphs) {
+            double weight = graph.weightOf(sourceNodeId, targetNodeId, Double.NaN);
+            if (!Double.isNaN(weight)) {
+                return weight;
+            }
+        }
+        return defaultWeight;
+    }
+
+    @Override
+    public int degree(
+            final long node,
+            final Direction direction) {
+        int degree = 0;
+        for (HugeGraphImpl graph : graphs) {
+            degree += graph.degree(node, direction);
+        }
+        return degree;
+    }
+
+    @Override
+    public void forEachRelationship(
+            long nodeId,
+            Direction direction,
+            HugeRelationshipConsumer consumer) {
+        for (HugeGraphImpl graph : graphs) {
+            graph.forEachRelationship(nodeId, direction, consumer);
+        }
+    }
+
+    @Override
+    public void forEachRelationship(
+            long nodeId,
+            Direction direction,
+            HugeWeightedRelationshipConsumer consumer) {
+        for (HugeGraphImpl graph : graphs) {
+            graph.forEachRelationship(nodeId, direction, consumer);
+        }
+    }
+
+    @Override
+    public void forEachRelationship(
+            int nodeId,
+            Direction direction,
+            RelationshipConsumer consumer) {
+        for (HugeGraphImpl graph : graphs) {
+            graph.forEachRelationship(nodeId, direction, consumer);
+        }
+    }
+
+    @Override
+    public void forEachRelationship(
+            int nodeId,
+            Direction direction,
+            WeightedRelationshipConsumer consumer) {
+        for (HugeGraphImpl graph : graphs) {
+            graph.forEachRelationship(nodeId, direction, consumer);
+        }
+    }
+
+    @Override
+    public HugeGraph concurrentCopy() {
+        HugeGraphImpl[] copies = new HugeGraphImpl[graphs.length];
+        for (int i = 0; i < graphs.length; i++) {
+            copies[i] = (HugeGraphImpl) graphs[i].concurrentCopy();
+        }
+        return new HugeTypedGraphImpl(idMapping, weights, types.toArray(new String[0]), copies);
+    }
+
+    @Override
+    public void release() {
+        for (HugeGraphImpl graph : graphs) {
+            graph.release();
+        }
+    }
+
+    @Override
+    public void canRelease(boolean canRelease) {
+        for (HugeGraphImpl graph : graphs) {
+            graph.canRelease(canRelease);
+        }
+    }
+
+    private HugeGraphImpl graph(String relationshipType) {
+        int index = types.indexOf(relationshipType);
+        if (index == -1) {
+            throw new IllegalArgumentException("Relationship type '" + relationshipType + "' has not been loaded, " +
+                    "the graph contains " + types);
+        }
+        return graphs[index];
+    }
+}
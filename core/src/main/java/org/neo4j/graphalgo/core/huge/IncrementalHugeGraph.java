@@ -0,0 +1,355 @@
+package org.neo4j.graphalgo.core.huge;
+
+import org.neo4j.collection.primitive.PrimitiveLongIterable;
+import org.neo4j.collection.primitive.PrimitiveLongIterator;
+import org.neo4j.graphalgo.api.GraphSetup;
+import org.neo4j.graphalgo.api.HugeGraph;
+import org.neo4j.graphalgo.api.HugeNodeProperties;
+import org.neo4j.graphalgo.api.HugeRelationshipConsumer;
+import org.neo4j.graphalgo.api.HugeWeightedRelationshipConsumer;
+import org.neo4j.graphalgo.api.RelationshipConsumer;
+import org.neo4j.graphalgo.api.WeightedRelationshipConsumer;
+import org.neo4j.graphalgo.core.loading.GraphDelta;
+import org.neo4j.graphalgo.core.utils.LazyBatchCollection;
+import org.neo4j.graphalgo.core.utils.RawValues;
+import org.neo4j.graphdb.Direction;
+import org.neo4j.kernel.internal.GraphDatabaseAPI;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.LongPredicate;
+import java.util.function.Supplier;
+
+/**
+ * A {@link HugeGraph} that follows the transactions that are committed after the load.
+ * <p>
+ * The relationships of a node are read from the overlay of the {@link GraphDelta}
+ * if they have changed since the load and from the loaded {@link HugeGraphImpl} otherwise.
+ * The delta is compacted into a new {@link HugeGraphImpl} in the background, which appends
+ * the changed adjacencies to the existing adjacency arrays and only copies the offsets.
+ * <p>
+ * Like the {@link HugeGraphImpl}, an instance must not be shared between threads,
+ * every thread has to use its own {@link #concurrentCopy()}.
+ */
+public final class IncrementalHugeGraph implements HugeGraph {
+
+    private static final GraphDelta.Base<HugeGraphImpl> BASE = new GraphDelta.Base<HugeGraphImpl>() {
+        @Override
+        public long toMappedNodeId(HugeGraphImpl graph, long originalNodeId) {
+            return graph.toHugeMappedNodeIdIfPresent(originalNodeId);
+        }
+
+        @Override
+        public GraphDelta.Adjacency adjacency(HugeGraphImpl graph, long nodeId, Direction direction) {
+            return graph.adjacency(nodeId, direction);
+        }
+
+        @Override
+        public HugeGraphImpl compact(
+                HugeGraphImpl graph,
+                Map<Long, GraphDelta.Adjacency> outgoing,
+                Map<Long, GraphDelta.Adjacency> incoming) {
+            return graph.compact(outgoing, incoming);
+        }
+    };
+
+    private final GraphDelta<HugeGraphImpl> delta;
+    private final boolean undirected;
+    private final double defaultWeight;
+
+    // the base graph of the last state and the copy of it that is read by this instance
+    private HugeGraphImpl source;
+    private HugeGraph base;
+
+    /**
+     * Starts to follow the transactions before the graph is loaded, so that
+     * the transactions that are committed during the load are not lost.
+     */
+    static IncrementalHugeGraph load(
+            GraphDatabaseAPI api,
+            GraphSetup setup,
+            int compactionThreshold,
+            Supplier<HugeGraphImpl> loader) {
+        final GraphDelta<HugeGraphImpl> delta = new GraphDelta<>(api, setup, BASE, compactionThreshold);
+        final HugeGraphImpl graph;
+        try {
+            graph = loader.get();
+        } catch (RuntimeException | Error e) {
+            delta.close();
+            throw e;
+        }
+        delta.loaded(graph, graph.nodeCount());
+        return new IncrementalHugeGraph(delta, setup.relationDefaultWeight, graph);
+    }
+
+    private IncrementalHugeGraph(GraphDelta<HugeGraphImpl> delta, double defaultWeight, HugeGraphImpl graph) {
+        this.delta = delta;
+        this.undirected = delta.isUndirected();
+        this.defaultWeight = defaultWeight;
+        this.source = graph;
+        this.base = graph;
+    }
+
+    /**
+     * Compacts the changes into the base graph, see {@link GraphDelta#compact()}.
+     */
+    public void compact() {
+        delta.compact();
+    }
+
+    /**
+     * @return the number of nodes whose relationships have changed and are not compacted yet
+     */
+    public int overlaySize() {
+        return delta.overlaySize();
+    }
+
+    /**
+     * @return the number of loaded nodes whose relationships have changed and are not compacted yet
+     */
+    public int compactableSize() {
+        return delta.compactableSize();
+    }
+
+    @Override
+    public long nodeCount() {
+        return delta.nodeCount();
+    }
+
+    @Override
+    public Collection<PrimitiveLongIterable> hugeBatchIterables(int batchSize) {
+        return LazyBatchCollection.of(
+                nodeCount(),
+                batchSize,
+                (start, length) -> () -> GraphDelta.nodeRange(start, start + length));
+    }
+
+    @Override
+    public void forEachNode(LongPredicate consumer) {
+        long nodeCount = nodeCount();
+        for (long node = 0L; node < nodeCount; node++) {
+            if (!consumer.test(node)) {
+                return;
+            }
+        }
+    }
+
+    @Override
+    public PrimitiveLongIterator hugeNodeIterator() {
+        return GraphDelta.nodeRange(0L, nodeCount());
+    }
+
+    @Override
+    public long toHugeMappedNodeId(long nodeId) {
+        long mappedId = delta.state().base.toHugeMappedNodeIdIfPresent(nodeId);
+        return mappedId != -1L ? mappedId : delta.toAddedNodeId(nodeId);
+    }
+
+    @Override
+    public long toOriginalNodeId(long nodeId) {
+        return nodeId < delta.baseNodeCount()
+                ? delta.state().base.toOriginalNodeId(nodeId)
+                : delta.toAddedOriginalNodeId(nodeId);
+    }
+
+    @Override
+    public boolean contains(long nodeId) {
+        long mappedId = toHugeMappedNodeId(nodeId);
+        return mappedId != -1L && !delta.isDeleted(mappedId);
+    }
+
+    /**
+     * The node properties are not updated, nodes that have been added since the load have the default values.
+     */
+    @Override
+    public Set<String> nodePropertyKeys() {
+        return delta.state().base.nodePropertyKeys();
+    }
+
+    @Override
+    public HugeNodeProperties.DoubleProperty doubleProperty(String propertyKey) {
+        return delta.state().base.doubleProperty(propertyKey);
+    }
+
+    @Override
+    public HugeNodeProperties.LongProperty longProperty(String propertyKey) {
+        return delta.state().base.longProperty(propertyKey);
+    }
+
+    @Override
+    public double nodeWeight(long nodeId) {
+        return delta.state().base.nodeWeight(nodeId);
+    }
+
+    @Override
+    public double nodeValue(long nodeId, double defaultValue) {
+        return delta.state().base.nodeValue(nodeId, defaultValue);
+    }
+
+    @Override
+    public double weightOf(long sourceNodeId, long targetNodeId) {
+        return weightOf(sourceNodeId, targetNodeId, defaultWeight);
+    }
+
+    @Override
+    public double weightOf(long sourceNodeId, long targetNodeId, double defaultWeight) {
+        GraphDelta.State<HugeGraphImpl> state = delta.state();
+        GraphDelta.Adjacency adjacency = state.adjacency(sourceNodeId, Direction.OUTGOING);
+        if (adjacency != null) {
+            return orDefault(adjacency.weightOf(targetNodeId), defaultWeight);
+        }
+        if (undirected) {
+            adjacency = state.adjacency(targetNodeId, Direction.OUTGOING);
+            if (adjacency != null) {
+                return orDefault(adjacency.weightOf(sourceNodeId), defaultWeight);
+            }
+        } else {
+            adjacency = state.adjacency(targetNodeId, Direction.INCOMING);
+            if (adjacency != null) {
+                return orDefault(adjacency.weightOf(sourceNodeId), defaultWeight);
+            }
+        }
+        if (sourceNodeId >= delta.baseNodeCount() || targetNodeId >= delta.baseNodeCount()) {
+            return defaultWeight;
+        }
+        return base(state).weightOf(sourceNodeId, targetNodeId, defaultWeight);
+    }
+
+    @Override
+    public int degree(long node, Direction direction) {
+        Direction resolved = resolve(direction);
+        if (resolved == Direction.BOTH) {
+            return degree(node, Direction.INCOMING) + degree(node, Direction.OUTGOING);
+        }
+        GraphDelta.State<HugeGraphImpl> state = delta.state();
+        GraphDelta.Adjacency adjacency = state.adjacency(node, resolved);
+        if (adjacency != null) {
+            return adjacency.degree();
+        }
+        return node < delta.baseNodeCount() ? base(state).degree(node, resolved) : 0;
+    }
+
+    /**
+     * The base graph and the changed adjacencies are both sorted.
+     */
+    @Override
+    public boolean hasSortedAdjacency(Direction direction) {
+        return resolve(direction) != Direction.BOTH;
+    }
+
+    @Override
+    public void forEachRelationship(long nodeId, Direction direction, HugeRelationshipConsumer consumer) {
+        Direction resolved = resolve(direction);
+        if (resolved == Direction.BOTH) {
+            forEachRelationship(nodeId, Direction.INCOMING, consumer);
+            forEachRelationship(nodeId, Direction.OUTGOING, consumer);
+            return;
+        }
+        GraphDelta.State<HugeGraphImpl> state = delta.state();
+        GraphDelta.Adjacency adjacency = state.adjacency(nodeId, resolved);
+        if (adjacency != null) {
+            for (int i = 0; i < adjacency.degree(); i++) {
+                if (!consumer.accept(nodeId, adjacency.target(i))) {
+                    return;
+                }
+            }
+        } else if (nodeId < delta.baseNodeCount()) {
+            base(state).forEachRelationship(nodeId, resolved, consumer);
+        }
+    }
+
+    @Override
+    public void forEachRelationship(long nodeId, Direction direction, HugeWeightedRelationshipConsumer consumer) {
+        Direction resolved = resolve(direction);
+        if (resolved == Direction.BOTH) {
+            forEachRelationship(nodeId, Direction.INCOMING, consumer);
+            forEachRelationship(nodeId, Direction.OUTGOING, consumer);
+            return;
+        }
+        GraphDelta.State<HugeGraphImpl> state = delta.state();
+        GraphDelta.Adjacency adjacency = state.adjacency(nodeId, resolved);
+        if (adjacency != null) {
+            for (int i = 0; i < adjacency.degree(); i++) {
+                if (!consumer.accept(nodeId, adjacency.target(i), adjacency.weight(i))) {
+                    return;
+                }
+            }
+        } else if (nodeId < delta.baseNodeCount()) {
+            base(state).forEachRelationship(nodeId, resolved, consumer);
+        }
+    }
+
+    @Override
+    public void forEachRelationship(int nodeId, Direction direction, RelationshipConsumer consumer) {
+        if (direction == Direction.BOTH && !undirected) {
+            forEachRelationship(nodeId, Direction.INCOMING, consumer);
+            forEachRelationship(nodeId, Direction.OUTGOING, consumer);
+            return;
+        }
+        forEachRelationship((long) nodeId, direction, (HugeRelationshipConsumer) (s, t) -> consumer.accept(
+                (int) s,
+                (int) t,
+                RawValues.combineIntInt(direction, (int) s, (int) t)));
+    }
+
+    @Override
+    public void forEachRelationship(int nodeId, Direction direction, WeightedRelationshipConsumer consumer) {
+        if (direction == Direction.BOTH && !undirected) {
+            forEachRelationship(nodeId, Direction.INCOMING, consumer);
+            forEachRelationship(nodeId, Direction.OUTGOING, consumer);
+            return;
+        }
+        forEachRelationship((long) nodeId, direction, (HugeWeightedRelationshipConsumer) (s, t, w) -> consumer.accept(
+                (int) s,
+                (int) t,
+                RawValues.combineIntInt(direction, (int) s, (int) t),
+                w));
+    }
+
+    @Override
+    public HugeGraph concurrentCopy() {
+        return new IncrementalHugeGraph(delta, defaultWeight, null);
+    }
+
+    /**
+     * Stops following the transactions, the graph can still be read but doesn't change anymore.
+     */
+    public void close() {
+        delta.close();
+    }
+
+    /**
+     * Stops following the transactions and releases the current base graph,
+     * unless it must not be released.
+     */
+    @Override
+    public void release() {
+        if (!delta.canRelease()) {
+            return;
+        }
+        delta.close();
+        delta.state().base.release();
+    }
+
+    @Override
+    public void canRelease(boolean canRelease) {
+        delta.canRelease(canRelease);
+    }
+
+    private Direction resolve(Direction direction) {
+        return undirected ? Direction.OUTGOING : direction;
+    }
+
+    private HugeGraph base(GraphDelta.State<HugeGraphImpl> state) {
+        if (state.base != source) {
+            source = state.base;
+            base = source.concurrentCopy();
+        }
+        return base;
+    }
+
+    private static double orDefault(double weight, double defaultWeight) {
+        return Double.isNaN(weight) ? defaultWeight : weight;
+    }
+}
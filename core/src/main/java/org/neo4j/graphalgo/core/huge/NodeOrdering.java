@@ -0,0 +1,63 @@
+package org.neo4j.graphalgo.core.huge;
+
+/**
+ * The order of the internal node ids of a {@link HugeGraphImpl}.
+ * <p>
+ * By default, the ids are assigned in the order in which the nodes are read from
+ * the store, which usually has little to do with the structure of the graph.
+ * Algorithms that read the values of all neighbours of a node, like PageRank,
+ * then access their arrays mostly at random.
+ * Relabeling the nodes so that connected nodes get close ids improves the
+ * cache locality of those accesses.
+ *
+ * @see HugeNodeReordering
+ */
+public enum NodeOrdering {
+
+    /**
+     * Keep the ids in the order of the store.
+     */
+    NONE,
+
+    /**
+     * Order the nodes by descending degree, so that the most accessed
+     * values of the high degree nodes share the same cache lines and pages.
+     */
+    DEGREE,
+
+    /**
+     * Order the nodes in breadth first order, which assigns consecutive ids
+     * to the neighbours of a node (similar to Cuthill-McKee without sorting by degree).
+     */
+    BFS;
+
+    public static NodeOrdering parse(String name) {
+        if (name == null) {
+            return NONE;
+        }
+        try {
+            return valueOf(name.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown node ordering '" + name + "', expected one of 'none', 'degree' or 'bfs'");
+        }
+    }
+
+    /**
+     * The average distance between the ids of the source and the target of
+     * all relationships, before and after the nodes have been relabeled.
+     */
+    public static final class Locality {
+        public final double averageIdGapBefore;
+        public final double averageIdGapAfter;
+
+        Locality(double averageIdGapBefore, double averageIdGapAfter) {
+            this.averageIdGapBefore = averageIdGapBefore;
+            this.averageIdGapAfter = averageIdGapAfter;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("average id gap %.2f -> %.2f", averageIdGapBefore, averageIdGapAfter);
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package org.neo4j.graphalgo.core.huge;
+
+/**
+ * How a {@link HugeGraphImpl} stores parallel relationships, i.e. multiple
+ * relationships between the same pair of nodes.
+ * <p>
+ * By default, every relationship is stored as a target of its own, so the degree
+ * of a node counts parallel relationships multiple times and algorithms visit the
+ * same neighbour again. Aggregating the relationships keeps a single target per
+ * neighbour and combines the weights of the parallel relationships into its weight.
+ * The targets of every node are sorted anyway before they are encoded, so the
+ * duplicates are next to each other and can be merged in a single pass.
+ *
+ * @see HugeGraphFactory#mergedRelationships()
+ */
+public enum RelationshipAggregation {
+
+    /**
+     * Keep all parallel relationships.
+     */
+    NONE {
+        @Override
+        double merge(double current, double weight) {
+            return current;
+        }
+    },
+
+    /**
+     * Keep a single relationship with the sum of the weights.
+     */
+    SUM {
+        @Override
+        double merge(double current, double weight) {
+            return current + weight;
+        }
+    },
+
+    /**
+     * Keep a single relationship with the smallest weight.
+     */
+    MIN {
+        @Override
+        double merge(double current, double weight) {
+            return Math.min(current, weight);
+        }
+    },
+
+    /**
+     * Keep a single relationship with the largest weight.
+     */
+    MAX {
+        @Override
+        double merge(double current, double weight) {
+            return Math.max(current, weight);
+        }
+    },
+
+    /**
+     * Keep a single relationship whose weight is the number of parallel relationships.
+     * The weights are stored even if no weight property is loaded.
+     */
+    COUNT {
+        @Override
+        double initialWeight(double weight) {
+            return 1.0;
+        }
+
+        @Override
+        double merge(double current, double weight) {
+            return current + weight;
+        }
+    };
+
+    /**
+     * @return the weight of a relationship before it is merged with its parallel relationships
+     */
+    double initialWeight(double weight) {
+        return weight;
+    }
+
+    /**
+     * @return the weight of a merged relationship, given its current weight and the
+     * weight of a parallel relationship as returned by {@link #initialWeight(double)}
+     */
+    abstract double merge(double current, double weight);
+
+    public static RelationshipAggregation parse(String name) {
+        if (name == null) {
+            return NONE;
+        }
+        try {
+            return valueOf(name.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown relationship aggregation '" + name +
+                    "', expected one of 'none', 'sum', 'min', 'max' or 'count'");
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package org.neo4j.graphalgo.core.huge;
+
+import org.neo4j.graphalgo.core.utils.paged.ByteArray;
+import org.neo4j.graphalgo.core.utils.paged.DoubleArray;
+
+/**
+ * A {@link ByteArray.DeltaCursor} that also reads the weight of every target.
+ * The weights are stored in a separate {@link DoubleArray}, in the same
+ * order as the delta-encoded targets, so both are read sequentially.
+ */
+final class WeightedDeltaCursor {
+
+    private final ByteArray.DeltaCursor targets;
+    private final DoubleArray.Cursor weights;
+
+    private double weight;
+
+    WeightedDeltaCursor(ByteArray adjacency, DoubleArray weights) {
+        this.targets = adjacency.newCursor();
+        this.weights = weights.newCursor();
+    }
+
+    WeightedDeltaCursor init(
+            ByteArray adjacency,
+            long adjacencyOffset,
+            DoubleArray weights,
+            long weightsOffset) {
+        adjacency.deltaCursor(targets, adjacencyOffset);
+        weights.cursor(this.weights, weightsOffset);
+        return this;
+    }
+
+    /**
+     * @return the next target or -1 if there are no more targets
+     */
+    long getVLong() {
+        long target = targets.getVLong();
+        if (target != -1L) {
+            weight = weights.next();
+        }
+        return target;
+    }
+
+    /**
+     * @return the weight of the target that has been returned by the last call to {@link #getVLong()}
+     */
+    double weight() {
+        return weight;
+    }
+}
@@ -64,7 +64,8 @@ final class GraphImporter extends StatementTask<LightGraph, EntityNotFoundExcept
                         relationId,
                         Direction.INCOMING,
                         inAdjacency.newBulkAdder(),
-                        weights);
+                        weights,
+                        setup.sortAdjacency);
             }
             if (loadOutgoing) {
                 outOffsets = new long[nodeCount + 1];
@@ -77,7 +78,8 @@ final class GraphImporter extends StatementTask<LightGraph, EntityNotFoundExcept
                         relationId,
                         Direction.OUTGOING,
                         outAdjacency.newBulkAdder(),
-                        weights);
+                        weights,
+                        setup.sortAdjacency);
 
 
             }
@@ -105,7 +107,8 @@ final class GraphImporter extends StatementTask<LightGraph, EntityNotFoundExcept
                 inAdjacency,
                 outAdjacency,
                 inOffsets,
-                outOffsets
+                outOffsets,
+                setup.sortAdjacency
         );
     }
 }
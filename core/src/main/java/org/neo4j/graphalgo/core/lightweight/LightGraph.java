@@ -2,12 +2,14 @@ package org.neo4j.graphalgo.core.lightweight;
 
 import org.neo4j.collection.primitive.PrimitiveIntIterable;
 import org.neo4j.collection.primitive.PrimitiveIntIterator;
+import org.neo4j.graphalgo.api.AdjacencyCursor;
 import org.neo4j.graphalgo.api.Graph;
 import org.neo4j.graphalgo.api.RelationshipConsumer;
 import org.neo4j.graphalgo.api.WeightMapping;
 import org.neo4j.graphalgo.api.WeightedRelationshipConsumer;
 import org.neo4j.graphalgo.core.IdMap;
 import org.neo4j.graphalgo.core.utils.IdCombiner;
+import org.neo4j.graphalgo.core.utils.IntAdjacencyCursor;
 import org.neo4j.graphalgo.core.utils.RawValues;
 import org.neo4j.graphalgo.core.utils.paged.IntArray;
 import org.neo4j.graphdb.Direction;
@@ -26,6 +28,8 @@ public class LightGraph implements Graph {
     private IntArray outAdjacency;
     private long[] inOffsets;
     private long[] outOffsets;
+    private boolean canRelease = true;
+    private final boolean sorted;
 
     LightGraph(
             final IdMap idMapping,
@@ -33,13 +37,15 @@ public class LightGraph implements Graph {
             final IntArray inAdjacency,
             final IntArray outAdjacency,
             final long[] inOffsets,
-            final long[] outOffsets) {
+            final long[] outOffsets,
+            final boolean sorted) {
         this.idMapping = idMapping;
         this.weightMapping = weightMapping;
         this.inAdjacency = inAdjacency;
         this.outAdjacency = outAdjacency;
         this.inOffsets = inOffsets;
         this.outOffsets = outOffsets;
+        this.sorted = sorted;
     }
 
     @Override
@@ -130,6 +136,16 @@ public class LightGraph implements Graph {
 
     }
 
+    @Override
+    public AdjacencyCursor newAdjacencyCursor() {
+        return new LightAdjacencyCursor();
+    }
+
+    @Override
+    public boolean hasSortedAdjacency(Direction direction) {
+        return sorted && direction != Direction.BOTH;
+    }
+
     @Override
     public int toMappedNodeId(long nodeId) {
         return idMapping.get(nodeId);
@@ -226,6 +242,7 @@ public class LightGraph implements Graph {
 
     @Override
     public void release() {
+        if (!canRelease) return;
         if (inAdjacency != null) {
             inAdjacency.release();
             inAdjacency = null;
@@ -242,4 +259,75 @@ public class LightGraph implements Graph {
         inOffsets = null;
         outOffsets = null;
     }
+
+    @Override
+    public void canRelease(boolean canRelease) {
+        this.canRelease = canRelease;
+    }
+
+    /**
+     * Copies the targets page by page out of the adjacency {@link IntArray}s.
+     */
+    private final class LightAdjacencyCursor extends IntAdjacencyCursor {
+
+        private final IntArray.Cursor inCursor = inAdjacency != null ? inAdjacency.newCursor() : null;
+        private final IntArray.Cursor outCursor = outAdjacency != null ? outAdjacency.newCursor() : null;
+
+        private int nodeId;
+        private IdCombiner relId;
+        private IntArray.Cursor cursor;
+
+        @Override
+        protected void open(int nodeId, Direction direction) {
+            this.nodeId = nodeId;
+            final long[] offsets;
+            final IntArray adjacency;
+            if (direction == Direction.OUTGOING) {
+                relId = RawValues.OUTGOING;
+                offsets = outOffsets;
+                adjacency = outAdjacency;
+                cursor = outCursor;
+            } else {
+                relId = RawValues.INCOMING;
+                offsets = inOffsets;
+                adjacency = inAdjacency;
+                cursor = inCursor;
+            }
+            final long offset = offsets[nodeId];
+            final long length = offsets[nodeId + 1] - offset;
+            if (length == 0L) {
+                cursor = null;
+                return;
+            }
+            adjacency.initCursor(offset, length, cursor);
+        }
+
+        @Override
+        protected int read(int[] targets, double[] weights, int length) {
+            final IntArray.Cursor cursor = this.cursor;
+            if (cursor == null) {
+                return 0;
+            }
+            int read = 0;
+            while (read < length) {
+                if (cursor.array == null || cursor.offset == cursor.limit) {
+                    if (!cursor.next()) {
+                        this.cursor = null;
+                        break;
+                    }
+                }
+                int chunk = Math.min(length - read, cursor.limit - cursor.offset);
+                System.arraycopy(cursor.array, cursor.offset, targets, read, chunk);
+                cursor.offset += chunk;
+                read += chunk;
+            }
+            if (weights != null) {
+                final WeightMapping weightMap = weightMapping;
+                for (int i = 0; i < read; i++) {
+                    weights[i] = weightMap.get(relId.apply(nodeId, targets[i]));
+                }
+            }
+            return read;
+        }
+    }
 }
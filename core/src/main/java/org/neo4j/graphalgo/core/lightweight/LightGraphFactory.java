@@ -4,6 +4,9 @@ import org.neo4j.graphalgo.api.Graph;
 import org.neo4j.graphalgo.api.GraphFactory;
 import org.neo4j.graphalgo.api.GraphSetup;
 import org.neo4j.graphalgo.core.IdMap;
+import org.neo4j.graphalgo.core.utils.paged.IntArray;
+import org.neo4j.graphalgo.core.utils.paged.MemoryRange;
+import org.neo4j.graphalgo.core.utils.paged.MemoryUsage;
 import org.neo4j.helpers.Exceptions;
 import org.neo4j.kernel.api.exceptions.EntityNotFoundException;
 import org.neo4j.kernel.internal.GraphDatabaseAPI;
@@ -25,6 +28,18 @@ public final class LightGraphFactory extends GraphFactory {
         }
     }
 
+    @Override
+    public MemoryRange memoryEstimation() {
+        final int nodeCount = dimensions.nodeCount();
+        final long relCount = dimensions.maxRelCount();
+        final long adjacency = MemoryUsage.sizeOfLongArray(nodeCount + 1) + IntArray.estimateMemoryUsage(relCount);
+        final int directions = (setup.loadIncoming ? 1 : 0) + (setup.loadOutgoing ? 1 : 0);
+        return MemoryRange.of(adjacency)
+                .times(directions)
+                .add(idMapMemoryUsage(nodeCount))
+                .add(weightMapMemoryUsage(dimensions.weightId(), relCount));
+    }
+
     private Graph importGraph() throws EntityNotFoundException {
         final IdMap idMap = loadIdMap();
         final GraphImporter graphImporter = new GraphImporter(
@@ -1,5 +1,6 @@
 package org.neo4j.graphalgo.core.lightweight;
 
+import org.apache.lucene.util.ArrayUtil;
 import org.neo4j.graphalgo.api.WeightMapping;
 import org.neo4j.graphalgo.core.IdMap;
 import org.neo4j.graphalgo.core.WeightMap;
@@ -12,6 +13,8 @@ import org.neo4j.kernel.api.exceptions.EntityNotFoundException;
 import org.neo4j.kernel.impl.api.RelationshipVisitor;
 import org.neo4j.kernel.impl.api.store.RelationshipIterator;
 
+import java.util.Arrays;
+
 class RelationshipImporter implements RelationshipVisitor<EntityNotFoundException>, RelationshipImport {
 
     final ReadOperations readOp;
@@ -22,6 +25,8 @@ class RelationshipImporter implements RelationshipVisitor<EntityNotFoundExceptio
     private final int[] relationId;
     private final Direction direction;
 
+    // collects the targets of a node if they are sorted before they are written, null otherwise
+    private int[] sortBuffer;
     private int sourceGraphId;
 
     private long adjacencyIdx;
@@ -34,7 +39,8 @@ class RelationshipImporter implements RelationshipVisitor<EntityNotFoundExceptio
             int[] relationId,
             Direction direction,
             IntArray.BulkAdder bulkAdder,
-            WeightMapping weights) {
+            WeightMapping weights,
+            boolean sort) {
         if (weights instanceof WeightMap) {
             return new WithWeights(
                     mapping,
@@ -43,7 +49,8 @@ class RelationshipImporter implements RelationshipVisitor<EntityNotFoundExceptio
                     readOp,
                     direction,
                     (WeightMap) weights,
-                    bulkAdder);
+                    bulkAdder,
+                    sort);
         } else {
             return new RelationshipImporter(
                     readOp,
@@ -51,7 +58,8 @@ class RelationshipImporter implements RelationshipVisitor<EntityNotFoundExceptio
                     offsets,
                     relationId,
                     direction,
-                    bulkAdder
+                    bulkAdder,
+                    sort
             );
         }
     }
@@ -62,13 +70,15 @@ class RelationshipImporter implements RelationshipVisitor<EntityNotFoundExceptio
             long[] offsets,
             int[] relationId,
             Direction direction,
-            IntArray.BulkAdder bulkAdder) {
+            IntArray.BulkAdder bulkAdder,
+            boolean sort) {
         this.readOp = readOp;
         this.mapping = mapping;
         this.direction = direction;
         this.bulkAdder = bulkAdder;
         this.offsets = offsets;
         this.relationId = relationId;
+        this.sortBuffer = sort ? new int[0] : null;
     }
 
     public void importRelationships(int sourceGraphId, long sourceNodeId)
@@ -89,6 +99,12 @@ class RelationshipImporter implements RelationshipVisitor<EntityNotFoundExceptio
                 long relId = rels.next();
                 rels.relationshipVisit(relId, this);
             }
+            if (sortBuffer != null) {
+                Arrays.sort(sortBuffer, 0, imported);
+                for (int i = 0; i < imported; i++) {
+                    bulkAdder.add(sortBuffer[i]);
+                }
+            }
         }
 
         adjacencyIdx += imported;
@@ -122,7 +138,12 @@ class RelationshipImporter implements RelationshipVisitor<EntityNotFoundExceptio
         if (targetGraphId == -1) {
             return -1;
         }
-        bulkAdder.add(targetGraphId);
+        if (sortBuffer != null) {
+            sortBuffer = ArrayUtil.grow(sortBuffer, imported + 1);
+            sortBuffer[imported] = targetGraphId;
+        } else {
+            bulkAdder.add(targetGraphId);
+        }
         imported++;
 
         return targetGraphId;
@@ -140,8 +161,9 @@ class RelationshipImporter implements RelationshipVisitor<EntityNotFoundExceptio
                 ReadOperations readOp,
                 Direction direction,
                 WeightMap weights,
-                IntArray.BulkAdder bulkAdder) {
-            super(readOp, mapping, offsets, relationId, direction, bulkAdder);
+                IntArray.BulkAdder bulkAdder,
+                boolean sort) {
+            super(readOp, mapping, offsets, relationId, direction, bulkAdder, sort);
             this.weights = weights;
             this.weightId = weights.propertyId();
             this.idCombiner = RawValues.combiner(direction);
@@ -0,0 +1,201 @@
+package org.neo4j.graphalgo.core.loading;
+
+import org.neo4j.graphalgo.api.Graph;
+import org.neo4j.graphalgo.core.heavyweight.IncrementalHeavyGraph;
+import org.neo4j.graphalgo.core.huge.IncrementalHugeGraph;
+import org.neo4j.graphdb.Direction;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.neo4j.graphalgo.core.utils.paged.AllocationTracker.humanReadable;
+
+/**
+ * Keeps loaded graphs in memory under a user given name, so that several
+ * procedure calls can run on the same projection without loading it again.
+ * <p>
+ * The size of a graph is the number of bytes its
+ * {@link org.neo4j.graphalgo.core.utils.paged.AllocationTracker} recorded while loading,
+ * but at least its {@link org.neo4j.graphalgo.api.GraphFactory#memoryEstimation() estimated}
+ * minimum, as not every graph type tracks all of its memory.
+ * The sum of all sizes is kept below a heap budget. Adding a graph that would
+ * exceed the budget evicts the least recently used graphs first.
+ * <p>
+ * Evicted or removed graphs are not {@link Graph#release() released} explicitly,
+ * as there might still be an algorithm running on them. They are only dropped
+ * from the catalog and freed by the GC once the last user is done.
+ * An incremental graph stops following the transactions once it is dropped,
+ * otherwise the database would keep it reachable.
+ *
+ * @see LoadGraphFactory
+ */
+public final class GraphCatalog {
+
+    // the default budget is a fraction of the max heap
+    private static final int DEFAULT_BUDGET_SHIFT = 1;
+
+    // access ordered, the eldest entry is the least recently used one
+    private static final Map<String, Entry> graphs = new LinkedHashMap<>(16, 0.75f, true);
+
+    private static long usedBytes = 0L;
+
+    private GraphCatalog() {
+        throw new UnsupportedOperationException("No instances");
+    }
+
+    /**
+     * @return the default heap budget, which is half of the max heap
+     */
+    public static long defaultBudget() {
+        return Runtime.getRuntime().maxMemory() >> DEFAULT_BUDGET_SHIFT;
+    }
+
+    /**
+     * Store a graph under the given name.
+     *
+     * @param budget        the maximum number of bytes all graphs in the catalog may use,
+     *                      including the new one
+     * @param transactionId the id of the last transaction that had been committed
+     *                      before the graph was loaded
+     * @param relationships the number of relationships of the graph
+     * @param direction     the direction the graph has been loaded with,
+     *                      null if it is not known and should not be checked
+     * @param weightProperty the relationship property the weights have been loaded from,
+     *                      null if the graph has no weights
+     * @return the names of all graphs that have been evicted to make room for the new one
+     * @throws IllegalArgumentException if the name is already in use or the graph
+     *                                  alone does not fit into the budget
+     */
+    public static synchronized List<String> put(
+            String name,
+            Graph graph,
+            String type,
+            long bytes,
+            long budget,
+            long transactionId,
+            long relationships,
+            Direction direction,
+            String weightProperty) {
+        if (graphs.containsKey(name)) {
+            throw new IllegalArgumentException("A graph with the name '" + name + "' is already loaded");
+        }
+        if (bytes > budget) {
+            throw new IllegalArgumentException(String.format(
+                    "The graph '%s' requires %s but the budget is only %s",
+                    name,
+                    humanReadable(bytes),
+                    humanReadable(budget)));
+        }
+        List<String> evicted = new ArrayList<>();
+        Iterator<Entry> lru = graphs.values().iterator();
+        while (usedBytes + bytes > budget && lru.hasNext()) {
+            Entry eldest = lru.next();
+            lru.remove();
+            stopFollowing(eldest.graph);
+            usedBytes -= eldest.bytes;
+            evicted.add(eldest.name);
+        }
+        graph.canRelease(false);
+        graphs.put(name, new Entry(
+                name,
+                graph,
+                type,
+                bytes,
+                transactionId,
+                relationships,
+                direction,
+                weightProperty));
+        usedBytes += bytes;
+        return evicted;
+    }
+
+    /**
+     * @return the graph stored under the given name or null if there is none
+     */
+    public static synchronized Graph get(String name) {
+        Entry entry = graphs.get(name);
+        return entry != null ? entry.graph : null;
+    }
+
+    /**
+     * @return the entry stored under the given name or null if there is none
+     */
+    public static synchronized Entry entry(String name) {
+        return graphs.get(name);
+    }
+
+    public static synchronized boolean exists(String name) {
+        return name != null && graphs.containsKey(name);
+    }
+
+    /**
+     * Drop the graph with the given name from the catalog.
+     *
+     * @return the removed entry or null if there was no graph under that name
+     */
+    public static synchronized Entry remove(String name) {
+        Entry entry = graphs.remove(name);
+        if (entry != null) {
+            stopFollowing(entry.graph);
+            usedBytes -= entry.bytes;
+        }
+        return entry;
+    }
+
+    /**
+     * @return all stored graphs, from the least to the most recently used one
+     */
+    public static synchronized List<Entry> list() {
+        return new ArrayList<>(graphs.values());
+    }
+
+    /**
+     * @return the sum of the sizes of all stored graphs
+     */
+    public static synchronized long usedBytes() {
+        return usedBytes;
+    }
+
+    private static void stopFollowing(Graph graph) {
+        if (graph instanceof IncrementalHugeGraph) {
+            ((IncrementalHugeGraph) graph).close();
+        } else if (graph instanceof IncrementalHeavyGraph) {
+            ((IncrementalHeavyGraph) graph).close();
+        }
+    }
+
+    public static final class Entry {
+        public final String name;
+        public final Graph graph;
+        public final String type;
+        public final long bytes;
+        // the last transaction that is reflected in the graph
+        public final long transactionId;
+        public final long relationships;
+        // the loaded direction, null if unknown
+        public final Direction direction;
+        public final String weightProperty;
+
+        private Entry(
+                String name,
+                Graph graph,
+                String type,
+                long bytes,
+                long transactionId,
+                long relationships,
+                Direction direction,
+                String weightProperty) {
+            this.name = name;
+            this.graph = graph;
+            this.type = type;
+            this.bytes = bytes;
+            this.transactionId = transactionId;
+            this.relationships = relationships;
+            this.direction = direction;
+            this.weightProperty = weightProperty;
+        }
+    }
+}
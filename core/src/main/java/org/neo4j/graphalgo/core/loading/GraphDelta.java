@@ -0,0 +1,623 @@
+package org.neo4j.graphalgo.core.loading;
+
+import org.neo4j.collection.primitive.PrimitiveLongIterator;
+import org.neo4j.graphalgo.api.GraphSetup;
+import org.neo4j.graphalgo.core.huge.HugeGraphFactory;
+import org.neo4j.graphalgo.core.huge.HugeGraphSnapshot;
+import org.neo4j.graphalgo.core.utils.RawValues;
+import org.neo4j.graphdb.Direction;
+import org.neo4j.graphdb.Label;
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.Relationship;
+import org.neo4j.graphdb.event.TransactionData;
+import org.neo4j.graphdb.event.TransactionEventHandler;
+import org.neo4j.kernel.internal.GraphDatabaseAPI;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Keeps a loaded graph up to date with the transactions that are committed after the load.
+ * <p>
+ * The delta starts to track the transactions before the graph is loaded. The transactions
+ * that are committed while the store is scanned are buffered and applied on top of the
+ * {@link #loaded(Object, long) loaded} graph, as the scan might have missed them.
+ * Every transaction that had been committed before the scan started is part of the graph
+ * and is not buffered. The scan might have seen a buffered transaction already, so
+ * replaying only adds relationships that are missing and creates nodes that are not loaded.
+ * Parallel relationships that have been created or deleted during the scan might therefore be missing.
+ * A transaction that has already been committing when the delta was created is not tracked,
+ * Neo4j even fails its commit if no other transaction event handler has been registered.
+ * <p>
+ * The loaded graph is the immutable base, the delta is an overlay of the nodes whose
+ * relationships changed. The first change of a node copies its relationships from the
+ * base into the overlay, further changes replace the copy. A traversal reads a node
+ * from the overlay if it is there and from the base otherwise.
+ * Nodes that are created after the load get the ids after the ones of the base and
+ * only live in the overlay. Deleted nodes keep their id and are still iterated,
+ * but they are {@link #isDeleted(long) marked} and have no relationships.
+ * <p>
+ * Once the overlay holds the relationships of {@code compactionThreshold} nodes, they are
+ * compacted into a new base in the background. The new base shares the unchanged
+ * structures of the old one and is published together with the remaining overlay,
+ * so that every traversal reads a consistent state. Traversals that started
+ * before the compaction keep reading the old base.
+ * <p>
+ * Only the relationships between nodes of the graph are tracked, changes of labels or
+ * properties of existing entities are ignored.
+ *
+ * @param <G> the type of the base graph
+ */
+public final class GraphDelta<G> implements TransactionEventHandler<GraphDelta.Changes> {
+
+    public static final int DEFAULT_COMPACTION_THRESHOLD = 10_000;
+
+    /**
+     * Read and compaction access to the base graph.
+     */
+    public interface Base<G> {
+
+        /**
+         * @return the mapped id of the node or -1 if it is not part of the base graph
+         */
+        long toMappedNodeId(G graph, long originalNodeId);
+
+        /**
+         * @return the relationships of the node in the base graph
+         */
+        Adjacency adjacency(G graph, long nodeId, Direction direction);
+
+        /**
+         * Returns a new base graph with the adjacencies of the given nodes, the given graph must not be changed.
+         */
+        G compact(G graph, Map<Long, Adjacency> outgoing, Map<Long, Adjacency> incoming);
+    }
+
+    /**
+     * The base graph together with the overlay that has to be applied to it.
+     */
+    public static final class State<G> {
+        public final G base;
+        private final ConcurrentHashMap<Long, Adjacency> outgoing;
+        private final ConcurrentHashMap<Long, Adjacency> incoming;
+        // the overlay entries of base nodes, only changed while holding the lock of the delta
+        private int compactable;
+
+        private State(
+                G base,
+                ConcurrentHashMap<Long, Adjacency> outgoing,
+                ConcurrentHashMap<Long, Adjacency> incoming,
+                long baseNodeCount) {
+            this.base = base;
+            this.outgoing = outgoing;
+            this.incoming = incoming;
+            for (long node : outgoing.keySet()) {
+                if (node < baseNodeCount) {
+                    compactable++;
+                }
+            }
+            for (long node : incoming.keySet()) {
+                if (node < baseNodeCount) {
+                    compactable++;
+                }
+            }
+        }
+
+        /**
+         * @param direction either {@link Direction#OUTGOING} or {@link Direction#INCOMING}
+         * @return the relationships of the node or null if the base has to be read
+         */
+        public Adjacency adjacency(long nodeId, Direction direction) {
+            ConcurrentHashMap<Long, Adjacency> overlay = direction == Direction.OUTGOING ? outgoing : incoming;
+            return overlay.isEmpty() ? null : overlay.get(nodeId);
+        }
+    }
+
+    /**
+     * The sorted targets of a node together with their weights. Instances are immutable.
+     */
+    public static final class Adjacency {
+        private static final Adjacency EMPTY = new Adjacency(new long[0], new double[0]);
+
+        private final long[] targets;
+        private final double[] weights;
+
+        public Adjacency(long[] targets, double[] weights) {
+            this.targets = targets;
+            this.weights = weights;
+        }
+
+        public int degree() {
+            return targets.length;
+        }
+
+        public long target(int index) {
+            return targets[index];
+        }
+
+        public double weight(int index) {
+            return weights[index];
+        }
+
+        /**
+         * @return the weight of the first relationship to the target or NaN if there is none
+         */
+        public double weightOf(long target) {
+            int index = Arrays.binarySearch(targets, target);
+            return index < 0 ? Double.NaN : weights[index];
+        }
+
+        Adjacency with(long target, double weight) {
+            int index = Arrays.binarySearch(targets, target);
+            int insert = index < 0 ? -index - 1 : index;
+            long[] newTargets = new long[targets.length + 1];
+            double[] newWeights = new double[weights.length + 1];
+            System.arraycopy(targets, 0, newTargets, 0, insert);
+            System.arraycopy(weights, 0, newWeights, 0, insert);
+            newTargets[insert] = target;
+            newWeights[insert] = weight;
+            System.arraycopy(targets, insert, newTargets, insert + 1, targets.length - insert);
+            System.arraycopy(weights, insert, newWeights, insert + 1, weights.length - insert);
+            return new Adjacency(newTargets, newWeights);
+        }
+
+        Adjacency without(long target) {
+            int index = Arrays.binarySearch(targets, target);
+            if (index < 0) {
+                return this;
+            }
+            long[] newTargets = new long[targets.length - 1];
+            double[] newWeights = new double[weights.length - 1];
+            System.arraycopy(targets, 0, newTargets, 0, index);
+            System.arraycopy(weights, 0, newWeights, 0, index);
+            System.arraycopy(targets, index + 1, newTargets, index, targets.length - index - 1);
+            System.arraycopy(weights, index + 1, newWeights, index, weights.length - index - 1);
+            return new Adjacency(newTargets, newWeights);
+        }
+
+        boolean contains(long target) {
+            return Arrays.binarySearch(targets, target) >= 0;
+        }
+
+        /**
+         * Creates an adjacency from the first {@code length} unsorted targets and weights.
+         * Both are copied before they are sorted, the given arrays are not changed.
+         */
+        public static Adjacency of(long[] targets, double[] weights, int length) {
+            if (length == 0) {
+                return EMPTY;
+            }
+            long[] sortedTargets = Arrays.copyOf(targets, length);
+            double[] sortedWeights = Arrays.copyOf(weights, length);
+            if (!isSorted(sortedTargets)) {
+                new HugeGraphFactory.TargetsAndWeightsSorter().sort(sortedTargets, sortedWeights, length);
+            }
+            return new Adjacency(sortedTargets, sortedWeights);
+        }
+
+        // the base is usually sorted already
+        private static boolean isSorted(long[] targets) {
+            for (int i = 1; i < targets.length; i++) {
+                if (targets[i - 1] > targets[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    /**
+     * The relevant changes of a transaction, read before the commit
+     * and applied after it succeeded.
+     */
+    static final class Changes {
+        private final List<Long> createdNodes = new ArrayList<>();
+        private final List<Long> deletedNodes = new ArrayList<>();
+        private final List<long[]> createdRelationships = new ArrayList<>();
+        private final List<Double> createdWeights = new ArrayList<>();
+        private final List<long[]> deletedRelationships = new ArrayList<>();
+    }
+
+    private final GraphDatabaseAPI api;
+    private final Base<G> base;
+    // the last transaction that had been committed before the graph was loaded
+    private final long loadTransactionId;
+    private final Label label;
+    private final String relationshipType;
+    private final String weightProperty;
+    private final double defaultWeight;
+    private final boolean loadOutgoing;
+    private final boolean loadIncoming;
+    private final boolean undirected;
+    private final int compactionThreshold;
+    private final ExecutorService executor;
+
+    // ids of the nodes that have been created after the load
+    private final Map<Long, Long> addedNodes = new ConcurrentHashMap<>();
+    private final Map<Long, Long> addedOriginalNodes = new ConcurrentHashMap<>();
+    private final Set<Long> deletedNodes = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean compacting = new AtomicBoolean();
+    private final AtomicBoolean closed = new AtomicBoolean();
+
+    // the transactions that have been committed while the graph is loaded, null once it has been loaded
+    private List<Changes> pending = new ArrayList<>();
+    private volatile State<G> state;
+    private volatile long baseNodeCount;
+    private volatile long nodeCount;
+    // a compaction replaces the base graph, so the flag cannot be kept by the base
+    private volatile boolean canRelease = true;
+
+    /**
+     * Creates the delta and starts to track the committed transactions.
+     * The graph has to be loaded afterwards and passed to {@link #loaded(Object, long)}.
+     *
+     * @param compactionThreshold the number of nodes in the overlay that triggers a compaction
+     */
+    public GraphDelta(
+            GraphDatabaseAPI api,
+            GraphSetup setup,
+            Base<G> base,
+            int compactionThreshold) {
+        this.api = api;
+        this.base = base;
+        this.label = setup.loadAnyLabel() ? null : Label.label(setup.startLabel);
+        this.relationshipType = setup.relationshipType;
+        this.weightProperty = setup.relationWeightPropertyName;
+        this.defaultWeight = setup.relationDefaultWeight;
+        this.undirected = setup.loadAsUndirected;
+        this.loadOutgoing = setup.loadOutgoing || undirected;
+        this.loadIncoming = setup.loadIncoming && !undirected;
+        this.compactionThreshold = compactionThreshold;
+        this.executor = setup.executor;
+        // registered first, so that no transaction between the two calls can be missed
+        api.registerTransactionEventHandler(this);
+        this.loadTransactionId = HugeGraphSnapshot.lastCommittedTransactionId(api);
+    }
+
+    /**
+     * Sets the graph that has been loaded after the delta was created
+     * and applies the transactions that have been committed in the meantime.
+     */
+    public void loaded(G graph, long nodeCount) {
+        synchronized (this) {
+            this.baseNodeCount = nodeCount;
+            this.nodeCount = nodeCount;
+            this.state = new State<>(graph, new ConcurrentHashMap<>(), new ConcurrentHashMap<>(), nodeCount);
+            for (Changes changes : pending) {
+                apply(changes, true);
+            }
+            pending = null;
+        }
+        compactIfNeeded();
+    }
+
+    /**
+     * @return the current base graph and overlay, which have to be read together
+     */
+    public State<G> state() {
+        return state;
+    }
+
+    public long nodeCount() {
+        return nodeCount;
+    }
+
+    public long baseNodeCount() {
+        return baseNodeCount;
+    }
+
+    /**
+     * @return the mapped id of a node that has been created after the load or -1
+     */
+    public long toAddedNodeId(long originalNodeId) {
+        return addedNodes.getOrDefault(originalNodeId, -1L);
+    }
+
+    /**
+     * @return the original id of a node that has been created after the load
+     */
+    public long toAddedOriginalNodeId(long nodeId) {
+        return addedOriginalNodes.getOrDefault(nodeId, -1L);
+    }
+
+    /**
+     * @return true if the mapped node has been deleted after the load
+     */
+    public boolean isDeleted(long nodeId) {
+        return !deletedNodes.isEmpty() && deletedNodes.contains(nodeId);
+    }
+
+    /**
+     * @return true if every relationship is stored once in the outgoing adjacency of both nodes
+     */
+    public boolean isUndirected() {
+        return undirected;
+    }
+
+    /**
+     * @return the number of nodes whose relationships are read from the overlay
+     */
+    public int overlaySize() {
+        State<G> state = this.state;
+        return state.outgoing.size() + state.incoming.size();
+    }
+
+    /**
+     * @return the number of nodes of the base graph whose relationships are read from the overlay,
+     * which are the ones that a compaction moves into the base
+     */
+    public synchronized int compactableSize() {
+        return state.compactable;
+    }
+
+    /**
+     * Stops tracking the committed transactions, closing it again does nothing.
+     */
+    public void close() {
+        if (closed.compareAndSet(false, true)) {
+            api.unregisterTransactionEventHandler(this);
+        }
+    }
+
+    /**
+     * @return false if the graphs that read this delta must not be released, shared by all copies of them
+     */
+    public boolean canRelease() {
+        return canRelease;
+    }
+
+    public void canRelease(boolean canRelease) {
+        this.canRelease = canRelease;
+    }
+
+    @Override
+    public Changes beforeCommit(TransactionData data) throws Exception {
+        Changes changes = new Changes();
+        for (Node node : data.createdNodes()) {
+            if (label == null || node.hasLabel(label)) {
+                changes.createdNodes.add(node.getId());
+            }
+        }
+        for (Relationship relationship : data.deletedRelationships()) {
+            if (isTracked(relationship)) {
+                changes.deletedRelationships.add(endNodes(relationship));
+            }
+        }
+        for (Relationship relationship : data.createdRelationships()) {
+            if (isTracked(relationship)) {
+                changes.createdRelationships.add(endNodes(relationship));
+                changes.createdWeights.add(weightProperty == null
+                        ? defaultWeight
+                        : RawValues.extractValue(relationship.getProperty(weightProperty, null), defaultWeight));
+            }
+        }
+        for (Node node : data.deletedNodes()) {
+            changes.deletedNodes.add(node.getId());
+        }
+        return changes;
+    }
+
+    @Override
+    public void afterCommit(TransactionData data, Changes changes) {
+        synchronized (this) {
+            if (pending != null) {
+                if (data.getTransactionId() > loadTransactionId) {
+                    pending.add(changes);
+                }
+                return;
+            }
+            apply(changes, false);
+        }
+        compactIfNeeded();
+    }
+
+    @Override
+    public void afterRollback(TransactionData data, Changes changes) {
+    }
+
+    /**
+     * @param replay true if the changes have been committed while the graph was loaded
+     *               and might already be part of it
+     */
+    private void apply(Changes changes, boolean replay) {
+        for (long node : changes.createdNodes) {
+            if (replay && base.toMappedNodeId(state.base, node) != -1L) {
+                continue;
+            }
+            long nodeId = nodeCount;
+            addedNodes.put(node, nodeId);
+            addedOriginalNodes.put(nodeId, node);
+            nodeCount = nodeId + 1L;
+        }
+        for (long[] relationship : changes.deletedRelationships) {
+            long source = toMappedNodeId(relationship[0]);
+            long target = toMappedNodeId(relationship[1]);
+            if (source != -1L && target != -1L) {
+                removeRelationship(source, target);
+            }
+        }
+        for (int i = 0; i < changes.createdRelationships.size(); i++) {
+            long[] relationship = changes.createdRelationships.get(i);
+            long source = toMappedNodeId(relationship[0]);
+            long target = toMappedNodeId(relationship[1]);
+            if (source != -1L && target != -1L) {
+                addRelationship(source, target, changes.createdWeights.get(i), replay);
+            }
+        }
+        for (long node : changes.deletedNodes) {
+            long nodeId = toMappedNodeId(node);
+            if (nodeId != -1L) {
+                deletedNodes.add(nodeId);
+            }
+        }
+    }
+
+    private void compactIfNeeded() {
+        // nodes that have been created after the load stay in the overlay, they must not trigger compactions
+        if (compactableSize() >= compactionThreshold) {
+            compactInBackground();
+        }
+    }
+
+    /**
+     * Compacts the overlay into a new base graph. Does nothing if another compaction is running.
+     * The nodes that have been created after the load stay in the overlay.
+     */
+    public void compact() {
+        if (!compacting.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            State<G> current = this.state;
+            Map<Long, Adjacency> outgoing = compactable(current.outgoing);
+            Map<Long, Adjacency> incoming = compactable(current.incoming);
+            if (outgoing.isEmpty() && incoming.isEmpty()) {
+                return;
+            }
+            G compacted = base.compact(current.base, outgoing, incoming);
+            synchronized (this) {
+                // changes that have been committed during the compaction stay in the overlay
+                this.state = new State<>(
+                        compacted,
+                        remaining(state.outgoing, outgoing),
+                        remaining(state.incoming, incoming),
+                        baseNodeCount);
+            }
+        } finally {
+            compacting.set(false);
+        }
+    }
+
+    private void compactInBackground() {
+        if (compacting.get()) {
+            return;
+        }
+        if (executor == null) {
+            compact();
+            return;
+        }
+        try {
+            executor.execute(this::compact);
+        } catch (RejectedExecutionException e) {
+            compact();
+        }
+    }
+
+    private Map<Long, Adjacency> compactable(ConcurrentHashMap<Long, Adjacency> overlay) {
+        Map<Long, Adjacency> nodes = new HashMap<>();
+        overlay.forEach((node, adjacency) -> {
+            if (node < baseNodeCount) {
+                nodes.put(node, adjacency);
+            }
+        });
+        return nodes;
+    }
+
+    private static ConcurrentHashMap<Long, Adjacency> remaining(
+            ConcurrentHashMap<Long, Adjacency> overlay,
+            Map<Long, Adjacency> compacted) {
+        ConcurrentHashMap<Long, Adjacency> remaining = new ConcurrentHashMap<>(overlay);
+        remaining.entrySet().removeIf(e -> compacted.get(e.getKey()) == e.getValue());
+        return remaining;
+    }
+
+    private boolean isTracked(Relationship relationship) {
+        return relationshipType == null || relationship.isType(org.neo4j.graphdb.RelationshipType.withName(relationshipType));
+    }
+
+    private static long[] endNodes(Relationship relationship) {
+        return new long[]{relationship.getStartNode().getId(), relationship.getEndNode().getId()};
+    }
+
+    private long toMappedNodeId(long originalNodeId) {
+        long nodeId = base.toMappedNodeId(state.base, originalNodeId);
+        return nodeId != -1L ? nodeId : toAddedNodeId(originalNodeId);
+    }
+
+    /**
+     * @param unlessPresent true if the relationship is not added to a node that already has the target
+     */
+    private void addRelationship(long source, long target, double weight, boolean unlessPresent) {
+        if (undirected) {
+            // an undirected graph stores every neighbour once
+            Adjacency sourceAdjacency = adjacency(source, Direction.OUTGOING);
+            if (!sourceAdjacency.contains(target)) {
+                update(source, Direction.OUTGOING, sourceAdjacency.with(target, weight));
+                if (source != target) {
+                    update(target, Direction.OUTGOING, adjacency(target, Direction.OUTGOING).with(source, weight));
+                }
+            }
+            return;
+        }
+        if (loadOutgoing) {
+            Adjacency adjacency = adjacency(source, Direction.OUTGOING);
+            if (!unlessPresent || !adjacency.contains(target)) {
+                update(source, Direction.OUTGOING, adjacency.with(target, weight));
+            }
+        }
+        if (loadIncoming) {
+            Adjacency adjacency = adjacency(target, Direction.INCOMING);
+            if (!unlessPresent || !adjacency.contains(source)) {
+                update(target, Direction.INCOMING, adjacency.with(source, weight));
+            }
+        }
+    }
+
+    private void removeRelationship(long source, long target) {
+        if (undirected) {
+            update(source, Direction.OUTGOING, adjacency(source, Direction.OUTGOING).without(target));
+            update(target, Direction.OUTGOING, adjacency(target, Direction.OUTGOING).without(source));
+            return;
+        }
+        if (loadOutgoing) {
+            update(source, Direction.OUTGOING, adjacency(source, Direction.OUTGOING).without(target));
+        }
+        if (loadIncoming) {
+            update(target, Direction.INCOMING, adjacency(target, Direction.INCOMING).without(source));
+        }
+    }
+
+    private Adjacency adjacency(long nodeId, Direction direction) {
+        State<G> state = this.state;
+        Adjacency adjacency = (direction == Direction.OUTGOING ? state.outgoing : state.incoming).get(nodeId);
+        if (adjacency != null) {
+            return adjacency;
+        }
+        return nodeId < baseNodeCount ? base.adjacency(state.base, nodeId, direction) : Adjacency.EMPTY;
+    }
+
+    private void update(long nodeId, Direction direction, Adjacency adjacency) {
+        State<G> state = this.state;
+        Adjacency previous = (direction == Direction.OUTGOING ? state.outgoing : state.incoming).put(nodeId, adjacency);
+        if (previous == null && nodeId < baseNodeCount) {
+            state.compactable++;
+        }
+    }
+
+    /**
+     * @return an iterator over the ids from start (inclusive) to end (exclusive)
+     */
+    public static PrimitiveLongIterator nodeRange(long start, long end) {
+        return new PrimitiveLongIterator() {
+            private long current = start;
+
+            @Override
+            public boolean hasNext() {
+                return current < end;
+            }
+
+            @Override
+            public long next() {
+                return current++;
+            }
+        };
+    }
+}
@@ -0,0 +1,80 @@
+package org.neo4j.graphalgo.core.loading;
+
+import org.neo4j.graphalgo.api.Graph;
+import org.neo4j.graphalgo.api.GraphFactory;
+import org.neo4j.graphalgo.api.GraphSetup;
+import org.neo4j.graphalgo.core.utils.paged.MemoryRange;
+import org.neo4j.graphdb.Direction;
+import org.neo4j.kernel.internal.GraphDatabaseAPI;
+
+/**
+ * GraphFactory that does not load anything from the store but returns
+ * the graph that has been stored under {@link GraphSetup#name} in the
+ * {@link GraphCatalog}.
+ */
+public final class LoadGraphFactory extends GraphFactory {
+
+    public LoadGraphFactory(
+            GraphDatabaseAPI api,
+            GraphSetup setup) {
+        super(api, setup);
+    }
+
+    /**
+     * @throws IllegalArgumentException if the named graph lacks the requested direction
+     *                                  or has been loaded with other weights
+     */
+    @Override
+    public Graph build() {
+        GraphCatalog.Entry entry = GraphCatalog.entry(setup.name);
+        if (entry == null) {
+            throw new IllegalArgumentException("No graph has been loaded under the name '" + setup.name + "'");
+        }
+        checkCompatible(entry);
+        return entry.graph;
+    }
+
+    /**
+     * The named graph is used as it has been loaded, a configuration that would load
+     * a different graph fails instead of being ignored.
+     */
+    private void checkCompatible(GraphCatalog.Entry entry) {
+        if (entry.direction == null) {
+            return;
+        }
+        boolean hasIncoming = entry.direction == Direction.INCOMING || entry.direction == Direction.BOTH;
+        boolean hasOutgoing = entry.direction == Direction.OUTGOING || entry.direction == Direction.BOTH;
+        if ((setup.loadIncoming && !hasIncoming) || (setup.loadOutgoing && !hasOutgoing)) {
+            throw new IllegalArgumentException(String.format(
+                    "The graph '%s' has been loaded with direction %s and cannot be used with direction %s",
+                    entry.name,
+                    entry.direction,
+                    direction(setup)));
+        }
+        String weightProperty = setup.relationWeightPropertyName;
+        if (weightProperty != null && !weightProperty.equals(entry.weightProperty)) {
+            throw new IllegalArgumentException(String.format(
+                    "The graph '%s' has been loaded %s and cannot be used with the weight property '%s'",
+                    entry.name,
+                    entry.weightProperty == null
+                            ? "without weights"
+                            : "with the weight property '" + entry.weightProperty + "'",
+                    weightProperty));
+        }
+    }
+
+    private static Direction direction(GraphSetup setup) {
+        if (setup.loadIncoming && setup.loadOutgoing) {
+            return Direction.BOTH;
+        }
+        return setup.loadIncoming ? Direction.INCOMING : Direction.OUTGOING;
+    }
+
+    /**
+     * The named graph has already been loaded and does not require any additional memory.
+     */
+    @Override
+    public MemoryRange memoryEstimation() {
+        return MemoryRange.empty();
+    }
+}
@@ -0,0 +1,78 @@
+package org.neo4j.graphalgo.core.neo4jview;
+
+import org.neo4j.graphdb.Direction;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+
+/**
+ * Keeps the relationship blocks of the most recently read nodes of a single thread.
+ * The cache holds at most {@code capacity} relationships, every block counts as one
+ * additional relationship so that the number of empty blocks is bounded as well.
+ * The blocks that have not been read for the longest time are evicted first.
+ * Blocks of nodes with more relationships than the capacity are never cached.
+ * <p>
+ * Not thread-safe, every thread uses its own cache.
+ */
+final class AdjacencyCache {
+
+    // bytes per cached relationship: target, relationship id and weight
+    static final long BYTES_PER_RELATIONSHIP = Integer.BYTES + Long.BYTES + Double.BYTES;
+
+    private final long capacity;
+    private final LinkedHashMap<Long, RelationshipBlock> blocks;
+    private long size;
+
+    AdjacencyCache(long capacity) {
+        this.capacity = capacity;
+        this.blocks = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    /**
+     * @return the cached block of the node, or null if it is not cached or was cached without weights
+     */
+    RelationshipBlock get(int nodeId, Direction direction, boolean withWeights) {
+        final RelationshipBlock block = blocks.get(key(nodeId, direction));
+        if (block == null || (withWeights && !block.hasWeights())) {
+            return null;
+        }
+        return block;
+    }
+
+    void put(int nodeId, Direction direction, RelationshipBlock block) {
+        if (sizeOf(block) > capacity) {
+            return;
+        }
+        block.trim();
+        final RelationshipBlock previous = blocks.put(key(nodeId, direction), block);
+        if (previous != null) {
+            size -= sizeOf(previous);
+        }
+        size += sizeOf(block);
+        final Iterator<RelationshipBlock> eldest = blocks.values().iterator();
+        while (size > capacity) {
+            size -= sizeOf(eldest.next());
+            eldest.remove();
+        }
+    }
+
+    /**
+     * Drops all blocks, used once the graph is released.
+     */
+    void clear() {
+        blocks.clear();
+        size = 0L;
+    }
+
+    long size() {
+        return size;
+    }
+
+    private static long sizeOf(RelationshipBlock block) {
+        return block.length() + 1L;
+    }
+
+    private static Long key(int nodeId, Direction direction) {
+        return ((long) nodeId << 2) | direction.ordinal();
+    }
+}
@@ -5,6 +5,7 @@ import org.neo4j.collection.primitive.PrimitiveIntIterator;
 import org.neo4j.collection.primitive.PrimitiveLongIterator;
 import org.neo4j.graphalgo.api.*;
 import org.neo4j.graphalgo.core.IdMap;
+import org.neo4j.graphalgo.core.utils.BufferedAdjacencyCursor;
 import org.neo4j.graphalgo.core.utils.RawValues;
 import org.neo4j.graphdb.Direction;
 import org.neo4j.graphdb.Transaction;
@@ -21,6 +22,8 @@ import org.neo4j.kernel.internal.GraphDatabaseAPI;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.function.*;
 
 /**
@@ -34,6 +37,10 @@ public class GraphView implements Graph {
     private final GraphDatabaseAPI db;
 
     private final double propertyDefaultWeight;
+    private final boolean sorted;
+    private ThreadLocal<AdjacencyCache> caches;
+    // the caches of all threads, the pool threads keep their thread local values after the graph is released
+    private final Queue<AdjacencyCache> allCaches = new ConcurrentLinkedQueue<>();
     private int relationTypeId;
     private int nodeCount;
     private int propertyKey;
@@ -41,7 +48,32 @@ public class GraphView implements Graph {
     private final IdMapping idMapping;
 
     public GraphView(GraphDatabaseAPI db, String label, String relation, String propertyName, double propertyDefaultWeight) {
+        this(db, label, relation, propertyName, propertyDefaultWeight, false, 0);
+    }
+
+    /**
+     * @param sorted true if the relationships of a node should be passed in ascending order of their targets,
+     *               they are collected and sorted every time they are read from the store
+     * @param cacheSize the number of relationships every thread keeps in memory after reading them
+     *                  from the store, 0 reads every relationship from the store on every visit
+     */
+    public GraphView(
+            GraphDatabaseAPI db,
+            String label,
+            String relation,
+            String propertyName,
+            double propertyDefaultWeight,
+            boolean sorted,
+            long cacheSize) {
         this.db = db;
+        this.sorted = sorted;
+        if (cacheSize > 0) {
+            this.caches = ThreadLocal.withInitial(() -> {
+                AdjacencyCache cache = new AdjacencyCache(cacheSize);
+                allCaches.add(cache);
+                return cache;
+            });
+        }
         contextBridge = db.getDependencyResolver()
                 .resolveDependency(ThreadToStatementContextBridge.class);
         this.propertyDefaultWeight = propertyDefaultWeight;
@@ -82,11 +114,60 @@ public class GraphView implements Graph {
         forAllRelationships(nodeId, direction, true, consumer);
     }
 
+    /**
+     * The relationships of a node are read within a single transaction
+     * and then handed out from a buffer.
+     */
+    @Override
+    public AdjacencyCursor newAdjacencyCursor() {
+        return new BufferedAdjacencyCursor() {
+            @Override
+            protected void load(long nodeId, Direction direction, boolean withWeights) {
+                forAllRelationships((int) nodeId, direction, withWeights, (s, t, r, w) -> add(t, w));
+            }
+        };
+    }
+
+    @Override
+    public boolean hasSortedAdjacency(Direction direction) {
+        return sorted;
+    }
+
     private void forAllRelationships(
             int nodeId,
             Direction direction,
             boolean readWeights,
             WeightedRelationshipConsumer action) {
+        final ThreadLocal<AdjacencyCache> caches = this.caches;
+        if (caches != null) {
+            final AdjacencyCache cache = caches.get();
+            RelationshipBlock block = cache.get(nodeId, direction, readWeights);
+            if (block == null) {
+                block = readBlock(nodeId, direction, readWeights);
+                cache.put(nodeId, direction, block);
+            }
+            block.forEach(nodeId, action);
+        } else if (sorted) {
+            readBlock(nodeId, direction, readWeights).forEach(nodeId, action);
+        } else {
+            readRelationships(nodeId, direction, readWeights, action);
+        }
+    }
+
+    private RelationshipBlock readBlock(int nodeId, Direction direction, boolean readWeights) {
+        final RelationshipBlock block = new RelationshipBlock(readWeights);
+        readRelationships(nodeId, direction, readWeights, block);
+        if (sorted) {
+            block.sort();
+        }
+        return block;
+    }
+
+    private void readRelationships(
+            int nodeId,
+            Direction direction,
+            boolean readWeights,
+            WeightedRelationshipConsumer action) {
         final long originalNodeId = toOriginalNodeId(nodeId);
         try {
             withinTransaction(read -> {
@@ -126,6 +207,24 @@ public class GraphView implements Graph {
         }
     }
 
+    /**
+     * Drops the cached relationships of all threads, the graph reads from the store afterwards.
+     * Must not be called while other threads read the graph.
+     */
+    @Override
+    public void release() {
+        final ThreadLocal<AdjacencyCache> caches = this.caches;
+        if (caches == null) {
+            return;
+        }
+        this.caches = null;
+        caches.remove();
+        AdjacencyCache cache;
+        while ((cache = allCaches.poll()) != null) {
+            cache.clear();
+        }
+    }
+
     @Override
     public long nodeCount() {
         return nodeCount;
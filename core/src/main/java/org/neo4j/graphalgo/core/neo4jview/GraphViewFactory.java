@@ -3,6 +3,8 @@ package org.neo4j.graphalgo.core.neo4jview;
 import org.neo4j.graphalgo.api.Graph;
 import org.neo4j.graphalgo.api.GraphFactory;
 import org.neo4j.graphalgo.api.GraphSetup;
+import org.neo4j.graphalgo.core.utils.Pools;
+import org.neo4j.graphalgo.core.utils.paged.MemoryRange;
 import org.neo4j.kernel.internal.GraphDatabaseAPI;
 
 public final class GraphViewFactory extends GraphFactory {
@@ -20,6 +22,23 @@ public final class GraphViewFactory extends GraphFactory {
                 setup.startLabel,
                 setup.relationshipType,
                 setup.relationWeightPropertyName,
-                setup.relationDefaultWeight);
+                setup.relationDefaultWeight,
+                setup.sortAdjacency,
+                setup.kernelCacheSize);
+    }
+
+    /**
+     * The view reads everything from the store and does not load anything into memory,
+     * except for the relationships that every thread caches. Any thread of the pool that
+     * the algorithms run in and the calling thread can end up with a cache, regardless
+     * of the configured concurrency.
+     */
+    @Override
+    public MemoryRange memoryEstimation() {
+        if (setup.kernelCacheSize <= 0) {
+            return MemoryRange.empty();
+        }
+        long threads = Pools.DEFAULT_MAX_POOL_SIZE + 1L;
+        return MemoryRange.of(0L, setup.kernelCacheSize * AdjacencyCache.BYTES_PER_RELATIONSHIP * threads);
     }
 }
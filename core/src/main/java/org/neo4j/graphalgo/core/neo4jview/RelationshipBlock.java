@@ -0,0 +1,98 @@
+package org.neo4j.graphalgo.core.neo4jview;
+
+import org.apache.lucene.util.ArrayUtil;
+import org.neo4j.graphalgo.api.WeightedRelationshipConsumer;
+
+import java.util.Arrays;
+
+/**
+ * The relationships of a single node in primitive arrays, collected from
+ * the kernel and handed out again without touching the store.
+ */
+final class RelationshipBlock implements WeightedRelationshipConsumer {
+
+    private int[] targets = new int[16];
+    private long[] relationIds = new long[16];
+    private double[] weights;
+    private int length;
+
+    /**
+     * @param withWeights true if the weights are collected, otherwise every weight is 0
+     */
+    RelationshipBlock(boolean withWeights) {
+        weights = withWeights ? new double[16] : null;
+    }
+
+    @Override
+    public boolean accept(int sourceNodeId, int targetNodeId, long relationId, double weight) {
+        if (length == targets.length) {
+            targets = ArrayUtil.grow(targets, length + 1);
+            relationIds = Arrays.copyOf(relationIds, targets.length);
+            if (weights != null) {
+                weights = Arrays.copyOf(weights, targets.length);
+            }
+        }
+        targets[length] = targetNodeId;
+        relationIds[length] = relationId;
+        if (weights != null) {
+            weights[length] = weight;
+        }
+        ++length;
+        return true;
+    }
+
+    int length() {
+        return length;
+    }
+
+    boolean hasWeights() {
+        return weights != null;
+    }
+
+    /**
+     * Sorts the relationships ascending by their targets, parallel relationships keep their order.
+     */
+    void sort() {
+        // the target in the upper and the index of the relationship in the lower half
+        final long[] keys = new long[length];
+        for (int i = 0; i < length; i++) {
+            keys[i] = ((long) targets[i] << 32) | i;
+        }
+        Arrays.sort(keys);
+        final long[] sortedIds = new long[length];
+        final double[] sortedWeights = weights != null ? new double[length] : null;
+        for (int i = 0; i < length; i++) {
+            final int index = (int) keys[i];
+            targets[i] = (int) (keys[i] >>> 32);
+            sortedIds[i] = relationIds[index];
+            if (sortedWeights != null) {
+                sortedWeights[i] = weights[index];
+            }
+        }
+        relationIds = sortedIds;
+        weights = sortedWeights;
+    }
+
+    /**
+     * Shrinks the arrays to the number of relationships before the block is kept around.
+     */
+    void trim() {
+        if (targets.length != length) {
+            targets = Arrays.copyOf(targets, length);
+            relationIds = Arrays.copyOf(relationIds, length);
+            if (weights != null) {
+                weights = Arrays.copyOf(weights, length);
+            }
+        }
+    }
+
+    void forEach(int nodeId, WeightedRelationshipConsumer consumer) {
+        final double[] weights = this.weights;
+        for (int i = 0; i < length; i++) {
+            final double weight = weights != null ? weights[i] : 0.0;
+            if (!consumer.accept(nodeId, targets[i], relationIds[i], weight)) {
+                return;
+            }
+        }
+    }
+}
@@ -0,0 +1,215 @@
+package org.neo4j.graphalgo.core.utils;
+
+import org.apache.lucene.util.ArrayUtil;
+import org.neo4j.graphalgo.api.AdjacencyCursor;
+import org.neo4j.graphalgo.api.Graph;
+import org.neo4j.graphalgo.api.RelationshipIntersect;
+import org.neo4j.graphdb.Direction;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * A {@link RelationshipIntersect} that copies the targets of both nodes with an
+ * {@link AdjacencyCursor} and sorts them, unless the graph keeps them sorted.
+ * <p>
+ * The neighbors of one node can be read once and intersected with those of many
+ * other nodes, see {@link #readNeighbors(int)}.
+ * <p>
+ * The static methods intersect sorted slices of int arrays and can be used by
+ * graphs that store their targets in such arrays. Two lists of similar length are
+ * merged, if one list is much shorter, its targets are searched in the longer list
+ * by galloping (exponential search), which skips over most of the longer list.
+ */
+public final class AdjacencyIntersect implements RelationshipIntersect {
+
+    /**
+     * lists whose length differs by more than this factor are intersected by galloping
+     */
+    static final int GALLOP_RATIO = 16;
+
+    private final AdjacencyCursor cursor;
+    private final Direction direction;
+    private final boolean sorted;
+    private final int[] buffer = new int[AdjacencyCursor.BATCH_SIZE];
+
+    private int[] targetsA = new int[16];
+    private int[] targetsB = new int[16];
+    private int neighbors;
+
+    public AdjacencyIntersect(Graph graph, Direction direction) {
+        this.cursor = graph.newAdjacencyCursor();
+        this.direction = direction;
+        this.sorted = graph.hasSortedAdjacency(direction);
+    }
+
+    @Override
+    public void intersect(int nodeA, int nodeB, IntConsumer consumer) {
+        final int lengthA = read(nodeA, true);
+        final int lengthB = read(nodeB, false);
+        intersect(targetsA, 0, lengthA, targetsB, 0, lengthB, consumer);
+    }
+
+    /**
+     * Reads the distinct neighbors of the node in ascending order. They are kept until the
+     * next call of this method or of {@link #intersect(int, int, IntConsumer)} and can be
+     * intersected with the neighbors of any number of other nodes by
+     * {@link #intersectNeighbors(int, int, IntConsumer)}, so that they are read and sorted only once.
+     *
+     * @return the number of distinct neighbors
+     */
+    public int readNeighbors(int nodeId) {
+        final int length = read(nodeId, true);
+        final int[] targets = targetsA;
+        int distinct = 0;
+        for (int i = 0; i < length; i++) {
+            if (distinct == 0 || targets[distinct - 1] != targets[i]) {
+                targets[distinct++] = targets[i];
+            }
+        }
+        neighbors = distinct;
+        return distinct;
+    }
+
+    /**
+     * @return the neighbor at the index of the last {@link #readNeighbors(int)}
+     */
+    public int neighbor(int index) {
+        assert index < neighbors;
+        return targetsA[index];
+    }
+
+    /**
+     * Calls the consumer for every neighbor of the node that is also one of the neighbors
+     * of the last {@link #readNeighbors(int)} from the index on, in ascending order.
+     */
+    public void intersectNeighbors(int fromIndex, int nodeId, IntConsumer consumer) {
+        final int length = read(nodeId, false);
+        intersect(targetsA, fromIndex, neighbors, targetsB, 0, length, consumer);
+    }
+
+    /**
+     * Copies the targets of the node into the first or second list.
+     *
+     * @return the number of targets
+     */
+    private int read(int nodeId, boolean first) {
+        int[] targets = first ? targetsA : targetsB;
+        int length = 0;
+        int read;
+        cursor.init(nodeId, direction);
+        while ((read = cursor.next(buffer)) > 0) {
+            targets = ArrayUtil.grow(targets, length + read);
+            System.arraycopy(buffer, 0, targets, length, read);
+            length += read;
+        }
+        if (!sorted) {
+            Arrays.sort(targets, 0, length);
+        }
+        if (first) {
+            targetsA = targets;
+        } else {
+            targetsB = targets;
+        }
+        return length;
+    }
+
+    /**
+     * Calls the consumer for every value that is contained in both sorted slices,
+     * in ascending order and only once per value.
+     *
+     * @param a     the first sorted list
+     * @param fromA the index of the first value of the first list, inclusive
+     * @param toA   the end of the first list, exclusive
+     * @param b     the second sorted list
+     * @param fromB the index of the first value of the second list, inclusive
+     * @param toB   the end of the second list, exclusive
+     */
+    public static void intersect(
+            int[] a,
+            int fromA,
+            int toA,
+            int[] b,
+            int fromB,
+            int toB,
+            IntConsumer consumer) {
+        final int lengthA = toA - fromA;
+        final int lengthB = toB - fromB;
+        if (lengthA <= 0 || lengthB <= 0) {
+            return;
+        }
+        if ((long) lengthA * GALLOP_RATIO < lengthB) {
+            gallop(a, fromA, toA, b, fromB, toB, consumer);
+        } else if ((long) lengthB * GALLOP_RATIO < lengthA) {
+            gallop(b, fromB, toB, a, fromA, toA, consumer);
+        } else {
+            merge(a, fromA, toA, b, fromB, toB, consumer);
+        }
+    }
+
+    private static void merge(
+            int[] a,
+            int fromA,
+            int toA,
+            int[] b,
+            int fromB,
+            int toB,
+            IntConsumer consumer) {
+        int i = fromA;
+        int j = fromB;
+        while (i < toA && j < toB) {
+            final int x = a[i];
+            final int y = b[j];
+            if (x < y) {
+                ++i;
+            } else if (x > y) {
+                ++j;
+            } else {
+                consumer.accept(x);
+                // skip parallel relationships
+                while (++i < toA && a[i] == x);
+                while (++j < toB && b[j] == x);
+            }
+        }
+    }
+
+    /**
+     * Searches every value of the short list in the long list.
+     */
+    private static void gallop(
+            int[] small,
+            int fromSmall,
+            int toSmall,
+            int[] large,
+            int fromLarge,
+            int toLarge,
+            IntConsumer consumer) {
+        int j = fromLarge;
+        for (int i = fromSmall; i < toSmall && j < toLarge; i++) {
+            final int value = small[i];
+            if (i > fromSmall && small[i - 1] == value) {
+                continue;
+            }
+            j = advance(large, j, toLarge, value);
+            if (j < toLarge && large[j] == value) {
+                consumer.accept(value);
+                ++j;
+            }
+        }
+    }
+
+    /**
+     * @return the index of the value in the sorted slice, or the index of the
+     * first larger value, or {@code to} if all values are smaller
+     */
+    static int advance(int[] values, int from, int to, int value) {
+        int low = from;
+        int bound = 1;
+        while (from + bound < to && values[from + bound] < value) {
+            low = from + bound;
+            bound <<= 1;
+        }
+        final int index = Arrays.binarySearch(values, low, Math.min(from + bound + 1, to), value);
+        return index >= 0 ? index : -(index + 1);
+    }
+}
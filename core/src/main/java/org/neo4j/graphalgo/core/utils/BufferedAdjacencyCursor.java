@@ -0,0 +1,152 @@
+package org.neo4j.graphalgo.core.utils;
+
+import org.apache.lucene.util.ArrayUtil;
+import org.neo4j.graphalgo.api.AdjacencyCursor;
+import org.neo4j.graphalgo.api.Graph;
+import org.neo4j.graphalgo.api.HugeGraph;
+import org.neo4j.graphalgo.api.HugeRelationshipConsumer;
+import org.neo4j.graphalgo.api.HugeRelationshipIterator;
+import org.neo4j.graphalgo.api.HugeWeightedRelationshipConsumer;
+import org.neo4j.graphalgo.api.RelationshipConsumer;
+import org.neo4j.graphalgo.api.RelationshipIterator;
+import org.neo4j.graphalgo.api.WeightedRelationshipConsumer;
+import org.neo4j.graphdb.Direction;
+
+/**
+ * An {@link AdjacencyCursor} that collects all relationships of a node
+ * into a buffer the first time it is read and then hands them out in batches.
+ * <p>
+ * This is the cursor of graphs that can only be traversed with consumers,
+ * the relationships are read once per {@link #init(long, Direction)}.
+ */
+public abstract class BufferedAdjacencyCursor implements AdjacencyCursor {
+
+    private long nodeId;
+    private Direction direction;
+    private boolean loaded;
+    private boolean loadedWeights;
+
+    private long[] targets = new long[16];
+    private double[] weights = new double[16];
+    private int length;
+    private int position;
+
+    /**
+     * @return a cursor that reads the relationships with the consumers of the iterator
+     */
+    public static AdjacencyCursor of(RelationshipIterator iterator) {
+        return new BufferedAdjacencyCursor() {
+            @Override
+            protected void load(long nodeId, Direction direction, boolean withWeights) {
+                if (withWeights) {
+                    if (!(iterator instanceof Graph)) {
+                        throw new UnsupportedOperationException(
+                                iterator.getClass().getSimpleName() + " does not provide weights");
+                    }
+                    ((Graph) iterator).forEachRelationship(
+                            (int) nodeId,
+                            direction,
+                            (WeightedRelationshipConsumer) (s, t, r, w) -> add(t, w));
+                } else {
+                    iterator.forEachRelationship((int) nodeId, direction, (RelationshipConsumer) (s, t, r) -> add(t, 0.0));
+                }
+            }
+        };
+    }
+
+    /**
+     * @return a cursor that reads the relationships with the consumers of the iterator
+     */
+    public static AdjacencyCursor of(HugeRelationshipIterator iterator) {
+        return new BufferedAdjacencyCursor() {
+            @Override
+            protected void load(long nodeId, Direction direction, boolean withWeights) {
+                if (withWeights) {
+                    if (!(iterator instanceof HugeGraph)) {
+                        throw new UnsupportedOperationException(
+                                iterator.getClass().getSimpleName() + " does not provide weights");
+                    }
+                    ((HugeGraph) iterator).forEachRelationship(
+                            nodeId,
+                            direction,
+                            (HugeWeightedRelationshipConsumer) (s, t, w) -> add(t, w));
+                } else {
+                    iterator.forEachRelationship(nodeId, direction, (HugeRelationshipConsumer) (s, t) -> add(t, 0.0));
+                }
+            }
+        };
+    }
+
+    @Override
+    public final void init(long nodeId, Direction direction) {
+        this.nodeId = nodeId;
+        this.direction = direction;
+        this.loaded = false;
+        this.length = 0;
+        this.position = 0;
+    }
+
+    /**
+     * Reads all relationships of the node and {@link #add(long, double) adds} them to the buffer.
+     *
+     * @param withWeights whether the weights have to be read, the weight can be anything otherwise
+     */
+    protected abstract void load(long nodeId, Direction direction, boolean withWeights);
+
+    protected final boolean add(long target, double weight) {
+        if (length == targets.length) {
+            targets = ArrayUtil.grow(targets, length + 1);
+            weights = ArrayUtil.grow(weights, targets.length);
+        }
+        targets[length] = target;
+        weights[length++] = weight;
+        return true;
+    }
+
+    @Override
+    public final int next(int[] targets) {
+        int length = remaining(targets.length, false);
+        for (int i = 0; i < length; i++) {
+            targets[i] = (int) this.targets[position++];
+        }
+        return length;
+    }
+
+    @Override
+    public final int next(long[] targets) {
+        int length = remaining(targets.length, false);
+        System.arraycopy(this.targets, position, targets, 0, length);
+        position += length;
+        return length;
+    }
+
+    @Override
+    public final int next(int[] targets, double[] weights) {
+        int length = remaining(Math.min(targets.length, weights.length), true);
+        System.arraycopy(this.weights, position, weights, 0, length);
+        for (int i = 0; i < length; i++) {
+            targets[i] = (int) this.targets[position++];
+        }
+        return length;
+    }
+
+    @Override
+    public final int next(long[] targets, double[] weights) {
+        int length = remaining(Math.min(targets.length, weights.length), true);
+        System.arraycopy(this.targets, position, targets, 0, length);
+        System.arraycopy(this.weights, position, weights, 0, length);
+        position += length;
+        return length;
+    }
+
+    private int remaining(int capacity, boolean withWeights) {
+        if (!loaded || (withWeights && !loadedWeights)) {
+            // the relationships are read again in the same order, only with weights
+            length = 0;
+            load(nodeId, direction, withWeights);
+            loaded = true;
+            loadedWeights = withWeights;
+        }
+        return Math.min(capacity, length - position);
+    }
+}
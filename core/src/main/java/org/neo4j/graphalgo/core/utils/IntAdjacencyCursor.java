@@ -0,0 +1,88 @@
+package org.neo4j.graphalgo.core.utils;
+
+import org.neo4j.graphalgo.api.AdjacencyCursor;
+import org.neo4j.graphdb.Direction;
+
+/**
+ * Base class of the {@link AdjacencyCursor}s of graphs that store int ids.
+ * <p>
+ * Implementations read a single direction, {@link Direction#BOTH} is read as
+ * the incoming relationships followed by the outgoing ones. Long buffers are
+ * filled through an int buffer that is kept by the cursor.
+ */
+public abstract class IntAdjacencyCursor implements AdjacencyCursor {
+
+    private static final int[] EMPTY_INTS = new int[0];
+
+    private int nodeId;
+    private boolean outgoingPending;
+    private int[] buffer = EMPTY_INTS;
+
+    @Override
+    public final void init(long nodeId, Direction direction) {
+        this.nodeId = (int) nodeId;
+        this.outgoingPending = direction == Direction.BOTH;
+        open(this.nodeId, outgoingPending ? Direction.INCOMING : direction);
+    }
+
+    /**
+     * Moves the cursor to the relationships of the node in either
+     * {@link Direction#INCOMING} or {@link Direction#OUTGOING} direction.
+     */
+    protected abstract void open(int nodeId, Direction direction);
+
+    /**
+     * Copies at most {@code length} targets and, if the weights are not null,
+     * their weights of the current direction into the buffers.
+     *
+     * @return the number of copied relationships or 0 if the direction is exhausted
+     */
+    protected abstract int read(int[] targets, double[] weights, int length);
+
+    @Override
+    public final int next(int[] targets) {
+        return next(targets, null, targets.length);
+    }
+
+    @Override
+    public final int next(int[] targets, double[] weights) {
+        return next(targets, weights, Math.min(targets.length, weights.length));
+    }
+
+    @Override
+    public final int next(long[] targets) {
+        int[] buffer = buffer(targets.length);
+        int length = next(buffer, null, targets.length);
+        for (int i = 0; i < length; i++) {
+            targets[i] = buffer[i];
+        }
+        return length;
+    }
+
+    @Override
+    public final int next(long[] targets, double[] weights) {
+        int[] buffer = buffer(targets.length);
+        int length = next(buffer, weights, Math.min(targets.length, weights.length));
+        for (int i = 0; i < length; i++) {
+            targets[i] = buffer[i];
+        }
+        return length;
+    }
+
+    private int next(int[] targets, double[] weights, int length) {
+        int read = read(targets, weights, length);
+        if (read == 0 && outgoingPending) {
+            outgoingPending = false;
+            open(nodeId, Direction.OUTGOING);
+            read = read(targets, weights, length);
+        }
+        return read;
+    }
+
+    private int[] buffer(int length) {
+        if (buffer.length < length) {
+            buffer = new int[length];
+        }
+        return buffer;
+    }
+}
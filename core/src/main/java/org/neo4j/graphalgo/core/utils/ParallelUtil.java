@@ -105,6 +105,9 @@ public final class ParallelUtil {
     /**
      * Executes read operations in parallel, based on the given batch size
      * and executor.
+     * <p>
+     * Every batch has to be imported, so if the pool is full, submitting
+     * the remaining batches is retried until a thread becomes available.
      */
     public static <T extends Runnable> List<T> readParallel(
             int concurrency,
@@ -135,7 +138,7 @@ public final class ParallelUtil {
                 tasks.add(importer.newImporter(nodeOffset, iterator));
                 nodeOffset += batchSize;
             }
-            runWithConcurrency(concurrency, tasks, executor);
+            runWithConcurrency(concurrency, tasks, 10L, TimeUnit.MICROSECONDS, executor);
             return tasks;
         }
     }
@@ -143,6 +146,9 @@ public final class ParallelUtil {
     /**
      * Executes read operations in parallel, based on the given batch size
      * and executor.
+     * <p>
+     * Every batch has to be imported, so if the pool is full, submitting
+     * the remaining batches is retried until a thread becomes available.
      */
     public static <T extends Runnable> void readParallel(
             int concurrency,
@@ -168,7 +174,7 @@ public final class ParallelUtil {
             Collection<T> tasks = LazyMappingCollection.of(
                     iterators,
                     it -> importer.newImporter(nodeOffset.getAndAdd(batchSize), it));
-            runWithConcurrency(concurrency, tasks, executor);
+            runWithConcurrency(concurrency, tasks, 10L, TimeUnit.MICROSECONDS, executor);
         }
     }
 
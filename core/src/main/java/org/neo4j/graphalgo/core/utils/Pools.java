@@ -13,6 +13,7 @@ import java.util.concurrent.locks.LockSupport;
 public class Pools {
     public static final int DEFAULT_CONCURRENCY = Runtime.getRuntime().availableProcessors();
     public static final int DEFAULT_QUEUE_SIZE = DEFAULT_CONCURRENCY * 50;
+    public static final int DEFAULT_MAX_POOL_SIZE = DEFAULT_CONCURRENCY * 2;
     public final static ExecutorService DEFAULT = createDefaultPool();
 
     private Pools() {
@@ -22,7 +23,7 @@ public class Pools {
     public static ExecutorService createDefaultPool() {
         return new ThreadPoolExecutor(
                 DEFAULT_CONCURRENCY,
-                DEFAULT_CONCURRENCY * 2,
+                DEFAULT_MAX_POOL_SIZE,
                 30L,
                 TimeUnit.SECONDS,
                 new ArrayBlockingQueue<>(DEFAULT_QUEUE_SIZE),
@@ -2,10 +2,30 @@ package org.neo4j.graphalgo.core.utils.paged;
 
 import java.util.concurrent.atomic.AtomicLong;
 
+/**
+ * Paged bytes that hold the adjacency lists of a huge graph.
+ * <p>
+ * An adjacency list starts with the degree as a 4 byte int, followed by the
+ * deltas between the sorted targets. The deltas are either written as one
+ * variable length long each or, if the array is block encoded, in groups of
+ * {@link #GROUP_SIZE} deltas. A group starts with a control byte that holds
+ * a 2 bit code per delta for the number of bytes (1, 2, 4 or 8) the delta is
+ * stored in, followed by the little endian bytes of the deltas.
+ * A block can be decoded without checking a continuation bit after every byte.
+ */
+public class ByteArray extends PagedDataStructure<byte[]> {
 
-public final class ByteArray extends PagedDataStructure<byte[]> {
+    /**
+     * The number of deltas that share a control byte in a block encoded array.
+     */
+    public static final int GROUP_SIZE = 4;
+
+    // a control byte and the largest encoding of every delta
+    private static final int MAX_GROUP_BYTES = 1 + GROUP_SIZE * Long.BYTES;
+
+    final AtomicLong allocIdx = new PaddedAtomicLong();
 
-    private final AtomicLong allocIdx = new PaddedAtomicLong();
+    final boolean blockEncoded;
 
     private static final PageAllocator.Factory<byte[]> ALLOCATOR_FACTORY =
             PageAllocator.ofArray(byte[].class);
@@ -14,12 +34,84 @@ public final class ByteArray extends PagedDataStructure<byte[]> {
         return ALLOCATOR_FACTORY.estimateMemoryUsage(size, ByteArray.class);
     }
 
+    /**
+     * Estimates the memory that the given number of {@link LocalAllocator}s reserve
+     * on top of the bytes that are actually written. Every allocator reserves a chunk
+     * upfront, which might never be used up. The chunk does not have to start at a
+     * page boundary, so it can span one more page than it reserves.
+     */
+    public static long estimateLocalAllocatorMemoryUsage(long allocators) {
+        return allocators * ALLOCATOR_FACTORY.estimateMemoryUsage(
+                ALLOCATOR_FACTORY.pageSize() * (LocalAllocator.PREFETCH_PAGES + 1L));
+    }
+
     public static ByteArray newArray(long size, AllocationTracker tracker) {
-        return new ByteArray(size, ALLOCATOR_FACTORY.newAllocator(tracker));
+        return newArray(size, false, tracker);
     }
 
-    private ByteArray(long size, PageAllocator<byte[]> allocator) {
+    /**
+     * @param blockEncoded true if the targets are written in groups with a control byte instead of as single variable length longs
+     */
+    public static ByteArray newArray(long size, boolean blockEncoded, AllocationTracker tracker) {
+        return new ByteArray(size, ALLOCATOR_FACTORY.newAllocator(tracker), blockEncoded);
+    }
+
+    /**
+     * Creates an array that keeps its pages outside of the heap.
+     * The memory is freed once the array and all of its cursors have been garbage collected,
+     * releasing the array only invalidates its cursors.
+     *
+     * @see OffHeapByteArray
+     */
+    public static ByteArray newOffHeapArray(long size, AllocationTracker tracker) {
+        return newOffHeapArray(size, false, tracker);
+    }
+
+    /**
+     * @see #newOffHeapArray(long, AllocationTracker)
+     * @see #newArray(long, boolean, AllocationTracker)
+     */
+    public static ByteArray newOffHeapArray(long size, boolean blockEncoded, AllocationTracker tracker) {
+        return new OffHeapByteArray(size, blockEncoded, tracker);
+    }
+
+    public static ByteArray fromPages(
+            long capacity,
+            byte[][] pages,
+            AllocationTracker tracker) {
+        return fromPages(capacity, pages, false, tracker);
+    }
+
+    public static ByteArray fromPages(
+            long capacity,
+            byte[][] pages,
+            boolean blockEncoded,
+            AllocationTracker tracker) {
+        return new ByteArray(capacity, pages, ALLOCATOR_FACTORY.newAllocator(tracker), blockEncoded);
+    }
+
+    ByteArray(long size, PageAllocator<byte[]> allocator, boolean blockEncoded) {
         super(size, allocator);
+        this.blockEncoded = blockEncoded;
+    }
+
+    ByteArray(long capacity, byte[][] pages, PageAllocator<byte[]> allocator, boolean blockEncoded) {
+        super(capacity, pages, allocator);
+        this.blockEncoded = blockEncoded;
+    }
+
+    /**
+     * @return true if the targets are written in groups with a control byte
+     */
+    /**
+     * @return true if the pages are allocated outside of the heap
+     */
+    public boolean isOffHeap() {
+        return false;
+    }
+
+    public boolean isBlockEncoded() {
+        return blockEncoded;
     }
 
     public byte get(long index) {
@@ -93,17 +185,17 @@ public final class ByteArray extends PagedDataStructure<byte[]> {
      * {@inheritDoc}
      */
     BulkAdder newBulkAdder() {
-        return new BulkAdder(pages, pageSize, pageShift, pageMask);
+        return new BulkAdder(pages, pageSize, pageShift, pageMask, blockEncoded);
     }
 
     /**
      * {@inheritDoc}
      */
     public DeltaCursor newCursor() {
-        return new DeltaCursor(pages, pageSize, pageShift, pageMask);
+        return new DeltaCursor(pages, pageSize, pageShift, pageMask, blockEncoded);
     }
 
-    private long allocate(long numberOfElements, BulkAdder into) {
+    long allocate(long numberOfElements, BulkAdder into) {
         long intoIndex = allocIdx.getAndAdd(numberOfElements);
         grow(intoIndex + numberOfElements);
         into.grow(pages);
@@ -118,7 +210,7 @@ public final class ByteArray extends PagedDataStructure<byte[]> {
         allocIdx.addAndGet(numberOfElements);
     }
 
-    public final long release() {
+    public long release() {
         return super.release();
     }
 
@@ -126,6 +218,32 @@ public final class ByteArray extends PagedDataStructure<byte[]> {
         return reuse.init(offset);
     }
 
+    private static int vlongSize(long value) {
+        int bits = 64 - Long.numberOfLeadingZeros(value);
+        return bits == 0 ? 1 : (bits + 6) / 7;
+    }
+
+    /**
+     * @return the 2 bit code of the number of bytes that a delta is stored in, the number of bytes is {@code 1 << code}
+     */
+    public static int groupCode(long value) {
+        return value < (1L << 8) ? 0 : value < (1L << 16) ? 1 : value < (1L << 32) ? 2 : 3;
+    }
+
+    /**
+     * @return the control byte of the group of deltas between the targets, starting at {@code from}
+     */
+    static int controlByte(long[] targets, int from, int count) {
+        long previous = from == 0 ? 0L : targets[from - 1];
+        int control = 0;
+        for (int i = 0; i < count; i++) {
+            long target = targets[from + i];
+            control |= groupCode(target - previous) << (i << 1);
+            previous = target;
+        }
+        return control;
+    }
+
     private static abstract class BaseCursor {
 
         private byte[][] pages;
@@ -211,7 +329,7 @@ public final class ByteArray extends PagedDataStructure<byte[]> {
             return false;
         }
 
-        final void tryNext() {
+        void tryNext() {
             if (offset >= limit) {
                 next();
             }
@@ -245,6 +363,17 @@ public final class ByteArray extends PagedDataStructure<byte[]> {
             return majorAllocate(size);
         }
 
+        /**
+         * Writes the degree and the deltas between the sorted targets in the encoding of the array.
+         *
+         * @return the index of the adjacency, which is the index of the degree
+         */
+        public long writeTargets(long[] targets, int length) {
+            long address = allocate(adder.encodedSize(targets, length));
+            adder.addTargets(targets, length);
+            return address;
+        }
+
         private long majorAllocate(long size) {
             long allocate = Math.max(size, prefetchSize);
             long address = top = array.allocate(allocate, adder);
@@ -254,18 +383,100 @@ public final class ByteArray extends PagedDataStructure<byte[]> {
         }
     }
 
-    public static final class BulkAdder extends BaseCursor {
+    public static class BulkAdder extends BaseCursor {
 
-        private BulkAdder(
+        private final boolean blockEncoded;
+
+        BulkAdder(
                 byte[][] pages,
                 int pageSize,
                 int pageShift,
-                int pageMask) {
+                int pageMask,
+                boolean blockEncoded) {
             super(pages, pageSize, pageShift, pageMask);
+            this.blockEncoded = blockEncoded;
+        }
+
+        /**
+         * @return the number of bytes that {@link #addTargets(long[], int)} writes
+         */
+        long encodedSize(long[] targets, int length) {
+            long bytes = Integer.BYTES;
+            long previous = 0L;
+            if (blockEncoded) {
+                bytes += (length + GROUP_SIZE - 1) / GROUP_SIZE;
+                for (int i = 0; i < length; i++) {
+                    bytes += 1 << groupCode(targets[i] - previous);
+                    previous = targets[i];
+                }
+            } else {
+                for (int i = 0; i < length; i++) {
+                    bytes += vlongSize(targets[i] - previous);
+                    previous = targets[i];
+                }
+            }
+            return bytes;
+        }
+
+        /**
+         * Writes the degree and the deltas between the sorted targets.
+         */
+        void addTargets(long[] targets, int length) {
+            addUnsignedInt(length);
+            if (blockEncoded) {
+                for (int i = 0; i < length; i += GROUP_SIZE) {
+                    addGroup(targets, i, Math.min(GROUP_SIZE, length - i));
+                }
+            } else {
+                long previous = 0L;
+                for (int i = 0; i < length; i++) {
+                    addVLong(targets[i] - previous);
+                    previous = targets[i];
+                }
+            }
+        }
+
+        /**
+         * Writes the control byte and the deltas of up to {@link #GROUP_SIZE} targets.
+         */
+        void addGroup(long[] targets, int from, int count) {
+            int control = controlByte(targets, from, count);
+            long previous = from == 0 ? 0L : targets[from - 1];
+            if (limit - offset >= MAX_GROUP_BYTES) {
+                byte[] array = this.array;
+                int offset = this.offset;
+                array[offset++] = (byte) control;
+                for (int i = 0; i < count; i++) {
+                    long value = targets[from + i] - previous;
+                    previous = targets[from + i];
+                    for (int bytes = 1 << ((control >>> (i << 1)) & 3); bytes > 0; bytes--) {
+                        array[offset++] = (byte) value;
+                        value >>>= 8;
+                    }
+                }
+                this.offset = offset;
+            } else {
+                addByte((byte) control);
+                for (int i = 0; i < count; i++) {
+                    long value = targets[from + i] - previous;
+                    previous = targets[from + i];
+                    for (int bytes = 1 << ((control >>> (i << 1)) & 3); bytes > 0; bytes--) {
+                        addByte((byte) value);
+                        value >>>= 8;
+                    }
+                }
+            }
+        }
+
+        private void addByte(byte b) {
+            if (offset >= limit && !next()) {
+                return;
+            }
+            array[offset++] = b;
         }
 
         @Override
-        public final void init(long fromIndex, long length) {
+        public void init(long fromIndex, long length) {
             super.init(fromIndex, length);
             next();
         }
@@ -388,48 +599,185 @@ public final class ByteArray extends PagedDataStructure<byte[]> {
         }
     }
 
-    public static final class DeltaCursor extends BaseCursor {
-        private int currentTarget;
-        private int maxTargets;
-        private long delta;
+    public static class DeltaCursor extends BaseCursor {
+        private final boolean blockEncoded;
+        private final long[] group;
+        private int groupPosition;
+        private int groupLength;
+        private int decoded;
+
+        int currentTarget;
+        int maxTargets;
+        long delta;
 
-        private DeltaCursor(
+        DeltaCursor(
                 byte[][] pages,
                 int pageSize,
                 int pageShift,
-                int pageMask) {
+                int pageMask,
+                boolean blockEncoded) {
             super(pages, pageSize, pageShift, pageMask);
+            this.blockEncoded = blockEncoded;
+            this.group = blockEncoded ? new long[GROUP_SIZE] : null;
         }
 
         DeltaCursor init(long fromIndex) {
             super.initAll(fromIndex);
             next();
 
-            currentTarget = 0;
-            delta = 0L;
             if (limit - offset >= 4) {
                 initLength(array, offset);
             } else {
                 initLengthSlow();
             }
+            reset();
 
             return this;
         }
 
+        /**
+         * Rewinds the cursor to the first target, after {@link #maxTargets} has been read.
+         */
+        final void reset() {
+            currentTarget = 0;
+            delta = 0L;
+            groupPosition = 0;
+            groupLength = 0;
+            decoded = 0;
+        }
+
         public long getVLong() {
             if (currentTarget++ >= maxTargets) {
                 return -1L;
             }
+            if (blockEncoded) {
+                if (groupPosition == groupLength) {
+                    nextGroup();
+                }
+                return group[groupPosition++];
+            }
             return delta = getVLong0();
         }
 
-        private long getVLong0() {
+        /**
+         * Decodes the next targets into the buffer, starting at index 0.
+         * Block encoded groups that fit into the buffer are decoded directly into it.
+         *
+         * @return the number of decoded targets or 0 if all targets have been read
+         */
+        public int getVLongs(long[] targets, int length) {
+            int read = Math.min(length, maxTargets - currentTarget);
+            if (read <= 0) {
+                return 0;
+            }
+            currentTarget += read;
+            if (!blockEncoded) {
+                for (int i = 0; i < read; i++) {
+                    targets[i] = delta = getVLong0();
+                }
+                return read;
+            }
+            int i = 0;
+            while (i < read) {
+                if (groupPosition < groupLength) {
+                    targets[i++] = group[groupPosition++];
+                } else {
+                    int count = Math.min(GROUP_SIZE, maxTargets - decoded);
+                    if (read - i >= count) {
+                        decodeGroup(targets, i, count);
+                        decoded += count;
+                        i += count;
+                    } else {
+                        nextGroup();
+                    }
+                }
+            }
+            return read;
+        }
+
+        private void nextGroup() {
+            int count = Math.min(GROUP_SIZE, maxTargets - decoded);
+            decodeGroup(group, 0, count);
+            decoded += count;
+            groupPosition = 0;
+            groupLength = count;
+        }
+
+        long getVLong0() {
             if (limit - offset >= 9) {
                 return getVLong(array, offset);
             }
             return slowGetVLong();
         }
 
+        /**
+         * Decodes a group of {@code count} deltas into targets, starting at {@code into[at]}.
+         */
+        void decodeGroup(long[] into, int at, int count) {
+            if (limit - offset < MAX_GROUP_BYTES) {
+                slowDecodeGroup(into, at, count);
+                return;
+            }
+            byte[] page = this.array;
+            int offset = this.offset;
+            int control = page[offset++] & 0xFF;
+            long delta = this.delta;
+            for (int i = 0; i < count; i++, control >>>= 2) {
+                switch (control & 3) {
+                    case 0:
+                        delta += page[offset++] & 0xFFL;
+                        break;
+                    case 1:
+                        delta += (page[offset] & 0xFFL) |
+                                (page[offset + 1] & 0xFFL) << 8;
+                        offset += 2;
+                        break;
+                    case 2:
+                        delta += (page[offset] & 0xFFL) |
+                                (page[offset + 1] & 0xFFL) << 8 |
+                                (page[offset + 2] & 0xFFL) << 16 |
+                                (page[offset + 3] & 0xFFL) << 24;
+                        offset += 4;
+                        break;
+                    default:
+                        delta += (page[offset] & 0xFFL) |
+                                (page[offset + 1] & 0xFFL) << 8 |
+                                (page[offset + 2] & 0xFFL) << 16 |
+                                (page[offset + 3] & 0xFFL) << 24 |
+                                (page[offset + 4] & 0xFFL) << 32 |
+                                (page[offset + 5] & 0xFFL) << 40 |
+                                (page[offset + 6] & 0xFFL) << 48 |
+                                (page[offset + 7] & 0xFFL) << 56;
+                        offset += 8;
+                        break;
+                }
+                into[at + i] = delta;
+            }
+            this.offset = offset;
+            this.delta = delta;
+        }
+
+        private void slowDecodeGroup(long[] into, int at, int count) {
+            int control = nextByte() & 0xFF;
+            long delta = this.delta;
+            for (int i = 0; i < count; i++, control >>>= 2) {
+                int bytes = 1 << (control & 3);
+                long value = 0L;
+                for (int shift = 0; shift < bytes << 3; shift += 8) {
+                    value |= (nextByte() & 0xFFL) << shift;
+                }
+                into[at + i] = delta += value;
+            }
+            this.delta = delta;
+        }
+
+        private byte nextByte() {
+            if (offset >= limit) {
+                next();
+            }
+            return array[offset++];
+        }
+
         private void initLength(byte[] array, int offset) {
             this.maxTargets = ((array[offset++] & 0xFF) << 24) |
                     ((array[offset++] & 0xFF) << 16) |
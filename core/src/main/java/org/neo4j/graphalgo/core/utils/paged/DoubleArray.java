@@ -1,9 +1,12 @@
 package org.neo4j.graphalgo.core.utils.paged;
 
 import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
 
 public final class DoubleArray extends PagedDataStructure<double[]> {
 
+    private final AtomicLong allocIdx = new PaddedAtomicLong();
+
     private static final PageAllocator.Factory<double[]> ALLOCATOR_FACTORY =
             PageAllocator.ofArray(double[].class);
 
@@ -11,14 +14,33 @@ public final class DoubleArray extends PagedDataStructure<double[]> {
         return ALLOCATOR_FACTORY.estimateMemoryUsage(size, DoubleArray.class);
     }
 
+    /**
+     * @see ByteArray#estimateLocalAllocatorMemoryUsage(long)
+     */
+    public static long estimateLocalAllocatorMemoryUsage(long allocators) {
+        return allocators * ALLOCATOR_FACTORY.estimateMemoryUsage(
+                ALLOCATOR_FACTORY.pageSize() * (LocalAllocator.PREFETCH_PAGES + 1L));
+    }
+
     public static DoubleArray newArray(long size, AllocationTracker tracker) {
         return new DoubleArray(size, ALLOCATOR_FACTORY.newAllocator(tracker));
     }
 
+    public static DoubleArray fromPages(
+            long capacity,
+            double[][] pages,
+            AllocationTracker tracker) {
+        return new DoubleArray(capacity, pages, ALLOCATOR_FACTORY.newAllocator(tracker));
+    }
+
     private DoubleArray(long size, PageAllocator<double[]> allocator) {
         super(size, allocator);
     }
 
+    private DoubleArray(long capacity, double[][] pages, PageAllocator<double[]> allocator) {
+        super(capacity, pages, allocator);
+    }
+
     public double get(long index) {
         assert index < capacity();
         final int pageIndex = pageIndex(index);
@@ -41,4 +63,96 @@ public final class DoubleArray extends PagedDataStructure<double[]> {
             Arrays.fill(page, value);
         }
     }
+
+    public LocalAllocator newAllocator() {
+        return new LocalAllocator(this);
+    }
+
+    public Cursor newCursor() {
+        return new Cursor(this);
+    }
+
+    public Cursor cursor(Cursor reuse, long offset) {
+        return reuse.init(offset);
+    }
+
+    private long allocate(long numberOfElements) {
+        long intoIndex = allocIdx.getAndAdd(numberOfElements);
+        grow(intoIndex + numberOfElements);
+        return intoIndex;
+    }
+
+    /**
+     * Hands out consecutive regions of the array to a single thread.
+     * Like {@link ByteArray.LocalAllocator}, a larger chunk is reserved
+     * upfront, so that threads only contend on the shared allocation
+     * index when a chunk is used up.
+     */
+    public static final class LocalAllocator {
+        private static final long PREFETCH_PAGES = 4L;
+
+        private final DoubleArray array;
+        private final long prefetchSize;
+
+        private long top;
+        private long limit;
+
+        LocalAllocator(final DoubleArray array) {
+            this.array = array;
+            this.prefetchSize = (long) array.pageSize * PREFETCH_PAGES;
+        }
+
+        public long allocate(long size) {
+            long address = top;
+            if (address + size <= limit) {
+                top += size;
+                return address;
+            }
+            return majorAllocate(size);
+        }
+
+        public void set(long index, double value) {
+            array.set(index, value);
+        }
+
+        private long majorAllocate(long size) {
+            long allocate = Math.max(size, prefetchSize);
+            long address = top = array.allocate(allocate);
+            limit = top + allocate;
+            top += size;
+            return address;
+        }
+    }
+
+    /**
+     * Reads the values of the array sequentially, starting at some offset.
+     * The caller has to know how many values are to be read, the cursor
+     * does not check for the end of the allocated region.
+     */
+    public static final class Cursor {
+        private final DoubleArray array;
+
+        private double[] page;
+        private int pageIndex;
+        private int offset;
+
+        private Cursor(DoubleArray array) {
+            this.array = array;
+        }
+
+        Cursor init(long fromIndex) {
+            pageIndex = array.pageIndex(fromIndex);
+            offset = array.indexInPage(fromIndex);
+            page = array.pages[pageIndex];
+            return this;
+        }
+
+        public double next() {
+            if (offset == page.length) {
+                page = array.pages[++pageIndex];
+                offset = 0;
+            }
+            return page[offset++];
+        }
+    }
 }
@@ -0,0 +1,48 @@
+package org.neo4j.graphalgo.core.utils.paged;
+
+import java.util.Arrays;
+
+/**
+ * A paged array of floats, for values that do not need the precision of a
+ * {@link DoubleArray} but should take only half of its memory.
+ */
+public final class FloatArray extends PagedDataStructure<float[]> {
+
+    private static final PageAllocator.Factory<float[]> ALLOCATOR_FACTORY =
+            PageAllocator.ofArray(float[].class);
+
+    public static long estimateMemoryUsage(long size) {
+        return ALLOCATOR_FACTORY.estimateMemoryUsage(size, FloatArray.class);
+    }
+
+    public static FloatArray newArray(long size, AllocationTracker tracker) {
+        return new FloatArray(size, ALLOCATOR_FACTORY.newAllocator(tracker));
+    }
+
+    private FloatArray(long size, PageAllocator<float[]> allocator) {
+        super(size, allocator);
+    }
+
+    public float get(long index) {
+        assert index < capacity();
+        final int pageIndex = pageIndex(index);
+        final int indexInPage = indexInPage(index);
+        return pages[pageIndex][indexInPage];
+    }
+
+    public float set(long index, float value) {
+        assert index < capacity();
+        final int pageIndex = pageIndex(index);
+        final int indexInPage = indexInPage(index);
+        final float[] page = pages[pageIndex];
+        final float ret = page[indexInPage];
+        page[indexInPage] = value;
+        return ret;
+    }
+
+    public void fill(float value) {
+        for (float[] page : pages) {
+            Arrays.fill(page, value);
+        }
+    }
+}
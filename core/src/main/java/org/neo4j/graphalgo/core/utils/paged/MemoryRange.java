@@ -0,0 +1,76 @@
+package org.neo4j.graphalgo.core.utils.paged;
+
+import static org.neo4j.graphalgo.core.utils.paged.AllocationTracker.humanReadable;
+
+/**
+ * An estimated amount of memory in bytes. The actual usage depends on the data,
+ * e.g. the distribution of the degrees, so an estimation is given as a range
+ * from the least to the most amount of memory that is expected to be used.
+ */
+public final class MemoryRange {
+
+    private static final MemoryRange EMPTY = new MemoryRange(0L, 0L);
+
+    public final long min;
+    public final long max;
+
+    public static MemoryRange of(long value) {
+        return of(value, value);
+    }
+
+    public static MemoryRange of(long min, long max) {
+        if (min < 0L || max < min) {
+            throw new IllegalArgumentException("Invalid memory range [" + min + ", " + max + "]");
+        }
+        return new MemoryRange(min, max);
+    }
+
+    public static MemoryRange empty() {
+        return EMPTY;
+    }
+
+    private MemoryRange(long min, long max) {
+        this.min = min;
+        this.max = max;
+    }
+
+    public MemoryRange add(long bytes) {
+        return add(bytes, bytes);
+    }
+
+    public MemoryRange add(MemoryRange other) {
+        return add(other.min, other.max);
+    }
+
+    public MemoryRange add(long min, long max) {
+        return of(this.min + min, this.max + max);
+    }
+
+    public MemoryRange times(long count) {
+        return of(min * count, max * count);
+    }
+
+    public boolean isEmpty() {
+        return max == 0L;
+    }
+
+    @Override
+    public String toString() {
+        return min == max
+                ? humanReadable(min)
+                : "[" + humanReadable(min) + " ... " + humanReadable(max) + "]";
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        MemoryRange that = (MemoryRange) o;
+        return min == that.min && max == that.max;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Long.hashCode(min) + Long.hashCode(max);
+    }
+}
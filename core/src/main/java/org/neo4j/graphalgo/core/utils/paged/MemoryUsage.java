@@ -173,6 +173,17 @@ public final class MemoryUsage {
         return alignObjectSize((long) BYTES_ARRAY_HEADER + (long) length * bytesPerElement);
     }
 
+    /**
+     * Returns the size of an HPPC hash map with the given number of entries,
+     * which stores its keys and values in separate arrays. The arrays have the size
+     * of the next power of two that keeps the entries below the load factor.
+     */
+    public static long sizeOfHashMap(long entries, int bytesPerKey, int bytesPerValue, double loadFactor) {
+        long buffer = nextHighestPowerOfTwo(Math.max(4L, (long) Math.ceil(entries / loadFactor))) + 1L;
+        return alignObjectSize((long) BYTES_ARRAY_HEADER + buffer * bytesPerKey) +
+                alignObjectSize((long) BYTES_ARRAY_HEADER + buffer * bytesPerValue);
+    }
+
     /**
      * Returns the shallow instance size in bytes an instance of the given class would occupy.
      * This works with all conventional classes and primitive types, but not with arrays
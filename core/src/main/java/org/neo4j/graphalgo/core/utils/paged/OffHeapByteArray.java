@@ -0,0 +1,429 @@
+package org.neo4j.graphalgo.core.utils.paged;
+
+import org.neo4j.unsafe.impl.internal.dragons.UnsafeUtil;
+
+import java.lang.ref.PhantomReference;
+import java.lang.ref.ReferenceQueue;
+import java.util.Arrays;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A {@link ByteArray} that keeps its pages outside of the heap, so that large
+ * adjacency arrays neither count against the heap of the database nor have to
+ * be traced by the garbage collector.
+ * <p>
+ * The pages have the same size as the pages of a {@link ByteArray} and are
+ * allocated with {@link UnsafeUtil#allocateMemory(long)}. The allocated bytes are
+ * reported to the {@link AllocationTracker} and returned from {@link #release()}.
+ * <p>
+ * The cursors keep the address of their current page, so the memory must not be
+ * freed while a cursor might still read it. {@link #release()} only invalidates
+ * the array, cursors fail with an {@link IllegalStateException} once they are
+ * initialized or move on to the next page. The memory itself is freed by a
+ * {@link PhantomCleaner} as soon as neither the array nor any of its cursors
+ * is reachable anymore, whether the array has been released or not.
+ * <p>
+ * The pages of the heap based super class stay empty, all accesses are
+ * overridden to read from and write to the off-heap pages instead.
+ * The cursors have the same API as those of a {@link ByteArray}.
+ */
+final class OffHeapByteArray extends ByteArray {
+
+    private static final int PAGE_SIZE = PageUtil.pageSizeFor(Byte.BYTES);
+    private static final int PAGE_SHIFT = Integer.numberOfTrailingZeros(PAGE_SIZE);
+    private static final int PAGE_MASK = PAGE_SIZE - 1;
+
+    private static final byte[][] NO_PAGES = new byte[0][];
+
+    private final Owner owner;
+    private final Pages pages;
+
+    OffHeapByteArray(long size, boolean blockEncoded, AllocationTracker tracker) {
+        super(0L, NO_PAGES, PageAllocator.ofArray(byte[].class).newAllocator(tracker), blockEncoded);
+        this.pages = new Pages(tracker);
+        this.pages.grow(size);
+        this.owner = new Owner(pages);
+        // the cleanup must not reference the owner, otherwise it would never be collected
+        PhantomCleaner.register(owner, pages::free);
+    }
+
+    /**
+     * @return the number of bytes that have been written into this array
+     */
+    long writtenSize() {
+        return allocIdx.get();
+    }
+
+    int numPages() {
+        return pages.numPages;
+    }
+
+    /**
+     * Copies the content of the given page into the target array.
+     */
+    void copyPage(int page, byte[] target) {
+        long address = pages.pageAddress(page);
+        for (int i = 0; i < PAGE_SIZE; i++) {
+            target[i] = UnsafeUtil.getByte(address + i);
+        }
+    }
+
+    @Override
+    public boolean isOffHeap() {
+        return true;
+    }
+
+    @Override
+    public long memoryUsage() {
+        return pages.released ? 0L : (long) pages.numPages * PAGE_SIZE;
+    }
+
+    @Override
+    public byte get(long index) {
+        return UnsafeUtil.getByte(pages.address(index));
+    }
+
+    @Override
+    public int getInt(long index) {
+        if (PageUtil.indexInPage(index, PAGE_MASK) + Integer.BYTES <= PAGE_SIZE) {
+            long address = pages.address(index);
+            return ((UnsafeUtil.getByte(address) & 0xFF) << 24) |
+                    ((UnsafeUtil.getByte(address + 1) & 0xFF) << 16) |
+                    ((UnsafeUtil.getByte(address + 2) & 0xFF) << 8) |
+                    (UnsafeUtil.getByte(address + 3) & 0xFF);
+        }
+        if (PageUtil.pageIndex(index, PAGE_SHIFT) + 1 >= pages.numPages) {
+            return -1;
+        }
+        return ((get(index) & 0xFF) << 24) |
+                ((get(index + 1) & 0xFF) << 16) |
+                ((get(index + 2) & 0xFF) << 8) |
+                (get(index + 3) & 0xFF);
+    }
+
+    @Override
+    public byte set(long index, byte value) {
+        long address = pages.address(index);
+        byte ret = UnsafeUtil.getByte(address);
+        UnsafeUtil.putByte(address, value);
+        return ret;
+    }
+
+    @Override
+    BulkAdder newBulkAdder() {
+        return new OffHeapBulkAdder(owner, blockEncoded);
+    }
+
+    @Override
+    public DeltaCursor newCursor() {
+        return new OffHeapDeltaCursor(owner, blockEncoded);
+    }
+
+    @Override
+    long allocate(long numberOfElements, BulkAdder into) {
+        long intoIndex = allocIdx.getAndAdd(numberOfElements);
+        pages.grow(intoIndex + numberOfElements);
+        into.init(intoIndex, numberOfElements);
+        return intoIndex;
+    }
+
+    /**
+     * Invalidates the array and its cursors. The memory is freed once they all
+     * have been garbage collected, as a cursor might still be reading its current page.
+     *
+     * @return the number of bytes that will be freed
+     */
+    @Override
+    public long release() {
+        return pages.release();
+    }
+
+    /**
+     * Referenced by the array and all of its cursors, the pages are freed once
+     * the owner has been garbage collected.
+     */
+    private static final class Owner {
+        private final Pages pages;
+
+        private Owner(Pages pages) {
+            this.pages = pages;
+        }
+    }
+
+    /**
+     * The addresses of the off-heap pages. This is kept apart from the {@link Owner}
+     * so that it can be freed by the {@link PhantomCleaner} after the owner has been collected.
+     */
+    private static final class Pages {
+
+        private final AllocationTracker tracker;
+        private final ReentrantLock growLock = new ReentrantLock(true);
+
+        private volatile long[] addresses = new long[0];
+        private volatile int numPages;
+        private volatile boolean released;
+
+        private Pages(AllocationTracker tracker) {
+            this.tracker = tracker;
+        }
+
+        long address(long index) {
+            return addresses[PageUtil.pageIndex(index, PAGE_SHIFT)] + PageUtil.indexInPage(index, PAGE_MASK);
+        }
+
+        /**
+         * @throws IllegalStateException if the array has been released
+         */
+        long pageAddress(int page) {
+            if (released) {
+                throw new IllegalStateException("The array has already been released");
+            }
+            return addresses[page];
+        }
+
+        void grow(long newSize) {
+            int newNumPages = PageUtil.numPagesFor(newSize, PAGE_SHIFT, PAGE_MASK);
+            if (newNumPages <= numPages) {
+                return;
+            }
+            growLock.lock();
+            try {
+                int currentNumPages = numPages;
+                if (newNumPages <= currentNumPages) {
+                    return;
+                }
+                if (released) {
+                    throw new IllegalStateException("The array has already been released");
+                }
+                long[] addresses = Arrays.copyOf(this.addresses, newNumPages);
+                for (int i = currentNumPages; i < newNumPages; i++) {
+                    long address = UnsafeUtil.allocateMemory(PAGE_SIZE);
+                    UnsafeUtil.setMemory(address, PAGE_SIZE, (byte) 0);
+                    addresses[i] = address;
+                    tracker.add(PAGE_SIZE);
+                }
+                this.addresses = addresses;
+                this.numPages = newNumPages;
+            } finally {
+                growLock.unlock();
+            }
+        }
+
+        /**
+         * @return the number of allocated bytes or 0 if the pages had already been released
+         */
+        long release() {
+            growLock.lock();
+            try {
+                if (released) {
+                    return 0L;
+                }
+                released = true;
+                return (long) numPages * PAGE_SIZE;
+            } finally {
+                growLock.unlock();
+            }
+        }
+
+        /**
+         * Frees the memory, must only be called once the {@link Owner} has been collected.
+         */
+        void free() {
+            growLock.lock();
+            try {
+                long[] addresses = this.addresses;
+                for (int i = 0; i < numPages; i++) {
+                    UnsafeUtil.free(addresses[i]);
+                }
+                this.released = true;
+                this.addresses = new long[0];
+                this.numPages = 0;
+            } finally {
+                growLock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Runs a cleanup once its referent has been garbage collected. This takes the place
+     * of the JDK internal cleaner, which is not accessible on all Java versions.
+     * The cleanups are run by a single daemon thread.
+     */
+    private static final class PhantomCleaner extends PhantomReference<Object> {
+
+        private static final ReferenceQueue<Object> QUEUE = new ReferenceQueue<>();
+        // the references themselves must stay reachable until they have been enqueued
+        private static final Set<PhantomCleaner> PENDING = ConcurrentHashMap.newKeySet();
+
+        static {
+            Thread thread = new Thread(PhantomCleaner::cleanAll, "algo-off-heap-cleaner");
+            thread.setDaemon(true);
+            thread.start();
+        }
+
+        private final Runnable cleanup;
+
+        private PhantomCleaner(Object referent, Runnable cleanup) {
+            super(referent, QUEUE);
+            this.cleanup = cleanup;
+        }
+
+        static void register(Object referent, Runnable cleanup) {
+            PENDING.add(new PhantomCleaner(referent, cleanup));
+        }
+
+        private static void cleanAll() {
+            while (true) {
+                try {
+                    PhantomCleaner cleaner = (PhantomCleaner) QUEUE.remove();
+                    PENDING.remove(cleaner);
+                    cleaner.cleanup.run();
+                } catch (InterruptedException ignored) {
+                    // the thread lives as long as the JVM, cleanups must not be skipped
+                } catch (RuntimeException ignored) {
+                    // a failing cleanup must not stop the following ones
+                }
+            }
+        }
+    }
+
+    private static final class OffHeapBulkAdder extends BulkAdder {
+
+        // keeps the pages from being freed while this adder is in use
+        private final Owner owner;
+        private final Pages pages;
+
+        private long address;
+        private int remaining;
+        private int page;
+
+        private OffHeapBulkAdder(Owner owner, boolean blockEncoded) {
+            super(NO_PAGES, PAGE_SIZE, PAGE_SHIFT, PAGE_MASK, blockEncoded);
+            this.owner = owner;
+            this.pages = owner.pages;
+        }
+
+        @Override
+        public void init(long fromIndex, long length) {
+            page = PageUtil.pageIndex(fromIndex, PAGE_SHIFT);
+            int indexInPage = PageUtil.indexInPage(fromIndex, PAGE_MASK);
+            address = pages.pageAddress(page) + indexInPage;
+            remaining = PAGE_SIZE - indexInPage;
+        }
+
+        @Override
+        void tryNext() {
+            // the position is moved to the next page right before a byte is written
+        }
+
+        @Override
+        public void addUnsignedInt(int i) {
+            put((byte) (i >>> 24));
+            put((byte) (i >>> 16));
+            put((byte) (i >>> 8));
+            put((byte) i);
+        }
+
+        @Override
+        public void addVLong(long i) {
+            while ((i & ~0x7FL) != 0L) {
+                put((byte) ((i & 0x7FL) | 0x80L));
+                i >>>= 7L;
+            }
+            put((byte) i);
+        }
+
+        @Override
+        void addGroup(long[] targets, int from, int count) {
+            int control = controlByte(targets, from, count);
+            put((byte) control);
+            long previous = from == 0 ? 0L : targets[from - 1];
+            for (int i = 0; i < count; i++) {
+                long value = targets[from + i] - previous;
+                previous = targets[from + i];
+                for (int bytes = 1 << ((control >>> (i << 1)) & 3); bytes > 0; bytes--) {
+                    put((byte) value);
+                    value >>>= 8;
+                }
+            }
+        }
+
+        private void put(byte b) {
+            if (remaining == 0) {
+                address = pages.pageAddress(++page);
+                remaining = PAGE_SIZE;
+            }
+            UnsafeUtil.putByte(address++, b);
+            --remaining;
+        }
+    }
+
+    private static final class OffHeapDeltaCursor extends DeltaCursor {
+
+        // keeps the pages from being freed while this cursor is in use
+        private final Owner owner;
+        private final Pages pages;
+
+        private long address;
+        private int remaining;
+        private int page;
+
+        private OffHeapDeltaCursor(Owner owner, boolean blockEncoded) {
+            super(NO_PAGES, PAGE_SIZE, PAGE_SHIFT, PAGE_MASK, blockEncoded);
+            this.owner = owner;
+            this.pages = owner.pages;
+        }
+
+        @Override
+        DeltaCursor init(long fromIndex) {
+            page = PageUtil.pageIndex(fromIndex, PAGE_SHIFT);
+            int indexInPage = PageUtil.indexInPage(fromIndex, PAGE_MASK);
+            address = pages.pageAddress(page) + indexInPage;
+            remaining = PAGE_SIZE - indexInPage;
+
+            maxTargets = ((get() & 0xFF) << 24) |
+                    ((get() & 0xFF) << 16) |
+                    ((get() & 0xFF) << 8) |
+                    (get() & 0xFF);
+            reset();
+            return this;
+        }
+
+        @Override
+        long getVLong0() {
+            byte b = get();
+            long i = (long) ((int) b & 0x7F);
+            for (int shift = 7; ((int) b & 0x80) != 0; shift += 7) {
+                b = get();
+                i |= ((long) b & 0x7FL) << shift;
+            }
+            return i + delta;
+        }
+
+        @Override
+        void decodeGroup(long[] into, int at, int count) {
+            int control = get() & 0xFF;
+            long delta = this.delta;
+            for (int i = 0; i < count; i++, control >>>= 2) {
+                int bytes = 1 << (control & 3);
+                long value = 0L;
+                for (int shift = 0; shift < bytes << 3; shift += 8) {
+                    value |= (get() & 0xFFL) << shift;
+                }
+                into[at + i] = delta += value;
+            }
+            this.delta = delta;
+        }
+
+        private byte get() {
+            if (remaining == 0) {
+                address = pages.pageAddress(++page);
+                remaining = PAGE_SIZE;
+            }
+            --remaining;
+            return UnsafeUtil.getByte(address++);
+        }
+    }
+}
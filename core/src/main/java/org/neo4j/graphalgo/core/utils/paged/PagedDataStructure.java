@@ -74,6 +74,13 @@ public class PagedDataStructure<T> {
         return capacity.get();
     }
 
+    /**
+     * @return the number of bytes of the allocated pages, which is what {@link #release()} would free
+     */
+    public long memoryUsage() {
+        return allocator.estimateMemoryUsage(capacity.get());
+    }
+
     public long release() {
         size.set(0);
         long freed = allocator.estimateMemoryUsage(capacity.getAndSet(0));
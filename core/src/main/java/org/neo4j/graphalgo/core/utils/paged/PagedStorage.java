@@ -0,0 +1,319 @@
+package org.neo4j.graphalgo.core.utils.paged;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Writes paged data structures page by page into a file and reads them back.
+ * <p>
+ * Every structure is written as its size and number of pages, followed by
+ * the length and the content of every page. Missing pages of a
+ * {@link SparseLongArray} are written with a length of {@code -1}.
+ * A structure that is {@code null} is written with a size of {@code -1}.
+ * <p>
+ * The reader maps the file into memory in windows of {@link Reader#WINDOW_SIZE}
+ * bytes and copies the pages out of the mapped regions, so the file is paged in
+ * by the OS instead of being read through an intermediate buffer.
+ */
+public final class PagedStorage {
+
+    private static final int MISSING = -1;
+
+    private PagedStorage() {
+        throw new UnsupportedOperationException("No instances");
+    }
+
+    public static Writer writer(FileChannel channel) {
+        return new Writer(channel);
+    }
+
+    public static Reader reader(FileChannel channel) throws IOException {
+        return new Reader(channel);
+    }
+
+    public static final class Writer {
+
+        // large enough for a single page of any data structure
+        private static final int BUFFER_SIZE = 1 << 16;
+
+        private final FileChannel channel;
+        private final ByteBuffer buffer;
+
+        private Writer(FileChannel channel) {
+            this.channel = channel;
+            this.buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        }
+
+        public Writer writeInt(int value) throws IOException {
+            ensureCapacity(Integer.BYTES);
+            buffer.putInt(value);
+            return this;
+        }
+
+        public Writer writeLong(long value) throws IOException {
+            ensureCapacity(Long.BYTES);
+            buffer.putLong(value);
+            return this;
+        }
+
+        public Writer writeDouble(double value) throws IOException {
+            ensureCapacity(Double.BYTES);
+            buffer.putDouble(value);
+            return this;
+        }
+
+        public Writer writeString(String value) throws IOException {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            writeInt(bytes.length);
+            ensureCapacity(bytes.length);
+            buffer.put(bytes);
+            return this;
+        }
+
+        public Writer write(LongArray array) throws IOException {
+            if (writeHeader(array)) {
+                for (long[] page : pages(array)) {
+                    writeInt(page.length);
+                    ensureCapacity(page.length * Long.BYTES);
+                    buffer.asLongBuffer().put(page);
+                    buffer.position(buffer.position() + page.length * Long.BYTES);
+                }
+            }
+            return this;
+        }
+
+        public Writer write(SparseLongArray array) throws IOException {
+            if (writeHeader(array)) {
+                for (long[] page : pages(array)) {
+                    if (page == null) {
+                        writeInt(MISSING);
+                        continue;
+                    }
+                    writeInt(page.length);
+                    ensureCapacity(page.length * Long.BYTES);
+                    buffer.asLongBuffer().put(page);
+                    buffer.position(buffer.position() + page.length * Long.BYTES);
+                }
+            }
+            return this;
+        }
+
+        public Writer write(DoubleArray array) throws IOException {
+            if (writeHeader(array)) {
+                for (double[] page : pages(array)) {
+                    writeInt(page.length);
+                    ensureCapacity(page.length * Double.BYTES);
+                    buffer.asDoubleBuffer().put(page);
+                    buffer.position(buffer.position() + page.length * Double.BYTES);
+                }
+            }
+            return this;
+        }
+
+        public Writer write(ByteArray array) throws IOException {
+            if (array instanceof OffHeapByteArray) {
+                return write((OffHeapByteArray) array);
+            }
+            if (writeHeader(array)) {
+                for (byte[] page : pages(array)) {
+                    writeInt(page.length);
+                    ensureCapacity(page.length);
+                    buffer.put(page);
+                }
+            }
+            return this;
+        }
+
+        private Writer write(OffHeapByteArray array) throws IOException {
+            // the pages are read back into a heap based ByteArray
+            final long size = array.writtenSize();
+            final int numPages = PageUtil.numPagesFor(size, array.pageShift, array.pageMask);
+            writeLong(size);
+            writeInt(numPages);
+            final byte[] page = new byte[array.pageSize];
+            for (int i = 0; i < numPages; i++) {
+                array.copyPage(i, page);
+                writeInt(page.length);
+                ensureCapacity(page.length);
+                buffer.put(page);
+            }
+            return this;
+        }
+
+        /**
+         * Writes all buffered data into the channel.
+         */
+        public void flush() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+
+        private boolean writeHeader(PagedDataStructure<?> array) throws IOException {
+            if (array == null) {
+                writeLong(MISSING);
+                return false;
+            }
+            writeLong(array.size());
+            writeInt(PageUtil.numPagesFor(array.size(), array.pageShift, array.pageMask));
+            return true;
+        }
+
+        private void ensureCapacity(int bytes) throws IOException {
+            if (buffer.remaining() < bytes) {
+                flush();
+            }
+        }
+    }
+
+    public static final class Reader {
+
+        static final long WINDOW_SIZE = 1L << 28;
+
+        private final FileChannel channel;
+        private final long fileSize;
+        private MappedByteBuffer window;
+        private long windowStart;
+
+        private Reader(FileChannel channel) throws IOException {
+            this.channel = channel;
+            this.fileSize = channel.size();
+            map(0L);
+        }
+
+        public int readInt() throws IOException {
+            ensureAvailable(Integer.BYTES);
+            return window.getInt();
+        }
+
+        public long readLong() throws IOException {
+            ensureAvailable(Long.BYTES);
+            return window.getLong();
+        }
+
+        public double readDouble() throws IOException {
+            ensureAvailable(Double.BYTES);
+            return window.getDouble();
+        }
+
+        public String readString() throws IOException {
+            byte[] bytes = new byte[readInt()];
+            ensureAvailable(bytes.length);
+            window.get(bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        public LongArray readLongArray(AllocationTracker tracker) throws IOException {
+            long size = readLong();
+            if (size == MISSING) {
+                return null;
+            }
+            long[][] pages = new long[readInt()][];
+            for (int i = 0; i < pages.length; i++) {
+                pages[i] = readLongPage(tracker);
+            }
+            return LongArray.fromPages(size, pages, tracker);
+        }
+
+        public SparseLongArray readSparseLongArray(AllocationTracker tracker) throws IOException {
+            long size = readLong();
+            if (size == MISSING) {
+                return null;
+            }
+            long[][] pages = new long[readInt()][];
+            for (int i = 0; i < pages.length; i++) {
+                pages[i] = readLongPage(tracker);
+            }
+            return SparseLongArray.fromPages(size, pages, tracker);
+        }
+
+        public DoubleArray readDoubleArray(AllocationTracker tracker) throws IOException {
+            long size = readLong();
+            if (size == MISSING) {
+                return null;
+            }
+            double[][] pages = new double[readInt()][];
+            for (int i = 0; i < pages.length; i++) {
+                int length = readInt();
+                double[] page = new double[length];
+                tracker.add(MemoryUsage.sizeOfDoubleArray(length));
+                ensureAvailable(length * Double.BYTES);
+                window.asDoubleBuffer().get(page);
+                window.position(window.position() + length * Double.BYTES);
+                pages[i] = page;
+            }
+            return DoubleArray.fromPages(size, pages, tracker);
+        }
+
+        public ByteArray readByteArray(AllocationTracker tracker) throws IOException {
+            return readByteArray(false, tracker);
+        }
+
+        /**
+         * @param blockEncoded the encoding of the array when it has been written, which is not part of the written data
+         */
+        public ByteArray readByteArray(boolean blockEncoded, AllocationTracker tracker) throws IOException {
+            long size = readLong();
+            if (size == MISSING) {
+                return null;
+            }
+            byte[][] pages = new byte[readInt()][];
+            for (int i = 0; i < pages.length; i++) {
+                int length = readInt();
+                byte[] page = new byte[length];
+                tracker.add(MemoryUsage.sizeOfByteArray(length));
+                ensureAvailable(length);
+                window.get(page);
+                pages[i] = page;
+            }
+            return ByteArray.fromPages(size, pages, blockEncoded, tracker);
+        }
+
+        private long[] readLongPage(AllocationTracker tracker) throws IOException {
+            int length = readInt();
+            if (length == MISSING) {
+                return null;
+            }
+            long[] page = new long[length];
+            tracker.add(MemoryUsage.sizeOfLongArray(length));
+            ensureAvailable(length * Long.BYTES);
+            window.asLongBuffer().get(page);
+            window.position(window.position() + length * Long.BYTES);
+            return page;
+        }
+
+        private void ensureAvailable(int bytes) throws IOException {
+            if (window.remaining() < bytes) {
+                long position = windowStart + window.position();
+                if (position + bytes > fileSize) {
+                    throw new IOException("Unexpected end of file at position " + position);
+                }
+                map(position);
+            }
+        }
+
+        private void map(long position) throws IOException {
+            windowStart = position;
+            window = channel.map(
+                    FileChannel.MapMode.READ_ONLY,
+                    position,
+                    Math.min(WINDOW_SIZE, fileSize - position));
+        }
+    }
+
+    private static <T> T[] pages(PagedDataStructure<T> array) {
+        T[] pages = array.pages;
+        int numPages = PageUtil.numPagesFor(array.size(), array.pageShift, array.pageMask);
+        if (numPages == pages.length) {
+            return pages;
+        }
+        // pages beyond the size have been allocated ahead and contain no data
+        return Arrays.copyOf(pages, numPages);
+    }
+}
@@ -123,6 +123,18 @@ public class LabelPropagationProcIntegrationTest {
                 assertEquals(2, row.getNumber("partition").intValue()));
     }
 
+    @Test
+    public void shouldRunLabelPropagationOnHugeGraph() throws Exception {
+        String query = parallel
+                ? "CALL algo.labelPropagation(null, 'X', 'OUTGOING', {graph:'huge',batchSize:1,concurrency:1})"
+                : "CALL algo.labelPropagation(null, 'X', 'OUTGOING', {graph:'huge'})";
+        String check = "MATCH (n) WHERE n.id IN [0,1] RETURN n.partition AS partition";
+
+        runQuery(query, row -> assertEquals(12, row.getNumber("nodes").intValue()));
+        runQuery(check, row ->
+                assertEquals(2, row.getNumber("partition").intValue()));
+    }
+
     @Test
     public void shouldFallbackToNodeIdsForNonExistingPartitionKey() throws Exception {
         String query = parallel
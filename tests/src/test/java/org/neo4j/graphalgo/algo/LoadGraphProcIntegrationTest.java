@@ -0,0 +1,439 @@
+package org.neo4j.graphalgo.algo;
+
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runners.Parameterized;
+import org.neo4j.graphalgo.LabelPropagationProc;
+import org.neo4j.graphalgo.LoadGraphProc;
+import org.neo4j.graphalgo.LouvainProc;
+import org.neo4j.graphalgo.PageRankProc;
+import org.neo4j.graphalgo.api.Graph;
+import org.neo4j.graphalgo.core.GraphLoader;
+import org.neo4j.graphalgo.core.heavyweight.HeavyGraphFactory;
+import org.neo4j.graphalgo.core.loading.GraphCatalog;
+import org.neo4j.graphalgo.core.utils.Pools;
+import org.neo4j.graphdb.Direction;
+import org.neo4j.graphdb.QueryExecutionException;
+import org.neo4j.graphdb.Result;
+import org.neo4j.graphdb.Transaction;
+import org.neo4j.graphdb.event.TransactionEventHandler;
+import org.neo4j.kernel.api.exceptions.KernelException;
+import org.neo4j.kernel.impl.proc.Procedures;
+import org.neo4j.kernel.internal.GraphDatabaseAPI;
+import org.neo4j.test.TestGraphDatabaseFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+@RunWith(Parameterized.class)
+public class LoadGraphProcIntegrationTest {
+
+    private static final String DB_CYPHER = "" +
+            "CREATE (a:Node {name:'a'})\n" +
+            "CREATE (b:Node {name:'b'})\n" +
+            "CREATE (c:Node {name:'c'})\n" +
+            "CREATE (d:Node {name:'d'})\n" +
+            "CREATE (e:Other {name:'e'})\n" +
+            "CREATE\n" +
+            "  (a)-[:TYPE]->(b),\n" +
+            "  (b)-[:TYPE]->(c),\n" +
+            "  (c)-[:TYPE]->(a),\n" +
+            "  (d)-[:TYPE]->(a),\n" +
+            "  (e)-[:TYPE]->(a)";
+
+    @ClassRule
+    public static final TemporaryFolder snapshots = new TemporaryFolder();
+
+    private static GraphDatabaseAPI db;
+
+    @BeforeClass
+    public static void setup() throws KernelException, IOException {
+        db = (GraphDatabaseAPI) new TestGraphDatabaseFactory()
+                .newImpermanentDatabaseBuilder(snapshots.newFolder("db"))
+                .setConfig(LoadGraphProc.SETTING_SNAPSHOT_DIRECTORY, snapshots.getRoot().getAbsolutePath())
+                .newGraphDatabase();
+        try (Transaction tx = db.beginTx()) {
+            db.execute(DB_CYPHER).close();
+            tx.success();
+        }
+
+        Procedures procedures = db.getDependencyResolver().resolveDependency(Procedures.class);
+        procedures.registerProcedure(LoadGraphProc.class);
+        procedures.registerProcedure(PageRankProc.class);
+        procedures.registerProcedure(LouvainProc.class);
+        procedures.registerProcedure(LabelPropagationProc.class);
+        // Neo4j fails the commit of a transaction that started committing without any
+        // transaction event handler if the first one is registered concurrently,
+        // which would break the writes during the incremental loads
+        db.registerTransactionEventHandler(new TransactionEventHandler.Adapter<Object>());
+    }
+
+    @AfterClass
+    public static void tearDown() throws Exception {
+        if (db != null) db.shutdown();
+    }
+
+    @After
+    public void clearCatalog() {
+        for (GraphCatalog.Entry entry : GraphCatalog.list()) {
+            GraphCatalog.remove(entry.name);
+        }
+    }
+
+    @Parameterized.Parameters(name = "{0}")
+    public static Collection<Object[]> data() {
+        return Arrays.asList(
+                new Object[]{"Heavy"},
+                new Object[]{"Huge"}
+        );
+    }
+
+    @Parameterized.Parameter
+    public String graphImpl;
+
+    @Test
+    public void testLoadAndList() throws Exception {
+        runQuery(
+                "CALL algo.graph.load('foo', 'Node', 'TYPE', {graph:'" + graphImpl + "'}) " +
+                        "YIELD name, graph, nodes, memoryBytes, evicted",
+                row -> {
+                    assertEquals("foo", row.getString("name"));
+                    assertEquals(graphImpl, row.getString("graph"));
+                    assertEquals(4L, row.getNumber("nodes").longValue());
+                    assertTrue(row.getNumber("memoryBytes").longValue() > 0L);
+                    assertTrue(((List<?>) row.get("evicted")).isEmpty());
+                });
+
+        List<String> names = new ArrayList<>();
+        runQuery("CALL algo.graph.list() YIELD name, removed", row -> {
+            names.add(row.getString("name"));
+            // a listed graph is still loaded
+            assertFalse(row.getBoolean("removed"));
+        });
+        assertEquals(Arrays.asList("foo"), names);
+    }
+
+    @Test
+    public void testAlgorithmOnNamedGraph() throws Exception {
+        runQuery("CALL algo.graph.load('foo', 'Node', 'TYPE', {graph:'" + graphImpl + "', direction:'OUTGOING'})", row -> {});
+
+        // the named graph does not contain the node with the label 'Other'
+        // and may be used by several procedure calls
+        for (int i = 0; i < 2; i++) {
+            Map<Long, Double> scores = new HashMap<>();
+            runQuery(
+                    "CALL algo.pageRank.stream(null, null, {graph:'foo'}) YIELD node, score",
+                    row -> scores.put(row.getNode("node").getId(), row.getNumber("score").doubleValue()));
+            assertEquals(4, scores.size());
+        }
+    }
+
+    @Test
+    public void testAlgorithmOnNamedGraphFailsForConflictingConfig() throws Exception {
+        runQuery("CALL algo.graph.load('foo', 'Node', 'TYPE', {graph:'" + graphImpl + "', direction:'OUTGOING'})", row -> {});
+
+        // pulling the scores requires the incoming relationships
+        try {
+            runQuery("CALL algo.pageRank.stream(null, null, {graph:'foo', mode:'pull'})", row -> {});
+            fail("a direction that has not been loaded should fail");
+        } catch (QueryExecutionException e) {
+            assertTrue(e.getMessage().contains("direction"));
+        }
+        try {
+            runQuery("CALL algo.pageRank.stream(null, null, {graph:'foo', weightProperty:'weight'})", row -> {});
+            fail("weights that have not been loaded should fail");
+        } catch (QueryExecutionException e) {
+            assertTrue(e.getMessage().contains("without weights"));
+        }
+    }
+
+    @Test
+    public void testUntrackedGraphCountsAgainstBudget() throws Exception {
+        runQuery(
+                "CALL algo.graph.load('foo', 'Node', 'TYPE', {graph:'light'}) YIELD memoryBytes",
+                row -> assertTrue(row.getNumber("memoryBytes").longValue() > 0L));
+        assertTrue(GraphCatalog.usedBytes() > 0L);
+    }
+
+    @Test
+    public void testLoadWithNodeOrdering() throws Exception {
+        runQuery(
+                "CALL algo.graph.load('foo', 'Node', 'TYPE', {graph:'" + graphImpl + "', nodeOrdering:'bfs'}) " +
+                        "YIELD nodes, averageIdGapBefore, averageIdGapAfter",
+                row -> {
+                    assertEquals(4L, row.getNumber("nodes").longValue());
+                    // only the huge graph reorders the nodes
+                    assertEquals(
+                            "Huge".equals(graphImpl),
+                            row.getNumber("averageIdGapBefore").doubleValue() > 0.0);
+                });
+
+        // the scores are still reported for the neo4j nodes
+        Map<String, Double> scores = new HashMap<>();
+        runQuery(
+                "CALL algo.pageRank.stream(null, null, {graph:'foo'}) YIELD node, score",
+                row -> scores.put(
+                        (String) row.getNode("node").getProperty("name"),
+                        row.getNumber("score").doubleValue()));
+        assertEquals(4, scores.size());
+        assertTrue(scores.get("a") > scores.get("d"));
+    }
+
+    @Test
+    public void testLoadFailsForExistingName() throws Exception {
+        runQuery("CALL algo.graph.load('foo', 'Node', 'TYPE', {graph:'" + graphImpl + "'})", row -> {});
+        try {
+            runQuery("CALL algo.graph.load('foo', 'Node', 'TYPE', {graph:'" + graphImpl + "'})", row -> {});
+            fail("loading a graph under an existing name should fail");
+        } catch (QueryExecutionException e) {
+            assertTrue(e.getMessage().contains("already loaded"));
+        }
+    }
+
+    @Test
+    public void testRemove() throws Exception {
+        runQuery("CALL algo.graph.load('foo', 'Node', 'TYPE', {graph:'" + graphImpl + "'})", row -> {});
+        runQuery("CALL algo.graph.remove('foo') YIELD removed", row -> assertTrue(row.getBoolean("removed")));
+        runQuery("CALL algo.graph.remove('foo') YIELD removed", row -> assertFalse(row.getBoolean("removed")));
+        assertFalse(GraphCatalog.exists("foo"));
+    }
+
+    @Test
+    public void testLeastRecentlyUsedGraphIsEvicted() throws Exception {
+        long[] bytes = new long[1];
+        runQuery(
+                "CALL algo.graph.load('first', 'Node', 'TYPE', {graph:'" + graphImpl + "'}) YIELD memoryBytes",
+                row -> bytes[0] = row.getNumber("memoryBytes").longValue());
+        runQuery("CALL algo.graph.load('second', 'Node', 'TYPE', {graph:'" + graphImpl + "'})", row -> {});
+        // touch the first graph, so that the second one becomes the eldest
+        runQuery("CALL algo.pageRank.stream(null, null, {graph:'first'})", row -> {});
+
+        runQuery(
+                "CALL algo.graph.load('third', 'Node', 'TYPE', {graph:'" + graphImpl + "', maxMemory:" + (2 * bytes[0]) + "}) YIELD evicted",
+                row -> assertEquals(Arrays.asList("second"), row.get("evicted")));
+        assertTrue(GraphCatalog.exists("first"));
+        assertFalse(GraphCatalog.exists("second"));
+        assertTrue(GraphCatalog.exists("third"));
+    }
+
+    @Test
+    public void testLouvainRequiresHeavyNamedGraph() throws Exception {
+        runQuery("CALL algo.graph.load('foo', 'Node', 'TYPE', {graph:'" + graphImpl + "'})", row -> {});
+        try {
+            runQuery(
+                    "CALL algo.louvain(null, null, {graph:'foo', write:false}) YIELD nodes",
+                    row -> assertEquals(4L, row.getNumber("nodes").longValue()));
+            assertEquals("Heavy", graphImpl);
+        } catch (QueryExecutionException e) {
+            assertEquals("Huge", graphImpl);
+            assertTrue(e.getMessage().contains("requires a graph of type 'heavy'"));
+        }
+    }
+
+    @Test
+    public void testSaveAndRestore() throws Exception {
+        runQuery("CALL algo.graph.load('foo', 'Node', 'TYPE', {graph:'" + graphImpl + "'})", row -> {});
+        try {
+            runQuery("CALL algo.graph.save('foo', 'foo.snapshot')", row -> {});
+            assertEquals("Huge", graphImpl);
+        } catch (QueryExecutionException e) {
+            assertEquals("Heavy", graphImpl);
+            return;
+        }
+        assertTrue(new File(snapshots.getRoot(), "foo.snapshot").isFile());
+        runQuery(
+                "CALL algo.graph.restore('bar', 'foo.snapshot') YIELD nodes",
+                row -> assertEquals(4L, row.getNumber("nodes").longValue()));
+    }
+
+    @Test
+    public void testRestoredGraphFailsForConflictingConfig() throws Exception {
+        runQuery("CALL algo.graph.load('foo', 'Node', 'TYPE', {graph:'huge', direction:'OUTGOING'})", row -> {});
+        runQuery("CALL algo.graph.load('weighted', 'Node', 'TYPE', " +
+                "{graph:'huge', direction:'OUTGOING', weightProperty:'weight'})", row -> {});
+        runQuery("CALL algo.graph.save('foo', 'outgoing-" + graphImpl + ".snapshot')", row -> {});
+        runQuery("CALL algo.graph.save('weighted', 'weighted-" + graphImpl + ".snapshot')", row -> {});
+        runQuery("CALL algo.graph.restore('bar', 'outgoing-" + graphImpl + ".snapshot')", row -> {});
+        runQuery("CALL algo.graph.restore('baz', 'weighted-" + graphImpl + ".snapshot')", row -> {});
+
+        runQuery("CALL algo.pageRank.stream(null, null, {graph:'bar'})", row -> {});
+        try {
+            runQuery("CALL algo.pageRank.stream(null, null, {graph:'bar', mode:'pull'})", row -> {});
+            fail("pulling the scores requires the incoming relationships, which have not been saved");
+        } catch (QueryExecutionException e) {
+            assertTrue(e.getMessage().contains("has been loaded with direction OUTGOING"));
+        }
+        // label propagation loads the weight property by default
+        for (String direction : Arrays.asList("BOTH", "INCOMING")) {
+            try {
+                runQuery("CALL algo.labelPropagation(null, null, '" + direction + "', {graph:'baz', write:false})", row -> {});
+                fail("the direction " + direction + " has not been saved");
+            } catch (QueryExecutionException e) {
+                assertTrue(e.getMessage().contains("has been loaded with direction OUTGOING"));
+            }
+        }
+        try {
+            runQuery("CALL algo.pageRank.stream(null, null, {graph:'bar', weightProperty:'weight'})", row -> {});
+            fail("weights that have not been saved should fail");
+        } catch (QueryExecutionException e) {
+            assertTrue(e.getMessage().contains("without weights"));
+        }
+        // the weight property is restored from the snapshot
+        runQuery("CALL algo.labelPropagation(null, null, 'OUTGOING', {graph:'baz', write:false})", row -> {});
+    }
+
+    @Test
+    public void testIncrementalGraphFollowsWritesDuringAndAfterTheLoad() throws Exception {
+        String label = "Live" + graphImpl;
+        int nodes = 5000;
+        db.execute("UNWIND range(0, " + (nodes - 1) + ") AS id CREATE (:" + label + " {id: id})").close();
+        db.execute("MATCH (n:" + label + "), (m:" + label + ") WHERE m.id = (n.id + 1) % " + nodes + " " +
+                "CREATE (n)-[:LIVE]->(m)").close();
+
+        // every write replaces the only relationship of a node with one to a new node
+        AtomicBoolean stop = new AtomicBoolean();
+        AtomicInteger writes = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        AtomicReference<Throwable> error = new AtomicReference<>();
+        Thread writer = new Thread(() -> {
+            try {
+                for (int write = 0; !stop.get(); write++) {
+                    db.execute("MATCH (n:" + label + " {id: " + (write % nodes) + "})-[r:LIVE]->() " +
+                            "DELETE r CREATE (n)-[:LIVE]->(:" + label + " {id: -1})").close();
+                    writes.incrementAndGet();
+                    started.countDown();
+                }
+            } catch (Throwable e) {
+                error.set(e);
+                started.countDown();
+            }
+        });
+        int writesBeforeLoad = 0;
+        int writesAfterLoad = 0;
+        writer.start();
+        try {
+            started.await();
+            // loaded again until a write happened during the load, which is almost always the first attempt
+            for (int attempt = 0; attempt < 100 && writesAfterLoad <= writesBeforeLoad; attempt++) {
+                GraphCatalog.remove("live");
+                writesBeforeLoad = writes.get();
+                runQuery("CALL algo.graph.load('live', '" + label + "', 'LIVE', " +
+                        "{graph:'" + graphImpl + "', direction:'OUTGOING', incremental:true})", row -> {});
+                writesAfterLoad = writes.get();
+            }
+            // algorithms release the graph once they are done, which must not stop it from following the transactions
+            GraphCatalog.get("live").release();
+            while (writes.get() < writesAfterLoad + 100 && writer.isAlive()) {
+                Thread.sleep(1L);
+            }
+        } finally {
+            stop.set(true);
+            writer.join();
+        }
+        if (error.get() != null) {
+            throw new AssertionError("the writer failed", error.get());
+        }
+        assertTrue("the writer didn't run during the load", writesAfterLoad > writesBeforeLoad);
+
+        Graph expected = new GraphLoader(db, Pools.DEFAULT)
+                .withLabel(label)
+                .withRelationshipType("LIVE")
+                .withDirection(Direction.OUTGOING)
+                .load(HeavyGraphFactory.class);
+        Graph actual = GraphCatalog.get("live");
+        assertEquals(expected.nodeCount(), actual.nodeCount());
+        assertEquals(relationships(expected), relationships(actual));
+
+        // a dropped graph doesn't follow the transactions anymore
+        runQuery("CALL algo.graph.remove('live')", row -> {});
+        db.execute("MATCH (n:" + label + " {id: -1}) DETACH DELETE n").close();
+        assertEquals(expected.nodeCount(), actual.nodeCount());
+        assertEquals(relationships(expected), relationships(actual));
+    }
+
+    @Test
+    public void testSnapshotOfChangedGraphIsStale() throws Exception {
+        runQuery("CALL algo.graph.load('foo', 'Node', 'TYPE', {graph:'huge'})", row -> {});
+        // committed after the load, so the loaded graph doesn't reflect it
+        try (Transaction tx = db.beginTx()) {
+            db.createNode();
+            tx.success();
+        }
+        runQuery("CALL algo.graph.save('foo', 'stale-" + graphImpl + ".snapshot')", row -> {});
+        try {
+            runQuery("CALL algo.graph.restore('bar', 'stale-" + graphImpl + ".snapshot')", row -> {});
+            fail("a snapshot of a graph loaded before the last transaction should be stale");
+        } catch (QueryExecutionException e) {
+            assertTrue(e.getMessage().contains("stale"));
+        }
+    }
+
+    @Test
+    public void testSnapshotFileMustStayInSnapshotDirectory() throws Exception {
+        runQuery("CALL algo.graph.load('foo', 'Node', 'TYPE', {graph:'huge'})", row -> {});
+        String absolute = new File(snapshots.getRoot(), "foo.snapshot").getAbsolutePath();
+        for (String file : Arrays.asList(absolute, "../foo.snapshot", "sub/../../foo.snapshot", "")) {
+            try {
+                runQuery("CALL algo.graph.save('foo', '" + file + "')", row -> {});
+                fail("saving to '" + file + "' should fail");
+            } catch (QueryExecutionException e) {
+                assertTrue(e.getMessage().contains("snapshot"));
+            }
+            try {
+                runQuery("CALL algo.graph.restore('bar', '" + file + "')", row -> {});
+                fail("restoring from '" + file + "' should fail");
+            } catch (QueryExecutionException e) {
+                assertTrue(e.getMessage().contains("snapshot"));
+            }
+        }
+    }
+
+    private static Set<List<Long>> relationships(Graph graph) {
+        Set<List<Long>> relationships = new HashSet<>();
+        graph.forEachNode(node -> {
+            graph.forEachRelationship(node, Direction.OUTGOING, (source, target, relationId) -> {
+                relationships.add(Arrays.asList(graph.toOriginalNodeId(source), graph.toOriginalNodeId(target)));
+                return true;
+            });
+            return true;
+        });
+        return relationships;
+    }
+
+    private static void runQuery(
+            String query,
+            Consumer<Result.ResultRow> check) {
+        // an explicit transaction, so that a failing procedure doesn't leave its transaction bound to the thread
+        try (Transaction tx = db.beginTx();
+             Result result = db.execute(query)) {
+            result.accept(row -> {
+                check.accept(row);
+                return true;
+            });
+            tx.success();
+        }
+    }
+}
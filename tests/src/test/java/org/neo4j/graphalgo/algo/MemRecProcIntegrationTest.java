@@ -0,0 +1,188 @@
+package org.neo4j.graphalgo.algo;
+
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.neo4j.graphalgo.LoadGraphProc;
+import org.neo4j.graphalgo.MemRecProc;
+import org.neo4j.graphalgo.TestDatabaseCreator;
+import org.neo4j.graphalgo.core.GraphLoader;
+import org.neo4j.graphalgo.core.huge.HugeGraphFactory;
+import org.neo4j.graphalgo.core.loading.GraphCatalog;
+import org.neo4j.graphalgo.core.utils.Pools;
+import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
+import org.neo4j.graphalgo.core.utils.paged.MemoryRange;
+import org.neo4j.graphdb.Direction;
+import org.neo4j.graphdb.QueryExecutionException;
+import org.neo4j.graphdb.Result;
+import org.neo4j.kernel.api.exceptions.KernelException;
+import org.neo4j.kernel.impl.proc.Procedures;
+import org.neo4j.kernel.internal.GraphDatabaseAPI;
+
+import java.util.function.Consumer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class MemRecProcIntegrationTest {
+
+    private static final int NODES = 1000;
+
+    private static GraphDatabaseAPI db;
+
+    @BeforeClass
+    public static void setup() throws KernelException {
+        db = TestDatabaseCreator.createTestDatabase();
+        db.execute("UNWIND range(0, " + (NODES - 1) + ") AS i CREATE (:Node {id: i})").close();
+        db.execute("MATCH (a:Node), (b:Node) " +
+                "WHERE b.id = (a.id + 1) % " + NODES + " OR b.id = (a.id * 7) % " + NODES + " " +
+                "CREATE (a)-[:TYPE {weight: 1.0}]->(b)").close();
+        // not part of the named graphs
+        db.execute("UNWIND range(1, 10) AS i CREATE (:Other)-[:OTHER]->(:Other)").close();
+
+        Procedures procedures = db.getDependencyResolver().resolveDependency(Procedures.class);
+        procedures.registerProcedure(MemRecProc.class);
+        procedures.registerProcedure(LoadGraphProc.class);
+    }
+
+    @AfterClass
+    public static void tearDown() throws Exception {
+        if (db != null) db.shutdown();
+    }
+
+    @After
+    public void clearCatalog() {
+        for (GraphCatalog.Entry entry : GraphCatalog.list()) {
+            GraphCatalog.remove(entry.name);
+        }
+    }
+
+    @Test
+    public void testEstimatePageRank() throws Exception {
+        runQuery(
+                "CALL algo.memrec('pageRank', 'Node', 'TYPE', {graph:'huge', concurrency:4})",
+                row -> {
+                    assertEquals("pageRank", row.getString("algorithm"));
+                    assertEquals("huge", row.getString("graph"));
+                    assertEquals((long) NODES, row.getNumber("nodes").longValue());
+                    assertEquals(2L * NODES, row.getNumber("relationships").longValue());
+                    long loadMin = row.getNumber("loadMinBytes").longValue();
+                    long loadMax = row.getNumber("loadMaxBytes").longValue();
+                    long computeMin = row.getNumber("computeMinBytes").longValue();
+                    long computeMax = row.getNumber("computeMaxBytes").longValue();
+                    assertTrue(loadMin > 0L && loadMin <= loadMax);
+                    // the concurrency only adds to the maximum
+                    assertEquals(NODES * 20L, computeMin);
+                    assertEquals(NODES * 32L, computeMax);
+                    assertEquals(loadMin + computeMin, row.getNumber("minBytes").longValue());
+                    assertEquals(loadMax + computeMax, row.getNumber("maxBytes").longValue());
+                    assertTrue(row.getNumber("availableBytes").longValue() > 0L);
+                });
+    }
+
+    @Test
+    public void testEstimatePageRankModes() throws Exception {
+        String query = "CALL algo.memrec('pageRank', 'Node', 'TYPE', {graph:'huge', concurrency:1%s}) YIELD computeMinBytes";
+        long[] bytes = new long[4];
+        runQuery(String.format(query, ""), row -> bytes[0] = row.getNumber("computeMinBytes").longValue());
+        runQuery(String.format(query, ", weightProperty:'weight'"), row -> bytes[1] = row.getNumber("computeMinBytes").longValue());
+        runQuery(String.format(query, ", mode:'pull'"), row -> bytes[2] = row.getNumber("computeMinBytes").longValue());
+        runQuery(String.format(query, ", mode:'pull', precision:'float'"), row -> bytes[3] = row.getNumber("computeMinBytes").longValue());
+        // the weight sums take another double per node
+        assertEquals(bytes[0] + NODES * 8L, bytes[1]);
+        // pulling keeps the scores and shares, floats take half of it
+        assertEquals(NODES * 16L, bytes[2]);
+        assertEquals(NODES * 8L, bytes[3]);
+    }
+
+    @Test
+    public void testPullLoadsIncomingRelationships() throws Exception {
+        String query = "CALL algo.memrec('pageRank', 'Node', 'TYPE', {graph:'huge'%s}) YIELD loadMaxBytes";
+        long[] bytes = new long[2];
+        runQuery(String.format(query, ""), row -> bytes[0] = row.getNumber("loadMaxBytes").longValue());
+        // the direction is ignored, pulling loads both directions like PageRankProc
+        runQuery(String.format(query, ", mode:'pull', direction:'OUTGOING'"), row -> bytes[1] = row.getNumber("loadMaxBytes").longValue());
+        assertTrue(bytes[0] < bytes[1]);
+    }
+
+    @Test
+    public void testEstimateGraphOnly() throws Exception {
+        runQuery(
+                "CALL algo.memrec(null, 'Node', 'TYPE', {graph:'heavy', weightProperty:'weight'})",
+                row -> {
+                    assertEquals(0L, row.getNumber("computeMaxBytes").longValue());
+                    assertTrue(row.getNumber("loadMinBytes").longValue() > 0L);
+                });
+    }
+
+    @Test
+    public void testWeightsIncreaseTheEstimation() throws Exception {
+        long[] bytes = new long[2];
+        runQuery(
+                "CALL algo.memrec('unionFind', 'Node', 'TYPE') YIELD minBytes",
+                row -> bytes[0] = row.getNumber("minBytes").longValue());
+        runQuery(
+                "CALL algo.memrec('unionFind', 'Node', 'TYPE', {weightProperty:'weight'}) YIELD minBytes",
+                row -> bytes[1] = row.getNumber("minBytes").longValue());
+        assertTrue(bytes[0] < bytes[1]);
+    }
+
+    @Test
+    public void testNamedGraphRequiresNoLoading() throws Exception {
+        runQuery("CALL algo.graph.load('foo', 'Node', 'TYPE', {graph:'huge'})", row -> {});
+        runQuery(
+                "CALL algo.memrec('labelPropagation', null, null, {graph:'foo'})",
+                row -> {
+                    assertEquals("foo", row.getString("graph"));
+                    assertEquals((long) NODES, row.getNumber("nodes").longValue());
+                    // the relationships of the named graph, not the ones of the store
+                    assertEquals(2L * NODES, row.getNumber("relationships").longValue());
+                    assertEquals(0L, row.getNumber("loadMaxBytes").longValue());
+                    assertNull(row.getString("message"));
+                    assertTrue(row.getNumber("computeMinBytes").longValue() > 0L);
+                });
+    }
+
+    @Test
+    public void testUnknownAlgorithm() throws Exception {
+        try {
+            runQuery("CALL algo.memrec('foo', 'Node', 'TYPE')", row -> {});
+            fail("an unknown algorithm should not be estimated");
+        } catch (QueryExecutionException e) {
+            assertTrue(e.getMessage().contains("Unknown algorithm 'foo'"));
+        }
+    }
+
+    @Test
+    public void testHugeEstimationCoversLoadedGraph() throws Exception {
+        for (Direction direction : new Direction[]{Direction.OUTGOING, Direction.BOTH}) {
+            GraphLoader loader = new GraphLoader(db, Pools.DEFAULT)
+                    .withLabel("Node")
+                    .withRelationshipType("TYPE")
+                    .withRelationshipWeightsFromProperty("weight", 1.0)
+                    .withDirection(direction)
+                    .withBatchSize(100);
+            MemoryRange estimation = loader.build(HugeGraphFactory.class).memoryEstimation();
+
+            AllocationTracker tracker = AllocationTracker.create();
+            loader.withAllocationTracker(tracker).load(HugeGraphFactory.class);
+
+            assertTrue(estimation + " does not cover " + tracker.tracked(),
+                    estimation.min <= tracker.tracked() && tracker.tracked() <= estimation.max);
+        }
+    }
+
+    private static void runQuery(
+            String query,
+            Consumer<Result.ResultRow> check) {
+        try (Result result = db.execute(query)) {
+            result.accept(row -> {
+                check.accept(row);
+                return true;
+            });
+        }
+    }
+}
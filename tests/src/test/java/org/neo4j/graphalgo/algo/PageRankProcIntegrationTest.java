@@ -7,6 +7,7 @@ import org.junit.runner.RunWith;
 import org.junit.runners.Parameterized;
 import org.neo4j.graphalgo.PageRankProc;
 import org.neo4j.graphdb.Label;
+import org.neo4j.graphdb.QueryExecutionException;
 import org.neo4j.graphdb.Result;
 import org.neo4j.graphdb.Transaction;
 import org.neo4j.kernel.api.exceptions.KernelException;
@@ -14,14 +15,17 @@ import org.neo4j.kernel.impl.proc.Procedures;
 import org.neo4j.kernel.internal.GraphDatabaseAPI;
 import org.neo4j.graphalgo.TestDatabaseCreator;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.function.Consumer;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
@@ -182,6 +186,125 @@ public class PageRankProcIntegrationTest {
         assertMapEquals(expected, actual);
     }
 
+    @Test
+    public void testPageRankTolerance() throws Exception {
+        runQuery(
+                "CALL algo.pageRank('Label1', 'TYPE1', {iterations:100, tolerance:0.001, graph:'"+graphImpl+"'}) YIELD iterations, didConverge",
+                row -> {
+                    assertTrue(row.getBoolean("didConverge"));
+                    assertTrue(row.getNumber("iterations").intValue() < 100);
+                });
+
+        assertResult("pagerank");
+    }
+
+    @Test
+    public void testPageRankWithoutTolerance() throws Exception {
+        runQuery(
+                "CALL algo.pageRank('Label1', 'TYPE1', {iterations:15, graph:'"+graphImpl+"'}) YIELD iterations, didConverge",
+                row -> {
+                    assertFalse(row.getBoolean("didConverge"));
+                    assertEquals(15, row.getNumber("iterations").intValue());
+                });
+    }
+
+    @Test
+    public void testPullPageRankStream() throws Exception {
+        final Map<Long, Double> actual = new HashMap<>();
+        runQuery(
+                "CALL algo.pageRank.stream('Label1', 'TYPE1', {mode:'pull', batchSize:2, graph:'"+graphImpl+"'}) YIELD node, score",
+                row -> actual.put(
+                        row.getNode("node").getId(),
+                        (Double) row.get("score")));
+
+        assertMapEquals(expected, actual);
+    }
+
+    @Test
+    public void testPullPageRankWriteBack() throws Exception {
+        runQuery(
+                "CALL algo.pageRank('Label1', 'TYPE1', {mode:'pull', writeProperty:'pullrank', graph:'"+graphImpl+"'}) YIELD write",
+                row -> assertTrue(row.getBoolean("write")));
+
+        assertResult("pullrank");
+    }
+
+    @Test
+    public void testFloatPrecisionPageRankStream() throws Exception {
+        final Map<Long, Double> actual = new HashMap<>();
+        runQuery(
+                "CALL algo.pageRank.stream('Label1', 'TYPE1', {mode:'pull', precision:'float', graph:'"+graphImpl+"'}) YIELD node, score",
+                row -> actual.put(
+                        row.getNode("node").getId(),
+                        (Double) row.get("score")));
+
+        assertMapEquals(expected, actual);
+    }
+
+    @Test
+    public void testFloatPrecisionRequiresPullMode() throws Exception {
+        try {
+            runQuery(
+                    "CALL algo.pageRank.stream('Label1', 'TYPE1', {precision:'float', graph:'"+graphImpl+"'}) YIELD node, score",
+                    row -> {});
+            fail("float precision should be rejected in push mode");
+        } catch (QueryExecutionException e) {
+            assertTrue(e.getMessage().contains("precision:'float'"));
+        }
+    }
+
+    @Test
+    public void testWeightedPageRankStream() throws Exception {
+        final Map<String, Double> actual = new HashMap<>();
+        runQuery(
+                "CALL algo.pageRank.stream('Label1', 'TYPE1', {weightProperty:'foo', graph:'"+graphImpl+"'}) YIELD node, score " +
+                "RETURN node.name AS name, score",
+                row -> actual.put(row.getString("name"), row.getNumber("score").doubleValue()));
+
+        assertEquals(0.238, actual.get("a"), 0.01);
+        assertEquals(1.863, actual.get("b"), 0.01);
+        assertEquals(1.725, actual.get("c"), 0.01);
+        assertEquals(0.240, actual.get("d"), 0.01);
+        assertEquals(0.231, actual.get("e"), 0.01);
+        assertEquals(0.211, actual.get("f"), 0.01);
+        assertEquals(0.150, actual.get("g"), 0.01);
+    }
+
+    @Test
+    public void testPersonalizedPageRankStream() throws Exception {
+        final Map<String, Double> actual = new HashMap<>();
+        runQuery(
+                "MATCH (source:Label1 {name:'d'}) WITH collect(source) AS sources " +
+                "CALL algo.pageRank.stream('Label1', 'TYPE1', {sourceNodes:sources, graph:'"+graphImpl+"'}) YIELD node, score " +
+                "RETURN node.name AS name, score",
+                row -> actual.put(row.getString("name"), row.getNumber("score").doubleValue()));
+
+        assertEquals(0.15, actual.get("d"), 0.01);
+        assertTrue(actual.get("a") > 0.0);
+        assertTrue(actual.get("b") > 0.0);
+        assertTrue(actual.get("c") > 0.0);
+        assertEquals(0.0, actual.get("e"), 0.0);
+        assertEquals(0.0, actual.get("f"), 0.0);
+        assertEquals(0.0, actual.get("g"), 0.0);
+    }
+
+    @Test
+    public void testPersonalizedPageRankBatchStream() throws Exception {
+        final Map<Long, List<String>> actual = new HashMap<>();
+        runQuery(
+                "MATCH (d:Label1 {name:'d'}), (e:Label1 {name:'e'}), (g:Label1 {name:'g'}) " +
+                "CALL algo.pageRank.personalized.stream('Label1', 'TYPE1', [[d], {nodes:[e, g], weights:[2.0, 1.0]}], {topK:2, graph:'"+graphImpl+"'}) " +
+                "YIELD sourceSet, node, score " +
+                "RETURN sourceSet, node.name AS name, score",
+                row -> actual
+                        .computeIfAbsent(row.getNumber("sourceSet").longValue(), k -> new ArrayList<>())
+                        .add(row.getString("name")));
+
+        assertEquals(2, actual.size());
+        assertEquals(Arrays.asList("b", "c"), actual.get(0L));
+        assertEquals(Arrays.asList("b", "c"), actual.get(1L));
+    }
+
     private static void runQuery(
             String query,
             Consumer<Result.ResultRow> check) {
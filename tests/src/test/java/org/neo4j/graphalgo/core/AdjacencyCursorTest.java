@@ -0,0 +1,202 @@
+package org.neo4j.graphalgo.core;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameters;
+import org.neo4j.graphalgo.TestDatabaseCreator;
+import org.neo4j.graphalgo.api.AdjacencyCursor;
+import org.neo4j.graphalgo.api.Graph;
+import org.neo4j.graphalgo.api.GraphFactory;
+import org.neo4j.graphalgo.core.heavyweight.HeavyGraphFactory;
+import org.neo4j.graphalgo.core.huge.HugeGraphFactory;
+import org.neo4j.graphalgo.core.lightweight.LightGraphFactory;
+import org.neo4j.graphalgo.core.neo4jview.GraphViewFactory;
+import org.neo4j.graphalgo.core.utils.BufferedAdjacencyCursor;
+import org.neo4j.graphalgo.core.utils.Pools;
+import org.neo4j.graphdb.Direction;
+import org.neo4j.kernel.internal.GraphDatabaseAPI;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+@RunWith(Parameterized.class)
+public final class AdjacencyCursorTest {
+
+    private static final int COUNT = 100;
+    private static final Direction[] DIRECTIONS = {Direction.OUTGOING, Direction.INCOMING, Direction.BOTH};
+
+    private static GraphDatabaseAPI db;
+
+    private final Graph graph;
+
+    @Parameters(name = "{1}")
+    public static Collection<Object[]> data() {
+        return Arrays.asList(
+                new Object[]{HeavyGraphFactory.class, "HeavyGraphFactory"},
+                new Object[]{LightGraphFactory.class, "LightGraphFactory"},
+                new Object[]{HugeGraphFactory.class, "HugeGraphFactory"},
+                new Object[]{GraphViewFactory.class, "GraphViewFactory"}
+        );
+    }
+
+    @BeforeClass
+    public static void setupGraph() {
+        db = TestDatabaseCreator.createTestDatabase();
+        db.execute("UNWIND range(1, " + COUNT + ") AS id CREATE (:Node {id: id})").close();
+        // node 1 has more neighbours than fit into a single batch
+        db.execute("MATCH (n:Node {id: 1}), (m:Node) WHERE m.id > 1 CREATE (n)-[:REL {w: m.id * 0.5}]->(m)").close();
+        db.execute("MATCH (n:Node), (m:Node) " +
+                "WHERE m.id = (n.id * 7) % " + COUNT + " + 1 OR m.id = (n.id * 13) % " + COUNT + " + 1 " +
+                "CREATE (n)-[:REL {w: n.id + m.id}]->(m)").close();
+    }
+
+    @AfterClass
+    public static void tearDown() {
+        if (db != null) db.shutdown();
+    }
+
+    public AdjacencyCursorTest(
+            Class<? extends GraphFactory> graphImpl,
+            String nameIgnoredOnlyForTestName) {
+        graph = new GraphLoader(db, Pools.DEFAULT)
+                .withLabel("Node")
+                .withRelationshipType("REL")
+                .withRelationshipWeightsFromProperty("w", 0.0)
+                .withDirection(Direction.BOTH)
+                .load(graphImpl);
+    }
+
+    @Test
+    public void testTargets() {
+        AdjacencyCursor cursor = graph.newAdjacencyCursor();
+        for (int batchSize : new int[]{1, 7, AdjacencyCursor.BATCH_SIZE}) {
+            for (Direction direction : DIRECTIONS) {
+                graph.forEachNode(node -> {
+                    List<String> expected = targets(node, direction, false);
+                    assertEquals(expected, read(cursor, node, direction, new int[batchSize]));
+                    assertEquals(expected, read(cursor, node, direction, new long[batchSize]));
+                    return true;
+                });
+            }
+        }
+    }
+
+    @Test
+    public void testWeights() {
+        AdjacencyCursor cursor = graph.newAdjacencyCursor();
+        for (int batchSize : new int[]{1, 7, AdjacencyCursor.BATCH_SIZE}) {
+            for (Direction direction : DIRECTIONS) {
+                graph.forEachNode(node -> {
+                    List<String> expected = targets(node, direction, true);
+                    assertEquals(expected, read(cursor, node, direction, new int[batchSize], new double[batchSize]));
+                    assertEquals(expected, read(cursor, node, direction, new long[batchSize], new double[batchSize]));
+                    return true;
+                });
+            }
+        }
+    }
+
+    @Test
+    public void testMixedReads() {
+        AdjacencyCursor cursor = graph.newAdjacencyCursor();
+        int node = graph.toMappedNodeId(originalId(1));
+        List<String> expected = targets(node, Direction.OUTGOING, true);
+
+        cursor.init(node, Direction.OUTGOING);
+        int[] targets = new int[10];
+        double[] weights = new double[10];
+        List<String> actual = new ArrayList<>();
+        int length = cursor.next(targets);
+        for (int i = 0; i < length; i++) {
+            actual.add(expected.get(i));
+        }
+        while ((length = cursor.next(targets, weights)) > 0) {
+            for (int i = 0; i < length; i++) {
+                actual.add(graph.toOriginalNodeId(targets[i]) + ":" + weights[i]);
+            }
+        }
+        assertEquals(expected, actual);
+    }
+
+    @Test
+    public void testBufferedCursor() {
+        AdjacencyCursor cursor = BufferedAdjacencyCursor.of(graph);
+        for (Direction direction : DIRECTIONS) {
+            graph.forEachNode(node -> {
+                assertEquals(targets(node, direction, false), read(cursor, node, direction, new int[7]));
+                assertEquals(targets(node, direction, true), read(cursor, node, direction, new long[7], new double[7]));
+                return true;
+            });
+        }
+    }
+
+    private List<String> targets(int node, Direction direction, boolean withWeights) {
+        List<String> targets = new ArrayList<>();
+        graph.forEachRelationship(node, direction, (source, target, relationId, weight) -> {
+            targets.add(withWeights
+                    ? graph.toOriginalNodeId(target) + ":" + weight
+                    : String.valueOf(graph.toOriginalNodeId(target)));
+            return true;
+        });
+        return targets;
+    }
+
+    private List<String> read(AdjacencyCursor cursor, int node, Direction direction, int[] buffer) {
+        List<String> targets = new ArrayList<>();
+        cursor.init(node, direction);
+        int length;
+        while ((length = cursor.next(buffer)) > 0) {
+            for (int i = 0; i < length; i++) {
+                targets.add(String.valueOf(graph.toOriginalNodeId(buffer[i])));
+            }
+        }
+        return targets;
+    }
+
+    private List<String> read(AdjacencyCursor cursor, int node, Direction direction, long[] buffer) {
+        List<String> targets = new ArrayList<>();
+        cursor.init(node, direction);
+        int length;
+        while ((length = cursor.next(buffer)) > 0) {
+            for (int i = 0; i < length; i++) {
+                targets.add(String.valueOf(graph.toOriginalNodeId((int) buffer[i])));
+            }
+        }
+        return targets;
+    }
+
+    private List<String> read(AdjacencyCursor cursor, int node, Direction direction, int[] buffer, double[] weights) {
+        List<String> targets = new ArrayList<>();
+        cursor.init(node, direction);
+        int length;
+        while ((length = cursor.next(buffer, weights)) > 0) {
+            for (int i = 0; i < length; i++) {
+                targets.add(graph.toOriginalNodeId(buffer[i]) + ":" + weights[i]);
+            }
+        }
+        return targets;
+    }
+
+    private List<String> read(AdjacencyCursor cursor, int node, Direction direction, long[] buffer, double[] weights) {
+        List<String> targets = new ArrayList<>();
+        cursor.init(node, direction);
+        int length;
+        while ((length = cursor.next(buffer, weights)) > 0) {
+            for (int i = 0; i < length; i++) {
+                targets.add(graph.toOriginalNodeId((int) buffer[i]) + ":" + weights[i]);
+            }
+        }
+        return targets;
+    }
+
+    private static long originalId(int id) {
+        return (long) db.execute("MATCH (n:Node {id: " + id + "}) RETURN id(n) AS id").next().get("id");
+    }
+}
@@ -0,0 +1,280 @@
+package org.neo4j.graphalgo.core;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameters;
+import org.neo4j.graphalgo.TestDatabaseCreator;
+import org.neo4j.graphalgo.api.Graph;
+import org.neo4j.graphalgo.api.GraphFactory;
+import org.neo4j.graphalgo.core.heavyweight.HeavyGraphFactory;
+import org.neo4j.graphalgo.core.heavyweight.IncrementalHeavyGraph;
+import org.neo4j.graphalgo.core.huge.HugeGraphFactory;
+import org.neo4j.graphalgo.core.huge.IncrementalHugeGraph;
+import org.neo4j.graphalgo.core.utils.Pools;
+import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
+import org.neo4j.graphdb.Direction;
+import org.neo4j.kernel.internal.GraphDatabaseAPI;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+@RunWith(Parameterized.class)
+public final class IncrementalGraphTest {
+
+    private static final int COUNT = 100;
+
+    private final Class<? extends GraphFactory> graphImpl;
+
+    private GraphDatabaseAPI db;
+
+    @Parameters(name = "{1}")
+    public static Collection<Object[]> data() {
+        return Arrays.asList(
+                new Object[]{HeavyGraphFactory.class, "HeavyGraphFactory"},
+                new Object[]{HugeGraphFactory.class, "HugeGraphFactory"}
+        );
+    }
+
+    public IncrementalGraphTest(
+            Class<? extends GraphFactory> graphImpl,
+            String nameIgnoredOnlyForTestName) {
+        this.graphImpl = graphImpl;
+    }
+
+    @Before
+    public void setUp() {
+        db = TestDatabaseCreator.createTestDatabase();
+        db.execute("UNWIND range(1, " + COUNT + ") AS id CREATE (:Node {id: id})").close();
+        db.execute("MATCH (n:Node), (m:Node) " +
+                "WHERE m.id = (n.id * 7) % " + COUNT + " + 1 OR m.id = (n.id + 1) % " + COUNT + " + 1 " +
+                "CREATE (n)-[:REL {w: n.id % 10}]->(m)").close();
+        db.execute("MATCH (n:Node {id: 1}), (m:Node {id: 2}) CREATE (n)-[:OTHER {w: 42}]->(m)").close();
+    }
+
+    @After
+    public void tearDown() {
+        if (db != null) db.shutdown();
+    }
+
+    @Test
+    public void testFollowsTransactions() {
+        Graph graph = loader(Direction.BOTH).loadIncremental(graphImpl);
+        assertSameGraph(graph, Direction.BOTH);
+
+        changeGraph(0);
+        assertSameGraph(graph, Direction.BOTH);
+
+        compact(graph);
+        // the nodes that have been created after the load stay in the overlay
+        assertEquals(3, overlaySize(graph));
+        assertSameGraph(graph, Direction.BOTH);
+
+        // changes on top of the compacted graph
+        changeGraph(1);
+        assertSameGraph(graph, Direction.BOTH);
+        compact(graph);
+        assertSameGraph(graph, Direction.BOTH);
+        graph.release();
+    }
+
+    @Test
+    public void testDeletedNodes() {
+        Graph graph = loader(Direction.BOTH).loadIncremental(graphImpl);
+        long deleted = originalId(50);
+        db.execute("MATCH (n:Node {id: 50}) DETACH DELETE n").close();
+
+        assertFalse(graph.contains(deleted));
+        assertTrue(graph.contains(originalId(51)));
+        int node = graph.toMappedNodeId(deleted);
+        assertEquals(0, graph.degree(node, Direction.BOTH));
+        assertSameGraph(graph, Direction.BOTH);
+        graph.release();
+    }
+
+    @Test
+    public void testIgnoresOtherTypesAndLabels() {
+        Graph graph = loader(Direction.OUTGOING).loadIncremental(graphImpl);
+        Graph expected = loader(Direction.OUTGOING).load(graphImpl);
+        db.execute("MATCH (n:Node {id: 1}), (m:Node {id: 3}) CREATE (n)-[:OTHER]->(m)").close();
+        db.execute("MATCH (n:Node {id: 1}) CREATE (n)-[:REL]->(:Other)").close();
+
+        assertEquals(0, overlaySize(graph));
+        assertEquals(COUNT, graph.nodeCount());
+        assertSameGraph(expected, graph, Direction.OUTGOING);
+        graph.release();
+    }
+
+    @Test
+    public void testCompactsInBackground() throws Exception {
+        Graph graph = loader(Direction.OUTGOING).loadIncremental(graphImpl, 5);
+        for (int i = 1; i <= 10; i++) {
+            db.execute("MATCH (n:Node {id: " + i + "}), (m:Node {id: " + (i + 20) + "}) " +
+                    "CREATE (n)-[:REL {w: 1.5}]->(m)").close();
+        }
+        long deadline = System.currentTimeMillis() + 10_000L;
+        while (overlaySize(graph) >= 5 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10L);
+        }
+        assertTrue(overlaySize(graph) < 5);
+        assertSameGraph(graph, Direction.OUTGOING);
+        graph.release();
+    }
+
+    @Test
+    public void testAddedNodesDoNotTriggerCompaction() {
+        Graph graph = loader(Direction.BOTH).loadIncremental(graphImpl, 2);
+        for (int i = 0; i < 5; i++) {
+            db.execute("CREATE (:Node {id: -1})-[:REL {w: 1.5}]->(:Node {id: -2})").close();
+        }
+        assertEquals(10, overlaySize(graph));
+        assertEquals(0, compactableSize(graph));
+        assertSameGraph(graph, Direction.BOTH);
+
+        db.execute("MATCH (n:Node {id: 1}), (m:Node {id: -1}) CREATE (n)-[:REL {w: 1.5}]->(m)").close();
+        assertEquals(1, compactableSize(graph));
+        compact(graph);
+        assertEquals(0, compactableSize(graph));
+        assertSameGraph(graph, Direction.BOTH);
+        graph.release();
+    }
+
+    @Test
+    public void testRepeatedCompactionsReclaimMemory() {
+        assumeTrue(graphImpl == HugeGraphFactory.class);
+        AllocationTracker tracker = AllocationTracker.create();
+        Graph graph = loader(Direction.BOTH).withAllocationTracker(tracker).loadIncremental(graphImpl);
+        changeGraph(0);
+        compact(graph);
+        long afterFirstCompaction = tracker.tracked();
+        for (int round = 0; round < 20; round++) {
+            db.execute("MATCH (n:Node {id: 5}), (m:Node {id: " + (round + 30) + "}) " +
+                    "CREATE (n)-[:REL {w: 1.5}]->(m)").close();
+            compact(graph);
+        }
+        assertTrue(tracker.tracked() <= 3L * afterFirstCompaction);
+        assertSameGraph(graph, Direction.BOTH);
+        graph.release();
+    }
+
+    @Test
+    public void testStopsFollowingAfterRelease() {
+        Graph graph = loader(Direction.OUTGOING).loadIncremental(graphImpl);
+        graph.release();
+        db.execute("MATCH (n:Node {id: 1}), (m:Node {id: 3}) CREATE (n)-[:REL]->(m)").close();
+        assertEquals(0, overlaySize(graph));
+    }
+
+    @Test
+    public void testKeepsFollowingIfItCannotBeReleased() {
+        Graph graph = loader(Direction.OUTGOING).loadIncremental(graphImpl);
+        graph.canRelease(false);
+        graph.release();
+        db.execute("MATCH (n:Node {id: 1}), (m:Node {id: 50}) CREATE (n)-[:REL {w: 1.5}]->(m)").close();
+        assertEquals(1, overlaySize(graph));
+        assertSameGraph(graph, Direction.OUTGOING);
+        graph.canRelease(true);
+        graph.release();
+    }
+
+    @Test
+    public void testUndirected() {
+        assumeTrue(graphImpl == HugeGraphFactory.class);
+        Graph graph = loader(Direction.OUTGOING).asUndirected(true).loadIncremental(graphImpl);
+        changeGraph(0);
+
+        Graph expected = loader(Direction.OUTGOING).asUndirected(true).load(graphImpl);
+        graph.forEachNode(node -> {
+            long originalId = graph.toOriginalNodeId(node);
+            int expectedNode = expected.toMappedNodeId(originalId);
+            assertEquals(relationships(expected, expectedNode, Direction.OUTGOING), relationships(graph, node, Direction.OUTGOING));
+            assertEquals(relationships(expected, expectedNode, Direction.OUTGOING), relationships(graph, node, Direction.BOTH));
+            return true;
+        });
+        graph.release();
+    }
+
+    private void changeGraph(int round) {
+        int offset = round * 10;
+        // a new node with relationships in both directions
+        db.execute("MATCH (n:Node {id: " + (offset + 3) + "}), (m:Node {id: " + (offset + 4) + "}) " +
+                "CREATE (n)-[:REL {w: 2.5}]->(:Node {id: -1})-[:REL {w: 3.5}]->(m)").close();
+        // added and deleted relationships between existing nodes
+        db.execute("MATCH (n:Node {id: " + (offset + 5) + "}), (m:Node {id: " + (offset + 60) + "}) " +
+                "CREATE (n)-[:REL {w: 4.5}]->(m), (m)-[:REL {w: 4.5}]->(n)").close();
+        db.execute("MATCH (n:Node {id: " + (offset + 6) + "})-[r:REL]->() DELETE r").close();
+        db.execute("MATCH (n:Node {id: " + (offset + 7) + "})-[r:REL]->(m) " +
+                "WITH r, m LIMIT 1 DELETE r CREATE (:Node {id: -2})-[:REL {w: 6.5}]->(m)").close();
+    }
+
+    private long originalId(int id) {
+        return (long) db.execute("MATCH (n:Node {id: " + id + "}) RETURN id(n) AS id").next().get("id");
+    }
+
+    private GraphLoader loader(Direction direction) {
+        return new GraphLoader(db, Pools.DEFAULT)
+                .withLabel("Node")
+                .withRelationshipType("REL")
+                .withRelationshipWeightsFromProperty("w", 0.0)
+                .withDirection(direction);
+    }
+
+    private void assertSameGraph(Graph actual, Direction direction) {
+        assertSameGraph(loader(direction).load(graphImpl), actual, direction);
+    }
+
+    private static void assertSameGraph(Graph expected, Graph actual, Direction direction) {
+        expected.forEachNode(node -> {
+            long originalId = expected.toOriginalNodeId(node);
+            int actualNode = actual.toMappedNodeId(originalId);
+            assertTrue(actual.contains(originalId));
+            assertEquals(originalId, actual.toOriginalNodeId(actualNode));
+            for (Direction d : new Direction[]{Direction.OUTGOING, Direction.INCOMING}) {
+                if (direction == Direction.BOTH || direction == d) {
+                    assertEquals(expected.degree(node, d), actual.degree(actualNode, d));
+                    assertEquals(relationships(expected, node, d), relationships(actual, actualNode, d));
+                }
+            }
+            return true;
+        });
+    }
+
+    private static List<String> relationships(Graph graph, int node, Direction direction) {
+        List<String> relationships = new ArrayList<>();
+        graph.forEachRelationship(node, direction, (source, target, relationId, weight) -> {
+            relationships.add(graph.toOriginalNodeId(target) + ":" + weight);
+            return true;
+        });
+        relationships.sort(String::compareTo);
+        return relationships;
+    }
+
+    private static void compact(Graph graph) {
+        if (graph instanceof IncrementalHugeGraph) {
+            ((IncrementalHugeGraph) graph).compact();
+        } else {
+            ((IncrementalHeavyGraph) graph).compact();
+        }
+    }
+
+    private static int compactableSize(Graph graph) {
+        return graph instanceof IncrementalHugeGraph
+                ? ((IncrementalHugeGraph) graph).compactableSize()
+                : ((IncrementalHeavyGraph) graph).compactableSize();
+    }
+
+    private static int overlaySize(Graph graph) {
+        return graph instanceof IncrementalHugeGraph
+                ? ((IncrementalHugeGraph) graph).overlaySize()
+                : ((IncrementalHeavyGraph) graph).overlaySize();
+    }
+}
@@ -0,0 +1,155 @@
+package org.neo4j.graphalgo.core;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameters;
+import org.neo4j.graphalgo.TestDatabaseCreator;
+import org.neo4j.graphalgo.api.Graph;
+import org.neo4j.graphalgo.api.GraphFactory;
+import org.neo4j.graphalgo.api.RelationshipIntersect;
+import org.neo4j.graphalgo.core.heavyweight.HeavyGraphFactory;
+import org.neo4j.graphalgo.core.huge.HugeGraphFactory;
+import org.neo4j.graphalgo.core.lightweight.LightGraphFactory;
+import org.neo4j.graphalgo.core.neo4jview.GraphViewFactory;
+import org.neo4j.graphalgo.core.utils.AdjacencyIntersect;
+import org.neo4j.graphalgo.core.utils.Pools;
+import org.neo4j.graphdb.Direction;
+import org.neo4j.kernel.internal.GraphDatabaseAPI;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.TreeSet;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(Parameterized.class)
+public final class RelationshipIntersectTest {
+
+    private static final int COUNT = 100;
+    private static final Direction[] DIRECTIONS = {Direction.OUTGOING, Direction.INCOMING, Direction.BOTH};
+
+    private static GraphDatabaseAPI db;
+
+    private final Graph graph;
+    private final boolean sorted;
+
+    @Parameters(name = "{1}, sorted={2}")
+    public static Collection<Object[]> data() {
+        List<Object[]> data = new ArrayList<>();
+        for (boolean sorted : new boolean[]{false, true}) {
+            data.add(new Object[]{HeavyGraphFactory.class, "HeavyGraphFactory", sorted});
+            data.add(new Object[]{LightGraphFactory.class, "LightGraphFactory", sorted});
+            data.add(new Object[]{HugeGraphFactory.class, "HugeGraphFactory", sorted});
+            data.add(new Object[]{GraphViewFactory.class, "GraphViewFactory", sorted});
+        }
+        return data;
+    }
+
+    @BeforeClass
+    public static void setupGraph() {
+        db = TestDatabaseCreator.createTestDatabase();
+        db.execute("UNWIND range(1, " + COUNT + ") AS id CREATE (:Node {id: id})").close();
+        // node 1 is a hub, so that its intersections with small nodes gallop
+        db.execute("MATCH (n:Node {id: 1}), (m:Node) WHERE m.id > 1 CREATE (n)-[:REL]->(m)").close();
+        db.execute("MATCH (n:Node), (m:Node) " +
+                "WHERE m.id = (n.id * 7) % " + COUNT + " + 1 OR m.id = (n.id * 13) % " + COUNT + " + 1 " +
+                "CREATE (n)-[:REL]->(m)").close();
+        // parallel relationships
+        db.execute("MATCH (n:Node), (m:Node) WHERE m.id = (n.id * 7) % " + COUNT + " + 1 AND n.id % 3 = 0 " +
+                "CREATE (n)-[:REL]->(m)").close();
+    }
+
+    @AfterClass
+    public static void tearDown() {
+        if (db != null) db.shutdown();
+    }
+
+    public RelationshipIntersectTest(
+            Class<? extends GraphFactory> graphImpl,
+            String nameIgnoredOnlyForTestName,
+            boolean sorted) {
+        this.sorted = sorted;
+        graph = new GraphLoader(db, Pools.DEFAULT)
+                .withLabel("Node")
+                .withRelationshipType("REL")
+                .withDirection(Direction.BOTH)
+                .withSortedAdjacency(sorted)
+                .load(graphImpl);
+    }
+
+    @Test
+    public void testIntersect() {
+        for (Direction direction : DIRECTIONS) {
+            RelationshipIntersect intersect = graph.newIntersect(direction);
+            graph.forEachNode(a -> {
+                graph.forEachNode(b -> {
+                    List<Integer> expected = new ArrayList<>(targets(a, direction));
+                    expected.retainAll(targets(b, direction));
+                    List<Integer> actual = new ArrayList<>();
+                    intersect.intersect(a, b, actual::add);
+                    assertEquals(expected, actual);
+                    assertEquals(expected.size(), graph.intersectionSize(a, b, direction));
+                    return true;
+                });
+                return true;
+            });
+        }
+    }
+
+    @Test
+    public void testSortedTargets() {
+        for (Direction direction : new Direction[]{Direction.OUTGOING, Direction.INCOMING}) {
+            if (!graph.hasSortedAdjacency(direction)) {
+                continue;
+            }
+            graph.forEachNode(node -> {
+                int[] last = {-1};
+                graph.forEachRelationship(node, direction, (source, target, relationId) -> {
+                    assertTrue(last[0] <= target);
+                    last[0] = target;
+                    return true;
+                });
+                return true;
+            });
+        }
+        if (sorted && !(graph instanceof org.neo4j.graphalgo.core.neo4jview.GraphView)) {
+            assertTrue(graph.hasSortedAdjacency(Direction.OUTGOING));
+            assertTrue(graph.hasSortedAdjacency(Direction.INCOMING));
+        }
+    }
+
+    @Test
+    public void testStaticIntersect() {
+        int[] large = new int[1000];
+        for (int i = 0; i < large.length; i++) {
+            large[i] = i * 2;
+        }
+        int[] small = {-1, 0, 0, 3, 10, 10, 11, 500, 1998, 1999, 2000};
+        List<Integer> actual = new ArrayList<>();
+        AdjacencyIntersect.intersect(small, 0, small.length, large, 0, large.length, actual::add);
+        assertEquals(Arrays.asList(0, 10, 500, 1998), actual);
+
+        actual.clear();
+        AdjacencyIntersect.intersect(large, 0, large.length, small, 1, 8, actual::add);
+        assertEquals(Arrays.asList(0, 10, 500), actual);
+
+        actual.clear();
+        AdjacencyIntersect.intersect(small, 0, small.length, small, 0, small.length, actual::add);
+        assertEquals(Arrays.asList(-1, 0, 3, 10, 11, 500, 1998, 1999, 2000), actual);
+    }
+
+    private TreeSet<Integer> targets(int node, Direction direction) {
+        TreeSet<Integer> targets = new TreeSet<>();
+        graph.forEachRelationship(node, direction, (source, target, relationId) -> {
+            targets.add(target);
+            return true;
+        });
+        return targets;
+    }
+}
@@ -11,6 +11,7 @@ import org.neo4j.graphalgo.api.Graph;
 import org.neo4j.graphalgo.api.RelationshipConsumer;
 import org.neo4j.graphalgo.api.WeightedRelationshipConsumer;
 import org.neo4j.graphalgo.core.GraphLoader;
+import org.neo4j.graphalgo.core.utils.Pools;
 import org.neo4j.graphdb.*;
 import org.neo4j.kernel.internal.GraphDatabaseAPI;
 import org.neo4j.graphalgo.TestDatabaseCreator;
@@ -143,4 +144,62 @@ public class HeavyGraphFactoryTest {
                 .accept(eq(graph.toMappedNodeId(id1)), eq(graph.toMappedNodeId(id2)), anyLong(), eq(1.0));
     }
 
+    @Test
+    public void testParallelWithLabel() throws Exception {
+        final GraphDatabaseService db = TestDatabaseCreator.createTestDatabase();
+        final int size = 100;
+        final long[] ids = new long[size];
+        try (final Transaction transaction = db.beginTx()) {
+            for (int i = 0; i < size; i++) {
+                ids[i] = db.createNode(Label.label(i % 2 == 0 ? "Even" : "Odd")).getId();
+            }
+            final Node[] nodes = new Node[size];
+            for (int i = 0; i < size; i++) {
+                nodes[i] = db.getNodeById(ids[i]);
+            }
+            for (int i = 0; i < size; i++) {
+                // relationships to the next two nodes, only the second one has the same label
+                nodes[i].createRelationshipTo(nodes[(i + 1) % size], RelationshipType.withName("REL"))
+                        .setProperty("w", (double) i);
+                nodes[i].createRelationshipTo(nodes[(i + 2) % size], RelationshipType.withName("REL"))
+                        .setProperty("w", (double) i);
+            }
+            transaction.success();
+        }
+
+        try {
+            final Graph graph = new GraphLoader((GraphDatabaseAPI) db, Pools.DEFAULT)
+                    .withLabel("Even")
+                    .withAnyRelationshipType()
+                    .withRelationshipWeightsFromProperty("w", 0.0)
+                    .withConcurrency(4)
+                    .withBatchSize(10)
+                    .withDirection(Direction.BOTH)
+                    .load(HeavyGraphFactory.class);
+
+            assertEquals(size / 2, graph.nodeCount());
+            for (int i = 0; i < size; i += 2) {
+                final int nodeId = graph.toMappedNodeId(ids[i]);
+                final int next = graph.toMappedNodeId(ids[(i + 2) % size]);
+                final int previous = graph.toMappedNodeId(ids[(i - 2 + size) % size]);
+                assertEquals(1, graph.degree(nodeId, Direction.OUTGOING));
+                assertEquals(1, graph.degree(nodeId, Direction.INCOMING));
+                final double weight = i;
+                graph.forEachRelationship(nodeId, Direction.OUTGOING, (s, t, r, w) -> {
+                    assertEquals(next, t);
+                    assertEquals(weight, w, 0.0);
+                    return true;
+                });
+                final double expected = (i - 2 + size) % size;
+                graph.forEachRelationship(nodeId, Direction.INCOMING, (s, t, r, w) -> {
+                    assertEquals(previous, t);
+                    assertEquals(expected, w, 0.0);
+                    return true;
+                });
+            }
+        } finally {
+            db.shutdown();
+        }
+    }
+
 }
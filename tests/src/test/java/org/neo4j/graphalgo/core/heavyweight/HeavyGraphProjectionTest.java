@@ -0,0 +1,97 @@
+package org.neo4j.graphalgo.core.heavyweight;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.neo4j.graphalgo.TestDatabaseCreator;
+import org.neo4j.graphalgo.api.Graph;
+import org.neo4j.graphalgo.core.GraphLoader;
+import org.neo4j.graphalgo.core.utils.Pools;
+import org.neo4j.graphdb.Direction;
+import org.neo4j.kernel.internal.GraphDatabaseAPI;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+
+public final class HeavyGraphProjectionTest {
+
+    private static final int NODES = 300;
+
+    private static GraphDatabaseAPI db;
+
+    @BeforeClass
+    public static void setup() {
+        db = TestDatabaseCreator.createTestDatabase();
+        db.execute("UNWIND range(0, " + (NODES - 1) + ") AS i " +
+                "CREATE (n:Node {id: i, score: i % 3}) " +
+                "FOREACH (x IN CASE WHEN i % 3 = 2 THEN [1] ELSE [] END | SET n:Selected)").close();
+        db.execute("MATCH (n:Node), (m:Node) WHERE m.id = (n.id * 7 + 2) % " + NODES + " OR m.id = (n.id + 3) % " + NODES + " " +
+                "CREATE (n)-[:TYPE {w: n.id % 5}]->(m)").close();
+    }
+
+    @AfterClass
+    public static void tearDown() {
+        if (db != null) db.shutdown();
+    }
+
+    @Test
+    public void shouldProjectTheSameGraphAsLoadingTheSubgraph() throws Exception {
+        HeavyGraph parent = (HeavyGraph) loader()
+                .withNodeProperty("score", 0.0)
+                .load(HeavyGraphFactory.class);
+        HeavyGraph projection = new HeavyGraphProjection(parent)
+                .withNodeProperty(score -> score == 2.0)
+                .withConcurrency(4)
+                .project();
+        HeavyGraph expected = (HeavyGraph) loader()
+                .withNodeProperty("score", 0.0)
+                .withLabel("Selected")
+                .load(HeavyGraphFactory.class);
+
+        assertEquals(expected.nodeCount(), projection.nodeCount());
+        expected.forEachNode((int node) -> {
+            int actualNode = projection.toMappedNodeId(expected.toOriginalNodeId(node));
+            assertEquals(2.0, projection.valueOf(actualNode, -1.0), 0.0);
+            for (Direction direction : new Direction[]{Direction.OUTGOING, Direction.INCOMING}) {
+                assertEquals(
+                        relationships(expected, node, direction),
+                        relationships(projection, actualNode, direction));
+            }
+            return true;
+        });
+    }
+
+    @Test
+    public void shouldFilterRelationshipsInBothDirections() throws Exception {
+        HeavyGraph parent = (HeavyGraph) loader().load(HeavyGraphFactory.class);
+        HeavyGraph projection = new HeavyGraphProjection(parent)
+                .withRelationshipFilter((source, target, weight) -> weight < 2.0)
+                .project();
+        assertEquals(parent.nodeCount(), projection.nodeCount());
+        parent.forEachNode((int node) -> {
+            for (Direction direction : new Direction[]{Direction.OUTGOING, Direction.INCOMING}) {
+                Map<Long, Double> expected = relationships(parent, node, direction);
+                expected.values().removeIf(weight -> weight >= 2.0);
+                assertEquals(expected, relationships(projection, node, direction));
+            }
+            return true;
+        });
+    }
+
+    private static GraphLoader loader() {
+        return new GraphLoader(db, Pools.DEFAULT)
+                .withDirection(Direction.BOTH)
+                .withRelationshipWeightsFromProperty("w", 0.0);
+    }
+
+    private static Map<Long, Double> relationships(Graph graph, int node, Direction direction) {
+        Map<Long, Double> relationships = new HashMap<>();
+        graph.forEachRelationship(node, direction, (source, target, relationId, weight) -> {
+            relationships.merge(graph.toOriginalNodeId(target), weight, Double::sum);
+            return true;
+        });
+        return relationships;
+    }
+}
@@ -0,0 +1,135 @@
+package org.neo4j.graphalgo.core.huge;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.neo4j.graphalgo.TestDatabaseCreator;
+import org.neo4j.graphalgo.api.HugeGraph;
+import org.neo4j.graphalgo.core.GraphLoader;
+import org.neo4j.graphalgo.core.utils.Pools;
+import org.neo4j.graphdb.Direction;
+import org.neo4j.kernel.internal.GraphDatabaseAPI;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+public final class HugeCypherGraphFactoryTest {
+
+    private static final int COUNT = 1000;
+
+    private static GraphDatabaseAPI db;
+
+    @BeforeClass
+    public static void setUp() {
+        db = TestDatabaseCreator.createTestDatabase();
+        db.execute("UNWIND range(1, " + COUNT + ") AS id CREATE (:Node {id: id})").close();
+        db.execute("MATCH (n:Node), (m:Node) " +
+                "WHERE m.id = (n.id * 7) % " + COUNT + " + 1 OR m.id = (n.id + 1) % " + COUNT + " + 1 " +
+                "CREATE (n)-[:REL {prop: n.id % 10}]->(m)").close();
+        db.execute("CREATE (:Other)-[:REL {prop: 100}]->(:Other)").close();
+    }
+
+    @AfterClass
+    public static void tearDown() {
+        if (db != null) db.shutdown();
+    }
+
+    @Test
+    public void testLoadCypher() throws Exception {
+        HugeGraph graph = load(
+                "MATCH (n:Node) RETURN id(n) AS id",
+                "MATCH (n:Node)-[r:REL]->(m:Node) RETURN id(n) AS source, id(m) AS target, r.prop AS weight",
+                false);
+
+        assertSameGraph(graph);
+    }
+
+    @Test
+    public void testLoadCypherParallel() throws Exception {
+        HugeGraph graph = load(
+                "MATCH (n:Node) WITH n SKIP {skip} LIMIT {limit} RETURN id(n) AS id",
+                "MATCH (n:Node)-[r:REL]->(m:Node) WITH * SKIP {skip} LIMIT {limit} " +
+                        "RETURN id(n) AS source, id(m) AS target, r.prop AS weight",
+                false);
+
+        assertSameGraph(graph);
+    }
+
+    @Test
+    public void testLoadUnorderedRows() throws Exception {
+        // the rows of a source are spread over the whole result and over several batches
+        HugeGraph graph = load(
+                "MATCH (n:Node) RETURN id(n) AS id",
+                "MATCH (n:Node)-[r:REL]->(m:Node) WITH * ORDER BY m.id SKIP {skip} LIMIT {limit} " +
+                        "RETURN id(n) AS source, id(m) AS target, r.prop AS weight",
+                false);
+
+        assertSameGraph(graph);
+    }
+
+    @Test
+    public void testSkipRelationshipsOfUnknownNodes() throws Exception {
+        HugeGraph graph = load(
+                "MATCH (n:Node) RETURN id(n) AS id",
+                "MATCH (n)-[r:REL]->(m) RETURN id(n) AS source, id(m) AS target, r.prop AS weight",
+                false);
+
+        assertSameGraph(graph);
+    }
+
+    @Test
+    public void testAccumulateWeights() throws Exception {
+        HugeGraph graph = load(
+                "MATCH (n:Node) RETURN id(n) AS id",
+                "MATCH (n:Node)-[r:REL]->(m:Node) WITH * SKIP {skip} LIMIT {limit} " +
+                        "RETURN id(n) AS source, id(m) AS target, r.prop / 2.0 AS weight " +
+                        "UNION ALL " +
+                        "MATCH (n:Node)-[r:REL]->(m:Node) WITH * SKIP {skip} LIMIT {limit} " +
+                        "RETURN id(n) AS source, id(m) AS target, r.prop / 2.0 AS weight",
+                true);
+
+        assertSameGraph(graph);
+    }
+
+    private static HugeGraph load(String nodeStatement, String relStatement, boolean accumulateWeights) {
+        return (HugeGraph) new GraphLoader(db, Pools.DEFAULT)
+                .withBatchSize(100)
+                .withConcurrency(4)
+                .withAccumulateWeights(accumulateWeights)
+                .withRelationshipWeightsFromProperty("prop", 0.0)
+                .withLabel(nodeStatement)
+                .withRelationshipType(relStatement)
+                .load(HugeCypherGraphFactory.class);
+    }
+
+    private static void assertSameGraph(HugeGraph actual) {
+        HugeGraph expected = (HugeGraph) new GraphLoader(db, Pools.DEFAULT)
+                .withLabel("Node")
+                .withRelationshipType("REL")
+                .withRelationshipWeightsFromProperty("prop", 0.0)
+                .withDirection(Direction.OUTGOING)
+                .load(HugeGraphFactory.class);
+
+        assertEquals(COUNT, actual.nodeCount());
+        expected.forEachNode((long node) -> {
+            long originalId = expected.toOriginalNodeId(node);
+            long actualNode = actual.toHugeMappedNodeId(originalId);
+            assertEquals(originalId, actual.toOriginalNodeId(actualNode));
+            assertEquals(expected.degree(node, Direction.OUTGOING), actual.degree(actualNode, Direction.OUTGOING));
+            assertEquals(relationships(expected, node), relationships(actual, actualNode));
+            return true;
+        });
+    }
+
+    private static List<String> relationships(HugeGraph graph, long node) {
+        List<String> relationships = new ArrayList<>();
+        graph.forEachRelationship(node, Direction.OUTGOING, (long source, long target, double weight) -> {
+            relationships.add(graph.toOriginalNodeId(target) + ":" + weight);
+            return true;
+        });
+        relationships.sort(String::compareTo);
+        return relationships;
+    }
+}
@@ -0,0 +1,158 @@
+package org.neo4j.graphalgo.core.huge;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.neo4j.graphalgo.TestDatabaseCreator;
+import org.neo4j.graphalgo.api.HugeGraph;
+import org.neo4j.graphalgo.core.GraphLoader;
+import org.neo4j.graphalgo.core.utils.Pools;
+import org.neo4j.graphdb.Direction;
+import org.neo4j.graphdb.Result;
+import org.neo4j.kernel.internal.GraphDatabaseAPI;
+
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+public final class HugeGraphAggregationTest {
+
+    private static GraphDatabaseAPI db;
+    private static long a, b, c;
+
+    @BeforeClass
+    public static void setup() {
+        db = TestDatabaseCreator.createTestDatabase();
+        try (Result result = db.execute("CREATE (a:Node), (b:Node), (c:Node) " +
+                "CREATE (a)-[:TYPE {w: 1.0}]->(b), (a)-[:TYPE {w: 3.0}]->(b), (a)-[:TYPE {w: 2.0}]->(b), " +
+                "(a)-[:TYPE {w: 5.0}]->(c), (b)-[:TYPE {w: 4.0}]->(a) " +
+                "RETURN id(a) AS a, id(b) AS b, id(c) AS c")) {
+            Map<String, Object> row = result.next();
+            a = ((Number) row.get("a")).longValue();
+            b = ((Number) row.get("b")).longValue();
+            c = ((Number) row.get("c")).longValue();
+        }
+    }
+
+    @AfterClass
+    public static void tearDown() {
+        if (db != null) db.shutdown();
+    }
+
+    @Test
+    public void shouldKeepParallelRelationshipsWithoutAggregation() throws Exception {
+        HugeGraphFactory factory = factory(loader(Direction.OUTGOING));
+        HugeGraph graph = factory.build();
+        assertEquals(4, graph.degree(id(graph, a), Direction.OUTGOING));
+        assertEquals(0L, factory.mergedRelationships());
+    }
+
+    @Test
+    public void shouldSumParallelRelationships() throws Exception {
+        HugeGraphFactory factory = factory(loader(Direction.OUTGOING)
+                .withRelationshipAggregation(RelationshipAggregation.SUM));
+        HugeGraph graph = factory.build();
+        assertWeights(graph, 6.0, 5.0);
+        assertEquals(2L, factory.mergedRelationships());
+    }
+
+    @Test
+    public void shouldSumParallelRelationshipsIfWeightsAreAccumulated() throws Exception {
+        HugeGraph graph = (HugeGraph) loader(Direction.OUTGOING)
+                .withAccumulateWeights(true)
+                .load(HugeGraphFactory.class);
+        assertWeights(graph, 6.0, 5.0);
+    }
+
+    @Test
+    public void shouldKeepTheSmallestWeight() throws Exception {
+        HugeGraph graph = (HugeGraph) loader(Direction.OUTGOING)
+                .withRelationshipAggregation(RelationshipAggregation.MIN)
+                .load(HugeGraphFactory.class);
+        assertWeights(graph, 1.0, 5.0);
+    }
+
+    @Test
+    public void shouldKeepTheLargestWeight() throws Exception {
+        HugeGraph graph = (HugeGraph) loader(Direction.OUTGOING)
+                .withRelationshipAggregation(RelationshipAggregation.MAX)
+                .load(HugeGraphFactory.class);
+        assertWeights(graph, 3.0, 5.0);
+    }
+
+    @Test
+    public void shouldCountParallelRelationshipsWithoutWeightProperty() throws Exception {
+        HugeGraphFactory factory = factory(new GraphLoader(db, Pools.DEFAULT)
+                .withDirection(Direction.OUTGOING)
+                .withRelationshipAggregation(RelationshipAggregation.COUNT));
+        HugeGraph graph = factory.build();
+        assertWeights(graph, 3.0, 1.0);
+        assertEquals(2L, factory.mergedRelationships());
+    }
+
+    @Test
+    public void shouldMergeIncomingRelationships() throws Exception {
+        HugeGraphFactory factory = factory(loader(Direction.INCOMING)
+                .withRelationshipAggregation(RelationshipAggregation.SUM));
+        HugeGraph graph = factory.build();
+        assertEquals(1, graph.degree(id(graph, b), Direction.INCOMING));
+        assertEquals(6.0, graph.weightOf(id(graph, a), id(graph, b)), 0.0);
+        assertEquals(2L, factory.mergedRelationships());
+    }
+
+    @Test
+    public void shouldCountMergedRelationshipsOnceIfBothDirectionsAreLoaded() throws Exception {
+        HugeGraphFactory factory = factory(loader(Direction.BOTH)
+                .withRelationshipAggregation(RelationshipAggregation.SUM));
+        factory.build();
+        assertEquals(2L, factory.mergedRelationships());
+    }
+
+    @Test
+    public void shouldMergeBothDirectionsOfUndirectedRelationships() throws Exception {
+        HugeGraphFactory factory = factory(loader(Direction.OUTGOING)
+                .asUndirected(true)
+                .withRelationshipAggregation(RelationshipAggregation.SUM));
+        HugeGraph graph = factory.build();
+        assertEquals(2, graph.degree(id(graph, a), Direction.BOTH));
+        assertEquals(1, graph.degree(id(graph, b), Direction.BOTH));
+        assertEquals(10.0, graph.weightOf(id(graph, a), id(graph, b)), 0.0);
+        assertEquals(10.0, graph.weightOf(id(graph, b), id(graph, a)), 0.0);
+        assertEquals(3L, factory.mergedRelationships());
+    }
+
+    @Test
+    public void shouldParseAggregation() throws Exception {
+        assertEquals(RelationshipAggregation.NONE, RelationshipAggregation.parse(null));
+        assertEquals(RelationshipAggregation.COUNT, RelationshipAggregation.parse("count"));
+        try {
+            RelationshipAggregation.parse("avg");
+            fail("Expected an IllegalArgumentException");
+        } catch (IllegalArgumentException e) {
+            assertEquals(
+                    "Unknown relationship aggregation 'avg', expected one of 'none', 'sum', 'min', 'max' or 'count'",
+                    e.getMessage());
+        }
+    }
+
+    private static GraphLoader loader(Direction direction) {
+        return new GraphLoader(db, Pools.DEFAULT)
+                .withDirection(direction)
+                .withRelationshipWeightsFromProperty("w", 0.0);
+    }
+
+    private static HugeGraphFactory factory(GraphLoader loader) {
+        return (HugeGraphFactory) loader.build(HugeGraphFactory.class);
+    }
+
+    private static long id(HugeGraph graph, long neoId) {
+        return graph.toHugeMappedNodeId(neoId);
+    }
+
+    private static void assertWeights(HugeGraph graph, double weightAB, double weightAC) {
+        assertEquals(2, graph.degree(id(graph, a), Direction.OUTGOING));
+        assertEquals(weightAB, graph.weightOf(id(graph, a), id(graph, b)), 0.0);
+        assertEquals(weightAC, graph.weightOf(id(graph, a), id(graph, c)), 0.0);
+    }
+}
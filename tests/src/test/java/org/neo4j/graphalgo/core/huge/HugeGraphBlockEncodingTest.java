@@ -0,0 +1,188 @@
+package org.neo4j.graphalgo.core.huge;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.neo4j.graphalgo.TestDatabaseCreator;
+import org.neo4j.graphalgo.api.AdjacencyCursor;
+import org.neo4j.graphalgo.api.HugeGraph;
+import org.neo4j.graphalgo.core.GraphLoader;
+import org.neo4j.graphalgo.core.utils.Pools;
+import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
+import org.neo4j.graphalgo.core.utils.paged.ByteArray;
+import org.neo4j.graphdb.Direction;
+import org.neo4j.kernel.internal.GraphDatabaseAPI;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public final class HugeGraphBlockEncodingTest {
+
+    private static final int NODES = 5000;
+
+    private static GraphDatabaseAPI db;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @BeforeClass
+    public static void setup() {
+        db = TestDatabaseCreator.createTestDatabase();
+        // enough relationships to fill more than one page of the adjacency
+        db.execute("UNWIND range(0, " + (NODES - 1) + ") AS i CREATE (:Node {id: i})").close();
+        db.execute("MATCH (a:Node), (b:Node) " +
+                "WHERE b.id = (a.id * 31 + 7) % " + NODES + " OR b.id = (a.id + 1000) % " + NODES +
+                " OR b.id = (a.id * 13) % " + NODES + " OR (a.id = 0 AND b.id % 3 = 0) " +
+                "CREATE (a)-[:TYPE {weight: a.id + b.id / 10000.0}]->(b)").close();
+    }
+
+    @AfterClass
+    public static void tearDown() {
+        if (db != null) db.shutdown();
+    }
+
+    @Test
+    public void shouldLoadTheSameGraph() throws Exception {
+        HugeGraph expected = (HugeGraph) loader(false).load(HugeGraphFactory.class);
+        assertSameRelationships(expected, loader(true).load(HugeGraphFactory.class));
+        assertSameRelationships(expected, loader(true).withOffHeap(true).load(HugeGraphFactory.class));
+    }
+
+    @Test
+    public void shouldReorderBlockEncodedGraph() throws Exception {
+        HugeGraph expected = (HugeGraph) loader(false).withNodeOrdering(NodeOrdering.DEGREE).load(HugeGraphFactory.class);
+        HugeGraph actual = (HugeGraph) loader(true).withNodeOrdering(NodeOrdering.DEGREE).load(HugeGraphFactory.class);
+        assertSameRelationships(expected, actual);
+    }
+
+    @Test
+    public void shouldLoadBlockEncodedGraphWithCypher() throws Exception {
+        GraphLoader loader = new GraphLoader(db, Pools.DEFAULT)
+                .withLabel("MATCH (n) RETURN id(n) AS id")
+                .withRelationshipStatement("MATCH (n)-[r]->(m) RETURN id(n) AS source, id(m) AS target, r.weight AS weight")
+                .withRelationshipWeightsFromProperty("weight", 0.0)
+                .withDirection(Direction.OUTGOING);
+        HugeGraph expected = (HugeGraph) loader.withBlockEncoding(false).load(HugeCypherGraphFactory.class);
+        HugeGraph actual = (HugeGraph) loader.withBlockEncoding(true).load(HugeCypherGraphFactory.class);
+        expected.forEachNode((long node) -> {
+            assertEquals(relationships(expected, node, Direction.OUTGOING), relationships(actual, node, Direction.OUTGOING));
+            return true;
+        });
+    }
+
+    @Test
+    public void shouldSaveBlockEncodedGraph() throws Exception {
+        HugeGraph graph = (HugeGraph) loader(true).load(HugeGraphFactory.class);
+        File file = folder.newFile();
+
+        HugeGraphSnapshot.write(graph, file, 0L);
+        HugeGraph restored = HugeGraphSnapshot.read(file, AllocationTracker.EMPTY);
+
+        assertSameRelationships(graph, restored);
+    }
+
+    @Test
+    public void shouldReadBlocksIntoBuffers() throws Exception {
+        HugeGraph graph = (HugeGraph) loader(true).load(HugeGraphFactory.class);
+        AdjacencyCursor cursor = graph.newAdjacencyCursor();
+        for (int bufferSize : new int[]{1, 3, 4, 5, AdjacencyCursor.BATCH_SIZE}) {
+            long[] buffer = new long[bufferSize];
+            graph.forEachNode((long node) -> {
+                List<String> actual = new ArrayList<>();
+                cursor.init(node, Direction.OUTGOING);
+                int length;
+                while ((length = cursor.next(buffer)) > 0) {
+                    for (int i = 0; i < length; i++) {
+                        actual.add(node + "->" + buffer[i]);
+                    }
+                }
+                List<String> expected = new ArrayList<>();
+                graph.forEachRelationship(node, Direction.OUTGOING, (source, target) -> expected.add(source + "->" + target));
+                assertEquals(expected, actual);
+                return true;
+            });
+        }
+    }
+
+    @Test
+    public void shouldEncodeLargeDeltas() throws Exception {
+        ByteArray array = ByteArray.newArray(0L, true, AllocationTracker.EMPTY);
+        array.skipAllocationRegion(1);
+        ByteArray.LocalAllocator allocator = array.newAllocator();
+        Random random = new Random(42L);
+        List<long[]> lists = new ArrayList<>();
+        List<Long> offsets = new ArrayList<>();
+        // enough lists to cross page boundaries, with deltas of every encoded size
+        for (int list = 0; list < 2000; list++) {
+            long[] targets = new long[random.nextInt(20)];
+            long target = 0L;
+            for (int i = 0; i < targets.length; i++) {
+                int bits = random.nextInt(4) * 16;
+                target += (random.nextLong() >>> (63 - bits)) & (Long.MAX_VALUE >>> 4);
+                targets[i] = target;
+            }
+            lists.add(targets);
+            offsets.add(allocator.writeTargets(targets, targets.length));
+        }
+        ByteArray.DeltaCursor cursor = array.newCursor();
+        long[] buffer = new long[3];
+        for (int list = 0; list < lists.size(); list++) {
+            long[] targets = lists.get(list);
+            array.deltaCursor(cursor, offsets.get(list));
+            for (long target : targets) {
+                assertEquals(target, cursor.getVLong());
+            }
+            assertEquals(-1L, cursor.getVLong());
+
+            array.deltaCursor(cursor, offsets.get(list));
+            int read = 0;
+            int length;
+            while ((length = cursor.getVLongs(buffer, buffer.length)) > 0) {
+                for (int i = 0; i < length; i++) {
+                    assertEquals(targets[read++], buffer[i]);
+                }
+            }
+            assertEquals(targets.length, read);
+        }
+        assertTrue(array.isBlockEncoded());
+    }
+
+    private static GraphLoader loader(boolean blockEncoding) {
+        return new GraphLoader(db, Pools.DEFAULT)
+                .withDirection(Direction.BOTH)
+                .withRelationshipWeightsFromProperty("weight", 0.0)
+                .withBlockEncoding(blockEncoding);
+    }
+
+    private static void assertSameRelationships(HugeGraph expected, Object actualGraph) {
+        HugeGraph actual = (HugeGraph) actualGraph;
+        assertEquals(expected.nodeCount(), actual.nodeCount());
+        expected.forEachNode((long node) -> {
+            for (Direction direction : new Direction[]{Direction.OUTGOING, Direction.INCOMING}) {
+                assertEquals(expected.degree(node, direction), actual.degree(node, direction));
+                assertEquals(relationships(expected, node, direction), relationships(actual, node, direction));
+            }
+            return true;
+        });
+        expected.forEachRelationship(0L, Direction.OUTGOING, (long source, long target, double weight) -> {
+            assertEquals(weight, actual.weightOf(source, target), 1e-9);
+            return true;
+        });
+    }
+
+    private static List<String> relationships(HugeGraph graph, long node, Direction direction) {
+        List<String> relationships = new ArrayList<>();
+        graph.forEachRelationship(node, direction, (long source, long target, double weight) -> {
+            relationships.add(source + "->" + target + ":" + weight);
+            return true;
+        });
+        return relationships;
+    }
+}
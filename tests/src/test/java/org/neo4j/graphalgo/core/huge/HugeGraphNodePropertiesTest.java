@@ -0,0 +1,170 @@
+package org.neo4j.graphalgo.core.huge;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.neo4j.graphalgo.TestDatabaseCreator;
+import org.neo4j.graphalgo.api.HugeGraph;
+import org.neo4j.graphalgo.api.HugeNodeProperties;
+import org.neo4j.graphalgo.core.GraphLoader;
+import org.neo4j.graphalgo.core.heavyweight.HeavyGraph;
+import org.neo4j.graphalgo.core.heavyweight.HeavyGraphFactory;
+import org.neo4j.graphalgo.core.utils.Pools;
+import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
+import org.neo4j.graphdb.Direction;
+import org.neo4j.graphdb.Result;
+import org.neo4j.kernel.internal.GraphDatabaseAPI;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+public final class HugeGraphNodePropertiesTest {
+
+    private static final int NODES = 1000;
+
+    private static GraphDatabaseAPI db;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @BeforeClass
+    public static void setup() {
+        db = TestDatabaseCreator.createTestDatabase();
+        // every third node has no score, every fifth node has no rank
+        db.execute("UNWIND range(0, " + (NODES - 1) + ") AS i " +
+                "CREATE (n:Node {id: i}) " +
+                "FOREACH (x IN CASE WHEN i % 3 = 0 THEN [] ELSE [1] END | SET n.score = i / 4.0) " +
+                "FOREACH (x IN CASE WHEN i % 5 = 0 THEN [] ELSE [1] END | SET n.rank = 10000000000 + i)").close();
+        db.execute("MATCH (n:Node), (m:Node) WHERE m.id = (n.id * 7 + 1) % " + NODES + " CREATE (n)-[:A]->(m)").close();
+        db.execute("MATCH (n:Node), (m:Node) WHERE m.id = (n.id * 3) % 100 CREATE (n)-[:B]->(m)").close();
+    }
+
+    @AfterClass
+    public static void tearDown() {
+        if (db != null) db.shutdown();
+    }
+
+    @Test
+    public void shouldLoadDoubleAndLongColumns() throws Exception {
+        HugeGraph graph = (HugeGraph) loader().load(HugeGraphFactory.class);
+        assertEquals(new LinkedHashSet<>(Arrays.asList("score", "rank", "missing")), graph.nodePropertyKeys());
+        assertSameProperties(graph);
+    }
+
+    @Test
+    public void shouldLoadPropertiesOfReorderedNodes() throws Exception {
+        HugeGraph graph = (HugeGraph) loader()
+                .withNodeOrdering(NodeOrdering.DEGREE)
+                .load(HugeGraphFactory.class);
+        assertSameProperties(graph);
+    }
+
+    @Test
+    public void shouldLoadPropertiesOfSeparateTypes() throws Exception {
+        HugeGraph graph = (HugeGraph) loader()
+                .withRelationshipTypes("A", "B")
+                .load(HugeGraphFactory.class);
+        assertSameProperties(graph);
+    }
+
+    @Test
+    public void shouldSaveProperties() throws Exception {
+        HugeGraph graph = (HugeGraph) loader()
+                .withNodeWeightsFromProperty("score", 2.0)
+                .load(HugeGraphFactory.class);
+        File file = folder.newFile();
+        HugeGraphSnapshot.write(graph, file, 0L);
+        HugeGraph restored = HugeGraphSnapshot.read(file, AllocationTracker.EMPTY);
+        assertEquals(graph.nodePropertyKeys(), restored.nodePropertyKeys());
+        assertSameProperties(restored);
+        graph.forEachNode((long node) -> {
+            assertEquals(graph.nodeWeight(node), restored.nodeWeight(node), 0.0);
+            return true;
+        });
+    }
+
+    @Test
+    public void shouldLoadTheSameNodeWeightsAndValuesAsHeavyGraph() throws Exception {
+        GraphLoader loader = new GraphLoader(db, Pools.DEFAULT)
+                .withDirection(Direction.OUTGOING)
+                .withNodeWeightsFromProperty("score", 2.0)
+                .withNodeProperty("rank", 0.0);
+        HeavyGraph expected = (HeavyGraph) loader.load(HeavyGraphFactory.class);
+        HugeGraph actual = (HugeGraph) loader.load(HugeGraphFactory.class);
+        assertEquals(expected.nodeCount(), actual.nodeCount());
+        expected.forEachNode((int node) -> {
+            long hugeNode = actual.toHugeMappedNodeId(expected.toOriginalNodeId(node));
+            assertEquals(expected.weightOf(node), actual.weightOf((int) hugeNode), 0.0);
+            assertEquals(expected.valueOf(node, -1.0), actual.valueOf((int) hugeNode, -1.0), 0.0);
+            return true;
+        });
+    }
+
+    @Test
+    public void shouldUseDefaultNodeWeightWithoutProperty() throws Exception {
+        HugeGraph graph = (HugeGraph) new GraphLoader(db, Pools.DEFAULT)
+                .withDefaultNodeWeight(3.0)
+                .load(HugeGraphFactory.class);
+        assertEquals(3.0, graph.nodeWeight(0L), 0.0);
+        assertEquals(-1.0, graph.nodeValue(0L, -1.0), 0.0);
+        assertEquals(0, graph.nodePropertyKeys().size());
+    }
+
+    @Test
+    public void shouldRejectPropertiesThatHaveNotBeenLoaded() throws Exception {
+        HugeGraph graph = (HugeGraph) loader().load(HugeGraphFactory.class);
+        for (Runnable lookup : new Runnable[]{
+                () -> graph.doubleProperty("id"),
+                () -> graph.doubleProperty("rank"),
+                () -> graph.longProperty("score")}) {
+            try {
+                lookup.run();
+                fail("Expected an IllegalArgumentException");
+            } catch (IllegalArgumentException e) {
+                // expected
+            }
+        }
+        try {
+            loader().withLongNodeProperty("score", 0L);
+            fail("Expected an IllegalArgumentException");
+        } catch (IllegalArgumentException e) {
+            assertEquals("Node property 'score' has already been added", e.getMessage());
+        }
+    }
+
+    private static GraphLoader loader() {
+        return new GraphLoader(db, Pools.DEFAULT)
+                .withDirection(Direction.OUTGOING)
+                .withDoubleNodeProperty("score", -1.0)
+                .withLongNodeProperty("rank", -1L)
+                .withDoubleNodeProperty("missing", 42.0);
+    }
+
+    private static void assertSameProperties(HugeGraph graph) {
+        Map<Long, Object[]> expected = new HashMap<>();
+        try (Result result = db.execute("MATCH (n:Node) RETURN id(n) AS id, n.score AS score, n.rank AS rank")) {
+            result.forEachRemaining(row -> expected.put(
+                    (Long) row.get("id"),
+                    new Object[]{row.get("score"), row.get("rank")}));
+        }
+        assertEquals(expected.size(), graph.nodeCount());
+        HugeNodeProperties.DoubleProperty score = graph.doubleProperty("score");
+        HugeNodeProperties.LongProperty rank = graph.longProperty("rank");
+        HugeNodeProperties.DoubleProperty missing = graph.doubleProperty("missing");
+        graph.forEachNode((long node) -> {
+            Object[] values = expected.get(graph.toOriginalNodeId(node));
+            assertEquals(values[0] != null ? (Double) values[0] : -1.0, score.get(node), 0.0);
+            assertEquals(values[1] != null ? (Long) values[1] : -1L, rank.get(node));
+            assertEquals(42.0, missing.get(node), 0.0);
+            return true;
+        });
+    }
+}
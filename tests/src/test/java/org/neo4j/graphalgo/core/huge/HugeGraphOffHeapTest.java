@@ -0,0 +1,128 @@
+package org.neo4j.graphalgo.core.huge;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.neo4j.graphalgo.TestDatabaseCreator;
+import org.neo4j.graphalgo.api.HugeGraph;
+import org.neo4j.graphalgo.core.GraphLoader;
+import org.neo4j.graphalgo.core.utils.Pools;
+import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
+import org.neo4j.graphalgo.core.utils.paged.ByteArray;
+import org.neo4j.graphdb.Direction;
+import org.neo4j.kernel.internal.GraphDatabaseAPI;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public final class HugeGraphOffHeapTest {
+
+    private static final int NODES = 5000;
+
+    private static GraphDatabaseAPI db;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @BeforeClass
+    public static void setup() {
+        db = TestDatabaseCreator.createTestDatabase();
+        // enough relationships to fill more than one page of the adjacency
+        db.execute("UNWIND range(0, " + (NODES - 1) + ") AS i CREATE (:Node {id: i})").close();
+        db.execute("MATCH (a:Node), (b:Node) " +
+                "WHERE b.id = (a.id * 31 + 7) % " + NODES + " OR b.id = (a.id + 1000) % " + NODES +
+                " OR b.id = (a.id * 13) % " + NODES + " " +
+                "CREATE (a)-[:TYPE {weight: a.id + b.id / 10000.0}]->(b)").close();
+    }
+
+    @AfterClass
+    public static void tearDown() {
+        if (db != null) db.shutdown();
+    }
+
+    @Test
+    public void shouldLoadTheSameGraphOffHeap() throws Exception {
+        HugeGraph onHeap = loadGraph(false, AllocationTracker.EMPTY);
+        HugeGraph offHeap = loadGraph(true, AllocationTracker.EMPTY);
+
+        assertEquals(onHeap.nodeCount(), offHeap.nodeCount());
+        assertSameRelationships(onHeap, offHeap);
+    }
+
+    @Test
+    public void shouldTrackAndFreeOffHeapMemory() throws Exception {
+        AllocationTracker onHeapTracker = AllocationTracker.create();
+        AllocationTracker offHeapTracker = AllocationTracker.create();
+        loadGraph(false, onHeapTracker);
+        HugeGraph offHeap = loadGraph(true, offHeapTracker);
+
+        assertTrue(offHeapTracker.tracked() > 0L);
+        offHeap.release();
+        assertTrue(offHeapTracker.tracked() < onHeapTracker.tracked());
+    }
+
+    @Test
+    public void shouldFailInsteadOfReadingReleasedMemory() throws Exception {
+        ByteArray adjacency = ByteArray.newOffHeapArray(0L, AllocationTracker.EMPTY);
+        long offset = adjacency.newAllocator().writeTargets(new long[]{1L, 2L, 3L}, 3);
+        ByteArray.DeltaCursor cursor = adjacency.deltaCursor(adjacency.newCursor(), offset);
+        assertEquals(1L, cursor.getVLong());
+
+        assertTrue(adjacency.release() > 0L);
+        assertEquals(0L, adjacency.release());
+        // the cursor keeps the memory alive, so it can still finish its page
+        assertEquals(2L, cursor.getVLong());
+        try {
+            adjacency.deltaCursor(cursor, offset);
+            fail("initializing a cursor of a released array should fail");
+        } catch (IllegalStateException e) {
+            assertTrue(e.getMessage().contains("released"));
+        }
+    }
+
+    @Test
+    public void shouldSaveOffHeapGraph() throws Exception {
+        HugeGraph offHeap = loadGraph(true, AllocationTracker.EMPTY);
+        File file = folder.newFile();
+
+        HugeGraphSnapshot.write(offHeap, file, 0L);
+        HugeGraph restored = HugeGraphSnapshot.read(file, AllocationTracker.EMPTY);
+
+        assertSameRelationships(offHeap, restored);
+    }
+
+    private static HugeGraph loadGraph(boolean offHeap, AllocationTracker tracker) {
+        return (HugeGraph) new GraphLoader(db, Pools.DEFAULT)
+                .withDirection(Direction.BOTH)
+                .withRelationshipWeightsFromProperty("weight", 0.0)
+                .withAllocationTracker(tracker)
+                .withOffHeap(offHeap)
+                .load(HugeGraphFactory.class);
+    }
+
+    private static void assertSameRelationships(HugeGraph expected, HugeGraph actual) {
+        expected.forEachNode((long node) -> {
+            for (Direction direction : new Direction[]{Direction.OUTGOING, Direction.INCOMING}) {
+                assertEquals(expected.degree(node, direction), actual.degree(node, direction));
+                assertEquals(relationships(expected, node, direction), relationships(actual, node, direction));
+            }
+            return true;
+        });
+    }
+
+    private static List<String> relationships(HugeGraph graph, long node, Direction direction) {
+        List<String> relationships = new ArrayList<>();
+        graph.forEachRelationship(node, direction, (long source, long target, double weight) -> {
+            relationships.add(source + "->" + target + ":" + weight);
+            return true;
+        });
+        return relationships;
+    }
+}
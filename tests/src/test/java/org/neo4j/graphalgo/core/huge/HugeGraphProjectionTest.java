@@ -0,0 +1,176 @@
+package org.neo4j.graphalgo.core.huge;
+
+import com.carrotsearch.hppc.BitSet;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.neo4j.graphalgo.TestDatabaseCreator;
+import org.neo4j.graphalgo.api.HugeGraph;
+import org.neo4j.graphalgo.api.HugeRelationshipTypeIterator;
+import org.neo4j.graphalgo.core.GraphLoader;
+import org.neo4j.graphalgo.core.utils.Pools;
+import org.neo4j.graphdb.Direction;
+import org.neo4j.kernel.internal.GraphDatabaseAPI;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.fail;
+
+public final class HugeGraphProjectionTest {
+
+    private static final int NODES = 500;
+
+    private static GraphDatabaseAPI db;
+
+    @BeforeClass
+    public static void setup() {
+        db = TestDatabaseCreator.createTestDatabase();
+        db.execute("UNWIND range(0, " + (NODES - 1) + ") AS i " +
+                "CREATE (n:Node {id: i, country: i % 4})").close();
+        db.execute("MATCH (n:Node), (m:Node) WHERE m.id = (n.id * 5 + 1) % " + NODES + " OR m.id = (n.id + 4) % " + NODES + " " +
+                "CREATE (n)-[:A {w: n.id % 10}]->(m)").close();
+        db.execute("MATCH (n:Node), (m:Node) WHERE m.id = (n.id * 3 + 5) % " + NODES + " " +
+                "CREATE (n)-[:B {w: 1.5}]->(m)").close();
+    }
+
+    @AfterClass
+    public static void tearDown() {
+        if (db != null) db.shutdown();
+    }
+
+    @Test
+    public void shouldProjectNodesByProperty() throws Exception {
+        HugeGraph parent = (HugeGraph) loader(Direction.BOTH)
+                .withLongNodeProperty("country", -1L)
+                .load(HugeGraphFactory.class);
+        HugeGraph projection = new HugeGraphProjection(parent)
+                .withLongNodeProperty("country", country -> country == 1L)
+                .withConcurrency(4)
+                .project();
+        assertEquals(NODES / 4, projection.nodeCount());
+        NeoIdPredicate sameCountry = (source, target) ->
+                country(parent, source) == 1L && country(parent, target) == 1L;
+        assertSameRelationships(parent, projection, Direction.OUTGOING, sameCountry);
+        assertSameRelationships(parent, projection, Direction.INCOMING, sameCountry);
+        projection.forEachNode((long node) -> {
+            assertEquals(1L, projection.longProperty("country").get(node));
+            return true;
+        });
+        parent.release();
+        assertEquals(1L, projection.longProperty("country").get(0L));
+    }
+
+    @Test
+    public void shouldProjectReorderedAndUndirectedGraphs() throws Exception {
+        for (GraphLoader loader : new GraphLoader[]{
+                loader(Direction.OUTGOING).withNodeOrdering(NodeOrdering.BFS),
+                loader(Direction.OUTGOING).asUndirected(true)}) {
+            HugeGraph parent = (HugeGraph) loader.load(HugeGraphFactory.class);
+            BitSet nodes = new BitSet(parent.nodeCount());
+            parent.forEachNode((long node) -> {
+                if (parent.toOriginalNodeId(node) % 3 != 0) {
+                    nodes.set(node);
+                }
+                return true;
+            });
+            HugeGraph projection = new HugeGraphProjection(parent)
+                    .withNodeFilter(nodes)
+                    .project();
+            assertEquals(nodes.cardinality(), projection.nodeCount());
+            assertSameRelationships(parent, projection, Direction.OUTGOING,
+                    (source, target) -> source % 3 != 0 && target % 3 != 0);
+        }
+    }
+
+    @Test
+    public void shouldFilterRelationships() throws Exception {
+        HugeGraph parent = (HugeGraph) loader(Direction.BOTH).load(HugeGraphFactory.class);
+        HugeGraph projection = new HugeGraphProjection(parent)
+                .withRelationshipFilter((source, target, weight) -> weight >= 5.0)
+                .project();
+        assertEquals(parent.nodeCount(), projection.nodeCount());
+        assertSameRelationships(parent, projection, Direction.OUTGOING,
+                (source, target) -> parent.weightOf(parent.toHugeMappedNodeId(source), parent.toHugeMappedNodeId(target)) >= 5.0);
+        assertSameRelationships(parent, projection, Direction.INCOMING,
+                (source, target) -> parent.weightOf(parent.toHugeMappedNodeId(target), parent.toHugeMappedNodeId(source)) >= 5.0);
+    }
+
+    @Test
+    public void shouldProjectSeparateRelationshipTypes() throws Exception {
+        HugeGraph parent = (HugeGraph) new GraphLoader(db, Pools.DEFAULT)
+                .withDirection(Direction.OUTGOING)
+                .withRelationshipTypes("A", "B")
+                .withRelationshipWeightsFromProperty("w", 0.0)
+                .load(HugeGraphFactory.class);
+        HugeGraph projection = new HugeGraphProjection(parent)
+                .withNodeFilter(node -> parent.toOriginalNodeId(node) % 2 == 0)
+                .project();
+        HugeRelationshipTypeIterator types = (HugeRelationshipTypeIterator) projection;
+        assertEquals(((HugeRelationshipTypeIterator) parent).relationshipTypes(), types.relationshipTypes());
+        for (String type : types.relationshipTypes()) {
+            projection.forEachNode((long node) -> {
+                types.forEachRelationship(node, Direction.OUTGOING, type, (long source, long target, double weight) -> {
+                    assertEquals(0L, projection.toOriginalNodeId(target) % 2);
+                    assertEquals("B".equals(type) ? 1.5 : projection.toOriginalNodeId(source) % 10, weight, 0.0);
+                    return true;
+                });
+                return true;
+            });
+        }
+    }
+
+    @Test
+    public void shouldRejectGraphsThatCanNotBeProjected() throws Exception {
+        HugeGraph incremental = (HugeGraph) loader(Direction.OUTGOING).loadIncremental(HugeGraphFactory.class);
+        try {
+            new HugeGraphProjection(incremental);
+            fail("Expected an IllegalArgumentException");
+        } catch (IllegalArgumentException e) {
+            assertEquals("Only a graph that has been loaded by the HugeGraphFactory can be projected", e.getMessage());
+        } finally {
+            incremental.release();
+        }
+    }
+
+    private static GraphLoader loader(Direction direction) {
+        return new GraphLoader(db, Pools.DEFAULT)
+                .withDirection(direction)
+                .withRelationshipWeightsFromProperty("w", 0.0)
+                .withRelationshipType("A");
+    }
+
+    private interface NeoIdPredicate {
+        boolean test(long source, long target);
+    }
+
+    private static long country(HugeGraph graph, long neoId) {
+        return graph.longProperty("country").get(graph.toHugeMappedNodeId(neoId));
+    }
+
+    private static void assertSameRelationships(
+            HugeGraph parent,
+            HugeGraph projection,
+            Direction direction,
+            NeoIdPredicate filter) {
+        projection.forEachNode((long node) -> {
+            long originalId = projection.toOriginalNodeId(node);
+            Map<Long, Double> expected = relationships(parent, parent.toHugeMappedNodeId(originalId), direction);
+            expected.keySet().removeIf(target -> !filter.test(originalId, target));
+            assertEquals(expected, relationships(projection, node, direction));
+            return true;
+        });
+        assertFalse(projection.nodeCount() > parent.nodeCount());
+    }
+
+    private static Map<Long, Double> relationships(HugeGraph graph, long node, Direction direction) {
+        Map<Long, Double> relationships = new HashMap<>();
+        graph.forEachRelationship(node, direction, (long source, long target, double weight) -> {
+            relationships.merge(graph.toOriginalNodeId(target), weight, Double::sum);
+            return true;
+        });
+        return relationships;
+    }
+}
@@ -0,0 +1,195 @@
+package org.neo4j.graphalgo.core.huge;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.neo4j.graphalgo.TestDatabaseCreator;
+import org.neo4j.graphalgo.api.HugeGraph;
+import org.neo4j.graphalgo.api.HugeRelationshipTypeIterator;
+import org.neo4j.graphalgo.core.GraphLoader;
+import org.neo4j.graphalgo.core.utils.Pools;
+import org.neo4j.graphdb.Direction;
+import org.neo4j.graphdb.Transaction;
+import org.neo4j.kernel.internal.GraphDatabaseAPI;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public final class HugeGraphRelationshipTypesTest {
+
+    private static final int COUNT = 1000;
+
+    private static GraphDatabaseAPI db;
+
+    @BeforeClass
+    public static void setUp() {
+        db = TestDatabaseCreator.createTestDatabase();
+        db.execute("UNWIND range(1, " + COUNT + ") AS id CREATE (:Node {id: id})").close();
+        db.execute("MATCH (n:Node), (m:Node) WHERE m.id = (n.id * 7) % " + COUNT + " + 1 " +
+                "CREATE (n)-[:FOLLOWS {w: n.id % 10, since: n.id}]->(m)").close();
+        db.execute("MATCH (n:Node), (m:Node) WHERE m.id = (n.id * 3) % " + COUNT + " + 1 OR m.id = n.id % 17 + 1 " +
+                "CREATE (n)-[:LIKES {w: m.id % 5}]->(m)").close();
+        db.execute("MATCH (n:Node), (m:Node) WHERE m.id = n.id % " + COUNT + " + 1 " +
+                "CREATE (n)-[:KNOWS {w: 1.0}]->(m)").close();
+    }
+
+    @AfterClass
+    public static void tearDown() {
+        if (db != null) db.shutdown();
+    }
+
+    @Test
+    public void testEveryTypeEqualsSingleTypeGraph() throws Exception {
+        HugeGraph graph = (HugeGraph) loader(Direction.BOTH)
+                .withRelationshipTypes("FOLLOWS", "LIKES")
+                .load(HugeGraphFactory.class);
+        HugeRelationshipTypeIterator types = (HugeRelationshipTypeIterator) graph;
+        assertEquals(Arrays.asList("FOLLOWS", "LIKES"), types.relationshipTypes());
+
+        for (String type : types.relationshipTypes()) {
+            HugeGraph expected = (HugeGraph) loader(Direction.BOTH)
+                    .withRelationshipType(type)
+                    .load(HugeGraphFactory.class);
+            for (Direction direction : Direction.values()) {
+                graph.forEachNode((long node) -> {
+                    long expectedNode = expected.toHugeMappedNodeId(graph.toOriginalNodeId(node));
+                    assertEquals(expected.degree(expectedNode, direction), types.degree(node, direction, type));
+                    assertEquals(relationships(expected, expectedNode, direction), relationships(graph, type, node, direction));
+                    return true;
+                });
+            }
+        }
+    }
+
+    @Test
+    public void testGraphContainsAllTypes() throws Exception {
+        HugeGraph graph = (HugeGraph) loader(Direction.OUTGOING)
+                .withRelationshipTypes("FOLLOWS", "LIKES")
+                .load(HugeGraphFactory.class);
+        HugeRelationshipTypeIterator types = (HugeRelationshipTypeIterator) graph;
+
+        graph.forEachNode((long node) -> {
+            List<String> expected = new ArrayList<>();
+            expected.addAll(relationships(graph, "FOLLOWS", node, Direction.OUTGOING));
+            expected.addAll(relationships(graph, "LIKES", node, Direction.OUTGOING));
+            expected.sort(String::compareTo);
+            assertEquals(expected, relationships(graph, node, Direction.OUTGOING));
+            assertEquals(expected.size(), graph.degree(node, Direction.OUTGOING));
+            return true;
+        });
+    }
+
+    @Test
+    public void testWeightPropertyPerType() throws Exception {
+        HugeGraph graph = (HugeGraph) new GraphLoader(db, Pools.DEFAULT)
+                .withLabel("Node")
+                .withDirection(Direction.OUTGOING)
+                .withConcurrency(4)
+                .withBatchSize(100)
+                .withRelationshipTypes("FOLLOWS", "LIKES")
+                .withRelationshipTypeWeightsFromProperty("FOLLOWS", "since")
+                .load(HugeGraphFactory.class);
+        HugeRelationshipTypeIterator types = (HugeRelationshipTypeIterator) graph;
+
+        try (Transaction tx = db.beginTx()) {
+            graph.forEachNode((long node) -> {
+                long id = (long) db.getNodeById(graph.toOriginalNodeId(node)).getProperty("id");
+                types.forEachRelationship(node, Direction.OUTGOING, "FOLLOWS", (long s, long t, double w) -> {
+                    assertEquals((double) id, w, 0.0);
+                    return true;
+                });
+                // no weight property for the other type
+                types.forEachRelationship(node, Direction.OUTGOING, "LIKES", (long s, long t, double w) -> {
+                    assertEquals(0.0, w, 0.0);
+                    return true;
+                });
+                return true;
+            });
+            tx.success();
+        }
+    }
+
+    @Test
+    public void testUndirectedTypes() throws Exception {
+        HugeGraph graph = (HugeGraph) loader(Direction.OUTGOING)
+                .asUndirected(true)
+                .withRelationshipTypes("FOLLOWS", "KNOWS")
+                .load(HugeGraphFactory.class);
+        HugeGraph expected = (HugeGraph) loader(Direction.OUTGOING)
+                .asUndirected(true)
+                .withRelationshipType("KNOWS")
+                .load(HugeGraphFactory.class);
+
+        graph.forEachNode((long node) -> {
+            long expectedNode = expected.toHugeMappedNodeId(graph.toOriginalNodeId(node));
+            assertEquals(relationships(expected, expectedNode, Direction.BOTH), relationships(graph, "KNOWS", node, Direction.INCOMING));
+            return true;
+        });
+    }
+
+    @Test
+    public void testUnknownType() throws Exception {
+        HugeGraph graph = (HugeGraph) loader(Direction.OUTGOING)
+                .withRelationshipTypes("LIKES", "UNKNOWN")
+                .load(HugeGraphFactory.class);
+        HugeRelationshipTypeIterator types = (HugeRelationshipTypeIterator) graph;
+
+        graph.forEachNode((long node) -> {
+            assertEquals(0, types.degree(node, Direction.OUTGOING, "UNKNOWN"));
+            assertEquals(types.degree(node, Direction.OUTGOING, "LIKES"), graph.degree(node, Direction.OUTGOING));
+            return true;
+        });
+        try {
+            types.degree(0L, Direction.OUTGOING, "FOLLOWS");
+            fail("a type that has not been loaded should be rejected");
+        } catch (IllegalArgumentException e) {
+            assertTrue(e.getMessage().contains("FOLLOWS"));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNodeOrderingIsNotSupported() throws Exception {
+        loader(Direction.OUTGOING)
+                .withRelationshipTypes("FOLLOWS", "LIKES")
+                .withNodeOrdering(NodeOrdering.BFS)
+                .load(HugeGraphFactory.class);
+    }
+
+    private static GraphLoader loader(Direction direction) {
+        return new GraphLoader(db, Pools.DEFAULT)
+                .withLabel("Node")
+                .withRelationshipWeightsFromProperty("w", 0.0)
+                .withDirection(direction)
+                .withConcurrency(4)
+                .withBatchSize(100);
+    }
+
+    private static List<String> relationships(HugeGraph graph, long node, Direction direction) {
+        List<String> relationships = new ArrayList<>();
+        graph.forEachRelationship(node, direction, (long source, long target, double weight) -> {
+            relationships.add(graph.toOriginalNodeId(target) + ":" + weight);
+            return true;
+        });
+        relationships.sort(String::compareTo);
+        return relationships;
+    }
+
+    private static List<String> relationships(
+            HugeGraph graph,
+            String type,
+            long node,
+            Direction direction) {
+        List<String> relationships = new ArrayList<>();
+        ((HugeRelationshipTypeIterator) graph).forEachRelationship(node, direction, type, (long source, long target, double weight) -> {
+            relationships.add(graph.toOriginalNodeId(target) + ":" + weight);
+            return true;
+        });
+        relationships.sort(String::compareTo);
+        return relationships;
+    }
+}
@@ -0,0 +1,146 @@
+package org.neo4j.graphalgo.core.huge;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.neo4j.graphalgo.TestDatabaseCreator;
+import org.neo4j.graphalgo.api.HugeGraph;
+import org.neo4j.graphalgo.core.GraphLoader;
+import org.neo4j.graphalgo.core.utils.Pools;
+import org.neo4j.graphdb.Direction;
+import org.neo4j.kernel.internal.GraphDatabaseAPI;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public final class HugeGraphReorderingTest {
+
+    private static final int NODES = 1000;
+
+    private static GraphDatabaseAPI db;
+
+    @BeforeClass
+    public static void setup() {
+        db = TestDatabaseCreator.createTestDatabase();
+        // a path through the nodes in a scattered order and a few hubs
+        db.execute("UNWIND range(0, " + (NODES - 1) + ") AS i CREATE (:Node {id: i})").close();
+        db.execute("MATCH (a:Node), (b:Node) " +
+                "WHERE b.id = (a.id + 1) % " + NODES + " " +
+                "CREATE (a)-[:TYPE {weight: a.id + b.id / 10000.0}]->(b)").close();
+        db.execute("MATCH (a:Node), (b:Node) " +
+                "WHERE a.id % 100 = 0 AND b.id % 7 = 0 AND a <> b " +
+                "CREATE (a)-[:TYPE {weight: a.id * 2.0}]->(b)").close();
+        db.execute("MATCH (n:Node) SET n.id = (n.id * 389) % " + NODES).close();
+        db.execute("MATCH (n:Node) WITH n ORDER BY n.id CREATE (:Copy {id: n.id})").close();
+        db.execute("MATCH (a:Node)-[r:TYPE]->(b:Node) " +
+                "MATCH (c:Copy {id: a.id}), (d:Copy {id: b.id}) " +
+                "CREATE (c)-[:COPY {weight: r.weight}]->(d)").close();
+    }
+
+    @AfterClass
+    public static void tearDown() {
+        if (db != null) db.shutdown();
+    }
+
+    @Test
+    public void shouldKeepTheGraphWhenOrderedByDegree() throws Exception {
+        HugeGraph expected = loadGraph(NodeOrdering.NONE, Direction.BOTH);
+        HugeGraph actual = loadGraph(NodeOrdering.DEGREE, Direction.BOTH);
+
+        assertSameGraph(expected, actual, Direction.OUTGOING, Direction.INCOMING);
+    }
+
+    @Test
+    public void shouldKeepTheGraphWhenOrderedByBfs() throws Exception {
+        HugeGraph expected = loadGraph(NodeOrdering.NONE, Direction.BOTH);
+        HugeGraph actual = loadGraph(NodeOrdering.BFS, Direction.BOTH);
+
+        assertSameGraph(expected, actual, Direction.OUTGOING, Direction.INCOMING);
+    }
+
+    @Test
+    public void shouldReorderASingleDirection() throws Exception {
+        HugeGraph expected = loadGraph(NodeOrdering.NONE, Direction.INCOMING);
+        HugeGraph actual = loadGraph(NodeOrdering.BFS, Direction.INCOMING);
+
+        assertSameGraph(expected, actual, Direction.INCOMING);
+    }
+
+    @Test
+    public void shouldOrderByDescendingDegree() throws Exception {
+        HugeGraph graph = loadGraph(NodeOrdering.DEGREE, Direction.BOTH);
+
+        int[] previous = {Integer.MAX_VALUE};
+        graph.forEachNode((long node) -> {
+            int degree = graph.degree(node, Direction.BOTH);
+            assertTrue(degree <= previous[0]);
+            previous[0] = degree;
+            return true;
+        });
+    }
+
+    @Test
+    public void shouldImproveLocalityWithBfs() throws Exception {
+        HugeGraphImpl unordered = (HugeGraphImpl) loadGraph(NodeOrdering.NONE, Direction.OUTGOING);
+        HugeGraphImpl ordered = (HugeGraphImpl) loadGraph(NodeOrdering.BFS, Direction.OUTGOING);
+
+        assertNull(unordered.locality());
+        NodeOrdering.Locality locality = ordered.locality();
+        assertNotNull(locality);
+        assertTrue(locality.averageIdGapBefore > 0.0);
+        assertTrue(locality.averageIdGapAfter < locality.averageIdGapBefore);
+    }
+
+    @Test
+    public void shouldParseTheOrdering() throws Exception {
+        assertEquals(NodeOrdering.NONE, NodeOrdering.parse(null));
+        assertEquals(NodeOrdering.BFS, NodeOrdering.parse("bfs"));
+        assertEquals(NodeOrdering.DEGREE, NodeOrdering.parse("Degree"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldFailOnUnknownOrdering() throws Exception {
+        NodeOrdering.parse("random");
+    }
+
+    private static HugeGraph loadGraph(NodeOrdering ordering, Direction direction) {
+        return (HugeGraph) new GraphLoader(db, Pools.DEFAULT)
+                .withLabel("Copy")
+                .withRelationshipType("COPY")
+                .withDirection(direction)
+                .withRelationshipWeightsFromProperty("weight", 0.0)
+                .withConcurrency(4)
+                .withNodeOrdering(ordering)
+                .load(HugeGraphFactory.class);
+    }
+
+    private static void assertSameGraph(HugeGraph expected, HugeGraph actual, Direction... directions) {
+        assertEquals(expected.nodeCount(), actual.nodeCount());
+        expected.forEachNode((long node) -> {
+            long originalId = expected.toOriginalNodeId(node);
+            long actualNode = actual.toHugeMappedNodeId(originalId);
+            assertEquals(originalId, actual.toOriginalNodeId(actualNode));
+            for (Direction direction : directions) {
+                assertEquals(expected.degree(node, direction), actual.degree(actualNode, direction));
+                assertEquals(relationships(expected, node, direction), relationships(actual, actualNode, direction));
+            }
+            return true;
+        });
+    }
+
+    private static List<String> relationships(HugeGraph graph, long node, Direction direction) {
+        List<String> relationships = new ArrayList<>();
+        graph.forEachRelationship(node, direction, (long source, long target, double weight) -> {
+            relationships.add(graph.toOriginalNodeId(source) + "->" + graph.toOriginalNodeId(target) + ":" + weight);
+            return true;
+        });
+        Collections.sort(relationships);
+        return relationships;
+    }
+}
@@ -0,0 +1,104 @@
+package org.neo4j.graphalgo.core.huge;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.neo4j.graphalgo.api.HugeGraph;
+import org.neo4j.graphalgo.core.GraphLoader;
+import org.neo4j.graphalgo.core.utils.Pools;
+import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
+import org.neo4j.graphdb.Direction;
+import org.neo4j.test.rule.ImpermanentDatabaseRule;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+public final class HugeGraphSnapshotTest {
+
+    @Rule
+    public ImpermanentDatabaseRule db = new ImpermanentDatabaseRule();
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void shouldRestoreSavedGraph() throws Exception {
+        mkDb(1000);
+        HugeGraph graph = loadGraph();
+        File file = folder.newFile();
+
+        HugeGraphSnapshot.write(graph, file, HugeGraphSnapshot.lastCommittedTransactionId(db));
+        HugeGraph restored = HugeGraphSnapshot.read(db, file, AllocationTracker.EMPTY);
+
+        assertEquals(graph.nodeCount(), restored.nodeCount());
+        graph.forEachNode((long node) -> {
+            assertEquals(graph.toOriginalNodeId(node), restored.toOriginalNodeId(node));
+            assertEquals(node, restored.toHugeMappedNodeId(graph.toOriginalNodeId(node)));
+            for (Direction direction : new Direction[]{Direction.OUTGOING, Direction.INCOMING}) {
+                assertEquals(relationships(graph, node, direction), relationships(restored, node, direction));
+            }
+            return true;
+        });
+        assertEquals(42.0, restored.weightOf(0L, 0L), 0.0);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void shouldRejectStaleSnapshot() throws Exception {
+        mkDb(10);
+        HugeGraph graph = loadGraph();
+        File file = folder.newFile();
+        HugeGraphSnapshot.write(graph, file, HugeGraphSnapshot.lastCommittedTransactionId(db));
+
+        db.execute("CREATE ()").close();
+
+        HugeGraphSnapshot.read(db, file, AllocationTracker.EMPTY);
+    }
+
+    @Test
+    public void shouldReadTransactionIdFromHeader() throws Exception {
+        mkDb(10);
+        File file = folder.newFile();
+        HugeGraphSnapshot.write(loadGraph(), file, 1337L);
+
+        assertEquals(1337L, HugeGraphSnapshot.transactionId(file));
+    }
+
+    @Test(expected = IOException.class)
+    public void shouldRejectOtherFiles() throws Exception {
+        File file = folder.newFile();
+        Files.write(file.toPath(), new byte[]{1, 2, 3, 4, 5, 6, 7, 8});
+
+        HugeGraphSnapshot.read(file, AllocationTracker.EMPTY);
+    }
+
+    private void mkDb(int nodes) {
+        db.execute("UNWIND range(1, $nodes) AS i CREATE (:Node {id: i})",
+                Collections.singletonMap("nodes", nodes)).close();
+        db.execute("MATCH (a:Node), (b:Node) " +
+                "WHERE b.id = a.id % 97 + 1 OR b.id = (a.id * 7) % $nodes + 1 " +
+                "CREATE (a)-[:TYPE {weight: a.id * 1000 + b.id}]->(b)",
+                Collections.singletonMap("nodes", nodes)).close();
+    }
+
+    private HugeGraph loadGraph() {
+        return (HugeGraph) new GraphLoader(db, Pools.DEFAULT)
+                .withDirection(Direction.BOTH)
+                .withRelationshipWeightsFromProperty("weight", 42.0)
+                .load(HugeGraphFactory.class);
+    }
+
+    private static List<String> relationships(HugeGraph graph, long node, Direction direction) {
+        List<String> relationships = new ArrayList<>();
+        graph.forEachRelationship(node, direction, (long source, long target, double weight) -> {
+            relationships.add(source + "->" + target + ":" + weight);
+            return true;
+        });
+        return relationships;
+    }
+}
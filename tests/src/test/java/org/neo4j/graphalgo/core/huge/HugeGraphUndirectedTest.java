@@ -0,0 +1,149 @@
+package org.neo4j.graphalgo.core.huge;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.neo4j.graphalgo.api.HugeGraph;
+import org.neo4j.graphalgo.core.GraphLoader;
+import org.neo4j.graphalgo.core.utils.Pools;
+import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
+import org.neo4j.graphdb.Direction;
+import org.neo4j.test.rule.ImpermanentDatabaseRule;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.TreeSet;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public final class HugeGraphUndirectedTest {
+
+    @Rule
+    public ImpermanentDatabaseRule db = new ImpermanentDatabaseRule();
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void shouldStoreEveryNeighbourOnce() throws Exception {
+        db.execute("CREATE (a:Node {name:'a'}), (b:Node {name:'b'}), (c:Node {name:'c'}), (d:Node {name:'d'}) " +
+                "CREATE (a)-[:TYPE {w: 1.0}]->(b), (b)-[:TYPE {w: 1.0}]->(a) " +
+                "CREATE (a)-[:TYPE {w: 2.0}]->(c), (a)-[:TYPE {w: 2.0}]->(c) " +
+                "CREATE (c)-[:TYPE {w: 3.0}]->(c)").close();
+        HugeGraph graph = loadGraph(true, AllocationTracker.EMPTY);
+        long a = node(graph, "a");
+        long b = node(graph, "b");
+        long c = node(graph, "c");
+        long d = node(graph, "d");
+
+        for (Direction direction : Direction.values()) {
+            assertEquals(2, graph.degree(a, direction));
+            assertEquals(1, graph.degree(b, direction));
+            assertEquals(2, graph.degree(c, direction));
+            assertEquals(0, graph.degree(d, direction));
+            assertEquals(Arrays.asList(b, c), targets(graph, a, direction));
+            assertEquals(Arrays.asList(a, c), targets(graph, c, direction));
+        }
+        assertEquals(1.0, graph.weightOf(b, a), 0.0);
+        assertEquals(2.0, graph.weightOf(c, a), 0.0);
+        assertEquals(3.0, graph.weightOf(c, c), 0.0);
+    }
+
+    @Test
+    public void shouldContainTheNeighboursOfBothDirections() throws Exception {
+        mkDb(1000);
+        HugeGraph directed = loadGraph(false, AllocationTracker.EMPTY);
+        HugeGraph undirected = loadGraph(true, AllocationTracker.EMPTY);
+
+        directed.forEachNode((long node) -> {
+            List<Long> expected = new ArrayList<>(new TreeSet<>(targets(directed, node, Direction.BOTH)));
+            assertEquals(expected, targets(undirected, node, Direction.BOTH));
+            assertEquals(expected.size(), undirected.degree(node, Direction.BOTH));
+            return true;
+        });
+    }
+
+    @Test
+    public void shouldUseLessMemoryThanBothDirections() throws Exception {
+        mkDb(1000);
+        AllocationTracker directed = AllocationTracker.create();
+        AllocationTracker undirected = AllocationTracker.create();
+        loadGraph(false, directed);
+        loadGraph(true, undirected);
+
+        assertTrue(undirected.tracked() < directed.tracked());
+    }
+
+    @Test
+    public void shouldRestoreUndirectedSnapshot() throws Exception {
+        mkDb(100);
+        HugeGraph graph = loadGraph(true, AllocationTracker.EMPTY);
+        File file = folder.newFile();
+
+        HugeGraphSnapshot.write(graph, file, HugeGraphSnapshot.lastCommittedTransactionId(db));
+        HugeGraph restored = HugeGraphSnapshot.read(db, file, AllocationTracker.EMPTY);
+
+        graph.forEachNode((long node) -> {
+            assertEquals(graph.degree(node, Direction.BOTH), restored.degree(node, Direction.INCOMING));
+            assertEquals(targets(graph, node, Direction.BOTH), targets(restored, node, Direction.BOTH));
+            return true;
+        });
+    }
+
+    @Test
+    public void shouldReorderUndirectedGraph() throws Exception {
+        mkDb(1000);
+        HugeGraph graph = loadGraph(true, AllocationTracker.EMPTY);
+        HugeGraph reordered = (HugeGraph) new GraphLoader(db, Pools.DEFAULT)
+                .withRelationshipWeightsFromProperty("w", 0.0)
+                .withNodeOrdering(NodeOrdering.BFS)
+                .asUndirected(true)
+                .load(HugeGraphFactory.class);
+
+        graph.forEachNode((long node) -> {
+            long reorderedNode = reordered.toHugeMappedNodeId(graph.toOriginalNodeId(node));
+            assertEquals(graph.degree(node, Direction.BOTH), reordered.degree(reorderedNode, Direction.BOTH));
+            return true;
+        });
+    }
+
+    private void mkDb(int nodes) {
+        db.execute("UNWIND range(1, " + nodes + ") AS id CREATE (:Node {id: id})").close();
+        db.execute("MATCH (a:Node), (b:Node) " +
+                "WHERE b.id = a.id * 3 % " + nodes + " OR b.id = a.id * 7 % " + nodes + " " +
+                "CREATE (a)-[:TYPE {w: a.id}]->(b)").close();
+    }
+
+    private HugeGraph loadGraph(boolean undirected, AllocationTracker tracker) {
+        return (HugeGraph) new GraphLoader(db, Pools.DEFAULT)
+                .withRelationshipWeightsFromProperty("w", 0.0)
+                .withDirection(Direction.BOTH)
+                .withAllocationTracker(tracker)
+                .asUndirected(undirected)
+                .load(HugeGraphFactory.class);
+    }
+
+    private long node(HugeGraph graph, String name) {
+        long nodeId = db.execute("MATCH (n:Node {name: $name}) RETURN id(n) AS id",
+                Collections.singletonMap("name", name))
+                .<Long>columnAs("id")
+                .next();
+        return graph.toHugeMappedNodeId(nodeId);
+    }
+
+    private static List<Long> targets(HugeGraph graph, long node, Direction direction) {
+        List<Long> targets = new ArrayList<>();
+        graph.forEachRelationship(node, direction, (long source, long target) -> {
+            targets.add(target);
+            return true;
+        });
+        if (direction == Direction.BOTH) {
+            targets.sort(Long::compare);
+        }
+        return targets;
+    }
+}
@@ -45,6 +45,43 @@ public final class HugeGraphWeightTest {
         });
     }
 
+    @Test
+    public void shouldTraverseWeightsAlongsideTargets() throws Exception {
+        mkDb(WEIGHT_BATCH_SIZE << 1, 2);
+        HugeGraph graph = loadGraph(db, Direction.BOTH);
+
+        graph.forEachNode((long node) -> {
+            graph.forEachRelationship(node, Direction.OUTGOING, (long src, long tgt, double weight) -> {
+                assertEquals(
+                        "Wrong weight for (" + src + ")->(" + tgt + ")",
+                        fakeId(src, tgt), (long) weight);
+                return true;
+            });
+            graph.forEachRelationship(node, Direction.INCOMING, (long src, long tgt, double weight) -> {
+                assertEquals(
+                        "Wrong weight for (" + tgt + ")->(" + src + ")",
+                        fakeId(tgt, src), (long) weight);
+                return true;
+            });
+            graph.forEachRelationship((int) node, Direction.OUTGOING, (int src, int tgt, long rel, double weight) -> {
+                assertEquals(
+                        "Wrong weight for (" + src + ")->(" + tgt + ")",
+                        fakeId(src, tgt), (long) weight);
+                return true;
+            });
+            return true;
+        });
+    }
+
+    @Test
+    public void shouldReturnDefaultWeightForMissingRelationships() throws Exception {
+        mkDb(WEIGHT_BATCH_SIZE, 2);
+        HugeGraph graph = loadGraph(db);
+
+        assertEquals(0.0, graph.weightOf(0L, 0L), 0.0);
+        assertEquals(42.0, graph.weightOf(0L, 0L, 42.0), 0.0);
+    }
+
     @Test(timeout = 10000)
     public void shouldLoadMoreWeights() throws Exception {
         mkDb(WEIGHT_BATCH_SIZE, 4);
@@ -86,10 +123,18 @@ public final class HugeGraphWeightTest {
         });
     }
 
+    private static long fakeId(long source, long target) {
+        return ((int) source << 16) | (int) target & 0xFFFF;
+    }
+
     private HugeGraph loadGraph(final GraphDatabaseAPI db) {
+        return loadGraph(db, Direction.OUTGOING);
+    }
+
+    private HugeGraph loadGraph(final GraphDatabaseAPI db, final Direction direction) {
         return (HugeGraph) new GraphLoader(db)
                 .withRelationshipWeightsFromProperty("weight", 0)
-                .withDirection(Direction.OUTGOING)
+                .withDirection(direction)
                 .withExecutorService(Pools.DEFAULT)
                 .withBatchSize(BATCH_SIZE)
                 .load(HugeGraphFactory.class);
@@ -0,0 +1,224 @@
+package org.neo4j.graphalgo.core.huge;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.neo4j.graphalgo.TestDatabaseCreator;
+import org.neo4j.graphalgo.api.HugeGraph;
+import org.neo4j.graphalgo.core.GraphLoader;
+import org.neo4j.graphalgo.core.utils.Pools;
+import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
+import org.neo4j.graphdb.Direction;
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.RelationshipType;
+import org.neo4j.graphdb.Result;
+import org.neo4j.graphdb.Transaction;
+import org.neo4j.kernel.internal.GraphDatabaseAPI;
+
+import java.io.File;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public final class HugeIdMapTest {
+
+    // enough nodes for several batches of the parallel import
+    private static final int NODES = 5 * HugeIdMap.PAGE_SIZE;
+
+    private static GraphDatabaseAPI db;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @BeforeClass
+    public static void setup() {
+        db = TestDatabaseCreator.createTestDatabase();
+        db.execute("UNWIND range(0, " + (NODES - 1) + ") AS i " +
+                "CREATE (n {id: i}) " +
+                "FOREACH (x IN CASE WHEN i % 3 = 0 THEN [1] ELSE [] END | SET n:Sparse) " +
+                "FOREACH (x IN CASE WHEN i % 100 = 0 THEN [1] ELSE [] END | SET n:Rare)").close();
+        db.execute("MATCH (n) WHERE id(n) >= 300 AND id(n) < 320 DETACH DELETE n").close();
+        // looked up by id, matching every pair of nodes takes far too long
+        RelationshipType type = RelationshipType.withName("TYPE");
+        try (Transaction tx = db.beginTx()) {
+            for (Node node : db.getAllNodes()) {
+                long target = (node.getId() * 7L + 1L) % NODES;
+                if (target < 300L || target >= 320L) {
+                    node.createRelationshipTo(db.getNodeById(target), type);
+                }
+            }
+            tx.success();
+        }
+    }
+
+    @AfterClass
+    public static void tearDown() {
+        if (db != null) db.shutdown();
+    }
+
+    @Test
+    public void shouldMapASingleRunAsIdentity() throws Exception {
+        HugeIdMap idMap = build(0L, 100L);
+        assertTrue(idMap.isRunLength());
+        assertEquals(100L, idMap.nodeCount());
+        for (long id = 0L; id < 100L; id++) {
+            assertEquals(id, idMap.toOriginalNodeId(id));
+            assertEquals(id, idMap.toHugeMappedNodeId(id));
+            assertTrue(idMap.contains(id));
+        }
+        assertEquals(HugeIdMap.NOT_FOUND, idMap.toHugeMappedNodeId(100L));
+        assertEquals(HugeIdMap.NOT_FOUND, idMap.toHugeMappedNodeIdIfPresent(-1L));
+        assertFalse(idMap.contains(100L));
+    }
+
+    @Test
+    public void shouldMapASingleRunWithOffset() throws Exception {
+        HugeIdMap idMap = build(1000L, 1100L);
+        assertTrue(idMap.isRunLength());
+        for (long id = 0L; id < 100L; id++) {
+            assertEquals(id + 1000L, idMap.toOriginalNodeId(id));
+            assertEquals(id, idMap.toHugeMappedNodeId(id + 1000L));
+        }
+        assertEquals(HugeIdMap.NOT_FOUND, idMap.toHugeMappedNodeId(999L));
+        assertEquals(HugeIdMap.NOT_FOUND, idMap.toHugeMappedNodeId(1100L));
+    }
+
+    @Test
+    public void shouldMapRunsWithGaps() throws Exception {
+        HugeIdMap idMap = build(0L, 50L, 60L, 100L, 200L, 300L);
+        assertTrue(idMap.isRunLength());
+        assertEquals(190L, idMap.nodeCount());
+        long graphId = 0L;
+        for (long id = 0L; id < 320L; id++) {
+            boolean present = id < 50L || (id >= 60L && id < 100L) || (id >= 200L && id < 300L);
+            assertEquals(present, idMap.contains(id));
+            if (present) {
+                assertEquals(graphId, idMap.toHugeMappedNodeId(id));
+                assertEquals(id, idMap.toOriginalNodeId(graphId));
+                graphId++;
+            } else {
+                assertEquals(HugeIdMap.NOT_FOUND, idMap.toHugeMappedNodeId(id));
+            }
+        }
+    }
+
+    @Test
+    public void shouldRejectSparseOrUnorderedIds() throws Exception {
+        HugeIdMap.RunBuilder sparse = new HugeIdMap.RunBuilder(100L);
+        boolean added = true;
+        for (long id = 0L; id < 200L && added; id += 2L) {
+            added = sparse.add(id);
+        }
+        assertFalse(added);
+
+        HugeIdMap.RunBuilder unordered = new HugeIdMap.RunBuilder(100L);
+        assertTrue(unordered.add(5L));
+        assertFalse(unordered.add(4L));
+    }
+
+    @Test
+    public void shouldAppendRuns() throws Exception {
+        HugeIdMap.RunBuilder first = new HugeIdMap.RunBuilder(100L);
+        HugeIdMap.RunBuilder second = new HugeIdMap.RunBuilder(100L);
+        for (long id = 0L; id < 50L; id++) {
+            assertTrue(first.add(id));
+            // the first run continues the last run of the first builder
+            assertTrue(second.add(id + 50L + (id < 25L ? 0L : 10L)));
+        }
+        HugeIdMap.RunBuilder runs = new HugeIdMap.RunBuilder(100L);
+        assertTrue(runs.append(first));
+        assertTrue(runs.append(second));
+        HugeIdMap idMap = runs.build(AllocationTracker.EMPTY);
+        assertEquals(100L, idMap.nodeCount());
+        assertEquals(74L, idMap.toOriginalNodeId(74L));
+        assertEquals(85L, idMap.toOriginalNodeId(75L));
+        assertEquals(HugeIdMap.NOT_FOUND, idMap.toHugeMappedNodeId(80L));
+        assertFalse(runs.append(first));
+    }
+
+    @Test
+    public void shouldLoadDenseAndSparseIds() throws Exception {
+        for (int concurrency : new int[]{1, 8}) {
+            assertSameIds(load(null, concurrency), "MATCH (n) RETURN id(n) AS id");
+            assertSameIds(load("Sparse", concurrency), "MATCH (n:Sparse) RETURN id(n) AS id");
+            assertSameIds(load("Rare", concurrency), "MATCH (n:Rare) RETURN id(n) AS id");
+        }
+    }
+
+    @Test
+    public void shouldLoadTheSameIdsInParallel() throws Exception {
+        for (String label : new String[]{null, "Sparse", "Rare"}) {
+            HugeGraph expected = load(label, 1);
+            HugeGraph actual = load(label, 8);
+            assertEquals(expected.nodeCount(), actual.nodeCount());
+            expected.forEachNode((long node) -> {
+                assertEquals(expected.toOriginalNodeId(node), actual.toOriginalNodeId(node));
+                return true;
+            });
+        }
+    }
+
+    @Test
+    public void shouldReorderRuns() throws Exception {
+        HugeGraph graph = (HugeGraph) new GraphLoader(db, Pools.DEFAULT)
+                .withDirection(Direction.OUTGOING)
+                .withNodeOrdering(NodeOrdering.DEGREE)
+                .load(HugeGraphFactory.class);
+        assertSameIds(graph, "MATCH (n) RETURN id(n) AS id");
+    }
+
+    @Test
+    public void shouldSaveRuns() throws Exception {
+        HugeGraph graph = load(null, 8);
+        File file = folder.newFile();
+        HugeGraphSnapshot.write(graph, file, 0L);
+        HugeGraph restored = HugeGraphSnapshot.read(file, AllocationTracker.EMPTY);
+        assertSameIds(restored, "MATCH (n) RETURN id(n) AS id");
+        graph.forEachNode((long node) -> {
+            assertEquals(graph.toOriginalNodeId(node), restored.toOriginalNodeId(node));
+            return true;
+        });
+    }
+
+    private static HugeIdMap build(long... ranges) {
+        HugeIdMap.RunBuilder builder = new HugeIdMap.RunBuilder(ranges[ranges.length - 1] - ranges[0]);
+        for (int i = 0; i < ranges.length; i += 2) {
+            for (long id = ranges[i]; id < ranges[i + 1]; id++) {
+                assertTrue(builder.add(id));
+            }
+        }
+        return builder.build(AllocationTracker.EMPTY);
+    }
+
+    private static HugeGraph load(String label, int concurrency) {
+        return (HugeGraph) new GraphLoader(db, Pools.DEFAULT)
+                .withOptionalLabel(label)
+                .withConcurrency(concurrency)
+                .withDirection(Direction.OUTGOING)
+                .load(HugeGraphFactory.class);
+    }
+
+    private static void assertSameIds(HugeGraph graph, String query) {
+        Set<Long> expected = new HashSet<>();
+        try (Result result = db.execute(query)) {
+            result.forEachRemaining(row -> expected.add((Long) row.get("id")));
+        }
+        assertEquals(expected.size(), graph.nodeCount());
+        Set<Long> actual = new HashSet<>();
+        graph.forEachNode((long node) -> {
+            long originalId = graph.toOriginalNodeId(node);
+            actual.add(originalId);
+            assertEquals(node, graph.toHugeMappedNodeId(originalId));
+            return true;
+        });
+        assertEquals(expected, actual);
+        for (long id = 300L; id < 320L; id++) {
+            assertFalse(graph.contains(id));
+        }
+    }
+}
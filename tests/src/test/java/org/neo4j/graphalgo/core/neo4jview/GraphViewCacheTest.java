@@ -0,0 +1,139 @@
+package org.neo4j.graphalgo.core.neo4jview;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.neo4j.graphalgo.TestDatabaseCreator;
+import org.neo4j.graphalgo.api.Graph;
+import org.neo4j.graphalgo.core.GraphLoader;
+import org.neo4j.graphalgo.core.utils.Pools;
+import org.neo4j.graphdb.Direction;
+import org.neo4j.kernel.internal.GraphDatabaseAPI;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public final class GraphViewCacheTest {
+
+    private static final int COUNT = 50;
+    private static final Direction[] DIRECTIONS = {Direction.OUTGOING, Direction.INCOMING, Direction.BOTH};
+
+    private static GraphDatabaseAPI db;
+
+    @BeforeClass
+    public static void setupGraph() {
+        db = TestDatabaseCreator.createTestDatabase();
+        db.execute("UNWIND range(1, " + COUNT + ") AS id CREATE (:Node {id: id})").close();
+        db.execute("MATCH (n:Node), (m:Node) " +
+                "WHERE m.id = (n.id * 7) % " + COUNT + " + 1 OR m.id = (n.id * 13) % " + COUNT + " + 1 " +
+                "CREATE (n)-[:REL {w: n.id + m.id}]->(m)").close();
+    }
+
+    @AfterClass
+    public static void tearDown() {
+        if (db != null) db.shutdown();
+    }
+
+    @Test
+    public void testCachedRelationshipsEqualStore() {
+        for (boolean sorted : new boolean[]{false, true}) {
+            Graph store = load(0L, sorted);
+            // small enough to evict while iterating
+            Graph cached = load(20L, sorted);
+            for (int round = 0; round < 2; round++) {
+                for (Direction direction : DIRECTIONS) {
+                    for (boolean withWeights : new boolean[]{false, true}) {
+                        store.forEachNode(node -> {
+                            assertEquals(
+                                    relationships(store, node, direction, withWeights),
+                                    relationships(cached, node, direction, withWeights));
+                            return true;
+                        });
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testRelationshipsAreReadFromCache() {
+        db.execute("CREATE (:Node {id: -1})-[:REL]->(:Node {id: -2})").close();
+        Graph cached = load(1000L, false);
+        Graph store = load(0L, false);
+        int node = cached.toMappedNodeId(originalId(-1));
+        assertEquals(1, relationships(cached, node, Direction.OUTGOING, false).size());
+
+        db.execute("MATCH (:Node {id: -1})-[r:REL]->() DELETE r").close();
+
+        assertEquals(0, relationships(store, node, Direction.OUTGOING, false).size());
+        assertEquals(1, relationships(cached, node, Direction.OUTGOING, false).size());
+        cached.release();
+        assertEquals(0, relationships(cached, node, Direction.OUTGOING, false).size());
+    }
+
+    @Test
+    public void testEviction() {
+        AdjacencyCache cache = new AdjacencyCache(10L);
+        cache.put(0, Direction.OUTGOING, block(4));
+        cache.put(1, Direction.OUTGOING, block(3));
+        // node 0 becomes the most recently used
+        assertNotNull(cache.get(0, Direction.OUTGOING, false));
+        cache.put(2, Direction.OUTGOING, block(2));
+
+        assertNull(cache.get(1, Direction.OUTGOING, false));
+        assertNotNull(cache.get(0, Direction.OUTGOING, false));
+        assertNotNull(cache.get(2, Direction.OUTGOING, false));
+        assertNull(cache.get(0, Direction.INCOMING, false));
+        // cached without weights
+        assertNull(cache.get(0, Direction.OUTGOING, true));
+        assertTrue(cache.size() <= 10L);
+
+        // larger than the whole cache
+        cache.put(3, Direction.OUTGOING, block(10));
+        assertNull(cache.get(3, Direction.OUTGOING, false));
+        assertNotNull(cache.get(0, Direction.OUTGOING, false));
+    }
+
+    private static RelationshipBlock block(int length) {
+        RelationshipBlock block = new RelationshipBlock(false);
+        for (int i = 0; i < length; i++) {
+            block.accept(0, i, i, 0.0);
+        }
+        return block;
+    }
+
+    private static Graph load(long cacheSize, boolean sorted) {
+        return new GraphLoader(db, Pools.DEFAULT)
+                .withLabel("Node")
+                .withRelationshipType("REL")
+                .withRelationshipWeightsFromProperty("w", 0.0)
+                .withSortedAdjacency(sorted)
+                .withKernelCacheSize(cacheSize)
+                .load(GraphViewFactory.class);
+    }
+
+    private static List<String> relationships(Graph graph, int node, Direction direction, boolean withWeights) {
+        List<String> relationships = new ArrayList<>();
+        if (withWeights) {
+            graph.forEachRelationship(node, direction, (source, target, relationId, weight) -> {
+                relationships.add(target + ":" + relationId + ":" + weight);
+                return true;
+            });
+        } else {
+            graph.forEachRelationship(node, direction, (source, target, relationId) -> {
+                relationships.add(target + ":" + relationId);
+                return true;
+            });
+        }
+        return relationships;
+    }
+
+    private static long originalId(int id) {
+        return (long) db.execute("MATCH (n:Node {id: " + id + "}) RETURN id(n) AS id").next().get("id");
+    }
+}
@@ -10,6 +10,7 @@ import org.neo4j.graphalgo.api.GraphFactory;
 import org.neo4j.graphalgo.core.GraphLoader;
 import org.neo4j.graphalgo.core.heavyweight.HeavyCypherGraphFactory;
 import org.neo4j.graphalgo.core.heavyweight.HeavyGraphFactory;
+import org.neo4j.graphalgo.core.huge.HugeCypherGraphFactory;
 import org.neo4j.graphalgo.core.huge.HugeGraphFactory;
 import org.neo4j.graphalgo.core.lightweight.LightGraphFactory;
 import org.neo4j.graphalgo.core.neo4jview.GraphViewFactory;
@@ -26,6 +27,8 @@ import java.util.Map;
 import java.util.stream.IntStream;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 
 @RunWith(Parameterized.class)
 public final class PageRankTest {
@@ -39,6 +42,7 @@ public final class PageRankTest {
                 new Object[]{HeavyCypherGraphFactory.class, "HeavyCypherGraphFactory"},
                 new Object[]{LightGraphFactory.class, "LightGraphFactory"},
                 new Object[]{HugeGraphFactory.class, "HugeGraphFactory"},
+                new Object[]{HugeCypherGraphFactory.class, "HugeCypherGraphFactory"},
                 new Object[]{GraphViewFactory.class, "GraphViewFactory"}
         );
     }
@@ -108,6 +112,35 @@ public final class PageRankTest {
 
     @Test
     public void test() throws Exception {
+        final Map<Long, Double> expected = expectedScores();
+        final Graph graph = loadGraph();
+
+        final PageRankAlgorithm pageRank = PageRankAlgorithm
+                .of(graph, 0.85)
+                .compute(40);
+        final PageRankResult rankResult = pageRank.result();
+
+        assertEquals(40, pageRank.iterations());
+        assertFalse(pageRank.didConverge());
+        assertScores(expected, graph, rankResult);
+    }
+
+    @Test
+    public void testTolerance() throws Exception {
+        final Map<Long, Double> expected = expectedScores();
+        final Graph graph = loadGraph();
+
+        final PageRankAlgorithm pageRank = PageRankAlgorithm
+                .of(graph, 0.85)
+                .compute(100, 1e-3);
+
+        assertTrue(pageRank.didConverge());
+        assertTrue(pageRank.iterations() > 1);
+        assertTrue(pageRank.iterations() < 40);
+        assertScores(expected, graph, pageRank.result());
+    }
+
+    private Map<Long, Double> expectedScores() {
         final Label label = Label.label("Label1");
         final Map<Long, Double> expected = new HashMap<>();
 
@@ -124,9 +157,13 @@ public final class PageRankTest {
             expected.put(db.findNode(label, "name", "j").getId(), 0.15);
             tx.close();
         }
+        return expected;
+    }
 
+    private Graph loadGraph() {
         final Graph graph;
-        if (graphImpl.isAssignableFrom(HeavyCypherGraphFactory.class)) {
+        if (graphImpl.isAssignableFrom(HeavyCypherGraphFactory.class) ||
+                graphImpl.isAssignableFrom(HugeCypherGraphFactory.class)) {
             graph = new GraphLoader(db)
                     .withLabel("MATCH (n:Label1) RETURN id(n) as id")
                     .withRelationshipType("MATCH (n:Label1)-[:TYPE1]->(m:Label1) RETURN id(n) as source,id(m) as target")
@@ -134,17 +171,15 @@ public final class PageRankTest {
 
         } else {
             graph = new GraphLoader(db)
-                    .withLabel(label)
+                    .withLabel(Label.label("Label1"))
                     .withRelationshipType("TYPE1")
                     .withDirection(Direction.OUTGOING)
                     .load(graphImpl);
         }
+        return graph;
+    }
 
-        final PageRankResult rankResult = PageRankAlgorithm
-                .of(graph, 0.85)
-                .compute(40)
-                .result();
-
+    private static void assertScores(Map<Long, Double> expected, Graph graph, PageRankResult rankResult) {
         IntStream.range(0, expected.size()).forEach(i -> {
             final long nodeId = graph.toOriginalNodeId(i);
             assertEquals(
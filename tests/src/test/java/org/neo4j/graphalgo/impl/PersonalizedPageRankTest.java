@@ -0,0 +1,222 @@
+package org.neo4j.graphalgo.impl;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.neo4j.graphalgo.TestDatabaseCreator;
+import org.neo4j.graphalgo.api.Graph;
+import org.neo4j.graphalgo.api.GraphFactory;
+import org.neo4j.graphalgo.core.GraphLoader;
+import org.neo4j.graphalgo.core.heavyweight.HeavyGraphFactory;
+import org.neo4j.graphalgo.core.huge.HugeGraphFactory;
+import org.neo4j.graphalgo.core.utils.Pools;
+import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
+import org.neo4j.graphdb.Direction;
+import org.neo4j.graphdb.Label;
+import org.neo4j.graphdb.Transaction;
+import org.neo4j.kernel.internal.GraphDatabaseAPI;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(Parameterized.class)
+public final class PersonalizedPageRankTest {
+
+    private static final String DB_CYPHER = "" +
+            "CREATE (a:Node {name:\"a\"})\n" +
+            "CREATE (b:Node {name:\"b\"})\n" +
+            "CREATE (c:Node {name:\"c\"})\n" +
+            "CREATE (d:Node {name:\"d\"})\n" +
+            "CREATE (e:Node {name:\"e\"})\n" +
+            "CREATE (f:Node {name:\"f\"})\n" +
+            "CREATE (g:Node {name:\"g\"})\n" +
+            "CREATE (h:Node {name:\"h\"})\n" +
+            "CREATE\n" +
+            "  (a)-[:TYPE]->(b),\n" +
+            "  (b)-[:TYPE]->(c),\n" +
+            "  (c)-[:TYPE]->(a),\n" +
+            "  (c)-[:TYPE]->(d),\n" +
+            "  (d)-[:TYPE]->(e),\n" +
+            "  (e)-[:TYPE]->(d),\n" +
+            "  (f)-[:TYPE]->(a),\n" +
+            "  (f)-[:TYPE]->(e),\n" +
+            "  (g)-[:TYPE]->(h)";
+
+    private static GraphDatabaseAPI db;
+
+    private final Graph graph;
+
+    @Parameterized.Parameters(name = "{1}")
+    public static Collection<Object[]> data() {
+        return Arrays.asList(
+                new Object[]{HeavyGraphFactory.class, "HeavyGraphFactory"},
+                new Object[]{HugeGraphFactory.class, "HugeGraphFactory"}
+        );
+    }
+
+    @BeforeClass
+    public static void setupGraph() {
+        db = TestDatabaseCreator.createTestDatabase();
+        try (Transaction tx = db.beginTx()) {
+            db.execute(DB_CYPHER).close();
+            tx.success();
+        }
+    }
+
+    @AfterClass
+    public static void shutdownGraph() {
+        if (db != null) db.shutdown();
+    }
+
+    public PersonalizedPageRankTest(
+            Class<? extends GraphFactory> graphImpl,
+            String nameIgnoredOnlyForTestName) {
+        graph = new GraphLoader(db, Pools.DEFAULT)
+                .withLabel("Node")
+                .withRelationshipType("TYPE")
+                .withDirection(Direction.OUTGOING)
+                .load(graphImpl);
+    }
+
+    @Test
+    public void testAllNodesAsSourcesEqualGlobalPageRank() {
+        long[] all = LongStream.range(0, graph.nodeCount()).toArray();
+        PageRankResult global = PageRankAlgorithm.of(graph, 0.85).compute(20).result();
+        PageRankResult personalized = PageRankAlgorithm
+                .of(AllocationTracker.EMPTY, graph, 0.85, PageRankSources.of(all))
+                .compute(20)
+                .result();
+        for (int node = 0; node < graph.nodeCount(); node++) {
+            assertEquals(global.score(node), personalized.score(node), 1e-9);
+        }
+    }
+
+    @Test
+    public void testOnlySourcesAndReachableNodesHaveScores() {
+        int a = node("a");
+        PageRankResult result = PageRankAlgorithm
+                .of(AllocationTracker.EMPTY, graph, 0.85, PageRankSources.of(a))
+                .compute(20)
+                .result();
+        for (String unreachable : new String[]{"f", "g", "h"}) {
+            assertEquals(unreachable, 0.0, result.score(node(unreachable)), 0.0);
+        }
+        for (String reachable : new String[]{"a", "b", "c", "d", "e"}) {
+            assertTrue(reachable, result.score(node(reachable)) > 0.0);
+        }
+        assertTrue(result.score(a) > result.score(node("c")));
+    }
+
+    @Test
+    public void testSourceWeights() {
+        PageRankResult result = PageRankAlgorithm
+                .of(AllocationTracker.EMPTY, graph, 0.85, PageRankSources.of(
+                        new long[]{node("g"), node("f")},
+                        new double[]{2.0, 1.0}))
+                .compute(20)
+                .result();
+        // g and f have no incoming relationships and keep their initial score
+        assertEquals(0.3, result.score(node("g")), 1e-9);
+        assertEquals(0.15, result.score(node("f")), 1e-9);
+        assertEquals(0.85 * 0.3, result.score(node("h")), 1e-4);
+    }
+
+    @Test
+    public void testParallelPersonalizedPageRank() {
+        PageRankSources sources = PageRankSources.of(node("a"), node("f"));
+        PageRankResult sequential = PageRankAlgorithm
+                .of(AllocationTracker.EMPTY, graph, 0.85, sources)
+                .compute(20)
+                .result();
+        PageRankResult parallel = PageRankAlgorithm
+                .of(AllocationTracker.EMPTY, graph, 0.85, sources, Pools.DEFAULT, Pools.DEFAULT_CONCURRENCY, 1)
+                .compute(20)
+                .result();
+        for (int node = 0; node < graph.nodeCount(); node++) {
+            assertEquals(sequential.score(node), parallel.score(node), 1e-4);
+        }
+    }
+
+    @Test
+    public void testBatchEqualsSinglePersonalizedPageRank() {
+        List<PageRankSources> sets = Arrays.asList(
+                PageRankSources.of(node("a")),
+                PageRankSources.of(node("d"), node("g")),
+                PageRankSources.of(new long[]{node("f"), node("b")}, new double[]{0.5, 2.0}),
+                PageRankSources.of(node("h")));
+        int topK = 3;
+
+        // two passes
+        PersonalizedPageRankBatch.TopScores[] batch = new PersonalizedPageRankBatch(graph, 0.85, Pools.DEFAULT, Pools.DEFAULT_CONCURRENCY, 3, AllocationTracker.EMPTY)
+                .compute(sets, 20, 0.0, topK);
+
+        assertEquals(sets.size(), batch.length);
+        for (int set = 0; set < sets.size(); set++) {
+            PageRankResult single = PageRankAlgorithm
+                    .of(AllocationTracker.EMPTY, graph, 0.85, sets.get(set))
+                    .compute(20)
+                    .result();
+            long positive = LongStream.range(0, graph.nodeCount())
+                    .filter(node -> single.score(node) > 0.0)
+                    .count();
+            PersonalizedPageRankBatch.TopScores top = batch[set];
+            assertEquals(Math.min(topK, positive), top.nodes.length);
+            for (int i = 0; i < top.nodes.length; i++) {
+                assertEquals(single.score(top.nodes[i]), top.scores[i], 1e-3);
+                if (i > 0) {
+                    assertTrue(top.scores[i - 1] >= top.scores[i]);
+                }
+            }
+            double smallestTopScore = top.scores[top.scores.length - 1];
+            for (int node = 0; node < graph.nodeCount(); node++) {
+                assertTrue(single.score(node) <= smallestTopScore + 1e-3 || contains(top.nodes, node));
+            }
+        }
+    }
+
+    @Test
+    public void testBatchTolerance() {
+        PersonalizedPageRankBatch batch = new PersonalizedPageRankBatch(graph, 0.85, null, 1, 16, AllocationTracker.EMPTY);
+        batch.compute(Arrays.asList(PageRankSources.of(node("a")), PageRankSources.of(node("e"))), 100, 1e-4, 5);
+        assertTrue(batch.iterations() > 1);
+        assertTrue(batch.iterations() < 100);
+    }
+
+    @Test
+    public void testBatchReleasesTrackedMemory() {
+        AllocationTracker tracker = AllocationTracker.create();
+        PersonalizedPageRankBatch batch = new PersonalizedPageRankBatch(graph, 0.85, null, 1, 2, tracker);
+        PersonalizedPageRankBatch.TopScores[] top = batch.compute(
+                Arrays.asList(PageRankSources.of(node("a")), PageRankSources.of(node("g")), PageRankSources.of(node("d"))),
+                20,
+                0.0,
+                2);
+        assertEquals(3, top.length);
+        assertEquals(2, batch.setsPerPass());
+        assertEquals(0L, tracker.tracked());
+    }
+
+    private static boolean contains(long[] nodes, long node) {
+        for (long n : nodes) {
+            if (n == node) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private int node(String name) {
+        try (Transaction tx = db.beginTx()) {
+            long id = db.findNode(Label.label("Node"), "name", name).getId();
+            tx.success();
+            return graph.toMappedNodeId(id);
+        }
+    }
+}
@@ -0,0 +1,184 @@
+package org.neo4j.graphalgo.impl;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.neo4j.graphalgo.TestDatabaseCreator;
+import org.neo4j.graphalgo.api.Graph;
+import org.neo4j.graphalgo.api.GraphFactory;
+import org.neo4j.graphalgo.core.GraphLoader;
+import org.neo4j.graphalgo.core.heavyweight.HeavyGraphFactory;
+import org.neo4j.graphalgo.core.huge.HugeGraphFactory;
+import org.neo4j.graphalgo.core.lightweight.LightGraphFactory;
+import org.neo4j.graphalgo.core.utils.Pools;
+import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
+import org.neo4j.graphdb.Direction;
+import org.neo4j.graphdb.Transaction;
+import org.neo4j.kernel.internal.GraphDatabaseAPI;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.concurrent.ExecutorService;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(Parameterized.class)
+public final class PullPageRankTest {
+
+    private static final String DB_CYPHER = "" +
+            "CREATE (a:Node {name:\"a\"})\n" +
+            "CREATE (b:Node {name:\"b\"})\n" +
+            "CREATE (c:Node {name:\"c\"})\n" +
+            "CREATE (d:Node {name:\"d\"})\n" +
+            "CREATE (e:Node {name:\"e\"})\n" +
+            "CREATE (f:Node {name:\"f\"})\n" +
+            "CREATE (g:Node {name:\"g\"})\n" +
+            "CREATE (h:Node {name:\"h\"})\n" +
+            "CREATE\n" +
+            "  (a)-[:TYPE {weight:1.0}]->(b),\n" +
+            "  (b)-[:TYPE {weight:2.0}]->(c),\n" +
+            "  (c)-[:TYPE {weight:1.0}]->(a),\n" +
+            "  (c)-[:TYPE {weight:4.0}]->(d),\n" +
+            "  (d)-[:TYPE {weight:1.0}]->(e),\n" +
+            "  (e)-[:TYPE {weight:3.0}]->(d),\n" +
+            "  (f)-[:TYPE {weight:1.0}]->(a),\n" +
+            "  (f)-[:TYPE {weight:0.5}]->(e),\n" +
+            "  (f)-[:TYPE {weight:2.0}]->(b),\n" +
+            "  (g)-[:TYPE {weight:1.0}]->(h)";
+
+    private static GraphDatabaseAPI db;
+
+    private final Graph pushGraph;
+    private final Graph pullGraph;
+
+    @Parameterized.Parameters(name = "{1}")
+    public static Collection<Object[]> data() {
+        return Arrays.asList(
+                new Object[]{HeavyGraphFactory.class, "HeavyGraphFactory"},
+                new Object[]{LightGraphFactory.class, "LightGraphFactory"},
+                new Object[]{HugeGraphFactory.class, "HugeGraphFactory"}
+        );
+    }
+
+    @BeforeClass
+    public static void setupGraph() {
+        db = TestDatabaseCreator.createTestDatabase();
+        try (Transaction tx = db.beginTx()) {
+            db.execute(DB_CYPHER).close();
+            tx.success();
+        }
+    }
+
+    @AfterClass
+    public static void shutdownGraph() {
+        if (db != null) db.shutdown();
+    }
+
+    public PullPageRankTest(
+            Class<? extends GraphFactory> graphImpl,
+            String nameIgnoredOnlyForTestName) {
+        pushGraph = loadGraph(graphImpl, Direction.OUTGOING);
+        pullGraph = loadGraph(graphImpl, Direction.BOTH);
+    }
+
+    @Test
+    public void testPullEqualsPush() {
+        assertSameScores(null, false, null);
+    }
+
+    @Test
+    public void testParallelPullEqualsPush() {
+        assertSameScores(null, false, Pools.DEFAULT);
+    }
+
+    @Test
+    public void testPersonalizedPullEqualsPush() {
+        PageRankSources sources = PageRankSources.of(new long[]{0, 5, 5}, new double[]{1.0, 0.5, 2.0});
+        assertSameScores(sources, false, null);
+        assertSameScores(sources, false, Pools.DEFAULT);
+    }
+
+    @Test
+    public void testWeightedPullEqualsPush() {
+        assertSameScores(null, true, null);
+        assertSameScores(null, true, Pools.DEFAULT);
+    }
+
+    @Test
+    public void testTolerance() {
+        PageRankAlgorithm pageRank = PageRankAlgorithm
+                .pull(AllocationTracker.EMPTY, pullGraph, 0.85, null, false, Pools.DEFAULT, Pools.DEFAULT_CONCURRENCY, 1)
+                .compute(100, 1e-3);
+        assertTrue(pageRank.didConverge());
+        assertTrue(pageRank.iterations() < 100);
+
+        PageRankResult converged = PageRankAlgorithm
+                .of(AllocationTracker.EMPTY, pushGraph, 0.85, null, false)
+                .compute(100)
+                .result();
+        for (int node = 0; node < pullGraph.nodeCount(); node++) {
+            assertEquals(converged.score(node), pageRank.result().score(node), 1e-2);
+        }
+    }
+
+    @Test
+    public void testFloatPrecision() {
+        assertFloatPrecision(null, false, null);
+        assertFloatPrecision(null, true, Pools.DEFAULT);
+    }
+
+    private void assertFloatPrecision(PageRankSources sources, boolean weighted, ExecutorService pool) {
+        int iterations = 20;
+        PageRankResult doubles = PageRankAlgorithm
+                .pull(AllocationTracker.EMPTY, pullGraph, 0.85, sources, weighted, false, pool, Pools.DEFAULT_CONCURRENCY, 1)
+                .compute(iterations)
+                .result();
+        PageRankResult floats = PageRankAlgorithm
+                .pull(AllocationTracker.EMPTY, pullGraph, 0.85, sources, weighted, true, pool, Pools.DEFAULT_CONCURRENCY, 1)
+                .compute(iterations)
+                .result();
+        double bound = PullPageRank.floatPrecisionError(iterations);
+        int nodeCount = Math.toIntExact(pullGraph.nodeCount());
+        for (int node = 0; node < nodeCount; node++) {
+            double expected = doubles.score(node);
+            assertEquals("node " + node, expected, floats.score(node), expected * bound);
+        }
+        // only nodes whose scores are closer than the error bound may swap ranks
+        for (int a = 0; a < nodeCount; a++) {
+            for (int b = 0; b < nodeCount; b++) {
+                double x = doubles.score(a);
+                double y = doubles.score(b);
+                if (x - y > (x + y) * bound) {
+                    assertTrue(a + " > " + b, floats.score(a) > floats.score(b));
+                }
+            }
+        }
+    }
+
+    private void assertSameScores(PageRankSources sources, boolean weighted, ExecutorService pool) {
+        PageRankResult push = PageRankAlgorithm
+                .of(AllocationTracker.EMPTY, pushGraph, 0.85, sources, weighted)
+                .compute(20)
+                .result();
+        PageRankResult pull = PageRankAlgorithm
+                .pull(AllocationTracker.EMPTY, pullGraph, 0.85, sources, weighted, pool, Pools.DEFAULT_CONCURRENCY, 1)
+                .compute(20)
+                .result();
+        for (int node = 0; node < pullGraph.nodeCount(); node++) {
+            // the push based implementations round every message to 5 decimals
+            assertEquals("node " + node, push.score(node), pull.score(node), 1e-3);
+        }
+    }
+
+    private static Graph loadGraph(Class<? extends GraphFactory> graphImpl, Direction direction) {
+        return new GraphLoader(db, Pools.DEFAULT)
+                .withLabel("Node")
+                .withRelationshipType("TYPE")
+                .withDirection(direction)
+                .withRelationshipWeightsFromProperty("weight", 1.0)
+                .load(graphImpl);
+    }
+}
@@ -5,17 +5,21 @@ import org.junit.BeforeClass;
 import org.junit.Test;
 import org.neo4j.graphalgo.TestDatabaseCreator;
 import org.neo4j.graphalgo.api.Graph;
+import org.neo4j.graphalgo.api.GraphFactory;
 import org.neo4j.graphalgo.core.GraphLoader;
 import org.neo4j.graphalgo.helper.graphbuilder.DefaultBuilder;
 import org.neo4j.graphalgo.helper.graphbuilder.GraphBuilder;
 import org.neo4j.graphalgo.core.heavyweight.HeavyGraphFactory;
+import org.neo4j.graphalgo.core.huge.HugeGraphFactory;
 import org.neo4j.graphalgo.core.utils.Pools;
 import org.neo4j.graphalgo.core.utils.ProgressTimer;
 import org.neo4j.graphdb.Node;
 import org.neo4j.graphdb.RelationshipType;
+import org.neo4j.graphdb.Transaction;
 import org.neo4j.kernel.internal.GraphDatabaseAPI;
 import org.neo4j.graphalgo.TestDatabaseCreator;
 
+import java.util.Arrays;
 import java.util.concurrent.atomic.AtomicIntegerArray;
 
 import static org.junit.Assert.assertEquals;
@@ -96,6 +100,31 @@ public class TriangleCountTest {
         assertEquals(EXPECTED_COEFFICIENT, algo.getAverageClusteringCoefficient(), 0.001);
     }
 
+    @Test
+    public void testParallelRelationshipsAreCountedOnce() throws Exception {
+        try (Transaction tx = db.beginTx()) {
+            db.execute("CREATE (a:Parallel)-[:PARALLEL]->(b:Parallel)-[:PARALLEL]->(c:Parallel)-[:PARALLEL]->(a), " +
+                    "(a)-[:PARALLEL]->(b), (b)-[:PARALLEL]->(a), (a)-[:PARALLEL]->(c), (c)-[:PARALLEL]->(c)").close();
+            tx.success();
+        }
+        for (Class<? extends GraphFactory> factory : Arrays.asList(HeavyGraphFactory.class, HugeGraphFactory.class)) {
+            final Graph parallel = new GraphLoader(db)
+                    .withLabel("Parallel")
+                    .withRelationshipType("PARALLEL")
+                    .withoutRelationshipWeights()
+                    .withoutNodeWeights()
+                    .load(factory);
+
+            final TriangleCount count = new TriangleCount(parallel, Pools.DEFAULT, 1).compute();
+            assertEquals(1, count.getTriangleCount());
+            for (int node = 0; node < 3; node++) {
+                assertEquals(1, count.getTriangles().get(node));
+            }
+            assertEquals(1, new TriangleCountExp(parallel, Pools.DEFAULT, 1).compute().getTriangleCount());
+            assertEquals(1L, new TriangleStream(parallel, Pools.DEFAULT, 1).resultStream().count());
+        }
+    }
+
     private void assertTriangles(AtomicIntegerArray triangles) {
         final int centerMapped = graph.toMappedNodeId(centerId);
         assertEquals(TRIANGLE_COUNT, triangles.get(centerMapped));
@@ -0,0 +1,161 @@
+package org.neo4j.graphalgo.impl;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.neo4j.graphalgo.TestDatabaseCreator;
+import org.neo4j.graphalgo.api.Graph;
+import org.neo4j.graphalgo.api.GraphFactory;
+import org.neo4j.graphalgo.core.GraphLoader;
+import org.neo4j.graphalgo.core.heavyweight.HeavyGraphFactory;
+import org.neo4j.graphalgo.core.huge.HugeGraphFactory;
+import org.neo4j.graphalgo.core.lightweight.LightGraphFactory;
+import org.neo4j.graphalgo.core.utils.Pools;
+import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
+import org.neo4j.graphdb.Direction;
+import org.neo4j.graphdb.Label;
+import org.neo4j.graphdb.Transaction;
+import org.neo4j.kernel.internal.GraphDatabaseAPI;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+
+@RunWith(Parameterized.class)
+public final class WeightedPageRankTest {
+
+    private static final String DB_CYPHER = "" +
+            "CREATE (a:Node {name:\"a\"})\n" +
+            "CREATE (b:Node {name:\"b\"})\n" +
+            "CREATE (c:Node {name:\"c\"})\n" +
+            "CREATE (d:Node {name:\"d\"})\n" +
+            "CREATE (e:Node {name:\"e\"})\n" +
+            "CREATE\n" +
+            "  (a)-[:TYPE {weight:1.0}]->(b),\n" +
+            "  (a)-[:TYPE {weight:3.0}]->(c),\n" +
+            "  (b)-[:TYPE {weight:1.0}]->(c),\n" +
+            "  (c)-[:TYPE {weight:1.0}]->(a),\n" +
+            "  (d)-[:TYPE {weight:2.0}]->(a),\n" +
+            "  (d)-[:TYPE {weight:1.0}]->(b),\n" +
+            "  (d)-[:TYPE {weight:1.0}]->(e),\n" +
+            "  (e)-[:TYPE {weight:0.0}]->(d)";
+
+    private static GraphDatabaseAPI db;
+
+    private final Class<? extends GraphFactory> graphImpl;
+
+    @Parameterized.Parameters(name = "{1}")
+    public static Collection<Object[]> data() {
+        return Arrays.asList(
+                new Object[]{HeavyGraphFactory.class, "HeavyGraphFactory"},
+                new Object[]{LightGraphFactory.class, "LightGraphFactory"},
+                new Object[]{HugeGraphFactory.class, "HugeGraphFactory"}
+        );
+    }
+
+    @BeforeClass
+    public static void setupGraph() {
+        db = TestDatabaseCreator.createTestDatabase();
+        try (Transaction tx = db.beginTx()) {
+            db.execute(DB_CYPHER).close();
+            tx.success();
+        }
+    }
+
+    @AfterClass
+    public static void shutdownGraph() {
+        if (db != null) db.shutdown();
+    }
+
+    public WeightedPageRankTest(
+            Class<? extends GraphFactory> graphImpl,
+            String nameIgnoredOnlyForTestName) {
+        this.graphImpl = graphImpl;
+    }
+
+    @Test
+    public void testWeightedPageRank() {
+        final Map<String, Double> expected = new HashMap<>();
+        expected.put("a", 1.4968);
+        expected.put("b", 0.4979);
+        expected.put("c", 1.5192);
+        // e only has a relationship of weight 0 and does not pass on its rank
+        expected.put("d", 0.15);
+        expected.put("e", 0.1819);
+
+        final Graph graph = loadGraph("weight", 1.0);
+        final PageRankResult result = PageRankAlgorithm
+                .of(AllocationTracker.EMPTY, graph, 0.85, null, true)
+                .compute(20)
+                .result();
+
+        assertScores(expected, graph, result);
+    }
+
+    @Test
+    public void testParallelWeightedPageRank() {
+        final Graph graph = loadGraph("weight", 1.0);
+        final PageRankResult sequential = PageRankAlgorithm
+                .of(AllocationTracker.EMPTY, graph, 0.85, null, true)
+                .compute(20)
+                .result();
+        final PageRankResult parallel = PageRankAlgorithm
+                .of(AllocationTracker.EMPTY, graph, 0.85, null, true, Pools.DEFAULT, Pools.DEFAULT_CONCURRENCY, 1)
+                .compute(20)
+                .result();
+
+        for (int node = 0; node < graph.nodeCount(); node++) {
+            assertEquals(sequential.score(node), parallel.score(node), 1e-4);
+        }
+    }
+
+    @Test
+    public void testEqualWeightsEqualUnweightedPageRank() {
+        // the property does not exist, every relationship gets the default weight
+        final Graph graph = loadGraph("cost", 2.0);
+        final PageRankResult unweighted = PageRankAlgorithm
+                .of(graph, 0.85)
+                .compute(20)
+                .result();
+        final PageRankResult weighted = PageRankAlgorithm
+                .of(AllocationTracker.EMPTY, graph, 0.85, null, true)
+                .compute(20)
+                .result();
+
+        for (int node = 0; node < graph.nodeCount(); node++) {
+            assertEquals(unweighted.score(node), weighted.score(node), 1e-4);
+        }
+    }
+
+    private Graph loadGraph(String weightProperty, double defaultWeight) {
+        return new GraphLoader(db, Pools.DEFAULT)
+                .withLabel("Node")
+                .withRelationshipType("TYPE")
+                .withDirection(Direction.OUTGOING)
+                .withRelationshipWeightsFromProperty(weightProperty, defaultWeight)
+                .load(graphImpl);
+    }
+
+    private static void assertScores(
+            Map<String, Double> expected,
+            Graph graph,
+            PageRankResult result) {
+        try (Transaction tx = db.beginTx()) {
+            final Label label = Label.label("Node");
+            expected.forEach((name, score) -> {
+                long nodeId = db.findNode(label, "name", name).getId();
+                assertEquals(
+                        "Node#" + name,
+                        score,
+                        result.score(graph.toMappedNodeId(nodeId)),
+                        1e-2);
+            });
+            tx.success();
+        }
+    }
+}